@@ -0,0 +1,40 @@
+package mpi.aida.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks and writes the results as JSON.
+ *
+ * Usage: BenchmarkRunner [RESULT_FILE] [JMH_OPTIONS...]
+ *
+ * RESULT_FILE defaults to target/jmh-result.json. Without JMH options all
+ * benchmarks run, the options can e.g. select benchmarks by regex or
+ * override parameters:
+ *
+ *   BenchmarkRunner out.json GraphBenchmark -p mentionCount=100
+ */
+public class BenchmarkRunner {
+
+  public static final String DEFAULT_RESULT_FILE = "target/jmh-result.json";
+
+  public static void main(String[] args) throws Exception {
+    String resultFile = DEFAULT_RESULT_FILE;
+    String[] jmhArgs = args;
+    if (args.length > 0 && args[0].endsWith(".json")) {
+      resultFile = args[0];
+      jmhArgs = new String[args.length - 1];
+      System.arraycopy(args, 1, jmhArgs, 0, jmhArgs.length);
+    }
+
+    Options options = new OptionsBuilder()
+        .parent(new CommandLineOptions(jmhArgs))
+        .resultFormat(ResultFormatType.JSON)
+        .result(resultFile)
+        .build();
+    new Runner(options).run();
+  }
+}
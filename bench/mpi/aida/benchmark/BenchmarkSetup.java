@@ -0,0 +1,23 @@
+package mpi.aida.benchmark;
+
+import mpi.aida.AidaManager;
+import mpi.aida.config.AidaConfig;
+
+/**
+ * Points AIDA to the in-memory DataAccessForTesting, so that the benchmarks
+ * run without an entity repository.
+ */
+public class BenchmarkSetup {
+
+  private static boolean initialized = false;
+
+  public static synchronized void init() {
+    if (initialized) {
+      return;
+    }
+    AidaConfig.set("dataAccess", "testing");
+    AidaConfig.set(AidaConfig.CACHE_WORD_DATA, "false");
+    AidaManager.init();
+    initialized = true;
+  }
+}
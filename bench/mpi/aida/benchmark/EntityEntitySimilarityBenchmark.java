@@ -0,0 +1,87 @@
+package mpi.aida.benchmark;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import mpi.aida.access.DataAccessForTesting;
+import mpi.aida.data.Entities;
+import mpi.aida.data.Entity;
+import mpi.aida.graph.similarity.EntityEntitySimilarity;
+import mpi.aida.graph.similarity.context.EntitiesContextSettings;
+import mpi.aida.graph.similarity.context.EntitiesContextSettings.EntitiesContextType;
+import mpi.experiment.trace.NullTracer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * KORE and Milne-Witten relatedness of all pairs of the DataAccessForTesting
+ * entities. Both measures load their contexts from the DataAccess, so they
+ * are bound to the fixed testing data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityEntitySimilarityBenchmark {
+
+  /** All testing entities with keyphrases and inlinks. */
+  private static final String[] ENTITIES = new String[] {
+    "Larry_Page", "Jimmy_Page", "Kashmir", "Kashmir_(song)", "Knebworth_Festival" };
+
+  private Entity[] entities;
+
+  private EntityEntitySimilarity kore;
+
+  private EntityEntitySimilarity milneWitten;
+
+  @Setup
+  public void setUp() throws Exception {
+    BenchmarkSetup.init();
+    Entities all = new Entities();
+    entities = new Entity[ENTITIES.length];
+    for (int i = 0; i < ENTITIES.length; ++i) {
+      entities[i] = DataAccessForTesting.getTestEntity(ENTITIES[i]);
+      all.add(entities[i]);
+    }
+
+    EntitiesContextSettings ecs = new EntitiesContextSettings();
+    ecs.setEntityCoherenceKeyphraseAlpha(1.0);
+    ecs.setEntityCoherenceKeywordAlpha(0.0);
+    ecs.setShouldNormalizeWeights(true);
+    ecs.setEntitiesContextType(EntitiesContextType.ENTITY_ENTITY);
+    ecs.setEntityEntityKeyphraseSourceWeights(new HashMap<String, Double>());
+    kore = EntityEntitySimilarity.getKOREEntityEntitySimilarity(all, ecs, new NullTracer());
+    milneWitten = EntityEntitySimilarity.getMilneWittenSimilarity(all, new NullTracer());
+  }
+
+  @Benchmark
+  public double kore() throws Exception {
+    return allPairs(kore);
+  }
+
+  @Benchmark
+  public double milneWitten() throws Exception {
+    return allPairs(milneWitten);
+  }
+
+  private double allPairs(EntityEntitySimilarity similarity) throws Exception {
+    double sum = 0.0;
+    for (int i = 0; i < entities.length; ++i) {
+      for (int j = i + 1; j < entities.length; ++j) {
+        sum += similarity.calcSimilarity(entities[i], entities[j]);
+      }
+    }
+    return sum;
+  }
+}
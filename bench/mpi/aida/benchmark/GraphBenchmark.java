@@ -0,0 +1,70 @@
+package mpi.aida.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import mpi.aida.config.settings.DisambiguationSettings;
+import mpi.aida.config.settings.disambiguation.CocktailPartyDisambiguationSettings;
+import mpi.aida.data.ResultEntity;
+import mpi.aida.data.ResultMention;
+import mpi.aida.graph.Graph;
+import mpi.aida.graph.algorithms.CocktailParty;
+import mpi.experiment.trace.NullTracer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Graph extraction (including the entity-entity coherence) and the graph
+ * algorithm on synthetic graphs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphBenchmark {
+
+  @Param({ "10", "50", "200" })
+  public int mentionCount;
+
+  @Param({ "5", "20" })
+  public int candidatesPerMention;
+
+  private SyntheticGraph syntheticGraph;
+
+  private CocktailParty cocktailParty;
+
+  @Setup
+  public void setUp() throws Exception {
+    BenchmarkSetup.init();
+    syntheticGraph = new SyntheticGraph(mentionCount, candidatesPerMention, 42);
+    DisambiguationSettings settings = new CocktailPartyDisambiguationSettings();
+    settings.setComputeConfidence(false);
+    // The algorithm works on a copy, the graph is reused by all invocations.
+    Graph graph = syntheticGraph.generateGraph();
+    cocktailParty = new CocktailParty(
+        syntheticGraph.getChunk(), graph, settings, new NullTracer());
+  }
+
+  @Benchmark
+  public Graph extractGraph() throws Exception {
+    return syntheticGraph.generateGraph();
+  }
+
+  @Benchmark
+  public Map<ResultMention, List<ResultEntity>> cocktailParty() throws Exception {
+    return cocktailParty.disambiguate();
+  }
+}
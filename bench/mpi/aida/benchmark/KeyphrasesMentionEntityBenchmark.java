@@ -0,0 +1,139 @@
+package mpi.aida.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import mpi.aida.data.Context;
+import mpi.aida.data.Entities;
+import mpi.aida.data.Entity;
+import mpi.aida.data.ExternalEntitiesContext;
+import mpi.aida.data.KBIdentifiedEntity;
+import mpi.aida.data.Mention;
+import mpi.aida.graph.similarity.context.KeyphrasesContext;
+import mpi.aida.graph.similarity.measure.UnnormalizedKeyphrasesBasedIDFSimilarity;
+import mpi.experiment.trace.NullTracer;
+import mpi.tokenizer.data.Tokens;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Keyphrase-based similarity of a mention to all its candidates. The
+ * candidates are external entities whose keyphrases are random combinations
+ * of the DataAccessForTesting keywords, so the keywords have document
+ * frequencies and match the random document.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyphrasesMentionEntityBenchmark {
+
+  private static final String[] KEYWORDS = new String[] {
+    "Google", "played", "Les", "Paul", "tuned", "China", "Jimmy", "Page",
+    "festival", "Led", "Zeppelin", "Robert", "Plant", "Rock", "music" };
+
+  /** Document words that are not part of any keyphrase. */
+  private static final String[] FILLERS = new String[] {
+    "the", "a", "of", "and", "was", "when", "his", "at", "lorem", "ipsum" };
+
+  private static final int MAX_KEYPHRASE_LENGTH = 3;
+
+  @Param({ "5", "20", "50" })
+  public int candidatesPerMention;
+
+  @Param({ "10", "50", "200" })
+  public int keyphrasesPerEntity;
+
+  @Param({ "200", "2000" })
+  public int documentLength;
+
+  private Mention mention;
+
+  private Context context;
+
+  private Entities candidates;
+
+  private KeyphrasesContext keyphrasesContext;
+
+  private UnnormalizedKeyphrasesBasedIDFSimilarity measure;
+
+  @Setup
+  public void setUp() throws Exception {
+    BenchmarkSetup.init();
+    Random random = new Random(42);
+
+    List<String> tokens = new ArrayList<String>(documentLength);
+    tokens.add("Synthetic");
+    for (int i = 1; i < documentLength; ++i) {
+      String[] words = random.nextBoolean() ? KEYWORDS : FILLERS;
+      tokens.add(words[random.nextInt(words.length)]);
+    }
+    context = new Context(new Tokens(tokens));
+
+    List<KBIdentifiedEntity> entities = new ArrayList<KBIdentifiedEntity>();
+    Map<KBIdentifiedEntity, List<String>> entityKeyphrases =
+        new HashMap<KBIdentifiedEntity, List<String>>();
+    for (int i = 0; i < candidatesPerMention; ++i) {
+      KBIdentifiedEntity entity = new KBIdentifiedEntity("Synthetic_" + i, "BENCHMARK");
+      entities.add(entity);
+      Set<String> keyphrases = new HashSet<String>();
+      while (keyphrases.size() < keyphrasesPerEntity) {
+        keyphrases.add(randomKeyphrase(random));
+      }
+      entityKeyphrases.put(entity, new ArrayList<String>(keyphrases));
+    }
+    Map<String, List<KBIdentifiedEntity>> dictionary =
+        new HashMap<String, List<KBIdentifiedEntity>>();
+    dictionary.put("Synthetic", entities);
+    ExternalEntitiesContext externalContext =
+        new ExternalEntitiesContext(dictionary, entityKeyphrases);
+
+    mention = new Mention("Synthetic", 0, 0, 0, 0, 0);
+    candidates = externalContext.getDictionary().getEntities(mention);
+    keyphrasesContext = new KeyphrasesContext(candidates, externalContext, null);
+    measure = new UnnormalizedKeyphrasesBasedIDFSimilarity(new NullTracer());
+  }
+
+  /**
+   * Random keyphrase, the number of distinct keyphrases of this length
+   * grows quickly enough for the largest keyphrasesPerEntity.
+   */
+  private String randomKeyphrase(Random random) {
+    int length = 1 + random.nextInt(MAX_KEYPHRASE_LENGTH);
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < length; ++i) {
+      if (i > 0) {
+        sb.append(' ');
+      }
+      sb.append(KEYWORDS[random.nextInt(KEYWORDS.length)]);
+    }
+    return sb.toString();
+  }
+
+  @Benchmark
+  public double calcSimilarity() {
+    double sum = 0.0;
+    for (Entity entity : candidates) {
+      sum += measure.calcSimilarity(mention, context, entity, keyphrasesContext);
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,86 @@
+package mpi.aida.benchmark;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import mpi.lsh.LSH;
+import mpi.lsh.LSHStringNgramFeatureExtractor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Fuzzy name lookup with the LSH parameters of the EntityLookup, on random
+ * names with single-character typos as queries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LshBenchmark {
+
+  private static final int QUERY_COUNT = 1000;
+
+  @Param({ "10000", "100000" })
+  public int dictionarySize;
+
+  private LSH<String> lsh;
+
+  private String[] queries;
+
+  private int nextQuery = 0;
+
+  @Setup
+  public void setUp() throws InterruptedException {
+    Random random = new Random(42);
+    Set<String> names = new HashSet<String>();
+    while (names.size() < dictionarySize) {
+      names.add(randomName(random));
+    }
+    lsh = LSH.createLSH(names, new LSHStringNgramFeatureExtractor(), 4, 6, 1);
+
+    String[] allNames = names.toArray(new String[names.size()]);
+    queries = new String[QUERY_COUNT];
+    for (int i = 0; i < queries.length; ++i) {
+      char[] name = allNames[random.nextInt(allNames.length)].toCharArray();
+      name[random.nextInt(name.length)] = (char) ('a' + random.nextInt(26));
+      queries[i] = new String(name);
+    }
+  }
+
+  private String randomName(Random random) {
+    StringBuilder sb = new StringBuilder();
+    int words = 1 + random.nextInt(3);
+    for (int w = 0; w < words; ++w) {
+      if (w > 0) {
+        sb.append(' ');
+      }
+      sb.append((char) ('A' + random.nextInt(26)));
+      int length = 3 + random.nextInt(7);
+      for (int i = 0; i < length; ++i) {
+        sb.append((char) ('a' + random.nextInt(26)));
+      }
+    }
+    return sb.toString();
+  }
+
+  @Benchmark
+  public Set<String> getSimilarItems() {
+    String query = queries[nextQuery];
+    nextQuery = (nextQuery + 1) % queries.length;
+    return lsh.getSimilarItemsForFeature(query);
+  }
+}
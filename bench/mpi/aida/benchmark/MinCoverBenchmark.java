@@ -0,0 +1,73 @@
+package mpi.aida.benchmark;
+
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import mpi.aida.util.MinCover;
+import mpi.aida.util.MinCoverCalculator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Minimal cover of the keywords of a keyphrase in a document, with random
+ * keyword positions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MinCoverBenchmark {
+
+  @Param({ "2", "4", "8" })
+  public int keywordsPerKeyphrase;
+
+  @Param({ "1", "10", "100" })
+  public int occurrencesPerKeyword;
+
+  @Param({ "1000", "10000" })
+  public int documentLength;
+
+  private MinCoverCalculator calculator;
+
+  private int[][] positions;
+
+  private MinCover minCover;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    calculator = new MinCoverCalculator();
+    minCover = new MinCover();
+    positions = new int[keywordsPerKeyphrase][];
+    for (int i = 0; i < keywordsPerKeyphrase; ++i) {
+      TreeSet<Integer> keywordPositions = new TreeSet<Integer>();
+      while (keywordPositions.size() < occurrencesPerKeyword) {
+        keywordPositions.add(random.nextInt(documentLength));
+      }
+      positions[i] = new int[occurrencesPerKeyword];
+      int j = 0;
+      for (int position : keywordPositions) {
+        positions[i][j++] = position;
+      }
+    }
+  }
+
+  @Benchmark
+  public MinCover calculateMinCover() {
+    calculator.calculateMinCover(positions, keywordsPerKeyphrase, minCover);
+    return minCover;
+  }
+}
@@ -0,0 +1,141 @@
+package mpi.aida.benchmark;
+
+import gnu.trove.map.hash.TIntObjectHashMap;
+import gnu.trove.set.hash.TIntHashSet;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import mpi.aida.access.DataAccess;
+import mpi.aida.data.Entities;
+import mpi.aida.data.Entity;
+import mpi.aida.data.Mention;
+import mpi.aida.data.Mentions;
+import mpi.aida.data.PreparedInputChunk;
+import mpi.aida.graph.Graph;
+import mpi.aida.graph.extraction.ExtractGraph;
+import mpi.aida.graph.similarity.EnsembleEntityEntitySimilarity;
+import mpi.aida.graph.similarity.util.SimilaritySettings;
+import mpi.aida.util.SortedIntArrays;
+import mpi.experiment.trace.NullTracer;
+
+/**
+ * A document with random mentions and candidate entities. Entity ids start
+ * after the ones of DataAccessForTesting. Entities share candidates between
+ * mentions and belong to topics, entities of the same topic have
+ * overlapping inlinks and are therefore related.
+ */
+public class SyntheticGraph {
+
+  private static final int TOPIC_COUNT = 20;
+
+  private static final int TOPIC_INLINK_RANGE = 2000;
+
+  private static final int MIN_INLINKS = 20;
+
+  private static final int MAX_INLINKS = 200;
+
+  public static final double ALPHA = 0.6;
+
+  private Mentions mentions;
+
+  private double[][] mentionEntitySimilarities;
+
+  private Entities entities;
+
+  private TIntObjectHashMap<int[]> entityInlinks;
+
+  public SyntheticGraph(int mentionCount, int candidatesPerMention, long seed) {
+    Random random = new Random(seed);
+    int firstEntityId = DataAccess.getMaximumEntityId() + 1;
+    int entityCount = Math.max(candidatesPerMention, mentionCount * candidatesPerMention / 2);
+
+    entityInlinks = new TIntObjectHashMap<int[]>();
+    for (int i = 0; i < entityCount; ++i) {
+      int topicStart = (i % TOPIC_COUNT) * TOPIC_INLINK_RANGE / 2;
+      int[] inlinks = new int[MIN_INLINKS + random.nextInt(MAX_INLINKS - MIN_INLINKS)];
+      for (int j = 0; j < inlinks.length; ++j) {
+        inlinks[j] = topicStart + random.nextInt(TOPIC_INLINK_RANGE);
+      }
+      entityInlinks.put(firstEntityId + i, SortedIntArrays.sortedUnique(inlinks));
+    }
+
+    mentions = new Mentions();
+    mentionEntitySimilarities = new double[mentionCount][candidatesPerMention];
+    for (int i = 0; i < mentionCount; ++i) {
+      Mention mention = new Mention("Mention" + i, i, i, i, i, 0);
+      mention.setId(i);
+      mention.setCharOffset(i * 10);
+      mention.setCharLength(8);
+      TIntHashSet chosen = new TIntHashSet();
+      Entities candidates = new Entities();
+      for (int j = 0; j < candidatesPerMention; ++j) {
+        int id;
+        do {
+          id = firstEntityId + random.nextInt(entityCount);
+        } while (!chosen.add(id));
+        candidates.add(new Entity("Synthetic_" + id, "BENCHMARK", id));
+        mentionEntitySimilarities[i][j] = random.nextDouble();
+      }
+      mention.setCandidateEntities(candidates);
+      mentions.addMention(mention);
+    }
+    entities = mentions.getAllCandidateEntities();
+  }
+
+  public Mentions getMentions() {
+    return mentions;
+  }
+
+  public Entities getEntities() {
+    return entities;
+  }
+
+  public PreparedInputChunk getChunk() {
+    PreparedInputChunk chunk = new PreparedInputChunk("synthetic");
+    chunk.setMentions(mentions);
+    return chunk;
+  }
+
+  /**
+   * Builds the graph with the inlink overlap as coherence. The graph
+   * extraction rescales the mention-entity similarities in place, they are
+   * reset before each run.
+   */
+  public Graph generateGraph() throws Exception {
+    for (int i = 0; i < mentions.getMentions().size(); ++i) {
+      int j = 0;
+      for (Entity candidate : mentions.getMentions().get(i).getCandidateEntities()) {
+        candidate.setMentionEntitySimilarity(mentionEntitySimilarities[i][j++]);
+      }
+    }
+    EnsembleEntityEntitySimilarity eeSim =
+        new InlinkOverlapSimilarity(entities, entityInlinks);
+    return new ExtractGraph("synthetic", mentions, entities, eeSim, ALPHA).generateGraph();
+  }
+
+  /**
+   * Overlap of the inlinks relative to the smaller inlink set.
+   */
+  private static class InlinkOverlapSimilarity extends EnsembleEntityEntitySimilarity {
+
+    private TIntObjectHashMap<int[]> entityInlinks;
+
+    public InlinkOverlapSimilarity(Entities entities, TIntObjectHashMap<int[]> entityInlinks)
+        throws Exception {
+      super(entities,
+          new SimilaritySettings(null, new ArrayList<String[]>(), 0.0),
+          new NullTracer());
+      this.entityInlinks = entityInlinks;
+    }
+
+    @Override
+    public double calcSimilarity(Entity a, Entity b) {
+      int[] inlinksA = entityInlinks.get(a.getId());
+      int[] inlinksB = entityInlinks.get(b.getId());
+      int smaller = Math.min(inlinksA.length, inlinksB.length);
+      int overlap = SortedIntArrays.intersect(inlinksA, inlinksB, new int[smaller]);
+      return (double) overlap / smaller;
+    }
+  }
+}
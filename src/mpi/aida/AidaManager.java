@@ -12,6 +12,8 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.sql.DataSource;
 
@@ -268,6 +270,44 @@ public class AidaManager {
     TokenizerManager.init();
   }
 
+  /**
+   * @return Shared pool for disambiguating document chunks. Tasks are run in
+   * submission order across all documents.
+   */
+  public static ExecutorService getChunkExecutor() {
+    return ExecutionPools.getChunkExecutor();
+  }
+
+  /**
+   * @return Shared pool running the NER taggers of all documents.
+   */
+  public static ExecutorService getNerExecutor() {
+    return ExecutionPools.getNerExecutor();
+  }
+
+  /**
+   * @return Shared work-stealing pool for entity-entity similarities.
+   */
+  public static ForkJoinPool getEntityEntityPool() {
+    return ExecutionPools.getEntityEntityPool();
+  }
+
+  /**
+   * @return Shared work-stealing pool for mention-entity similarities and
+   * mention matching.
+   */
+  public static ForkJoinPool getMentionEntityPool() {
+    return ExecutionPools.getMentionEntityPool();
+  }
+
+  /**
+   * @return Queue depth, active threads and progress counters of all shared
+   * pools that are in use.
+   */
+  public static Map<String, Long> getExecutorStatistics() {
+    return ExecutionPools.getStatistics();
+  }
+
   /**
    * Uppercases a token of more than 4 characters. This is
    * used as pre-processing method during name recognition
@@ -0,0 +1,127 @@
+package mpi.aida;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import mpi.aida.config.settings.DisambiguationSettings;
+import mpi.aida.data.DisambiguationResults;
+import mpi.aida.data.Entities;
+import mpi.aida.data.ExternalEntitiesContext;
+import mpi.aida.data.Mention;
+import mpi.aida.data.PreparedInput;
+import mpi.aida.data.PreparedInputChunk;
+import mpi.aida.data.SharedKeyphrases;
+import mpi.aida.util.timing.RunningTimer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Disambiguates several documents together. The candidate entities of all
+ * documents are looked up first, then the keyphrases of their union are
+ * fetched once (see {@link SharedKeyphrases}) and shared by the documents,
+ * which are disambiguated in parallel. Related documents, e.g. the articles
+ * of a news feed, have many candidates in common, so this saves most of the
+ * per-document entity context fetches.
+ */
+public class BatchDisambiguator {
+  private static final Logger logger =
+      LoggerFactory.getLogger(BatchDisambiguator.class);
+
+  private final List<PreparedInput> inputs_;
+
+  private final DisambiguationSettings settings_;
+
+  private final int threadCount_;
+
+  /**
+   * @param inputs Documents to disambiguate.
+   * @param settings Settings used for all documents.
+   * @param threadCount Number of documents processed in parallel. Chunks of
+   * the documents still run on the shared chunk executor.
+   */
+  public BatchDisambiguator(List<PreparedInput> inputs,
+      DisambiguationSettings settings, int threadCount) {
+    inputs_ = inputs;
+    settings_ = settings;
+    threadCount_ = threadCount;
+  }
+
+  /**
+   * @return Results in the order of the inputs.
+   */
+  public List<DisambiguationResults> disambiguate() throws Exception {
+    if (inputs_.isEmpty()) {
+      return new ArrayList<DisambiguationResults>();
+    }
+    Integer runningId = RunningTimer.recordStartTime("BatchDisambiguator");
+    List<ExternalEntitiesContext> contexts = new ArrayList<ExternalEntitiesContext>(inputs_.size());
+    List<Disambiguator> disambiguators = new ArrayList<Disambiguator>(inputs_.size());
+    for (PreparedInput input : inputs_) {
+      ExternalEntitiesContext eec = new ExternalEntitiesContext();
+      contexts.add(eec);
+      disambiguators.add(new Disambiguator(input, settings_, eec));
+    }
+    // Documents run on their own pool, so that their chunks are still spread
+    // over the shared chunk pool. Documents on the chunk pool would run their
+    // chunks one after the other on their own thread.
+    ExecutorService es = Executors.newFixedThreadPool(
+        Math.max(1, Math.min(threadCount_, inputs_.size())));
+    try {
+      List<Callable<Void>> lookups = new ArrayList<Callable<Void>>(disambiguators.size());
+      for (final Disambiguator disambiguator : disambiguators) {
+        lookups.add(() -> {
+          disambiguator.lookupCandidateEntities();
+          return null;
+        });
+      }
+      for (Future<Void> f : es.invokeAll(lookups)) {
+        f.get();
+      }
+
+      SharedKeyphrases sharedKeyphrases = new SharedKeyphrases(getAllCandidates(inputs_));
+      logger.debug("Sharing the keyphrases of " + sharedKeyphrases.getEntities().size() +
+          " entities between " + inputs_.size() + " documents.");
+      for (ExternalEntitiesContext eec : contexts) {
+        eec.setSharedKeyphrases(sharedKeyphrases);
+      }
+
+      List<Future<DisambiguationResults>> futures =
+          new ArrayList<Future<DisambiguationResults>>(disambiguators.size());
+      for (final Disambiguator disambiguator : disambiguators) {
+        futures.add(es.submit(() -> disambiguator.disambiguate()));
+      }
+      List<DisambiguationResults> results =
+          new ArrayList<DisambiguationResults>(futures.size());
+      for (Future<DisambiguationResults> f : futures) {
+        results.add(f.get());
+      }
+      return results;
+    } finally {
+      es.shutdownNow();
+      RunningTimer.recordEndTime("BatchDisambiguator", runningId);
+    }
+  }
+
+  /**
+   * @return Union of the candidate entities of all mentions, after the
+   * candidates have been looked up.
+   */
+  static Entities getAllCandidates(List<PreparedInput> inputs) {
+    Entities candidates = new Entities();
+    for (PreparedInput input : inputs) {
+      for (PreparedInputChunk chunk : input) {
+        for (Mention mention : chunk.getMentions().getMentions()) {
+          if (mention.getCandidateEntities() != null) {
+            candidates.addAll(mention.getCandidateEntities());
+          }
+        }
+      }
+    }
+    return candidates;
+  }
+}
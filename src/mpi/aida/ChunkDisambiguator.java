@@ -1,5 +1,7 @@
 package mpi.aida;
 
+import java.io.IOException;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -49,6 +51,8 @@ public class ChunkDisambiguator implements Callable<ChunkDisambiguationResults>
 
   private final EntityLookupManager entityLookupMgr = EntityLookupManager.singleton();
 
+  private boolean candidatesLookedUp_ = false;
+
   public ChunkDisambiguator(PreparedInputChunk input, 
       ExternalEntitiesContext eec, DisambiguationSettings settings,
       Tracer tracer) {
@@ -58,8 +62,11 @@ public class ChunkDisambiguator implements Callable<ChunkDisambiguationResults>
     this.tracer_ = tracer;
   }
 
-  public ChunkDisambiguationResults disambiguate() throws Exception {
-    Integer timerId = RunningTimer.recordStartTime("ChunkDisambiguator");
+  /**
+   * Retrieves the candidate entities of the chunk's mentions. Done by
+   * disambiguate() unless it was called before.
+   */
+  public void lookupCandidateEntities() throws SQLException, IOException {
     entityLookupMgr.fillInCandidateEntities(input_.getMentions(),
         externalContext_.getDictionary(),
         settings_.isIncludeNullAsEntityCandidate(),
@@ -67,47 +74,57 @@ public class ChunkDisambiguator implements Callable<ChunkDisambiguationResults>
         settings_.getMaxEntityRank(),
         settings_.getMaxCandidatesPerEntityByPrior(),
         settings_.isMentionLookupPrefix());
+    candidatesLookedUp_ = true;
+  }
 
+  public ChunkDisambiguationResults disambiguate() throws Exception {
+    Integer timerId = RunningTimer.recordStartTime("ChunkDisambiguator");
     Map<ResultMention, List<ResultEntity>> mentionMappings = null;
+    try {
+      if (!candidatesLookedUp_) {
+        lookupCandidateEntities();
+      }
 
-    DisambiguationAlgorithm da = null;
-    switch (settings_.getDisambiguationTechnique()) {
-      case LOCAL:
-        da = new LocalDisambiguation(input_, externalContext_, settings_, tracer_);
-        break;
-        // TODO outdated, adjust.
-        //      case LOCAL_ITERATIVE:
-        //        mentionMappings = runLocalDisambiguationIterative(input, settings, tracer);
-        //        break;
-      case GRAPH:
-        switch(settings_.getDisambiguationAlgorithm()) {
-          case COCKTAIL_PARTY:
-            da = new CocktailParty(input_, settings_, tracer_);
-            break;
-          case COCKTAIL_PARTY_SIZE_CONSTRAINED:
-            da = new CocktailPartySizeConstrained(input_, settings_, tracer_);
-            break;
-          case SIMPLE_GREEDY:
-            da = new SimpleGreedy(input_, settings_, tracer_);
-            break;
-            //          case RANDOM_WALK:
-            //            da = new RandomWalk(input_, settings_, tracer_);
-            //            break;
-          default:
-            logger_.warn("Unsupported graph algorithm.");
-            // TODO(fkeller): shouldn't there be a return instead of a break?
-            break;
-        }
-        break;
-        // TODO outdated, adjust.
-        //      case CHAKRABARTI:
-        //        mentionMappings = runChakrabartiDisambiguation(input, settings);
-      default:
-        // TODO(fkeller): shouldn't there be a return instead of a break?
-        break;
+      DisambiguationAlgorithm da = null;
+      switch (settings_.getDisambiguationTechnique()) {
+        case LOCAL:
+          da = new LocalDisambiguation(input_, externalContext_, settings_, tracer_);
+          break;
+          // TODO outdated, adjust.
+          //      case LOCAL_ITERATIVE:
+          //        mentionMappings = runLocalDisambiguationIterative(input, settings, tracer);
+          //        break;
+        case GRAPH:
+          switch(settings_.getDisambiguationAlgorithm()) {
+            case COCKTAIL_PARTY:
+              da = new CocktailParty(input_, settings_, tracer_);
+              break;
+            case COCKTAIL_PARTY_SIZE_CONSTRAINED:
+              da = new CocktailPartySizeConstrained(input_, settings_, tracer_);
+              break;
+            case SIMPLE_GREEDY:
+              da = new SimpleGreedy(input_, settings_, tracer_);
+              break;
+              //          case RANDOM_WALK:
+              //            da = new RandomWalk(input_, settings_, tracer_);
+              //            break;
+            default:
+              logger_.warn("Unsupported graph algorithm.");
+              // TODO(fkeller): shouldn't there be a return instead of a break?
+              break;
+          }
+          break;
+          // TODO outdated, adjust.
+          //      case CHAKRABARTI:
+          //        mentionMappings = runChakrabartiDisambiguation(input, settings);
+        default:
+          // TODO(fkeller): shouldn't there be a return instead of a break?
+          break;
+      }
+      mentionMappings = da.disambiguate();
+    } finally {
+      RunningTimer.recordEndTime("ChunkDisambiguator", timerId);
     }
-    mentionMappings = da.disambiguate();
-    RunningTimer.recordEndTime("ChunkDisambiguator", timerId);
 
     if (mentionMappings == null) {
       mentionMappings = new HashMap<ResultMention, List<ResultEntity>>();
@@ -22,6 +22,7 @@ import org.json.simple.JSONObject;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.text.SimpleDateFormat;
 import java.util.*;
@@ -37,6 +38,9 @@ import java.util.stream.Collectors;
  */
 public class CommandLineDisambiguator {
 
+  private static final String[] TECHNIQUES = new String[] {
+      "PRIOR", "LOCAL", "FAST-LOCAL", "LOCAL-IDF", "GRAPH", "GRAPH-IDF", "GRAPH-KORE", "COLLECTION" };
+
   private Options commandLineOptions;
 
   private Set<OutputFormat> outputFormats;
@@ -67,6 +71,11 @@ public class CommandLineDisambiguator {
     if (cmd.hasOption("t")) {
       disambiguationTechniqueSetting = cmd.getOptionValue("t");
     }
+    // Checked here, the settings are created by the document workers.
+    if (!Arrays.asList(TECHNIQUES).contains(disambiguationTechniqueSetting)) {
+      System.err.println(getTechniquesMessage());
+      System.exit(2);
+    }
 
     // Default to HTML.
     outputFormats = new HashSet<>();
@@ -237,7 +246,28 @@ public class CommandLineDisambiguator {
       docDelim = cmd.getOptionValue("multidoc");
     }
 
-    ExecutorService es = Executors.newFixedThreadPool(threadCount);
+    boolean tsvDocs = cmd.hasOption("tsvdocs");
+    int[] stageWorkerCounts = null;
+    if (cmd.hasOption("pipeline")) {
+      String[] counts = cmd.getOptionValue("pipeline").split(",");
+      if (counts.length != 4) {
+        System.out.println("\n\nError: expected 4 worker counts for -pipeline.");
+        printHelp(commandLineOptions);
+      }
+      stageWorkerCounts = new int[counts.length];
+      for (int i = 0; i < counts.length; ++i) {
+        stageWorkerCounts[i] = Integer.parseInt(counts[i].trim());
+      }
+    } else if (tsvDocs) {
+      System.out.println("\n\nError: -tsvdocs requires -pipeline.");
+      printHelp(commandLineOptions);
+    }
+
+    int queueSize = 100;
+    if (cmd.hasOption("queuesize")) {
+      queueSize = Integer.parseInt(cmd.getOptionValue("queuesize"));
+    }
+
     Preparator p = new Preparator();
 
     if (runDummyDoc) {
@@ -252,6 +282,37 @@ public class CommandLineDisambiguator {
       RunningTimer.clear();
     }
 
+    if (stageWorkerCounts != null) {
+      if (isTimed) {
+        RunningTimer.enableRealTimeTracker();
+      }
+      System.out.println("Processing " + files.size() + " files in a pipeline with " +
+          Arrays.toString(stageWorkerCounts) + " prepare, lookup, disambiguate " +
+          "and serialize workers, ignoring documents with existing output.");
+      CorpusPipeline pipeline = new CorpusPipeline(p, prepSettings,
+          disambiguationTechniqueSetting, threshold, chunkThreadCount, outputFormats,
+          JSONTYPE.valueOf(jsonFormat), resultCount);
+      pipeline.setWorkerCounts(stageWorkerCounts);
+      pipeline.setQueueSize(queueSize);
+      if (multiDoc) {
+        pipeline.enableMultiDocsPerFile(docDelim);
+      }
+      if (tsvDocs) {
+        pipeline.enableTsvDocuments();
+      }
+      Map<String, Long> stats = pipeline.run(files);
+      for (Entry<String, Long> e : stats.entrySet()) {
+        System.out.println(e.getKey() + "\t" + e.getValue());
+      }
+      if (isTimed) {
+        System.out.println(RunningTimer.getDetailedOverview());
+      }
+      writeOverviews(writeTimingInfo, timingDir, isVerbose);
+      return;
+    }
+
+    ExecutorService es = Executors.newFixedThreadPool(threadCount);
+
     System.out.println("Processing " + files.size() + " documents with " +
         threadCount + " threads, ignoring existing .html and .json files.");
 
@@ -271,15 +332,20 @@ public class CommandLineDisambiguator {
     es.shutdown();
     es.awaitTermination(1, TimeUnit.DAYS);
     if (es.isTerminated()) {
-      if (writeTimingInfo) {
-        String content = RunningTimer.getDetailedOverview();
-        FileUtils.writeFileContent(new File(timingDir + File.separator + "overall_timing_" + new SimpleDateFormat("yyyy_MM_dd_hh_mm_ss'.txt'").format(new Date())), content);
-        content = RunningTimer.getTrackedDocumentTime();
-        FileUtils.writeFileContent(new File(timingDir + File.separator + "document_timing_" + new SimpleDateFormat("yyyy_MM_dd_hh_mm_ss'.txt'").format(new Date())), content);
-      }
-      if (isVerbose) {
-        System.out.println(Counter.getOverview());
-      }
+      writeOverviews(writeTimingInfo, timingDir, isVerbose);
+    }
+  }
+
+  private void writeOverviews(boolean writeTimingInfo, String timingDir,
+      boolean isVerbose) throws IOException {
+    if (writeTimingInfo) {
+      String content = RunningTimer.getDetailedOverview();
+      FileUtils.writeFileContent(new File(timingDir + File.separator + "overall_timing_" + new SimpleDateFormat("yyyy_MM_dd_hh_mm_ss'.txt'").format(new Date())), content);
+      content = RunningTimer.getTrackedDocumentTime();
+      FileUtils.writeFileContent(new File(timingDir + File.separator + "document_timing_" + new SimpleDateFormat("yyyy_MM_dd_hh_mm_ss'.txt'").format(new Date())), content);
+    }
+    if (isVerbose) {
+      System.out.println(Counter.getOverview());
     }
   }
 
@@ -301,6 +367,46 @@ public class CommandLineDisambiguator {
     }
   }
 
+  private static String getTechniquesMessage() {
+    return "disambiguation-technique can be either: "
+        + "'PRIOR', 'LOCAL', 'FAST-LOCAL', 'LOCAL-IDF', 'GRAPH', 'GRAPH-IDF', 'GRAPH-KORE', or 'COLLECTION'";
+  }
+
+  /**
+   * @return Settings for the technique given on the command line.
+   * @throws IllegalArgumentException If the technique is unknown.
+   */
+  static DisambiguationSettings createDisambiguationSettings(
+      String technique, double threshold, int numChunkThreads) throws Exception {
+    DisambiguationSettings disSettings = null;
+    if (technique.equals("PRIOR")) {
+      disSettings = new PriorOnlyDisambiguationSettings();
+    } else if (technique.equals("LOCAL")) {
+      disSettings = new LocalKeyphraseBasedDisambiguationWithNullSettings();
+    } else if (technique.equals("FAST-LOCAL")) {
+      disSettings = new FastLocalKeyphraseBasedDisambiguationWithNullSettings();
+    } else if (technique.equals("COLLECTION")) {
+      disSettings = new CocktailPartyWithHeuristicsDisambiguationWithNullSettings();
+    } else if (technique.equals("LOCAL-IDF")) {
+      disSettings = new LocalKeyphraseIDFBasedDisambiguationWithNullSettings();
+    } else if (technique.equals("GRAPH")) {
+      disSettings = new CocktailPartyDisambiguationWithNullSettings();
+    } else if (technique.equals("GRAPH-IDF")) {
+      disSettings = new CocktailPartyKOREIDFDisambiguationWithNullSettings();
+    } else if (technique.equals("GRAPH-KORE")) {
+      disSettings = new CocktailPartyKOREDisambiguationWithNullSettings();
+    } else {
+      throw new IllegalArgumentException(getTechniquesMessage());
+    }
+
+    if (threshold > 0.0) {
+      disSettings.setNullMappingThreshold(threshold);
+    }
+
+    disSettings.setNumChunkThreads(numChunkThreads);
+    return disSettings;
+  }
+
   @SuppressWarnings("static-access")
   private Options buildCommandLineOptions() throws ParseException {
     Options options = new Options();
@@ -479,6 +585,31 @@ public class CommandLineDisambiguator {
         .hasArg()
         .withArgName("DOC-DELIM")        
         .create("multidoc"));
+    options
+    .addOption(OptionBuilder
+        .withLongOpt("pipeline")
+        .withDescription("If set, processes the documents in a staged pipeline "
+            + "(read, prepare, lookup, disambiguate, serialize) with the given "
+            + "comma-separated numbers of prepare, lookup, disambiguate and "
+            + "serialize workers, e.g. 2,2,4,1. Streams multi-document files "
+            + "and writes one output per document.")
+        .hasArg()
+        .withArgName("COUNTS")
+        .create("pipeline"));
+    options
+    .addOption(OptionBuilder
+        .withLongOpt("queuesize")
+        .withDescription("Maximum number of documents waiting for each pipeline stage. Default is 100.")
+        .hasArg()
+        .withArgName("SIZE")
+        .create("queuesize"));
+    options
+    .addOption(OptionBuilder
+        .withLongOpt("tsvdocs")
+        .withDescription("Read the input files as TSV of document id and a line "
+            + "of text, consecutive lines with the same id form one document. "
+            + "Requires -pipeline.")
+        .create("tsvdocs"));
     options.addOption(OptionBuilder.withLongOpt("help").create('h'));
     return options;
   }
@@ -587,34 +718,8 @@ public class CommandLineDisambiguator {
           try {
             input = p.prepare(inputFile, text, prepSettings, new ExternalEntitiesContext());
             inputs.put(input.getDocId(), input);
-            DisambiguationSettings disSettings = null;
-            if (disambiguationTechniqueSetting.equals("PRIOR")) {
-              disSettings = new PriorOnlyDisambiguationSettings();
-            } else if (disambiguationTechniqueSetting.equals("LOCAL")) {
-              disSettings = new LocalKeyphraseBasedDisambiguationWithNullSettings();
-            } else if (disambiguationTechniqueSetting.equals("FAST-LOCAL")) {
-              disSettings = new FastLocalKeyphraseBasedDisambiguationWithNullSettings();
-            } else if (disambiguationTechniqueSetting.equals("COLLECTION")) {
-              disSettings = new CocktailPartyWithHeuristicsDisambiguationWithNullSettings();
-            } else if (disambiguationTechniqueSetting.equals("LOCAL-IDF")) {
-              disSettings = new LocalKeyphraseIDFBasedDisambiguationWithNullSettings();
-            } else if (disambiguationTechniqueSetting.equals("GRAPH")) {
-              disSettings = new CocktailPartyDisambiguationWithNullSettings();
-            } else if (disambiguationTechniqueSetting.equals("GRAPH-IDF")) {
-              disSettings = new CocktailPartyKOREIDFDisambiguationWithNullSettings();
-            } else if (disambiguationTechniqueSetting.equals("GRAPH-KORE")) {
-              disSettings = new CocktailPartyKOREDisambiguationWithNullSettings();
-            } else {
-              System.err.println("disambiguation-technique can be either: "
-                  + "'PRIOR', 'LOCAL', 'FAST-LOCAL', 'LOCAL-IDF', 'GRAPH', 'GRAPH-IDF', 'GRAPH-KORE', or 'COLLECTION'");
-              System.exit(2);
-            }
-
-            if (threshold > 0.0) {
-              disSettings.setNullMappingThreshold(threshold);
-            }
-
-            disSettings.setNumChunkThreads(numChunkThread);
+            DisambiguationSettings disSettings = createDisambiguationSettings(
+                disambiguationTechniqueSetting, threshold, numChunkThread);
             Disambiguator d = new Disambiguator(input, disSettings);
             DisambiguationResults results = d.disambiguate();
             disambiguationResults.put(input.getDocId(), results);
@@ -0,0 +1,331 @@
+package mpi.aida;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import mpi.aida.CommandLineDisambiguator.OutputFormat;
+import mpi.aida.config.settings.JsonSettings.JSONTYPE;
+import mpi.aida.config.settings.PreparationSettings;
+import mpi.aida.data.DisambiguationResults;
+import mpi.aida.data.ExternalEntitiesContext;
+import mpi.aida.data.PreparedInput;
+import mpi.aida.data.ResultProcessor;
+import mpi.aida.preparator.Preparator;
+import mpi.aida.util.filereading.TsvChunks;
+import mpi.aida.util.htmloutput.HtmlGenerator;
+import mpi.aida.util.pipeline.Pipeline;
+import mpi.aida.util.pipeline.StageProcessor;
+import mpi.aida.util.splitter.DelimBasedTextIterator;
+import mpi.tools.javatools.datatypes.Pair;
+import mpi.tools.javatools.util.FileUtils;
+
+import org.json.simple.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Disambiguates a corpus in a staged pipeline: read, prepare (tokenization
+ * and NER), candidate lookup, disambiguation and serialization overlap
+ * across documents. Each stage has its own number of workers.
+ *
+ * Input files are streamed document by document, so files with many
+ * documents (separated by a delimiter, or as TSV of document id and text)
+ * are never loaded as a whole. Documents whose output exists are skipped,
+ * which allows to resume an interrupted run.
+ */
+class CorpusPipeline {
+  private static final Logger logger =
+      LoggerFactory.getLogger(CorpusPipeline.class);
+
+  public static final String PREPARE = "prepare";
+  public static final String LOOKUP = "lookup";
+  public static final String DISAMBIGUATE = "disambiguate";
+  public static final String SERIALIZE = "serialize";
+
+  private final Preparator preparator_;
+  private final PreparationSettings prepSettings_;
+  private final String technique_;
+  private final double threshold_;
+  private final int numChunkThreads_;
+  private final Set<OutputFormat> outputFormats_;
+  private final JSONTYPE jsonType_;
+  private final int resultCount_;
+
+  private String docDelimiter_;
+  private boolean tsvDocuments_;
+  private int[] workerCounts_ = new int[] { 1, 1, 1, 1 };
+  private int queueSize_ = 100;
+
+  public CorpusPipeline(Preparator preparator, PreparationSettings prepSettings,
+      String technique, double threshold, int numChunkThreads,
+      Set<OutputFormat> outputFormats, JSONTYPE jsonType, int resultCount) {
+    preparator_ = preparator;
+    prepSettings_ = prepSettings;
+    technique_ = technique;
+    threshold_ = threshold;
+    numChunkThreads_ = numChunkThreads;
+    outputFormats_ = outputFormats;
+    jsonType_ = jsonType;
+    resultCount_ = resultCount;
+  }
+
+  /**
+   * Splits each input file into documents starting with the delimiter.
+   */
+  public void enableMultiDocsPerFile(String docDelimiter) {
+    docDelimiter_ = docDelimiter;
+  }
+
+  /**
+   * Reads each input file as TSV of document id and a line of text.
+   * Consecutive lines with the same id form one document.
+   */
+  public void enableTsvDocuments() {
+    tsvDocuments_ = true;
+  }
+
+  /**
+   * @param workerCounts Workers of the prepare, lookup, disambiguate and
+   * serialize stages.
+   */
+  public void setWorkerCounts(int[] workerCounts) {
+    if (workerCounts.length != 4) {
+      throw new IllegalArgumentException("Expected 4 worker counts, got "
+          + workerCounts.length + ".");
+    }
+    workerCounts_ = workerCounts;
+  }
+
+  /**
+   * @param queueSize Maximum number of documents waiting for each stage.
+   */
+  public void setQueueSize(int queueSize) {
+    queueSize_ = queueSize;
+  }
+
+  /**
+   * Processes all documents of the files.
+   *
+   * @return Statistics of the stages, see {@link Pipeline#getStatistics()}.
+   */
+  public Map<String, Long> run(List<File> files) throws InterruptedException {
+    Pipeline<Document> pipeline = new Pipeline<Document>("aida-corpus", queueSize_);
+    pipeline.addStage(PREPARE, workerCounts_[0], new StageProcessor<Document>() {
+
+      @Override
+      public boolean process(Document doc) throws Exception {
+        doc.input = preparator_.prepare(
+            doc.docId, doc.text, prepSettings_, new ExternalEntitiesContext());
+        doc.text = null;
+        return true;
+      }
+    });
+    pipeline.addStage(LOOKUP, workerCounts_[1], new StageProcessor<Document>() {
+
+      @Override
+      public boolean process(Document doc) throws Exception {
+        doc.disambiguator = new Disambiguator(doc.input,
+            CommandLineDisambiguator.createDisambiguationSettings(
+                technique_, threshold_, numChunkThreads_));
+        doc.disambiguator.lookupCandidateEntities();
+        return true;
+      }
+    });
+    pipeline.addStage(DISAMBIGUATE, workerCounts_[2], new StageProcessor<Document>() {
+
+      @Override
+      public boolean process(Document doc) throws Exception {
+        doc.results = doc.disambiguator.disambiguate();
+        doc.disambiguator = null;
+        return true;
+      }
+    });
+    pipeline.addStage(SERIALIZE, workerCounts_[3], new StageProcessor<Document>() {
+
+      @Override
+      public boolean process(Document doc) throws Exception {
+        writeResults(doc);
+        return false;
+      }
+    });
+    pipeline.run(new DocumentIterator(files));
+    logger.info(pipeline.getOverview());
+    return pipeline.getStatistics();
+  }
+
+  private void writeResults(Document doc) throws Exception {
+    JSONObject json = new ResultProcessor(
+        doc.results, doc.inputFile, doc.input, resultCount_).process(jsonType_);
+    if (outputFormats_.contains(OutputFormat.JSON)) {
+      FileUtils.writeFileContent(getOutputFile(doc, OutputFormat.JSON), json.toJSONString());
+    }
+    if (outputFormats_.contains(OutputFormat.HTML)) {
+      FileUtils.writeFileContent(getOutputFile(doc, OutputFormat.HTML),
+          new HtmlGenerator().constructFromJson(doc.inputFile, json));
+    }
+    if (outputFormats_.contains(OutputFormat.TSV)) {
+      doc.input.writeTo(getOutputFile(doc, OutputFormat.TSV));
+    }
+  }
+
+  /**
+   * Single documents are written next to the input file as the
+   * CommandLineDisambiguator does, documents of multi-document files are
+   * numbered in the order of the file.
+   */
+  private File getOutputFile(Document doc, OutputFormat format) {
+    String extension = "." + format.toString().toLowerCase();
+    if (doc.index < 0) {
+      if (format == OutputFormat.TSV) {
+        return new File(doc.inputFile + "_" + doc.docId + extension);
+      }
+      return new File(doc.inputFile + extension);
+    }
+    return new File(doc.inputFile + "_" + doc.index + extension);
+  }
+
+  private boolean hasOutput(Document doc) {
+    for (OutputFormat format : outputFormats_) {
+      if (getOutputFile(doc, format).exists()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * A document on its way through the stages.
+   */
+  private static class Document {
+    private final String inputFile;
+    /** Position in a multi-document file, -1 for single documents. */
+    private final int index;
+    private final String docId;
+    private String text;
+    private PreparedInput input;
+    private Disambiguator disambiguator;
+    private DisambiguationResults results;
+
+    public Document(String inputFile, int index, String docId, String text) {
+      this.inputFile = inputFile;
+      this.index = index;
+      this.docId = docId;
+      this.text = text;
+    }
+
+    @Override
+    public String toString() {
+      return "'" + inputFile + "'" + (index >= 0 ? " #" + index : "");
+    }
+  }
+
+  /**
+   * Streams the documents of all files, skipping empty ones and the ones
+   * with existing output.
+   */
+  private class DocumentIterator implements Iterator<Document> {
+    private final Iterator<File> files_;
+    private String inputFile_;
+    private Iterator<String> texts_ = Collections.<String>emptyList().iterator();
+    private Iterator<Pair<String[], List<String[]>>> tsvChunks_;
+    private int index_;
+    private Document next_;
+
+    public DocumentIterator(List<File> files) {
+      files_ = files.iterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (next_ == null) {
+        Document doc = readDocument();
+        if (doc == null) {
+          return false;
+        }
+        if (doc.text.trim().isEmpty()) {
+          logger.info("Empty document " + doc + ", skipping.");
+        } else if (hasOutput(doc)) {
+          logger.debug("Output for " + doc + " exists, skipping.");
+        } else {
+          next_ = doc;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public Document next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Document doc = next_;
+      next_ = null;
+      return doc;
+    }
+
+    private Document readDocument() {
+      while (true) {
+        if (tsvChunks_ != null && tsvChunks_.hasNext()) {
+          Pair<String[], List<String[]>> chunk = tsvChunks_.next();
+          StringBuilder text = new StringBuilder();
+          for (String[] line : chunk.second) {
+            for (String column : line) {
+              text.append(column).append('\n');
+            }
+          }
+          return new Document(inputFile_, index_++, chunk.first[0], text.toString());
+        }
+        if (texts_.hasNext()) {
+          String text = texts_.next();
+          int index = (docDelimiter_ != null) ? index_++ : -1;
+          return new Document(inputFile_, index, inputFile_, text);
+        }
+        if (!files_.hasNext()) {
+          return null;
+        }
+        openFile(files_.next());
+      }
+    }
+
+    private void openFile(File file) {
+      inputFile_ = file.getAbsolutePath();
+      index_ = 0;
+      tsvChunks_ = null;
+      texts_ = Collections.<String>emptyList().iterator();
+      try {
+        if (tsvDocuments_) {
+          tsvChunks_ = new TsvChunks(file, new int[] { 0, 0 }, false, 0).iterator();
+        } else {
+          BufferedReader reader = new BufferedReader(new InputStreamReader(
+              new FileInputStream(file), prepSettings_.getEncoding()));
+          if (docDelimiter_ != null) {
+            texts_ = new DelimBasedTextIterator(reader, docDelimiter_);
+          } else {
+            StringBuilder content = new StringBuilder();
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+              content.append(line).append('\n');
+            }
+            reader.close();
+            texts_ = Collections.singletonList(content.toString()).iterator();
+          }
+        }
+      } catch (IOException e) {
+        logger.error("Could not read '" + inputFile_ + "': " + e.getLocalizedMessage());
+      }
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -1,14 +1,14 @@
 package mpi.aida;
 
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
 
 import mpi.aida.config.settings.DisambiguationSettings;
 import mpi.aida.data.ChunkDisambiguationResults;
@@ -38,6 +38,10 @@ public class Disambiguator implements Callable<DisambiguationResults> {
   private ExternalEntitiesContext externalContext_;
   private DocumentCounter documentCounter_;
   private Tracer tracer_;
+
+  /** Chunks whose candidates were retrieved by lookupCandidateEntities(). */
+  private Map<PreparedInputChunk, ChunkDisambiguator> lookedUpChunks_ =
+      new HashMap<PreparedInputChunk, ChunkDisambiguator>();
    
   /** 
    * Common init.
@@ -86,17 +90,39 @@ public class Disambiguator implements Callable<DisambiguationResults> {
     init(input, settings, tracer, eec);
   }
 
+  /**
+   * Retrieves the candidate entities of all chunks, which is otherwise done
+   * as part of disambiguate(). Allows to run the database lookups separately
+   * from the disambiguation, e.g. in different stages of a pipeline.
+   */
+  public void lookupCandidateEntities() throws Exception {
+    Integer runningId = RunningTimer.recordStartTime("Disambiguator:lookup");
+    try {
+      for (PreparedInputChunk c : preparedInput_) {
+        ChunkDisambiguator cd =
+            new ChunkDisambiguator(c, externalContext_, settings_, tracer_);
+        cd.lookupCandidateEntities();
+        lookedUpChunks_.put(c, cd);
+      }
+    } finally {
+      RunningTimer.recordEndTime("Disambiguator:lookup", runningId);
+    }
+  }
+
   public DisambiguationResults disambiguate() throws Exception {
     logger_.debug("Disambiguating '" + preparedInput_.getDocId() + "' with " + 
         preparedInput_.getChunksCount() + " chunks and " +
         preparedInput_.getMentionSize() + " mentions."); 
     Integer runningId = RunningTimer.recordStartTime("Disambiguator");
     long startTime = System.currentTimeMillis();
-    Map<PreparedInputChunk, ChunkDisambiguationResults> chunkResults =
-        disambiguateChunks(preparedInput_, externalContext_);
-    DisambiguationResults results = 
-        aggregateChunks(preparedInput_, chunkResults);
-    RunningTimer.recordEndTime("Disambiguator", runningId);
+    DisambiguationResults results;
+    try {
+      Map<PreparedInputChunk, ChunkDisambiguationResults> chunkResults =
+          disambiguateChunks(preparedInput_, externalContext_);
+      results = aggregateChunks(preparedInput_, chunkResults);
+    } finally {
+      RunningTimer.recordEndTime("Disambiguator", runningId);
+    }
     double runTime = System.currentTimeMillis() - startTime;
     logger_.info("Document '" + preparedInput_.getDocId() + "' done in " + 
                 runTime + "ms (" + 
@@ -111,19 +137,47 @@ public class Disambiguator implements Callable<DisambiguationResults> {
       PreparedInput preparedInput, ExternalEntitiesContext eec) throws Exception {
     Map<PreparedInputChunk, ChunkDisambiguationResults> chunkResults =
         new HashMap<PreparedInputChunk, ChunkDisambiguationResults>();
-    ExecutorService es = Executors.newFixedThreadPool(settings_.getNumChunkThreads());
-    Map<PreparedInputChunk, Future<ChunkDisambiguationResults>> futureResults = 
-        new HashMap<PreparedInputChunk, Future<ChunkDisambiguationResults>>();
-    for (PreparedInputChunk c : preparedInput) {
-      ChunkDisambiguator cd = new ChunkDisambiguator(c, eec, settings_, tracer_);
-      Future<ChunkDisambiguationResults> result = es.submit(cd);
-      futureResults.put(c, result);
+    if (ExecutionPools.isChunkThread()) {
+      // This document itself runs on the chunk pool. Waiting for chunks 
+      // queued behind it could deadlock the bounded pool, so they run here.
+      for (PreparedInputChunk c : preparedInput) {
+        ChunkDisambiguator cd = lookedUpChunks_.get(c);
+        if (cd == null) {
+          cd = new ChunkDisambiguator(c, eec, settings_, tracer_);
+        }
+        chunkResults.put(c, cd.call());
+      }
+      return chunkResults;
     }
-    for (PreparedInputChunk c : preparedInput) {
-      chunkResults.put(c, futureResults.get(c).get());
+    // Chunks run on the shared pool. At most numChunkThreads chunks of this
+    // document are queued at a time, so large documents do not starve
+    // concurrent ones.
+    CompletionService<ChunkDisambiguationResults> cs =
+        new ExecutorCompletionService<ChunkDisambiguationResults>(
+            AidaManager.getChunkExecutor());
+    Map<Future<ChunkDisambiguationResults>, PreparedInputChunk> futureChunks = 
+        new HashMap<Future<ChunkDisambiguationResults>, PreparedInputChunk>();
+    int maxPending = Math.max(1, settings_.getNumChunkThreads());
+    Iterator<PreparedInputChunk> chunks = preparedInput.iterator();
+    try {
+      while (chunks.hasNext() || !futureChunks.isEmpty()) {
+        while (chunks.hasNext() && futureChunks.size() < maxPending) {
+          PreparedInputChunk c = chunks.next();
+          ChunkDisambiguator cd = lookedUpChunks_.get(c);
+          if (cd == null) {
+            cd = new ChunkDisambiguator(c, eec, settings_, tracer_);
+          }
+          futureChunks.put(cs.submit(cd), c);
+        }
+        Future<ChunkDisambiguationResults> done = cs.take();
+        chunkResults.put(futureChunks.remove(done), done.get());
+      }
+    } finally {
+      // Do not leave work of a failed document behind in the shared pool.
+      for (Future<ChunkDisambiguationResults> f : futureChunks.keySet()) {
+        f.cancel(true);
+      }
     }
-    es.shutdown();
-    es.awaitTermination(1, TimeUnit.DAYS);
     return chunkResults;
   }
   
@@ -0,0 +1,193 @@
+package mpi.aida;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import mpi.aida.config.AidaConfig;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Long-lived thread pools shared by all documents processed in this JVM.
+ * Access them through {@link AidaManager}.
+ *
+ * Chunks are processed on a bounded pool with a FIFO queue, so concurrent
+ * documents are served in arrival order. The NER taggers of all documents
+ * run on a second pool of this kind. Entity-entity and mention-entity
+ * similarities are computed on separate work-stealing pools.
+ *
+ * Tasks running on the chunk pool must not wait for other tasks of the
+ * chunk pool, see {@link #isChunkThread()}.
+ */
+class ExecutionPools {
+  private static final Logger logger =
+      LoggerFactory.getLogger(ExecutionPools.class);
+
+  private static ThreadPoolExecutor chunkExecutor;
+
+  private static ThreadPoolExecutor nerExecutor;
+
+  private static ForkJoinPool entityEntityPool;
+
+  private static ForkJoinPool mentionEntityPool;
+
+  /** Set on the threads of the chunk pool. */
+  private static final ThreadLocal<Boolean> chunkThread = new ThreadLocal<Boolean>();
+
+  static synchronized ExecutorService getChunkExecutor() {
+    if (chunkExecutor == null) {
+      int threads = AidaConfig.getAsInt(AidaConfig.CHUNK_NUM_THREADS);
+      logger.debug("Creating chunk pool with " + threads + " threads.");
+      chunkExecutor = new ThreadPoolExecutor(
+          threads, threads, 0L, TimeUnit.MILLISECONDS,
+          new LinkedBlockingQueue<Runnable>(), new NamedThreadFactory("aida-chunk") {
+            @Override
+            public Thread newThread(final Runnable r) {
+              return super.newThread(() -> {
+                chunkThread.set(Boolean.TRUE);
+                r.run();
+              });
+            }
+          });
+    }
+    return chunkExecutor;
+  }
+
+  /**
+   * @return true if the current thread belongs to the chunk pool. Work
+   * nested in a chunk task has to run on the current thread, if all threads
+   * of the bounded pool waited for queued tasks, the pool would deadlock.
+   */
+  static boolean isChunkThread() {
+    return chunkThread.get() != null;
+  }
+
+  static synchronized ExecutorService getNerExecutor() {
+    if (nerExecutor == null) {
+      int threads = AidaConfig.getAsInt(AidaConfig.NER_NUM_THREADS);
+      logger.debug("Creating NER pool with " + threads + " threads.");
+      nerExecutor = new ThreadPoolExecutor(
+          threads, threads, 0L, TimeUnit.MILLISECONDS,
+          new LinkedBlockingQueue<Runnable>(), new NamedThreadFactory("aida-ner"));
+    }
+    return nerExecutor;
+  }
+
+  static synchronized ForkJoinPool getEntityEntityPool() {
+    if (entityEntityPool == null) {
+      entityEntityPool = createForkJoinPool(
+          "aida-ee", AidaConfig.getAsInt(AidaConfig.EE_NUM_THREADS));
+    }
+    return entityEntityPool;
+  }
+
+  static synchronized ForkJoinPool getMentionEntityPool() {
+    if (mentionEntityPool == null) {
+      mentionEntityPool = createForkJoinPool(
+          "aida-me", AidaConfig.getAsInt(AidaConfig.ME_NUM_THREADS));
+    }
+    return mentionEntityPool;
+  }
+
+  /**
+   * Shuts down all pools, they are created anew with the current
+   * configuration on next use.
+   */
+  static synchronized void shutdown() {
+    if (chunkExecutor != null) {
+      chunkExecutor.shutdown();
+      chunkExecutor = null;
+    }
+    if (nerExecutor != null) {
+      nerExecutor.shutdown();
+      nerExecutor = null;
+    }
+    if (entityEntityPool != null) {
+      entityEntityPool.shutdown();
+      entityEntityPool = null;
+    }
+    if (mentionEntityPool != null) {
+      mentionEntityPool.shutdown();
+      mentionEntityPool = null;
+    }
+  }
+
+  /**
+   * @return Queued tasks and active threads per pool. Pools that were not
+   * used yet are omitted.
+   */
+  static synchronized Map<String, Long> getStatistics() {
+    Map<String, Long> stats = new LinkedHashMap<String, Long>();
+    addThreadPoolStatistics(stats, "chunk", chunkExecutor);
+    addThreadPoolStatistics(stats, "ner", nerExecutor);
+    addForkJoinStatistics(stats, "ee", entityEntityPool);
+    addForkJoinStatistics(stats, "me", mentionEntityPool);
+    return stats;
+  }
+
+  private static void addThreadPoolStatistics(
+      Map<String, Long> stats, String name, ThreadPoolExecutor pool) {
+    if (pool == null) {
+      return;
+    }
+    stats.put(name + ".queued", (long) pool.getQueue().size());
+    stats.put(name + ".active", (long) pool.getActiveCount());
+    stats.put(name + ".completed", pool.getCompletedTaskCount());
+  }
+
+  private static void addForkJoinStatistics(
+      Map<String, Long> stats, String name, ForkJoinPool pool) {
+    if (pool == null) {
+      return;
+    }
+    stats.put(name + ".queued",
+        pool.getQueuedSubmissionCount() + pool.getQueuedTaskCount());
+    stats.put(name + ".active", (long) pool.getActiveThreadCount());
+    stats.put(name + ".steals", pool.getStealCount());
+  }
+
+  private static ForkJoinPool createForkJoinPool(
+      final String name, int threads) {
+    logger.debug("Creating " + name + " pool with " + threads + " threads.");
+    final AtomicInteger count = new AtomicInteger();
+    ForkJoinWorkerThreadFactory factory = new ForkJoinWorkerThreadFactory() {
+      @Override
+      public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread =
+            ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName(name + "-" + count.incrementAndGet());
+        return thread;
+      }
+    };
+    return new ForkJoinPool(threads, factory, null, false);
+  }
+
+  /**
+   * Creates named daemon threads, so the pools never keep the JVM alive.
+   */
+  private static class NamedThreadFactory implements ThreadFactory {
+    private final String name;
+    private final AtomicInteger count = new AtomicInteger();
+
+    public NamedThreadFactory(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread thread = new Thread(r, name + "-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
@@ -13,12 +13,14 @@ import gnu.trove.set.hash.TIntHashSet;
 import mpi.aida.config.AidaConfig;
 import mpi.aida.data.*;
 import mpi.aida.graph.similarity.UnitType;
+import mpi.aida.util.SortedIntArrays;
 import mpi.aida.util.YagoUtil.Gender;
 import mpi.aida.util.timing.RunningTimer;
 import mpi.tools.javatools.datatypes.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.IntBuffer;
 import java.util.*;
 
 public class DataAccess {
@@ -38,7 +40,7 @@ public class DataAccess {
   
   /** which type of data access*/
   public static enum type {
-    sql, testing, dmap
+    sql, testing, dmap, columnar
   }
 
   private static synchronized void initDataAccess() {
@@ -51,6 +53,8 @@ public class DataAccess {
       dataAccess = new DataAccessForTesting();
     } else if (type.dmap.toString().equalsIgnoreCase(AidaConfig.get(AidaConfig.DATAACCESS))) {
       dataAccess = new DataAccessDMap();
+    } else if (type.columnar.toString().equalsIgnoreCase(AidaConfig.get(AidaConfig.DATAACCESS))) {
+      dataAccess = new DataAccessColumnar();
     } else {
       // Default is sql.
       logger.info("No dataAccess given in 'settings/aida.properties', " +
@@ -153,6 +157,40 @@ public class DataAccess {
     return DataAccess.getInstance().getInlinkNeighbors(entities);
   }
 
+  /**
+   * Returns the inlinks of the entities as sorted, duplicate-free buffers,
+   * to be read from index 0 to their limit. Unless disabled by 
+   * AidaConfig.INLINK_STORE, they are views on the inlinks of all entities, 
+   * which are loaded once per process. Otherwise they are read for the given
+   * entities.
+   * 
+   * @param entities  Entities to get the inlinks for.
+   * @return  Entity id to inlinks.
+   */
+  public static TIntObjectHashMap<IntBuffer> getInlinkSets(Entities entities) {
+    TIntObjectHashMap<IntBuffer> inlinkSets = 
+        new TIntObjectHashMap<IntBuffer>(entities.size());
+    DataAccessInlinksCacheTarget allInlinks = null;
+    // The testing data does not provide all inlinks.
+    if (!getAccessType().equals(type.testing) 
+        && AidaConfig.getBoolean(AidaConfig.INLINK_STORE)) {
+      allInlinks = DataAccessCache.singleton().getInlinks();
+    }
+    if (allInlinks != null) {
+      for (Entity entity : entities) {
+        inlinkSets.put(entity.getId(), allInlinks.getInlinks(entity.getId()));
+      }
+    } else {
+      TIntObjectHashMap<int[]> entityInlinks = getInlinkNeighbors(entities);
+      for (TIntObjectIterator<int[]> itr = entityInlinks.iterator(); itr.hasNext(); ) {
+        itr.advance();
+        inlinkSets.put(itr.key(), 
+            IntBuffer.wrap(SortedIntArrays.sortedUnique(itr.value())));
+      }
+    }
+    return inlinkSets;
+  }
+
   public static int getInternalIdForKBEntity(KBIdentifiedEntity entity) {
     List<KBIdentifiedEntity> entities = new ArrayList<KBIdentifiedEntity>(1);
     entities.add(entity);
@@ -239,15 +277,14 @@ public class DataAccess {
 
 
   public static String getWordForId(int wordId) {
-    int[] words = new int[1];
-    words[0] = wordId;
-    return getWordsForIds(words).get(wordId);
+    return DataAccess.getInstance().getWordForId(wordId);
   }
 
+  /**
+   * @return Id of the word, 0 if the word is unknown.
+   */
   public static int getIdForWord(String word) {
-    List<String> words = new ArrayList<String>(1);
-    words.add(word);
-    return getIdsForWords(words).get(word);  
+    return DataAccess.getInstance().getIdForWord(word);
   }
   
   public static TIntObjectHashMap<String> getWordsForIds(int[] wordIds) {
@@ -535,6 +572,26 @@ public class DataAccess {
      return DataAccess.getInstance().getKeyphraseSourceWeights();
   }
 
+  /**
+   * @return Hits, misses, evictions and sizes of the entity keyphrase and 
+   * keyword caches. Empty if the data access does not cache them.
+   */
+  public static Map<String, Long> getKeytermsCacheStatistics() {
+    if (getAccessType() == type.sql) {
+      return DataAccessSQLCache.singleton().getStatistics();
+    } else {
+      return new HashMap<String, Long>();
+    }
+  }
+
+  /**
+   * @return Hash of the data configuration (database or dmap), it changes
+   * when the entity repository is switched.
+   */
+  public static long getDataConfigHash() {
+    return DataAccessCache.singleton().getConfigHash();
+  }
+
   public static Map<KBIdentifiedEntity, EntityMetaData> getEntitiesMetaData(Set<KBIdentifiedEntity> entities) {
     TObjectIntHashMap<KBIdentifiedEntity> ids = getInternalIdsForKBEntities(entities);
     TIntObjectHashMap<EntityMetaData> metadata = getEntitiesMetaData(ids.values());
@@ -34,6 +34,12 @@ class DataAccessCache {
   private DataAccessIntIntCacheTarget[] unitCounts;
   private DataAccessKeyphraseTokensCacheTarget keyphraseTokens;
   private DataAccessKeyphraseSourcesCacheTarget keyphraseSources;
+  private DataAccessWordDictionaryCacheTarget wordDictionary;
+  /** Loaded on first use, only measures using inlinks need it. */
+  private DataAccessInlinksCacheTarget inlinks;
+  private boolean inlinksLoaded;
+  
+  private long configHash;
   
   private static class DataAccessCacheHolder {
     public static DataAccessCache cache = new DataAccessCache();
@@ -58,14 +64,32 @@ class DataAccessCache {
     keyphraseTokens = new DataAccessKeyphraseTokensCacheTarget();
     keyphraseSources = new DataAccessKeyphraseSourcesCacheTarget();
     // dmaps don't need these caches so we don't need to load them if we use dmaps
-    if (!DataAccess.getAccessType().equals(DataAccess.type.dmap)) {
+    if (!isDMapBased()) {
       cacheTargets.add(keyphraseTokens);
       cacheTargets.add(keyphraseSources);
     }
+    // Only the database needs a round-trip for every word lookup.
+    if (DataAccess.getAccessType().equals(DataAccess.type.sql)) {
+      wordDictionary = new DataAccessWordDictionaryCacheTarget();
+      cacheTargets.add(wordDictionary);
+    }
     
     logger.info("Loading word caches.");
+
+    try {
+      configHash = getConfigHash(getCurrentConfig());
+    } catch (IOException e) {
+      logger.error("Exception reading config: " + e.getLocalizedMessage());
+    }
         
     if (AidaConfig.getBoolean(AidaConfig.CACHE_WORD_DATA)) {
+      // Memory-mapped cache files carry the hash of the config they were
+      // created with, they might have been rewritten by another process.
+      for (DataAccessCacheTarget target : cacheTargets) {
+        if (target instanceof DataAccessMappedCacheTarget) {
+          ((DataAccessMappedCacheTarget) target).setConfigHash(configHash);
+        }
+      }
       // Determine cache state.
       boolean needsCacheCreation = true; 
       try {
@@ -87,16 +111,15 @@ class DataAccessCache {
       }
       if (needsCacheCreation) {
         try {
-          Properties currentConfig = null;
+          Properties currentConfig = getCurrentConfig();
           File cachedConfigFile = null;
           switch (DataAccess.getAccessType()) {
             case testing:
             case sql:
-              currentConfig = ClassPathUtils.getPropertiesFromClasspath(AidaManager.databaseAidaConfig);
               cachedConfigFile = new File(DATABASE_AIDA_CONFIG_CACHE);
               break;
             case dmap:
-              currentConfig = ClassPathUtils.getPropertiesFromClasspath(DMapConfig.PATH);
+            case columnar:
               cachedConfigFile = new File(DMAP_AIDA_CONFIG_CACHE);
               break;
           }
@@ -115,6 +138,43 @@ class DataAccessCache {
     logger.info("Done loading caches.");
   }
 
+  /**
+   * @return true if the data access reads from DMaps.
+   */
+  private static boolean isDMapBased() {
+    return DataAccess.getAccessType() == DataAccess.type.dmap
+        || DataAccess.getAccessType() == DataAccess.type.columnar;
+  }
+
+  private Properties getCurrentConfig() throws IOException {
+    switch (DataAccess.getAccessType()) {
+      case testing:
+      case sql:
+        return ClassPathUtils.getPropertiesFromClasspath(AidaManager.databaseAidaConfig);
+      case dmap:
+      case columnar:
+        return ClassPathUtils.getPropertiesFromClasspath(DMapConfig.PATH);
+      default:
+        return new Properties();
+    }
+  }
+
+  /**
+   * @return 64-bit FNV-1a hash of the sorted config entries, stable across 
+   * JVMs.
+   */
+  static long getConfigHash(Properties config) {
+    long hash = 0xcbf29ce484222325L;
+    for (String key : new TreeSet<String>(config.stringPropertyNames())) {
+      String entry = key + "=" + config.getProperty(key) + "\n";
+      for (int i = 0; i < entry.length(); ++i) {
+        hash ^= entry.charAt(i);
+        hash *= 0x100000001b3L;
+      }
+    }
+    return hash;
+  }
+
   private boolean determineCacheCreation() throws IOException {
     File cachedDBConfigFile = new File(DATABASE_AIDA_CONFIG_CACHE);
     File cachedDMAPConfigFile = new File(DMAP_AIDA_CONFIG_CACHE);
@@ -122,20 +182,19 @@ class DataAccessCache {
       || DataAccess.getAccessType() == DataAccess.type.testing)) {
       cachedDMAPConfigFile.delete();
       return true;
-    } else if (!cachedDMAPConfigFile.exists() && DataAccess.getAccessType() == DataAccess.type.dmap) {
+    } else if (!cachedDMAPConfigFile.exists() && isDMapBased()) {
       cachedDBConfigFile.delete();
       return true;
     }
-    Properties currentConfig = null;
+    Properties currentConfig = getCurrentConfig();
     Properties cachedConfig = new Properties();
     switch (DataAccess.getAccessType()) {
       case testing:
       case sql:
-        currentConfig = ClassPathUtils.getPropertiesFromClasspath(AidaManager.databaseAidaConfig);
         cachedConfig.load(new BufferedInputStream(new FileInputStream(cachedDBConfigFile)));
         break;
       case dmap:
-        currentConfig = ClassPathUtils.getPropertiesFromClasspath(DMapConfig.PATH);
+      case columnar:
         cachedConfig.load(new BufferedInputStream(new FileInputStream(cachedDMAPConfigFile)));
         break;
       default:
@@ -152,6 +211,13 @@ class DataAccessCache {
     return false;
   }
 
+  /**
+   * @return Hash of the data configuration, see getConfigHash(Properties).
+   */
+  public long getConfigHash() {
+    return configHash;
+  }
+
   public int expandTerm(int wordId) {
     return wordExpansion.getData(wordId);
   }
@@ -183,4 +249,44 @@ class DataAccessCache {
   public TObjectIntHashMap<String> getAllKeyphraseSources() {
     return keyphraseSources.getAllData();
   }
+
+  /**
+   * @return The resident word dictionary, null if the data access does not
+   * use one.
+   */
+  public DataAccessWordDictionaryCacheTarget getWordDictionary() {
+    return wordDictionary;
+  }
+
+  /**
+   * Loads the inlinks of all entities on first call, from the memory-mapped
+   * cache file if it was created with the current config.
+   * 
+   * @return The resident inlinks, null if they could not be loaded.
+   */
+  public synchronized DataAccessInlinksCacheTarget getInlinks() {
+    if (inlinksLoaded) {
+      return inlinks;
+    }
+    inlinksLoaded = true;
+    DataAccessInlinksCacheTarget target = new DataAccessInlinksCacheTarget();
+    try {
+      try {
+        if (AidaConfig.getBoolean(AidaConfig.CACHE_WORD_DATA)) {
+          // Outdated cache files are detected by the config hash.
+          target.setConfigHash(configHash);
+          target.createAndLoadCache(false);
+        } else {
+          target.loadFromDb();
+        }
+      } catch (IOException e) {
+        logger.warn("Could not read or write inlinks cache, reading from DB.", e);
+        target.loadFromDb();
+      }
+      inlinks = target;
+    } catch (RuntimeException e) {
+      logger.error("Could not load all inlinks, using per-document inlinks.", e);
+    }
+    return inlinks;
+  }
 }
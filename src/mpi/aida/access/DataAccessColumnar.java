@@ -0,0 +1,199 @@
+package mpi.aida.access;
+
+import gnu.trove.map.hash.TIntDoubleHashMap;
+import gnu.trove.map.hash.TIntIntHashMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+import gnu.trove.set.hash.TIntHashSet;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import mpi.aida.config.DMapConfig;
+import mpi.aida.data.Entities;
+import mpi.aida.data.Entity;
+import mpi.aida.data.Keyphrases;
+import mpi.aida.util.timing.RunningTimer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * DMap based data access reading the entity keyphrases, keywords and
+ * keyphrase tokens from the columnar {@link EntityKnowledgeStore} instead of
+ * decoding them from DMaps for each entity. All other data comes from the
+ * DMaps.
+ *
+ * Unlike the DMaps, the store keeps the keyphrases of each entity sorted by
+ * weight, so the minimum keyphrase weight, the maximum keyphrase count and
+ * keyphrase sources with weight 0 are applied as in the database access.
+ * As there, if keyphrases are dropped by weight or count, only the keywords
+ * occurring in the remaining keyphrases are kept.
+ */
+public class DataAccessColumnar extends DataAccessDMap {
+  private static final Logger logger =
+    LoggerFactory.getLogger(DataAccessColumnar.class);
+
+  private final EntityKnowledgeStore store_;
+
+  public DataAccessColumnar() {
+    File file = DMapConfig.getEntityKnowledgeStoreFile();
+    logger.info("Mapping entity knowledge store: " + file);
+    try {
+      store_ = new EntityKnowledgeStore(file);
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not load the entity knowledge store '" + file
+          + "', create it with SqlToProtobufDMap.requestAndWriteEntityKnowledgeStore(): "
+          + e.getLocalizedMessage(), e);
+    }
+  }
+
+  /**
+   * Reads the entity knowledge from the given store, the DMaps are loaded on
+   * first use.
+   */
+  DataAccessColumnar(EntityKnowledgeStore store) {
+    super(false);
+    store_ = store;
+  }
+
+  @Override
+  public DataAccess.type getAccessType() {
+    return DataAccess.type.columnar;
+  }
+
+  @Override
+  public Keyphrases getEntityKeyphrases(Entities entities, Map<String, Double> keyphraseSourceWeights,
+                                        double minKeyphraseWeight, int maxEntityKeyphraseCount) {
+    int timer = RunningTimer.recordStartTime("DataAccessColumnar:getEntityKeyphrases");
+    boolean useSources = keyphraseSourceWeights != null && !keyphraseSourceWeights.isEmpty();
+    int entitiesSize = entities == null ? 0 : entities.size();
+
+    Keyphrases keyphrases = new Keyphrases();
+    TIntObjectHashMap<int[]> entityKeyphrases = new TIntObjectHashMap<>(getCapacity(entitiesSize));
+    TIntObjectHashMap<TIntDoubleHashMap> entity2keyphrase2mi = new TIntObjectHashMap<>(getCapacity(entitiesSize));
+    TIntObjectHashMap<TIntDoubleHashMap> entity2keyword2mi = new TIntObjectHashMap<>(getCapacity(entitiesSize));
+    TIntObjectHashMap<int[]> keyphraseTokens = new TIntObjectHashMap<>();
+    keyphrases.setEntityKeyphrases(entityKeyphrases);
+    keyphrases.setEntityKeyphraseWeights(entity2keyphrase2mi);
+    keyphrases.setEntityKeywordWeights(entity2keyword2mi);
+    keyphrases.setKeyphraseTokens(keyphraseTokens);
+
+    TIntObjectHashMap<TIntIntHashMap> entity2keyphrase2source = null;
+    TIntHashSet excludedSources = new TIntHashSet();
+    if (useSources) {
+      entity2keyphrase2source = new TIntObjectHashMap<>(getCapacity(entitiesSize));
+      TObjectIntHashMap<String> sourceIds = store_.getSourceIds();
+      keyphrases.setEntityKeyphraseSources(entity2keyphrase2source);
+      keyphrases.setKeyphraseSource2id(sourceIds);
+      keyphrases.setKeyphraseSourceWeights(store_.getSourceWeights());
+      for (Entry<String, Double> sourceWeight : keyphraseSourceWeights.entrySet()) {
+        if (sourceWeight.getValue() == 0.0 && sourceIds.containsKey(sourceWeight.getKey())) {
+          excludedSources.add(sourceIds.get(sourceWeight.getKey()));
+        }
+      }
+    }
+    if (entitiesSize == 0) {
+      RunningTimer.recordEndTime("DataAccessColumnar:getEntityKeyphrases", timer);
+      return keyphrases;
+    }
+    boolean needKeywordCleaning = minKeyphraseWeight > 0.0 || maxEntityKeyphraseCount > 0;
+
+    for (Entity entity : entities) {
+      int id = entity.getId();
+      TIntHashSet entityTokens = needKeywordCleaning ? new TIntHashSet() : null;
+      long start = store_.getKeyphrasesStart(id);
+      long end = store_.getKeyphrasesEnd(id);
+      if (start < end) {
+        int capacity = (int) Math.min(end - start,
+            maxEntityKeyphraseCount > 0 ? maxEntityKeyphraseCount : Integer.MAX_VALUE);
+        int[] kps = new int[capacity];
+        int count = 0;
+        TIntDoubleHashMap kp2mi = new TIntDoubleHashMap(getCapacity(capacity));
+        TIntIntHashMap kp2source = useSources ? new TIntIntHashMap(getCapacity(capacity)) : null;
+        // Keyphrases are sorted by descending weight.
+        for (long i = start; i < end && count < capacity; ++i) {
+          double weight = store_.getKeyphraseWeight(i);
+          if (minKeyphraseWeight > 0.0 && weight <= minKeyphraseWeight) {
+            break;
+          }
+          int source = store_.getKeyphraseSource(i);
+          if (excludedSources.contains(source)) {
+            continue;
+          }
+          int keyphrase = store_.getKeyphrase(i);
+          kps[count++] = keyphrase;
+          kp2mi.put(keyphrase, weight);
+          if (kp2source != null) {
+            kp2source.put(keyphrase, source);
+          }
+          int[] tokens = keyphraseTokens.get(keyphrase);
+          if (tokens == null) {
+            tokens = store_.getKeyphraseTokens(keyphrase);
+            if (tokens != null) {
+              keyphraseTokens.put(keyphrase, tokens);
+            }
+          }
+          if (entityTokens != null && tokens != null) {
+            entityTokens.addAll(tokens);
+          }
+        }
+        entityKeyphrases.put(id, count == kps.length ? kps : Arrays.copyOf(kps, count));
+        entity2keyphrase2mi.put(id, kp2mi);
+        if (kp2source != null) {
+          entity2keyphrase2source.put(id, kp2source);
+        }
+      }
+
+      start = store_.getKeywordsStart(id);
+      end = store_.getKeywordsEnd(id);
+      if (start < end) {
+        TIntDoubleHashMap kw2mi = new TIntDoubleHashMap(getCapacity((int) (end - start)));
+        for (long i = start; i < end; ++i) {
+          int keyword = store_.getKeyword(i);
+          if (entityTokens == null || entityTokens.contains(keyword)) {
+            kw2mi.put(keyword, store_.getKeywordWeight(i));
+          }
+        }
+        if (!kw2mi.isEmpty()) {
+          entity2keyword2mi.put(id, kw2mi);
+        }
+      }
+    }
+    RunningTimer.recordEndTime("DataAccessColumnar:getEntityKeyphrases", timer);
+    return keyphrases;
+  }
+
+  @Override
+  public void getEntityKeyphraseTokens(Entities entities, TIntObjectHashMap<int[]> entityKeyphrases,
+                                       TIntObjectHashMap<int[]> keyphraseTokens) {
+    if (entities == null) {
+      return;
+    }
+    for (Entity entity : entities) {
+      long start = store_.getKeyphrasesStart(entity.getId());
+      long end = store_.getKeyphrasesEnd(entity.getId());
+      int[] kps = new int[(int) (end - start)];
+      for (int i = 0; i < kps.length; ++i) {
+        kps[i] = store_.getKeyphrase(start + i);
+        if (!keyphraseTokens.containsKey(kps[i])) {
+          keyphraseTokens.put(kps[i], store_.getKeyphraseTokens(kps[i]));
+        }
+      }
+      entityKeyphrases.put(entity.getId(), kps);
+    }
+  }
+
+  @Override
+  public Map<String, Double> getKeyphraseSourceWeights() {
+    return store_.getSourceWeightsByName();
+  }
+
+  @Override
+  public TObjectIntHashMap<String> getAllKeyphraseSources() {
+    return store_.getSourceIds();
+  }
+}
@@ -10,9 +10,12 @@ import gnu.trove.set.hash.TIntHashSet;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import mpi.aida.access.compiledprotos.BigramCountsBigram;
 import mpi.aida.access.compiledprotos.DictionaryMention;
@@ -63,7 +66,16 @@ public class DataAccessDMap implements DataAccessInterface {
   private static final float troveLoadFactor = Constants.DEFAULT_LOAD_FACTOR;
   
   public DataAccessDMap() {
-    DataAccessDMapHandler.singleton();
+    this(true);
+  }
+
+  /**
+   * @param loadDMaps False to load the DMaps on first use instead.
+   */
+  DataAccessDMap(boolean loadDMaps) {
+    if (loadDMaps) {
+      DataAccessDMapHandler.singleton();
+    }
   }
 
   public DataAccess.type getAccessType() {
@@ -346,7 +358,7 @@ public class DataAccessDMap implements DataAccessInterface {
     if (mentions.isEmpty()) {
       return candidates;
     }
-    List<String> queryMentions = new ArrayList<>(mentions.size());
+    Set<String> queryMentions = new HashSet<>(mentions.size());
     for (String m : mentions) {
       queryMentions.add(PriorProbability.conflateMention(m));
       // Add an emtpy candidate set as default.
@@ -367,9 +379,12 @@ public class DataAccessDMap implements DataAccessInterface {
           }
         }
       }
-      // Get the candidates for the original Strings.
-      for (Map.Entry<String, Entities> entry: candidates.entrySet()) {
-        String queryMention = PriorProbability.conflateMention(entry.getKey());
+      // Get the candidates for the original Strings, resolving the entity
+      // ids of all mentions at once.
+      Map<String, int[]> mentionEntityIds = new HashMap<String, int[]>(candidates.size(), 1.0f);
+      TIntHashSet allEntityIds = new TIntHashSet();
+      for (String mention : candidates.keySet()) {
+        String queryMention = PriorProbability.conflateMention(mention);
         Map<Integer, Double> entityPriors = queryMentionCandidates.get(queryMention);
         if (entityPriors != null) {
           Integer[] ids;
@@ -381,12 +396,17 @@ public class DataAccessDMap implements DataAccessInterface {
           } else {
             ids = entityPriors.keySet().toArray(new Integer[entityPriors.size()]);
           }
-          TIntObjectHashMap<KBIdentifiedEntity> yagoEntityIds = getKnowlegebaseEntitiesForInternalIds(
-            ArrayUtils.toPrimitive(ids));
-          Entities entities = entry.getValue();
-          for (int i = 0; i < ids.length; ++i) {
-            entities.add(new Entity(yagoEntityIds.get(ids[i]), ids[i]));
-          }
+          int[] entityIds = ArrayUtils.toPrimitive(ids);
+          mentionEntityIds.put(mention, entityIds);
+          allEntityIds.addAll(entityIds);
+        }
+      }
+      TIntObjectHashMap<KBIdentifiedEntity> yagoEntityIds = 
+          getKnowlegebaseEntitiesForInternalIds(allEntityIds.toArray());
+      for (Map.Entry<String, int[]> entry : mentionEntityIds.entrySet()) {
+        Entities entities = candidates.get(entry.getKey());
+        for (int entityId : entry.getValue()) {
+          entities.add(new Entity(yagoEntityIds.get(entityId), entityId));
         }
       }
     } catch (Exception e) {
@@ -836,6 +856,14 @@ public class DataAccessDMap implements DataAccessInterface {
     throw new NotImplementedException("getWordsForIds()  is not implemented in DataAccessDMap.");
   }
 
+  public int getIdForWord(String word) {
+    return getIdsForWords(Collections.singletonList(word)).get(word);
+  }
+
+  public String getWordForId(int wordId) {
+    throw new NotImplementedException("getWordForId()  is not implemented in DataAccessDMap.");
+  }
+
   public TObjectIntHashMap<KBIdentifiedEntity> getAllEntityIds() {
     throw new NotImplementedException("getAllEntityIds()  is not implemented in DataAccessDMap.");
   }
@@ -873,7 +901,31 @@ public class DataAccessDMap implements DataAccessInterface {
   }
 
   public TIntObjectHashMap<int[]> getAllInlinks() {
-    throw new NotImplementedException("getAllInlinks()  is not implemented in DataAccessDMap.");
+    TIntObjectHashMap<int[]> inlinks = new TIntObjectHashMap<>();
+    try {
+      DMap dMap = DataAccessDMapHandler.singleton().getDMap(DatabaseDMap.ENTITY_INLINKS_ENTITY);
+      inlinks = new TIntObjectHashMap<>(getCapacity(dMap.size()), troveLoadFactor);
+      DMap.EntryIterator iterator = dMap.entryIterator();
+      int read = 0;
+      while (iterator.hasNext()) {
+        DMap.Entry entry = iterator.next();
+        int entity = EntityInlinksEntity.Key.parseFrom(entry.getKey()).getEntity();
+        EntityInlinksEntity.Values result = EntityInlinksEntity.Values.parseFrom(entry.getValue());
+        int[] entityInlinks = new int[result.getValuesCount()];
+        for (int i = 0; i < result.getValuesCount(); i++) {
+          entityInlinks[i] = result.getValues(i).getInlink();
+        }
+        inlinks.put(entity, entityInlinks);
+
+        if (++read % 1000000 == 0) {
+          logger.info("Read " + read + " entity inlinks.");
+        }
+      }
+    } catch (Exception e) {
+      // A partial map would be cached as the inlinks of all entities.
+      throw new IllegalStateException("Could not read all entity inlinks.", e);
+    }
+    return inlinks;
   }
 
   public int getMaximumEntityId() {
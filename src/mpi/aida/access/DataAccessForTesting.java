@@ -300,6 +300,10 @@ public class DataAccessForTesting implements DataAccessInterface {
   
     for (Entity entity : entities) {
       int eId = entity.getId();
+      // Like the repository, return nothing for unknown (e.g. external) entities.
+      if (!eKps.containsKey(eId)) {
+        continue;
+      }
       Entities singleEntity = new Entities();
       singleEntity.add(entity);
       int entityCount = getEntitySuperdocSize(singleEntity).get(eId);
@@ -397,6 +401,20 @@ public class DataAccessForTesting implements DataAccessInterface {
     return words;
   }
 
+  @Override
+  public String getWordForId(int wordId) {
+    if (!id2word.containsKey(wordId)) {
+      throw new IllegalArgumentException(wordId + " not in testing");
+    }
+    return id2word.get(wordId);
+  }
+
+  @Override
+  public int getIdForWord(String word) {
+    Integer id = word2id.get(word);
+    return (id != null) ? id : 0;
+  }
+
   @Override
   public TObjectIntHashMap<String> getIdsForWords(Collection<String> words) {
     TObjectIntHashMap<String> ids = new TObjectIntHashMap<String>(words.size());
@@ -0,0 +1,248 @@
+package mpi.aida.access;
+
+import gnu.trove.iterator.TIntObjectIterator;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.hash.TIntObjectHashMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import mpi.aida.util.SortedIntArrays;
+
+/**
+ * Resident inlinks of all entities, shared by all documents. The cache file
+ * is memory-mapped read-only.
+ *
+ * The inlinks of each entity are stored sorted and duplicate-free in one
+ * array, indexed by entity id through an offset array. The number of
+ * inlinks of an entity is the difference of two offsets, the inlinks are
+ * handed out as views on the mapped file without copying them. A single
+ * mapping is limited to 2 GB, so the inlinks are mapped in segments that
+ * are split between entities.
+ *
+ * File layout: common header, maximum entity id, inlinks count, offsets
+ * (maximum entity id + 2), inlinks.
+ */
+public class DataAccessInlinksCacheTarget extends DataAccessMappedCacheTarget {
+
+  public static final String ID = "ENTITY_INLINKS";
+
+  private static final int MAGIC = 0x41494449; // "AIDI"
+
+  private static final int VERSION = 1;
+
+  private static final IntBuffer EMPTY = IntBuffer.allocate(0).asReadOnlyBuffer();
+
+  /** Maximum number of ints in one mapping. */
+  private static final int MAX_SEGMENT_INTS = Integer.MAX_VALUE / 4;
+
+  private final int maxSegmentInts_;
+
+  /** Start of the inlinks of entity e, they end at offset e+1. */
+  private IntBuffer offsets_;
+
+  /** Inlinks, segment s starts with the ones of entity segmentEntities_[s]. */
+  private IntBuffer[] segments_;
+
+  private int[] segmentEntities_;
+
+  private int maxEntityId_;
+
+  public DataAccessInlinksCacheTarget() {
+    this(MAX_SEGMENT_INTS);
+  }
+
+  /**
+   * @param maxSegmentInts Maximum number of inlinks in one segment.
+   */
+  DataAccessInlinksCacheTarget(int maxSegmentInts) {
+    maxSegmentInts_ = maxSegmentInts;
+  }
+
+  @Override
+  public String getId() {
+    return ID;
+  }
+
+  @Override
+  protected File getCacheFile() {
+    return new File("aida-entity_inlinks.cache");
+  }
+
+  /**
+   * @return Number of distinct inlinks of the entity, 0 if it is unknown.
+   */
+  public int getInlinkCount(int entityId) {
+    if (entityId < 0 || entityId > maxEntityId_) {
+      return 0;
+    }
+    return offsets_.get(entityId + 1) - offsets_.get(entityId);
+  }
+
+  /**
+   * @return Sorted, duplicate-free inlinks of the entity as read-only view
+   * from index 0 to the limit. Empty if the entity is unknown.
+   */
+  public IntBuffer getInlinks(int entityId) {
+    if (entityId < 0 || entityId > maxEntityId_) {
+      return EMPTY;
+    }
+    int segment = Arrays.binarySearch(segmentEntities_, entityId);
+    if (segment < 0) {
+      segment = -segment - 2;
+    }
+    int segmentStart = offsets_.get(segmentEntities_[segment]);
+    IntBuffer view = segments_[segment].duplicate();
+    view.limit(offsets_.get(entityId + 1) - segmentStart);
+    view.position(offsets_.get(entityId) - segmentStart);
+    return view.slice();
+  }
+
+  @Override
+  protected void loadFromDb() {
+    setInlinks(DataAccess.getAllInlinks());
+  }
+
+  /**
+   * Builds the inlinks in memory, sorting and deduplicating them. Fails if
+   * they could not be mapped from the cache file.
+   */
+  void setInlinks(TIntObjectHashMap<int[]> entityInlinks) {
+    int maxEntityId = 0;
+    for (TIntObjectIterator<int[]> itr = entityInlinks.iterator(); itr.hasNext(); ) {
+      itr.advance();
+      maxEntityId = Math.max(maxEntityId, itr.key());
+    }
+    if (maxEntityId + 2L > MAX_SEGMENT_INTS) {
+      throw new IllegalStateException("Entity ids exceed the maximum store size.");
+    }
+    int[][] inlinks = new int[maxEntityId + 1][];
+    long inlinksCount = 0;
+    for (TIntObjectIterator<int[]> itr = entityInlinks.iterator(); itr.hasNext(); ) {
+      itr.advance();
+      inlinks[itr.key()] = SortedIntArrays.sortedUnique(itr.value());
+      if (inlinks[itr.key()].length > maxSegmentInts_) {
+        throw new IllegalStateException(
+            "Inlinks of entity " + itr.key() + " exceed the maximum segment size.");
+      }
+      inlinksCount += inlinks[itr.key()].length;
+    }
+    if (inlinksCount > Integer.MAX_VALUE) {
+      throw new IllegalStateException("Inlinks exceed the maximum store size.");
+    }
+    IntBuffer offsets = IntBuffer.allocate(maxEntityId + 2);
+    IntBuffer allInlinks = IntBuffer.allocate((int) inlinksCount);
+    for (int e = 0; e <= maxEntityId; ++e) {
+      offsets.put(e, allInlinks.position());
+      if (inlinks[e] != null) {
+        allInlinks.put(inlinks[e]);
+      }
+    }
+    offsets.put(maxEntityId + 1, allInlinks.position());
+    int[] segmentEntities = splitSegments(offsets, maxEntityId);
+    IntBuffer[] segments = new IntBuffer[segmentEntities.length];
+    for (int s = 0; s < segments.length; ++s) {
+      allInlinks.limit(getSegmentEnd(offsets, segmentEntities, s, maxEntityId));
+      allInlinks.position(offsets.get(segmentEntities[s]));
+      segments[s] = allInlinks.slice().asReadOnlyBuffer();
+    }
+    setBuffers(offsets, segments, segmentEntities, maxEntityId);
+  }
+
+  /**
+   * @return First entity of each segment. Segments hold as many entities as
+   * fit, null if the inlinks of an entity do not fit into a segment.
+   */
+  private int[] splitSegments(IntBuffer offsets, int maxEntityId) {
+    TIntArrayList segmentEntities = new TIntArrayList();
+    segmentEntities.add(0);
+    int segmentStart = 0;
+    for (int e = 0; e <= maxEntityId; ++e) {
+      int end = offsets.get(e + 1);
+      if (end - segmentStart > maxSegmentInts_) {
+        if (end - offsets.get(e) > maxSegmentInts_) {
+          return null;
+        }
+        segmentEntities.add(e);
+        segmentStart = offsets.get(e);
+      }
+    }
+    return segmentEntities.toArray();
+  }
+
+  private static int getSegmentEnd(
+      IntBuffer offsets, int[] segmentEntities, int segment, int maxEntityId) {
+    return segment + 1 < segmentEntities.length ?
+        offsets.get(segmentEntities[segment + 1]) : offsets.get(maxEntityId + 1);
+  }
+
+  private void setBuffers(
+      IntBuffer offsets, IntBuffer[] segments, int[] segmentEntities, int maxEntityId) {
+    offsets_ = offsets;
+    segments_ = segments;
+    segmentEntities_ = segmentEntities;
+    maxEntityId_ = maxEntityId;
+  }
+
+  @Override
+  protected int getMagic() {
+    return MAGIC;
+  }
+
+  @Override
+  protected int getVersion() {
+    return VERSION;
+  }
+
+  @Override
+  protected int getHeaderBytes() {
+    return 8;
+  }
+
+  /**
+   * The offsets and each segment of the inlinks are mapped separately.
+   */
+  @Override
+  protected boolean map(FileChannel channel, ByteBuffer header, long dataStart)
+      throws IOException {
+    int maxEntityId = header.getInt();
+    int inlinksCount = header.getInt();
+    long offsetsBytes = 4L * (maxEntityId + 2);
+    long inlinksBytes = 4L * inlinksCount;
+    if (maxEntityId < 0 || inlinksCount < 0 || offsetsBytes > Integer.MAX_VALUE
+        || channel.size() != dataStart + offsetsBytes + inlinksBytes) {
+      return false;
+    }
+    IntBuffer offsets = map(channel, dataStart, offsetsBytes).asIntBuffer();
+    if (offsets.get(maxEntityId + 1) != inlinksCount) {
+      return false;
+    }
+    int[] segmentEntities = splitSegments(offsets, maxEntityId);
+    if (segmentEntities == null) {
+      return false;
+    }
+    IntBuffer[] segments = new IntBuffer[segmentEntities.length];
+    for (int s = 0; s < segments.length; ++s) {
+      int start = offsets.get(segmentEntities[s]);
+      int end = getSegmentEnd(offsets, segmentEntities, s, maxEntityId);
+      segments[s] = map(channel, dataStart + offsetsBytes + 4L * start,
+          4L * (end - start)).asIntBuffer();
+    }
+    setBuffers(offsets, segments, segmentEntities, maxEntityId);
+    return true;
+  }
+
+  @Override
+  protected void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+    buffer.putInt(maxEntityId_);
+    buffer.putInt(offsets_.get(maxEntityId_ + 1));
+    putInts(channel, buffer, offsets_);
+    for (IntBuffer segment : segments_) {
+      putInts(channel, buffer, segment);
+    }
+  }
+}
@@ -1,81 +1,71 @@
 package mpi.aida.access;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
+/**
+ * Caches an int[] indexed by id. The cache file is an uncompressed
+ * little-endian array that is memory-mapped read-only.
+ *
+ * File layout: common header, array length, values.
+ */
+public abstract class DataAccessIntIntCacheTarget extends DataAccessMappedCacheTarget {
+
+  private static final int MAGIC = 0x41494441; // "AIDA"
+
+  private static final int VERSION = 1;
+
+  protected IntBuffer data_;
 
-public abstract class DataAccessIntIntCacheTarget extends DataAccessCacheTarget {
-  
-  private Logger logger_ = LoggerFactory.getLogger(DataAccessIntIntCacheTarget.class);
-  
-  protected int[] data_;
-  
   public abstract String getId();
 
   protected abstract File getCacheFile();
-  
+
   public int getData(int id) {
     assert id >= 0 : "id must not be negative.";
-    assert id < data_.length : "id out of range.";
-    return data_[id];
+    assert id < data_.limit() : "id out of range.";
+    return data_.get(id);
   }
 
-  public void createAndLoadCache(boolean needsCacheCreation) throws FileNotFoundException, IOException {
-    boolean requireReadFromDB = false;
-    File cacheFile = getCacheFile();
-    if (cacheFile.exists()) { 
-      if (!needsCacheCreation) {  
-        logger_.info("Loading " + getId() + " from cache.");
-        loadFromDisk();
-      } else {
-        cacheFile.delete();
-        requireReadFromDB = true;
-      }
-    } else {
-      logger_.info(getId() + " cache file doesn't exist.");
-      requireReadFromDB = true;
-    }    
-  
-    if (requireReadFromDB) {
-      logger_.info("Loading " + getId() + " from DB.");
-      loadFromDb();
-      logger_.info("Caching " + getId() + " to disk.");
-      cacheToDisk(); 
-    }
+  protected void setData(int[] data) {
+    data_ = (data != null) ? IntBuffer.wrap(data) : null;
   }
 
   protected abstract void loadFromDb();
-  
-  protected void loadFromDisk() throws IOException {
-    File cacheFile = getCacheFile();
-    DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(cacheFile))));
-    data_ = new int[in.readInt()];
-    for (int i = 0; i < data_.length; ++i) {
-      data_[i] = in.readInt();
-    }
-    in.close();    
+
+  @Override
+  protected int getMagic() {
+    return MAGIC;
   }
 
-  protected void cacheToDisk() throws IOException {
-    File cacheFile = getCacheFile();
-    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(cacheFile))));
-    out.writeInt(data_.length);
-    for (int exp : data_) {
-      out.writeInt(exp);
+  @Override
+  protected int getVersion() {
+    return VERSION;
+  }
+
+  @Override
+  protected int getHeaderBytes() {
+    return 4;
+  }
+
+  @Override
+  protected boolean map(FileChannel channel, ByteBuffer header, long dataStart)
+      throws IOException {
+    int length = header.getInt();
+    if (channel.size() != dataStart + 4L * length) {
+      return false;
     }
-    out.flush();
-    out.close();    
+    data_ = map(channel, dataStart, 4L * length).asIntBuffer();
+    return true;
+  }
+
+  @Override
+  protected void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+    buffer.putInt(data_.limit());
+    putInts(channel, buffer, data_);
   }
 }
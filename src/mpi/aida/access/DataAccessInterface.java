@@ -50,6 +50,13 @@ public interface DataAccessInterface {
 
   public TObjectIntHashMap<String> getIdsForWords(Collection<String> words);
 
+  /**
+   * @return Id of the word, 0 if the word is unknown.
+   */
+  public int getIdForWord(String word);
+
+  public String getWordForId(int wordId);
+
   public TIntObjectHashMap<Gender> getGenderForEntities(Entities entities);
 
   public Map<String, List<String>> getAllEntitiesMetaData(String startingWith);
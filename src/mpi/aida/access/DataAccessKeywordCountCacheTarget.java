@@ -19,6 +19,6 @@ public class DataAccessKeywordCountCacheTarget extends DataAccessIntIntCacheTarg
 
   @Override
   protected void loadFromDb() {
-    data_ = DataAccess.getAllKeywordDocumentFrequencies();
+    setData(DataAccess.getAllKeywordDocumentFrequencies());
   }
 }
@@ -0,0 +1,179 @@
+package mpi.aida.access;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+import mpi.aida.util.AtomicFiles;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache target whose cache file is memory-mapped read-only, so loading is
+ * immediate and all JVMs on a host share the same pages. Subclasses only
+ * encode and decode their data.
+ *
+ * File layout: magic, version, config hash (long), then the header fields
+ * and the data of the subclass, all little-endian. Files with another
+ * magic, version or config hash are rebuilt from the DB.
+ */
+public abstract class DataAccessMappedCacheTarget extends DataAccessCacheTarget {
+
+  private Logger logger_ = LoggerFactory.getLogger(DataAccessMappedCacheTarget.class);
+
+  /** Magic, version and config hash. */
+  private static final int COMMON_HEADER_BYTES = 16;
+
+  private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+
+  /** Hash of the data configuration the cache file must have been created with. */
+  private long configHash_;
+
+  public void setConfigHash(long configHash) {
+    configHash_ = configHash;
+  }
+
+  protected abstract int getMagic();
+
+  protected abstract int getVersion();
+
+  /**
+   * @return Size of the header fields of the subclass.
+   */
+  protected abstract int getHeaderBytes();
+
+  /**
+   * Maps the data of the cache file. The mappings stay valid after the
+   * channel is closed.
+   *
+   * @param header Header fields of the subclass.
+   * @param dataStart Position of the data in the file.
+   * @return false if the file size does not match the header.
+   */
+  protected abstract boolean map(FileChannel channel, ByteBuffer header, long dataStart)
+      throws IOException;
+
+  /**
+   * Writes the header fields and the data of the subclass, see
+   * {@link #putInt(FileChannel, ByteBuffer, int)}.
+   */
+  protected abstract void write(FileChannel channel, ByteBuffer buffer) throws IOException;
+
+  @Override
+  public void createAndLoadCache(boolean needsCacheCreation) throws FileNotFoundException, IOException {
+    File cacheFile = getCacheFile();
+    if (cacheFile.exists() && !needsCacheCreation) {
+      logger_.info("Loading " + getId() + " from cache.");
+      if (mapFromDisk()) {
+        return;
+      }
+      logger_.info(getId() + " cache file is outdated.");
+    } else if (!cacheFile.exists()) {
+      logger_.info(getId() + " cache file doesn't exist.");
+    }
+    logger_.info("Loading " + getId() + " from DB.");
+    loadFromDb();
+    logger_.info("Caching " + getId() + " to disk.");
+    cacheToDisk();
+  }
+
+  @Override
+  protected void loadFromDisk() throws IOException {
+    if (!mapFromDisk()) {
+      throw new IOException(getCacheFile() + " is not a valid " + getId() + " cache.");
+    }
+  }
+
+  /**
+   * Maps the cache file if it has the current format and config hash.
+   *
+   * @return false if the file is outdated.
+   */
+  private boolean mapFromDisk() throws IOException {
+    int headerBytes = COMMON_HEADER_BYTES + getHeaderBytes();
+    try (RandomAccessFile raf = new RandomAccessFile(getCacheFile(), "r");
+         FileChannel channel = raf.getChannel()) {
+      if (channel.size() < headerBytes) {
+        return false;
+      }
+      ByteBuffer header = ByteBuffer.allocate(headerBytes).order(ByteOrder.LITTLE_ENDIAN);
+      channel.read(header, 0);
+      header.flip();
+      if (header.getInt() != getMagic() || header.getInt() != getVersion()
+          || header.getLong() != configHash_) {
+        return false;
+      }
+      return map(channel, header, headerBytes);
+    }
+  }
+
+  /**
+   * Writes to a unique temporary file first, so that concurrently starting
+   * JVMs never map a partially written cache.
+   */
+  @Override
+  protected void cacheToDisk() throws IOException {
+    File cacheFile = getCacheFile();
+    File tmpFile = AtomicFiles.createTempFile(cacheFile);
+    try {
+      try (RandomAccessFile raf = new RandomAccessFile(tmpFile, "rw");
+           FileChannel channel = raf.getChannel()) {
+        ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(getMagic());
+        buffer.putInt(getVersion());
+        buffer.putLong(configHash_);
+        write(channel, buffer);
+        writeFully(channel, buffer);
+      }
+      AtomicFiles.moveInPlace(tmpFile, cacheFile);
+    } finally {
+      // Only left over if writing failed.
+      tmpFile.delete();
+    }
+  }
+
+  /**
+   * Puts the value into the buffer, writing the buffer out first if it is
+   * full.
+   */
+  protected static void putInt(FileChannel channel, ByteBuffer buffer, int value)
+      throws IOException {
+    if (buffer.remaining() < 4) {
+      writeFully(channel, buffer);
+    }
+    buffer.putInt(value);
+  }
+
+  /**
+   * Puts all values from index 0 to the limit.
+   */
+  protected static void putInts(FileChannel channel, ByteBuffer buffer, IntBuffer values)
+      throws IOException {
+    for (int i = 0; i < values.limit(); ++i) {
+      putInt(channel, buffer, values.get(i));
+    }
+  }
+
+  /**
+   * Writes out and clears the buffer.
+   */
+  protected static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  protected static ByteBuffer map(FileChannel channel, long start, long length)
+      throws IOException {
+    return channel.map(FileChannel.MapMode.READ_ONLY, start, length)
+        .order(ByteOrder.LITTLE_ENDIAN);
+  }
+}
@@ -2,6 +2,7 @@ package mpi.aida.access;
 
 import edu.stanford.nlp.util.StringUtils;
 import gnu.trove.iterator.TIntIntIterator;
+import gnu.trove.iterator.TIntObjectIterator;
 import gnu.trove.iterator.TObjectIntIterator;
 import gnu.trove.list.TIntList;
 import gnu.trove.list.array.TIntArrayList;
@@ -29,8 +30,7 @@ import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 import mpi.aida.AidaManager;
-import mpi.aida.access.DataAccessSQLCache.EntityKeyphraseData;
-import mpi.aida.access.DataAccessSQLCache.EntityKeywordsData;
+import mpi.aida.access.DataAccessSQLCache.EntityKeyterms;
 import mpi.aida.config.AidaConfig;
 import mpi.aida.data.Entities;
 import mpi.aida.data.Entity;
@@ -95,7 +95,7 @@ public class DataAccessSQL implements DataAccessInterface {
     if (mentions.size() == 0) {
       return candidates;
     }
-    List<String> queryMentions = new ArrayList<String>(mentions.size());
+    Set<String> queryMentions = new HashSet<String>(mentions.size());
     for (String m : mentions) {
       queryMentions.add(PriorProbability.conflateMention(m));
       // Add an emtpy candidate set as default.
@@ -112,7 +112,7 @@ public class DataAccessSQL implements DataAccessInterface {
       String query = YagoUtil.getPostgresEscapedConcatenatedQuery(queryMentions);
       if (maxEntityRank < 1.0) {
         sql = "SELECT " + DICTIONARY + ".mention, " + 
-            DICTIONARY + ".entity " + DICTIONARY + ".prior FROM " + DICTIONARY +
+            DICTIONARY + ".entity, " + DICTIONARY + ".prior FROM " + DICTIONARY +
             " JOIN " + ENTITY_RANK +
             " ON " + DICTIONARY + ".entity=" + ENTITY_RANK + ".entity" +
             " WHERE mention IN (" + query + ")" +
@@ -137,9 +137,12 @@ public class DataAccessSQL implements DataAccessInterface {
       statement.close();
       AidaManager.releaseConnection(mentionEntityCon);
 
-      // Get the candidates for the original Strings.
-      for (Entry<String, Entities> entry: candidates.entrySet()) {
-        String queryMention = PriorProbability.conflateMention(entry.getKey());
+      // Get the candidates for the original Strings, resolving the entity
+      // ids of all mentions at once.
+      Map<String, int[]> mentionEntityIds = new HashMap<String, int[]>(candidates.size(), 1.0f);
+      TIntHashSet allEntityIds = new TIntHashSet();
+      for (String mention : candidates.keySet()) {
+        String queryMention = PriorProbability.conflateMention(mention);
         Map<Integer, Double> entityPriors = queryMentionCandidates.get(queryMention);
         if (entityPriors != null) {
           Integer[] ids;
@@ -151,11 +154,17 @@ public class DataAccessSQL implements DataAccessInterface {
           } else {
             ids = entityPriors.keySet().toArray(new Integer[entityPriors.size()]);
           }
-          TIntObjectHashMap<KBIdentifiedEntity> yagoEntityIds = getKnowlegebaseEntitiesForInternalIds(ArrayUtils.toPrimitive(ids));
-          Entities entities = entry.getValue();
-          for (int i = 0; i < ids.length; ++i) {
-            entities.add(new Entity(yagoEntityIds.get(ids[i]), ids[i]));
-          }
+          int[] entityIds = ArrayUtils.toPrimitive(ids);
+          mentionEntityIds.put(mention, entityIds);
+          allEntityIds.addAll(entityIds);
+        }
+      }
+      TIntObjectHashMap<KBIdentifiedEntity> yagoEntityIds = 
+          getKnowlegebaseEntitiesForInternalIds(allEntityIds.toArray());
+      for (Entry<String, int[]> entry : mentionEntityIds.entrySet()) {
+        Entities entities = candidates.get(entry.getKey());
+        for (int entityId : entry.getValue()) {
+          entities.add(new Entity(yagoEntityIds.get(entityId), entityId));
         }
       }
     } catch (Exception e) {
@@ -214,7 +223,7 @@ public class DataAccessSQL implements DataAccessInterface {
     
     TObjectIntHashMap<String> keyphraseSrcName2Id = DataAccessCache.singleton().getAllKeyphraseSources();
     
-    KeytermsCache<EntityKeyphraseData> kpc = 
+    TIntObjectHashMap<EntityKeyterms> kpc = 
         DataAccessSQLCache.singleton().
         getEntityKeyphrasesCache(entities, keyphraseSrcName2Id, keyphraseSourceWeights, minKeyphraseWeight,
             maxEntityKeyphraseCount, useSources);
@@ -256,37 +265,42 @@ public class DataAccessSQL implements DataAccessInterface {
       eKps.put(e.getId(), new TIntHashSet());
     }
         
-    for (Pair<Integer, EntityKeyphraseData> p : kpc) {
-      int entity = p.first;
-      EntityKeyphraseData ekd = p.second;
-      int keyphrase = ekd.keyphrase;
-      double keyphraseWeight = ekd.weight;
+    for (TIntObjectIterator<EntityKeyterms> itr = kpc.iterator(); itr.hasNext(); ) {
+      itr.advance();
+      int entity = itr.key();
+      EntityKeyterms ekts = itr.value();
+      if (ekts.size() == 0) {
+        continue;
+      }
               
-      // Add keyphrase.
+      // Add keyphrases.
       TIntHashSet kps = eKps.get(entity);
       if (kps == null) {
         kps = new TIntHashSet();
         eKps.put(entity, kps);
       }
-      kps.add(keyphrase);
+      kps.addAll(ekts.ids);
       
-      // Add keyphrase weight.
+      // Add keyphrase weights.
       TIntDoubleHashMap keyphrase2mi = entity2keyphrase2mi.get(entity);
       if (keyphrase2mi == null) {
-        keyphrase2mi = new TIntDoubleHashMap();
+        keyphrase2mi = new TIntDoubleHashMap(ekts.size());
         entity2keyphrase2mi.put(entity, keyphrase2mi);
       }
-      keyphrase2mi.put(keyphrase, keyphraseWeight);
+      for (int i = 0; i < ekts.size(); ++i) {
+        keyphrase2mi.put(ekts.ids[i], ekts.weights[i]);
+      }
       
       if (useSources) {
-        int source = ekd.source;
         TIntIntHashMap keyphraseSources = 
             keyphrases.getEntityKeyphraseSources().get(entity);
         if (keyphraseSources == null) {
-          keyphraseSources = new TIntIntHashMap();
+          keyphraseSources = new TIntIntHashMap(ekts.size());
           keyphrases.getEntityKeyphraseSources().put(entity, keyphraseSources);
         }
-        keyphraseSources.put(keyphrase, source);
+        for (int i = 0; i < ekts.size(); ++i) {
+          keyphraseSources.put(ekts.ids[i], ekts.getSource(i));
+        }
       }
     }
 
@@ -296,22 +310,26 @@ public class DataAccessSQL implements DataAccessInterface {
     }
     
     // Retrieve entity keywords and weights.
-    KeytermsCache<EntityKeywordsData> kwc = DataAccessSQLCache.singleton().getEntityKeywordsCache(entities, keyphraseSourceWeights, 
+    TIntObjectHashMap<EntityKeyterms> kwc = DataAccessSQLCache.singleton().getEntityKeywordsCache(entities, keyphraseSourceWeights, 
         keyphrases.getEntityKeyphrases(), keyphrases.getKeyphraseTokens(), minKeyphraseWeight, maxEntityKeyphraseCount);
  
-    for (Pair<Integer, EntityKeywordsData> p : kwc) {
-      int entity = p.first;
-      EntityKeywordsData ewd = p.second;
-      int keyword = ewd.keyword;
-      double keywordWeight = ewd.weight;
+    for (TIntObjectIterator<EntityKeyterms> itr = kwc.iterator(); itr.hasNext(); ) {
+      itr.advance();
+      int entity = itr.key();
+      EntityKeyterms ekts = itr.value();
+      if (ekts.size() == 0) {
+        continue;
+      }
      
       // Add keywords and weights.
       TIntDoubleHashMap keyword2mi = entity2keyword2mi.get(entity);
       if (keyword2mi == null) {
-        keyword2mi = new TIntDoubleHashMap();
+        keyword2mi = new TIntDoubleHashMap(ekts.size());
         entity2keyword2mi.put(entity, keyword2mi);
       }      
-      keyword2mi.put(keyword, keywordWeight);
+      for (int i = 0; i < ekts.size(); ++i) {
+        keyword2mi.put(ekts.ids[i], ekts.weights[i]);
+      }
     }    
     
     RunningTimer.recordEndTime("DataAccess:getEntityKeyPhrases", runId);
@@ -793,76 +811,42 @@ public class DataAccessSQL implements DataAccessInterface {
 
   @Override
   public TIntObjectHashMap<String> getWordsForIds(int[] ids) {
-    TIntObjectHashMap<String> wordIds = new TIntObjectHashMap<String>();
-    if (ids.length == 0) {
-      return wordIds;
-    }
-    Connection con = null;
-    Statement stmt = null;
-    try {
-      con = AidaManager.getConnectionForDatabase(AidaManager.DB_AIDA);
-      con.setAutoCommit(false);
-      stmt = con.createStatement();
-      stmt.setFetchSize(100000);
-      String idQuery = YagoUtil.getIdQuery(ids);
-      String sql = "SELECT word, id FROM " + DataAccessSQL.WORD_IDS + 
-                   " WHERE id IN (" + idQuery + ")";
-      ResultSet rs = stmt.executeQuery(sql);
-      int read = 0;
-      while (rs.next()) {
-        String word = rs.getString("word");
-        int id = rs.getInt("id");
+    DataAccessWordDictionaryCacheTarget dictionary = 
+        DataAccessCache.singleton().getWordDictionary();
+    TIntObjectHashMap<String> wordIds = new TIntObjectHashMap<String>(ids.length);
+    for (int id : ids) {
+      String word = dictionary.getWordForId(id);
+      if (word != null) {
         wordIds.put(id, word);
-
-        if (++read % 1000000 == 0) {
-          logger.info("Read " + read + " word ids.");
-        }
       }
-      con.setAutoCommit(true);
-    } catch (Exception e) {
-      logger.error(e.getLocalizedMessage());
-    } finally {
-      AidaManager.releaseConnection(con);
     }
     return wordIds;
   }
 
   @Override
   public TObjectIntHashMap<String> getIdsForWords(Collection<String> keywords) {
-    TObjectIntHashMap<String> wordIds = new TObjectIntHashMap<String>();
-    if (keywords.isEmpty()) {
-      return wordIds;
-    }
-    Connection con = null;
-    Statement stmt = null;
-    try {
-      con = AidaManager.getConnectionForDatabase(AidaManager.DB_AIDA);
-      con.setAutoCommit(false);
-      stmt = con.createStatement();
-      stmt.setFetchSize(100000);
-      String idQuery = YagoUtil.getPostgresEscapedConcatenatedQuery(keywords);
-      String sql = "SELECT word, id FROM " + DataAccessSQL.WORD_IDS + 
-                   " WHERE word IN (" + idQuery + ")";
-      ResultSet rs = stmt.executeQuery(sql);
-      int read = 0;
-      while (rs.next()) {
-        String word = rs.getString("word");
-        int id = rs.getInt("id");
+    DataAccessWordDictionaryCacheTarget dictionary = 
+        DataAccessCache.singleton().getWordDictionary();
+    TObjectIntHashMap<String> wordIds = new TObjectIntHashMap<String>(keywords.size());
+    for (String word : keywords) {
+      int id = dictionary.getIdForWord(word);
+      if (id != 0) {
         wordIds.put(word, id);
-
-        if (++read % 1000000 == 0) {
-          logger.info("Read " + read + " word ids.");
-        }
       }
-      con.setAutoCommit(true);
-    } catch (Exception e) {
-      logger.error(e.getLocalizedMessage());
-    } finally {
-      AidaManager.releaseConnection(con);
     }
     return wordIds;
   }
 
+  @Override
+  public int getIdForWord(String word) {
+    return DataAccessCache.singleton().getWordDictionary().getIdForWord(word);
+  }
+
+  @Override
+  public String getWordForId(int wordId) {
+    return DataAccessCache.singleton().getWordDictionary().getWordForId(wordId);
+  }
+
   @Override
   public TObjectIntHashMap<String> getAllKeyphraseSources() {
     Integer kpSrcTime = RunningTimer.recordStartTime("DataAccessSQL:getAllKPSrc");
@@ -1294,11 +1278,11 @@ public class DataAccessSQL implements DataAccessInterface {
       con.setAutoCommit(true);
       return inlinks;
     } catch (Exception e) {
-      logger.error(e.getLocalizedMessage());
+      // A partial map would be cached as the inlinks of all entities.
+      throw new IllegalStateException("Could not read all entity inlinks.", e);
     } finally {
       AidaManager.releaseConnection(con);
     }
-    return inlinks;
   }
 
   @Override
@@ -1363,26 +1347,7 @@ public class DataAccessSQL implements DataAccessInterface {
 
   @Override
   public int getMaximumWordId() {
-    Connection con = null;
-    Statement stmt = null;
-    int maxId = 0;
-    try {
-      con = AidaManager.getConnectionForDatabase(AidaManager.DB_AIDA);
-      stmt = con.createStatement();
-      String sql = "SELECT max(id) FROM " + WORD_IDS;
-      ResultSet rs = stmt.executeQuery(sql);
-
-      if (rs.next()) {
-        maxId = rs.getInt(1);
-      }
-      rs.close();
-      stmt.close();
-    } catch (Exception e) {
-      logger.error(e.getLocalizedMessage());
-    } finally {
-      AidaManager.releaseConnection(con);
-    }
-    return maxId;
+    return DataAccessCache.singleton().getWordDictionary().getMaximumId();
   }
 
   @Override
@@ -1,9 +1,9 @@
 package mpi.aida.access;
 
-import gnu.trove.iterator.TIntDoubleIterator;
 import gnu.trove.iterator.TIntObjectIterator;
-import gnu.trove.map.hash.TIntDoubleHashMap;
-import gnu.trove.map.hash.TIntIntHashMap;
+import gnu.trove.list.array.TByteArrayList;
+import gnu.trove.list.array.TFloatArrayList;
+import gnu.trove.list.array.TIntArrayList;
 import gnu.trove.map.hash.TIntObjectHashMap;
 import gnu.trove.map.hash.TObjectIntHashMap;
 import gnu.trove.set.TIntSet;
@@ -12,18 +12,18 @@ import gnu.trove.set.hash.TIntHashSet;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.Statement;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import mpi.aida.AidaManager;
 import mpi.aida.config.AidaConfig;
 import mpi.aida.data.Entities;
+import mpi.aida.util.ConcurrentWeightedCache;
 import mpi.aida.util.timing.RunningTimer;
 
 import org.apache.commons.lang.StringUtils;
@@ -32,14 +32,6 @@ import org.slf4j.LoggerFactory;
 
 class DataAccessSQLCache {
 
-  private static long entityKeyphrasesCacheHits;
-
-  private static long entityKeyphrasesCacheMisses;
-
-  private static long entityKeywordsCacheHits;
-  
-  private static long entityKeywordsCacheMisses;
-  
   private Logger logger_ = LoggerFactory.getLogger(DataAccessSQLCache.class);
 
   private static class DataAccessSQLCacheHolder {
@@ -51,107 +43,141 @@ class DataAccessSQLCache {
     return DataAccessSQLCacheHolder.cache;
   }
 
-  class EntityKeyphraseData {
+  /**
+   * Keyphrases or keywords of a single entity with their weights, and for
+   * keyphrases optionally their source ids.
+   */
+  static class EntityKeyterms {
 
-    final int keyphrase;
+    static final EntityKeyterms EMPTY = new EntityKeyterms(new int[0], new float[0], null);
 
-    final double weight;
+    final int[] ids;
 
-    final int source;
+    final float[] weights;
 
-    public EntityKeyphraseData(int keyphrase, double weight, int source) {
-      super();
-      this.keyphrase = keyphrase;
-      this.weight = weight;
-      this.source = source;
-    }
+    /** Source id of each keyterm, null if sources were not queried. */
+    final byte[] sources;
 
-    public EntityKeyphraseData(EntityKeyphraseData ekd) {
-      super();
-      this.keyphrase = ekd.keyphrase;
-      this.weight = ekd.weight;
-      this.source = ekd.source;
+    public EntityKeyterms(int[] ids, float[] weights, byte[] sources) {
+      this.ids = ids;
+      this.weights = weights;
+      this.sources = sources;
     }
-  }
-  
-  class EntityKeywordsData {
-
-    final int keyword;
 
-    final double weight;
+    public int size() {
+      return ids.length;
+    }
 
-    public EntityKeywordsData(int keyword, double weight) {
-      super();
-      this.keyword = keyword;
-      this.weight = weight;
+    public int getSource(int i) {
+      return sources[i] & 0xFF;
     }
 
-    public EntityKeywordsData(EntityKeywordsData ekd) {
-      super();
-      this.keyword = ekd.keyword;
-      this.weight = ekd.weight;
+    /**
+     * @return Approximate size in bytes, including the cache entry.
+     */
+    int getWeight() {
+      int weight = 128 + ids.length * 8;
+      if (sources != null) {
+        weight += 16 + sources.length;
+      }
+      return weight;
     }
   }
 
-  class CachingHashMap<K, V> extends LinkedHashMap<K, V> {
+  /**
+   * Collects the keyterms of one entity, keeping the first weight and source
+   * of duplicate keyterms.
+   */
+  private static class EntityKeytermsBuilder {
+
+    private TIntHashSet seen = new TIntHashSet();
+
+    private TIntArrayList ids = new TIntArrayList();
 
-    private static final long serialVersionUID = 4693725887215865592L;
+    private TFloatArrayList weights = new TFloatArrayList();
 
-    private int maxEntities_;
+    private TByteArrayList sources = new TByteArrayList();
 
-    public CachingHashMap(int maxEntities) {
-      // Initialize with half the maximum capacity.
-      super(maxEntities / 2, 0.75f, true);
-      maxEntities_ = maxEntities;
-      if (maxEntities > 0) {
-        logger_.info("Caching up to " + maxEntities + " entities per query type");
+    public void add(int id, double weight, int source) {
+      if (!seen.add(id)) {
+        return;
       }
+      if (source < 0 || source > 255) {
+        throw new IllegalArgumentException("Keyphrase source id " + source + " does not fit into a byte.");
+      }
+      ids.add(id);
+      weights.add((float) weight);
+      sources.add((byte) source);
+    }
+
+    public EntityKeyterms build(boolean withSources) {
+      return new EntityKeyterms(ids.toArray(), weights.toArray(), withSources ? sources.toArray() : null);
     }
+  }
 
+  private static final ConcurrentWeightedCache.Weigher<EntityKeyterms> WEIGHER = 
+      new ConcurrentWeightedCache.Weigher<EntityKeyterms>() {
     @Override
-    protected boolean removeEldestEntry(Entry<K, V> eldest) {
-      return size() > maxEntities_;
+    public int weigh(EntityKeyterms value) {
+      return value.getWeight();
     }
+  };
+
+  private ConcurrentWeightedCache<EntityKeyterms> entityKeyphrasesCache;
+
+  private ConcurrentWeightedCache<EntityKeyterms> entityKeywordsCache;
+
+  /** Query signatures are part of the cache keys as small ids. */
+  private ConcurrentHashMap<String, Integer> querySignatureIds = new ConcurrentHashMap<String, Integer>();
+
+  private AtomicInteger nextQuerySignatureId = new AtomicInteger();
+
+  private DataAccessSQLCache() {
+    long maxBytes = AidaConfig.getAsInt(AidaConfig.ENTITIES_CACHE_MAX_MB) * 1024L * 1024L;
+    if (maxBytes > 0) {
+      logger_.info("Caching up to " + AidaConfig.getAsInt(AidaConfig.ENTITIES_CACHE_MAX_MB) + " MB of keyphrases and keywords each");
+    }
+    entityKeyphrasesCache = new ConcurrentWeightedCache<EntityKeyterms>(maxBytes, WEIGHER);
+    entityKeywordsCache = new ConcurrentWeightedCache<EntityKeyterms>(maxBytes, WEIGHER);
   }
 
-  private Map<String, CachingHashMap<Integer, List<EntityKeyphraseData>>> entityKeyphrasesCaches = new HashMap<String, CachingHashMap<Integer, List<EntityKeyphraseData>>>();
+  /**
+   * @return Hits, misses, evictions, entries and size in bytes of both caches.
+   */
+  public Map<String, Long> getStatistics() {
+    Map<String, Long> stats = new LinkedHashMap<String, Long>();
+    addStatistics(stats, "keyphrases", entityKeyphrasesCache);
+    addStatistics(stats, "keywords", entityKeywordsCache);
+    return stats;
+  }
 
-  private Map<String, CachingHashMap<Integer, List<EntityKeywordsData>>> entityKeywordsCaches = new HashMap<String, CachingHashMap<Integer, List<EntityKeywordsData>>>();
-    
-  public KeytermsCache<EntityKeyphraseData> getEntityKeyphrasesCache(Entities entities, TObjectIntHashMap<String> keyphraseSrcName2Id,
+  private void addStatistics(Map<String, Long> stats, String name, ConcurrentWeightedCache<EntityKeyterms> cache) {
+    stats.put(name + ".hits", cache.getHitCount());
+    stats.put(name + ".misses", cache.getMissCount());
+    stats.put(name + ".evictions", cache.getEvictionCount());
+    stats.put(name + ".entries", cache.size());
+    stats.put(name + ".bytes", cache.getWeight());
+  }
+
+  public TIntObjectHashMap<EntityKeyterms> getEntityKeyphrasesCache(Entities entities, TObjectIntHashMap<String> keyphraseSrcName2Id,
       Map<String, Double> keyphraseSourceWeights, double minKeyphraseWeight,
       int maxEntityKeyphraseCount, boolean useSources) {
     String querySignature = createEntityKeyphrasesQuerySignature(keyphraseSourceWeights, minKeyphraseWeight, maxEntityKeyphraseCount);
-    KeytermsCache<EntityKeyphraseData> kpc = new KeytermsCache<EntityKeyphraseData>();
-    CachingHashMap<Integer, List<EntityKeyphraseData>> queryCache = null;
-    synchronized (entityKeyphrasesCaches) {
-      queryCache = entityKeyphrasesCaches.get(querySignature);
-      if (queryCache == null) {
-        int maxEntities = AidaConfig.getAsInt(AidaConfig.ENTITIES_CACHE_SIZE);
-        queryCache = new CachingHashMap<Integer, List<EntityKeyphraseData>>(maxEntities);
-        entityKeyphrasesCaches.put(querySignature, queryCache);
-      }
-    }
+    int signatureId = getQuerySignatureId(querySignature);
+    TIntObjectHashMap<EntityKeyterms> kpc = new TIntObjectHashMap<EntityKeyterms>();
     Integer id = RunningTimer.recordStartTime("CacheAccess:getEntityKeyphraseCache");
     Set<Integer> missingEntities = new HashSet<Integer>();
     for (int eId : entities.getUniqueIds()) {
-      List<EntityKeyphraseData> ekds = queryCache.get(eId);
-      if (ekds == null) {
+      EntityKeyterms ekts = entityKeyphrasesCache.get(getCacheKey(signatureId, eId));
+      if (ekts == null) {
         missingEntities.add(eId);
-        ++entityKeyphrasesCacheMisses;
       } else {
-        // Cache hit.
-        for (EntityKeyphraseData ekd : ekds) {
-          kpc.add(eId, ekd);
-        }
-        ++entityKeyphrasesCacheHits;
+        kpc.put(eId, ekts);
       }
     }
 
-    logger_.debug("Keyphrase Cache hits/misses :" + entityKeyphrasesCacheHits + "/" + entityKeyphrasesCacheMisses);
-    for (Entry<String, CachingHashMap<Integer, List<EntityKeyphraseData>>> c : entityKeyphrasesCaches.entrySet()) {
-      logger_.debug("Keyphrase Cache size (" + c.getKey() + "):" + c.getValue().size());
-    }
+    logger_.debug("Keyphrase Cache hits/misses :" + entityKeyphrasesCache.getHitCount() + "/" + entityKeyphrasesCache.getMissCount());
+    logger_.debug("Keyphrase Cache size :" + entityKeyphrasesCache.size());
 
     if (missingEntities.isEmpty()) {
       // All entities are cached.
@@ -196,122 +222,41 @@ class DataAccessSQLCache {
         sql.append(" ) g WHERE g.p <= ").append(maxEntityKeyphraseCount);
       }
       
-      TIntObjectHashMap<List<EntityKeyphraseData>> entityKeyphrases = new TIntObjectHashMap<List<EntityKeyphraseData>>();
-      TIntObjectHashMap<TIntDoubleHashMap> entityKeyphrasesWeights = new TIntObjectHashMap<TIntDoubleHashMap>();
-      TIntObjectHashMap<TIntIntHashMap> entityKeyphraseSource = new TIntObjectHashMap<TIntIntHashMap>();
-      TIntObjectHashMap<TIntObjectHashMap<List<Integer>>> entityKeyphrasesTokens =
-          new TIntObjectHashMap<TIntObjectHashMap<List<Integer>>>();
+      TIntObjectHashMap<EntityKeytermsBuilder> entityKeyphrases = new TIntObjectHashMap<EntityKeytermsBuilder>();
       
       ResultSet rs = statement.executeQuery(sql.toString());
       while (rs.next()) {
         int entityId = rs.getInt("entity");
-        List<EntityKeyphraseData> lstEntityKeyphrases = null;
-        if (!entityKeyphrases.containsKey(entityId)) {
-          lstEntityKeyphrases = new ArrayList<EntityKeyphraseData>();
-          entityKeyphrases.put(entityId, lstEntityKeyphrases);
-        } else {
-          lstEntityKeyphrases = entityKeyphrases.get(entityId);
-        }
-
-        // maintain entity-keyphrase-weight relation
-        TIntDoubleHashMap keyphraseWeights = null;
-        if (entityKeyphrasesWeights.containsKey(entityId)) {
-          keyphraseWeights = entityKeyphrasesWeights.get(entityId);
-        } else {
-          keyphraseWeights = new TIntDoubleHashMap();
-          entityKeyphrasesWeights.put(entityId, keyphraseWeights);
+        EntityKeytermsBuilder builder = entityKeyphrases.get(entityId);
+        if (builder == null) {
+          builder = new EntityKeytermsBuilder();
+          entityKeyphrases.put(entityId, builder);
         }
 
         int keyphrase = rs.getInt("keyphrase");
         double keyphraseWeight = rs.getDouble("weight");
-        if (!keyphraseWeights.containsKey(keyphrase)) {
-          keyphraseWeights.put(keyphrase, keyphraseWeight);
-        }
-
-        // maintain entity-keyphrase-tokens relation
-        TIntObjectHashMap<List<Integer>> keyphraseTokens = null;
-        // DataAccessCache.singleton().getKeyphraseTokens(entityId);
-        if (entityKeyphrasesTokens.contains(entityId)) {
-          keyphraseTokens = entityKeyphrasesTokens.get(entityId);
-        } else {
-          keyphraseTokens = new TIntObjectHashMap<List<Integer>>();
-          entityKeyphrasesTokens.put(entityId, keyphraseTokens);
-        }
-
-        List<Integer> kpTokens = null;
-        if (!keyphraseTokens.containsKey(keyphrase)) {
-          kpTokens = new ArrayList<Integer>();
-          keyphraseTokens.put(keyphrase, kpTokens);
-        } else {
-          kpTokens = keyphraseTokens.get(keyphrase);
-        }
 
-        int[] kpTokensArray = DataAccessCache.singleton().getKeyphraseTokens(keyphrase);
-        if(kpTokensArray == null ) {
+        if (DataAccessCache.singleton().getKeyphraseTokens(keyphrase) == null) {
           //FIXME: for debug purpose only.
           logger_.error("Keyphrase : " + keyphrase + " has no associated tokens.");
-          continue;
-        }
-        
-        for(int kpTok : kpTokensArray){
-          kpTokens.add(kpTok);
         }
-        
-        // TODO ? maintain entity-keyphrase-tokens-weights relation
-
 
         int source = 0;
         if (useSources) {
-          // maintain entity-keyphrase-source relation
-          TIntIntHashMap keyphraseSource = null;
-          if (entityKeyphraseSource.contains(entityId)) {
-            keyphraseSource = entityKeyphraseSource.get(entityId);
-          } else {
-            keyphraseSource = new TIntIntHashMap();
-            entityKeyphraseSource.put(entityId, keyphraseSource);
-          }
-
           source = rs.getInt("source");
-          if (!keyphraseSource.containsKey(keyphrase)) {
-            keyphraseSource.put(keyphrase, source);
-          }
         }
+        builder.add(keyphrase, keyphraseWeight, source);
       } // end while
 
-      for (TIntObjectIterator<TIntDoubleHashMap> outerItr = entityKeyphrasesWeights.iterator();
-           outerItr.hasNext(); ) {
-        outerItr.advance();
-        int entityId = outerItr.key();
-        TIntDoubleHashMap keyphrasesWeights = outerItr.value();
-        for (TIntDoubleIterator innerItr = keyphrasesWeights.iterator();
-            innerItr.hasNext(); ) {
-          innerItr.advance();
-          int keyphrase = innerItr.key();
-          double keyphraseWeight = innerItr.value();
-//          List<Double> lstTokWeights = entityKeyphrasesTokenWeights.get(entityId).get(keyphrase);
-//          Double[] tokenWeights = lstTokWeights.toArray(new Double[lstTokWeights.size()]);
-
-          int source = 0;
-          if (useSources) {
-            source = entityKeyphraseSource.get(entityId).get(keyphrase);
-          }
-          EntityKeyphraseData ekd = new EntityKeyphraseData(keyphrase, keyphraseWeight, source);
-          kpc.add(entityId, ekd);
-
-          List<EntityKeyphraseData> entityCache = entityKeyphrases.get(entityId);
-          if (entityCache == null) {
-            entityCache = new ArrayList<EntityKeyphraseData>();
-            entityKeyphrases.put(entityId, entityCache);
-          }
-          entityCache.add(ekd);
-        }
-      }
-
       rs.close();
       statement.close();
 
-      addToEntityKeyphrasesCache(querySignature, entityKeyphrases);
-
+      for (int entityId : missingEntities) {
+        EntityKeytermsBuilder builder = entityKeyphrases.get(entityId);
+        EntityKeyterms ekts = (builder != null) ? builder.build(useSources) : EntityKeyterms.EMPTY;
+        kpc.put(entityId, ekts);
+        entityKeyphrasesCache.put(getCacheKey(signatureId, entityId), ekts);
+      }
     } catch (Exception e) {
       logger_.error(e.getLocalizedMessage());
     } finally {
@@ -322,42 +267,25 @@ class DataAccessSQLCache {
     return kpc;
   }
   
-  public KeytermsCache<EntityKeywordsData> getEntityKeywordsCache(
+  public TIntObjectHashMap<EntityKeyterms> getEntityKeywordsCache(
       Entities entities, Map<String, Double> keyphraseSourceWeights, 
       TIntObjectHashMap<int[]> entityKeyphrases, TIntObjectHashMap<int[]> keyphraseTokens,
       double minKeyphraseWeight, int maxEntityKeyphraseCount) {
     String querySignature = createEntityKeyphrasesQuerySignature(keyphraseSourceWeights, minKeyphraseWeight, maxEntityKeyphraseCount);
-    KeytermsCache<EntityKeywordsData> kwc = new KeytermsCache<EntityKeywordsData>();
-    CachingHashMap<Integer, List<EntityKeywordsData>> queryCache = null;
-    synchronized (entityKeywordsCaches) {
-      queryCache = entityKeywordsCaches.get(querySignature);
-      if (queryCache == null) {
-        int maxEntities = AidaConfig.getAsInt(AidaConfig.ENTITIES_CACHE_SIZE);
-        queryCache = new CachingHashMap<Integer, List<EntityKeywordsData>>(maxEntities);
-        entityKeywordsCaches.put(querySignature, queryCache);
-      }
-    }
+    int signatureId = getQuerySignatureId(querySignature);
+    TIntObjectHashMap<EntityKeyterms> kwc = new TIntObjectHashMap<EntityKeyterms>();
     Set<Integer> missingEntities = new HashSet<Integer>();
     for (int eId : entities.getUniqueIds()) {
-      List<EntityKeywordsData> ekds = queryCache.get(eId);
-      if (ekds == null) {
+      EntityKeyterms ekts = entityKeywordsCache.get(getCacheKey(signatureId, eId));
+      if (ekts == null) {
         missingEntities.add(eId);
-        ++entityKeywordsCacheMisses;
       } else {
-        // Cache hit.
-        for (EntityKeywordsData ekd : ekds) {
-          kwc.add(eId, ekd);
-        }
-        // Move element to the front so that CachingHashMap can keep track.        
-        queryCache.put(eId, ekds);
-        ++entityKeywordsCacheHits;
+        kwc.put(eId, ekts);
       }
     }
 
-    logger_.debug("Keyword Cache hits/misses :" + entityKeywordsCacheHits + "/" + entityKeywordsCacheMisses);
-    for (Entry<String, CachingHashMap<Integer, List<EntityKeywordsData>>> c : entityKeywordsCaches.entrySet()) {
-      logger_.debug("Keyword Cache size (" + c.getKey() + "):" + c.getValue().size());
-    }
+    logger_.debug("Keyword Cache hits/misses :" + entityKeywordsCache.getHitCount() + "/" + entityKeywordsCache.getMissCount());
+    logger_.debug("Keyword Cache size :" + entityKeywordsCache.size());
 
     if (missingEntities.isEmpty()) {
       // All entities are cached.
@@ -398,7 +326,7 @@ class DataAccessSQLCache {
       sql.append(DataAccessSQL.ENTITY_KEYWORDS).append(" WHERE entity IN (").append(entityQueryString).append(")");
    
       
-      TIntObjectHashMap<List<EntityKeywordsData>> entityKeywords = new TIntObjectHashMap<List<EntityKeywordsData>>();
+      TIntObjectHashMap<EntityKeytermsBuilder> entityKeywords = new TIntObjectHashMap<EntityKeytermsBuilder>();
       ResultSet rs = statement.executeQuery(sql.toString());
 
       while (rs.next()) {
@@ -413,17 +341,23 @@ class DataAccessSQLCache {
         }
         
         double keywordWeight = rs.getDouble("weight");
-        kwc.add(entityId, new EntityKeywordsData(keyword, keywordWeight));
-        List<EntityKeywordsData> entityCache = entityKeywords.get(entityId);
-        if (entityCache == null) {
-          entityCache = new ArrayList<EntityKeywordsData>();
-          entityKeywords.put(entityId, entityCache);
+        EntityKeytermsBuilder builder = entityKeywords.get(entityId);
+        if (builder == null) {
+          builder = new EntityKeytermsBuilder();
+          entityKeywords.put(entityId, builder);
         }
-        entityCache.add(new EntityKeywordsData(keyword, keywordWeight));
+        builder.add(keyword, keywordWeight, 0);
       } // end while
 
-      addToEntityKeywordsCache(querySignature, entityKeywords);
+      rs.close();
+      statement.close();
 
+      for (int entityId : missingEntities) {
+        EntityKeytermsBuilder builder = entityKeywords.get(entityId);
+        EntityKeyterms ekts = (builder != null) ? builder.build(false) : EntityKeyterms.EMPTY;
+        kwc.put(entityId, ekts);
+        entityKeywordsCache.put(getCacheKey(signatureId, entityId), ekts);
+      }
     } catch (Exception e) {
       logger_.error(e.getLocalizedMessage());
     } finally {
@@ -433,36 +367,17 @@ class DataAccessSQLCache {
     return kwc;
   }
 
-  private synchronized void addToEntityKeyphrasesCache(String querySignature, TIntObjectHashMap<List<EntityKeyphraseData>> entityKeyphrases) {
-    CachingHashMap<Integer, List<EntityKeyphraseData>> queryCache = entityKeyphrasesCaches.get(querySignature);
-    if (queryCache == null) {
-      int maxEntities = AidaConfig.getAsInt(AidaConfig.ENTITIES_CACHE_SIZE);
-      queryCache = new CachingHashMap<Integer, List<EntityKeyphraseData>>(maxEntities);
-      entityKeyphrasesCaches.put(querySignature, queryCache);
-    }
-
-    for (TIntObjectIterator<List<EntityKeyphraseData>> itr = entityKeyphrases.iterator(); itr.hasNext();) {
-      itr.advance();
-      int entityId = itr.key();
-      List<EntityKeyphraseData> keyphrases = itr.value();
-      queryCache.put(entityId, keyphrases);
+  private int getQuerySignatureId(String querySignature) {
+    Integer signatureId = querySignatureIds.get(querySignature);
+    if (signatureId == null) {
+      querySignatureIds.putIfAbsent(querySignature, nextQuerySignatureId.getAndIncrement());
+      signatureId = querySignatureIds.get(querySignature);
     }
+    return signatureId;
   }
-  
-  private synchronized void addToEntityKeywordsCache(String querySignature, TIntObjectHashMap<List<EntityKeywordsData>> entityKeywords) {
-    CachingHashMap<Integer, List<EntityKeywordsData>> queryCache = entityKeywordsCaches.get(querySignature);
-    if (queryCache == null) {
-      int maxEntities = AidaConfig.getAsInt(AidaConfig.ENTITIES_CACHE_SIZE);
-      queryCache = new CachingHashMap<Integer, List<EntityKeywordsData>>(maxEntities);
-      entityKeywordsCaches.put(querySignature, queryCache);
-    }
 
-    for (TIntObjectIterator<List<EntityKeywordsData>> itr = entityKeywords.iterator(); itr.hasNext();) {
-      itr.advance();
-      int entityId = itr.key();
-      List<EntityKeywordsData> keyphrases = itr.value();
-      queryCache.put(entityId, keyphrases);
-    }
+  private long getCacheKey(int signatureId, int entityId) {
+    return ((long) signatureId << 32) | (entityId & 0xFFFFFFFFL);
   }
 
   private String createEntityKeyphrasesQuerySignature(Map<String, Double> keyphraseSourceWeights, double minKeyphraseWeight,
@@ -33,7 +33,7 @@ public class DataAccessUnitCountCacheTarget extends DataAccessIntIntCacheTarget
 
   @Override
   protected void loadFromDb() {
-    data_ = DataAccess.getAllUnitDocumentFrequencies(unitType);
+    setData(DataAccess.getAllUnitDocumentFrequencies(unitType));
     if (data_ == null)
       logger_.info("Could not load " + getId() + " from DB.");
   }
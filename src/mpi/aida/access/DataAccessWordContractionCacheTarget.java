@@ -19,6 +19,6 @@ public class DataAccessWordContractionCacheTarget extends DataAccessIntIntCacheT
 
   @Override
   protected void loadFromDb() {
-    data_ = DataAccess.getAllWordContractions();    
+    setData(DataAccess.getAllWordContractions());
   }
 }
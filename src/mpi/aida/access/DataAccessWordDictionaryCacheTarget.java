@@ -0,0 +1,250 @@
+package mpi.aida.access;
+
+import gnu.trove.iterator.TObjectIntIterator;
+import gnu.trove.map.hash.TObjectIntHashMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Resident word dictionary answering word to id and id to word lookups
+ * in-process. The cache file is memory-mapped read-only.
+ *
+ * Words are stored UTF-8 encoded in one blob, indexed by id through an
+ * offset array. Word to id lookups use an open-addressing hash table of ids
+ * and compare the candidates against the blob without decoding them into
+ * Strings, so they do not allocate.
+ *
+ * File layout: common header, maximum id, table size, blob length, offsets
+ * (maximum id + 2), table, blob.
+ */
+public class DataAccessWordDictionaryCacheTarget extends DataAccessMappedCacheTarget {
+
+  public static final String ID = "WORD_DICTIONARY";
+
+  private static final int MAGIC = 0x41494457; // "AIDW"
+
+  private static final int VERSION = 1;
+
+  /** Slot value of the hash table for empty slots, ids are stored + 1. */
+  private static final int EMPTY = 0;
+
+  /** Start of the word with id i in the blob, the word ends at offset i+1. */
+  private IntBuffer offsets_;
+
+  private IntBuffer table_;
+
+  private ByteBuffer blob_;
+
+  private int maxId_;
+
+  private int tableMask_;
+
+  @Override
+  public String getId() {
+    return ID;
+  }
+
+  @Override
+  protected File getCacheFile() {
+    return new File("aida-word_dictionary.cache");
+  }
+
+  /**
+   * @return Id of the word, 0 if the word is unknown.
+   */
+  public int getIdForWord(String word) {
+    int slot = hash(word) & tableMask_;
+    while (true) {
+      int value = table_.get(slot);
+      if (value == EMPTY) {
+        return 0;
+      }
+      if (matches(value - 1, word)) {
+        return value - 1;
+      }
+      slot = (slot + 1) & tableMask_;
+    }
+  }
+
+  /**
+   * @return Word with the id, null if the id is unknown.
+   */
+  public String getWordForId(int id) {
+    if (id < 0 || id > maxId_) {
+      return null;
+    }
+    int start = offsets_.get(id);
+    int length = offsets_.get(id + 1) - start;
+    if (length == 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    ByteBuffer blob = blob_.duplicate();
+    blob.position(start);
+    blob.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  public int getMaximumId() {
+    return maxId_;
+  }
+
+  /**
+   * FNV-1a over the UTF-16 chars, so that lookups need no encoding.
+   */
+  private static int hash(String word) {
+    int h = 0x811c9dc5;
+    for (int i = 0; i < word.length(); ++i) {
+      h ^= word.charAt(i);
+      h *= 0x01000193;
+    }
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Decodes the UTF-8 bytes of the word with the id char by char and
+   * compares them to the given word.
+   */
+  private boolean matches(int id, String word) {
+    int pos = offsets_.get(id);
+    int end = offsets_.get(id + 1);
+    int length = word.length();
+    int i = 0;
+    while (pos < end) {
+      int b = blob_.get(pos++) & 0xFF;
+      int c;
+      if (b < 0x80) {
+        c = b;
+      } else if (b < 0xE0) {
+        c = ((b & 0x1F) << 6) | (blob_.get(pos++) & 0x3F);
+      } else if (b < 0xF0) {
+        c = ((b & 0x0F) << 12) | ((blob_.get(pos++) & 0x3F) << 6)
+            | (blob_.get(pos++) & 0x3F);
+      } else {
+        int codePoint = ((b & 0x07) << 18) | ((blob_.get(pos++) & 0x3F) << 12)
+            | ((blob_.get(pos++) & 0x3F) << 6) | (blob_.get(pos++) & 0x3F);
+        if (i >= length || word.charAt(i) != Character.highSurrogate(codePoint)) {
+          return false;
+        }
+        ++i;
+        c = Character.lowSurrogate(codePoint);
+      }
+      if (i >= length || word.charAt(i) != c) {
+        return false;
+      }
+      ++i;
+    }
+    return i == length;
+  }
+
+  @Override
+  protected void loadFromDb() {
+    setWords(DataAccess.getAllWordIds());
+  }
+
+  /**
+   * Builds the dictionary in memory.
+   */
+  void setWords(TObjectIntHashMap<String> wordIds) {
+    int maxId = 0;
+    for (TObjectIntIterator<String> itr = wordIds.iterator(); itr.hasNext(); ) {
+      itr.advance();
+      maxId = Math.max(maxId, itr.value());
+    }
+    byte[][] words = new byte[maxId + 1][];
+    long blobLength = 0;
+    for (TObjectIntIterator<String> itr = wordIds.iterator(); itr.hasNext(); ) {
+      itr.advance();
+      words[itr.value()] = itr.key().getBytes(StandardCharsets.UTF_8);
+      blobLength += words[itr.value()].length;
+    }
+    if (blobLength > Integer.MAX_VALUE) {
+      throw new IllegalStateException("Words exceed the maximum dictionary size.");
+    }
+
+    // Keep the load factor below 2/3 for short probe sequences.
+    int tableSize = Integer.highestOneBit(Math.max(wordIds.size() + wordIds.size() / 2, 1)) << 1;
+    IntBuffer offsets = IntBuffer.allocate(maxId + 2);
+    IntBuffer table = IntBuffer.allocate(tableSize);
+    ByteBuffer blob = ByteBuffer.allocate((int) blobLength);
+    for (int id = 0; id <= maxId; ++id) {
+      offsets.put(id, blob.position());
+      if (words[id] != null) {
+        blob.put(words[id]);
+      }
+    }
+    offsets.put(maxId + 1, blob.position());
+    for (TObjectIntIterator<String> itr = wordIds.iterator(); itr.hasNext(); ) {
+      itr.advance();
+      int slot = hash(itr.key()) & (tableSize - 1);
+      while (table.get(slot) != EMPTY) {
+        slot = (slot + 1) & (tableSize - 1);
+      }
+      table.put(slot, itr.value() + 1);
+    }
+    setBuffers(offsets, table, blob, maxId);
+  }
+
+  private void setBuffers(IntBuffer offsets, IntBuffer table, ByteBuffer blob, int maxId) {
+    offsets_ = offsets;
+    table_ = table;
+    blob_ = blob;
+    maxId_ = maxId;
+    tableMask_ = table.limit() - 1;
+  }
+
+  @Override
+  protected int getMagic() {
+    return MAGIC;
+  }
+
+  @Override
+  protected int getVersion() {
+    return VERSION;
+  }
+
+  @Override
+  protected int getHeaderBytes() {
+    return 12;
+  }
+
+  @Override
+  protected boolean map(FileChannel channel, ByteBuffer header, long dataStart)
+      throws IOException {
+    int maxId = header.getInt();
+    int tableSize = header.getInt();
+    int blobLength = header.getInt();
+    long offsetsBytes = 4L * (maxId + 2);
+    long tableBytes = 4L * tableSize;
+    if (channel.size() != dataStart + offsetsBytes + tableBytes + blobLength
+        || Integer.bitCount(tableSize) != 1) {
+      return false;
+    }
+    setBuffers(
+        map(channel, dataStart, offsetsBytes).asIntBuffer(),
+        map(channel, dataStart + offsetsBytes, tableBytes).asIntBuffer(),
+        map(channel, dataStart + offsetsBytes + tableBytes, blobLength),
+        maxId);
+    return true;
+  }
+
+  @Override
+  protected void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+    buffer.putInt(maxId_);
+    buffer.putInt(table_.limit());
+    buffer.putInt(blob_.limit());
+    putInts(channel, buffer, offsets_);
+    putInts(channel, buffer, table_);
+    writeFully(channel, buffer);
+    ByteBuffer blob = blob_.duplicate();
+    blob.clear();
+    while (blob.hasRemaining()) {
+      channel.write(blob);
+    }
+  }
+}
@@ -19,6 +19,6 @@ public class DataAccessWordExpansionCacheTarget extends DataAccessIntIntCacheTar
 
   @Override
   protected void loadFromDb() {
-    data_ = DataAccess.getAllWordExpansions();    
+    setData(DataAccess.getAllWordExpansions());
   }
 }
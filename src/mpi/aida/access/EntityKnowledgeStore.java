@@ -0,0 +1,286 @@
+package mpi.aida.access;
+
+import gnu.trove.map.hash.TIntDoubleHashMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Read-only, memory-mapped store of the keyphrases, keywords and keyphrase
+ * tokens of all entities. The values are read in place from primitive
+ * columns, nothing is parsed per request.
+ *
+ * Each entity owns a range of the keyphrase and keyword columns, each
+ * keyphrase a range of the token column. The ranges are given by offset
+ * tables indexed by id. The keyphrases of an entity are sorted by
+ * descending weight, so the minimum weight and the maximum count of
+ * keyphrases are both prefixes of the range.
+ *
+ * File layout (little-endian): magic, version, entity count (maximum entity
+ * id + 1), keyphrase count (maximum keyphrase id + 1), source count, unused,
+ * entity keyphrase count (long), entity keyword count (long), token count
+ * (long), then
+ * keyphrase offsets (long, entity count + 1), keyphrase ids (int),
+ * keyphrase weights (double), keyphrase sources (int),
+ * keyword offsets (long, entity count + 1), keyword ids (int),
+ * keyword weights (double),
+ * token offsets (long, keyphrase count + 1), tokens (int),
+ * and per source: id (int), weight (double, NaN if unknown), name length
+ * (int), name (UTF-8).
+ *
+ * The store is created by {@link EntityKnowledgeStoreWriter}.
+ */
+public class EntityKnowledgeStore {
+
+  static final int MAGIC = 0x4149444b; // "AIDK"
+
+  static final int VERSION = 1;
+
+  static final int HEADER_BYTES = 48;
+
+  private final int entityCount_;
+
+  private final int keyphraseCount_;
+
+  private final Column keyphraseOffsets_;
+
+  private final Column keyphraseIds_;
+
+  private final Column keyphraseWeights_;
+
+  private final Column keyphraseSources_;
+
+  private final Column keywordOffsets_;
+
+  private final Column keywordIds_;
+
+  private final Column keywordWeights_;
+
+  private final Column tokenOffsets_;
+
+  private final Column tokens_;
+
+  private final TObjectIntHashMap<String> sourceIds_ = new TObjectIntHashMap<String>();
+
+  private final TIntDoubleHashMap sourceWeights_ = new TIntDoubleHashMap();
+
+  private final Map<String, Double> sourceWeightsByName_ = new HashMap<String, Double>();
+
+  /**
+   * Maps the store file.
+   *
+   * @throws IOException If the file cannot be read or is no valid store.
+   */
+  public EntityKnowledgeStore(File file) throws IOException {
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+         FileChannel channel = raf.getChannel()) {
+      if (channel.size() < HEADER_BYTES) {
+        throw new IOException(file + " is not a valid entity knowledge store.");
+      }
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      channel.read(header, 0);
+      header.flip();
+      if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+        throw new IOException(file + " is not a valid entity knowledge store, "
+            + "it might have been created by another version.");
+      }
+      entityCount_ = header.getInt();
+      keyphraseCount_ = header.getInt();
+      int sourceCount = header.getInt();
+      header.getInt();
+      long keyphraseEntries = header.getLong();
+      long keywordEntries = header.getLong();
+      long tokenEntries = header.getLong();
+
+      // The mappings stay valid after the channel is closed.
+      long position = HEADER_BYTES;
+      keyphraseOffsets_ = new Column(channel, position, entityCount_ + 1L, 8);
+      position += 8 * (entityCount_ + 1L);
+      keyphraseIds_ = new Column(channel, position, keyphraseEntries, 4);
+      position += 4 * keyphraseEntries;
+      keyphraseWeights_ = new Column(channel, position, keyphraseEntries, 8);
+      position += 8 * keyphraseEntries;
+      keyphraseSources_ = new Column(channel, position, keyphraseEntries, 4);
+      position += 4 * keyphraseEntries;
+      keywordOffsets_ = new Column(channel, position, entityCount_ + 1L, 8);
+      position += 8 * (entityCount_ + 1L);
+      keywordIds_ = new Column(channel, position, keywordEntries, 4);
+      position += 4 * keywordEntries;
+      keywordWeights_ = new Column(channel, position, keywordEntries, 8);
+      position += 8 * keywordEntries;
+      tokenOffsets_ = new Column(channel, position, keyphraseCount_ + 1L, 8);
+      position += 8 * (keyphraseCount_ + 1L);
+      tokens_ = new Column(channel, position, tokenEntries, 4);
+      position += 4 * tokenEntries;
+
+      ByteBuffer sources = channel.map(FileChannel.MapMode.READ_ONLY,
+          position, channel.size() - position).order(ByteOrder.LITTLE_ENDIAN);
+      for (int i = 0; i < sourceCount; ++i) {
+        int id = sources.getInt();
+        double weight = sources.getDouble();
+        byte[] name = new byte[sources.getInt()];
+        sources.get(name);
+        String sourceName = new String(name, StandardCharsets.UTF_8);
+        sourceIds_.put(sourceName, id);
+        if (!Double.isNaN(weight)) {
+          sourceWeights_.put(id, weight);
+          sourceWeightsByName_.put(sourceName, weight);
+        }
+      }
+    } catch (RuntimeException e) {
+      // Thrown by the buffers if the file is truncated.
+      throw new IOException(file + " is not a valid entity knowledge store: " + e, e);
+    }
+  }
+
+  /**
+   * @return Position of the first keyphrase of the entity in the keyphrase
+   * columns, equal to the end if the entity has none.
+   */
+  public long getKeyphrasesStart(int entity) {
+    return (entity < 0 || entity >= entityCount_) ? 0 : keyphraseOffsets_.getLong(entity);
+  }
+
+  /**
+   * @return Position after the last keyphrase of the entity.
+   */
+  public long getKeyphrasesEnd(int entity) {
+    return (entity < 0 || entity >= entityCount_) ? 0 : keyphraseOffsets_.getLong(entity + 1);
+  }
+
+  public int getKeyphrase(long position) {
+    return keyphraseIds_.getInt(position);
+  }
+
+  public double getKeyphraseWeight(long position) {
+    return keyphraseWeights_.getDouble(position);
+  }
+
+  public int getKeyphraseSource(long position) {
+    return keyphraseSources_.getInt(position);
+  }
+
+  /**
+   * @return Position of the first keyword of the entity in the keyword
+   * columns, equal to the end if the entity has none.
+   */
+  public long getKeywordsStart(int entity) {
+    return (entity < 0 || entity >= entityCount_) ? 0 : keywordOffsets_.getLong(entity);
+  }
+
+  /**
+   * @return Position after the last keyword of the entity.
+   */
+  public long getKeywordsEnd(int entity) {
+    return (entity < 0 || entity >= entityCount_) ? 0 : keywordOffsets_.getLong(entity + 1);
+  }
+
+  public int getKeyword(long position) {
+    return keywordIds_.getInt(position);
+  }
+
+  public double getKeywordWeight(long position) {
+    return keywordWeights_.getDouble(position);
+  }
+
+  /**
+   * @return Tokens of the keyphrase in their order, null if the keyphrase
+   * is unknown.
+   */
+  public int[] getKeyphraseTokens(int keyphrase) {
+    if (keyphrase < 0 || keyphrase >= keyphraseCount_) {
+      return null;
+    }
+    long start = tokenOffsets_.getLong(keyphrase);
+    long end = tokenOffsets_.getLong(keyphrase + 1);
+    if (start == end) {
+      return null;
+    }
+    int[] tokens = new int[(int) (end - start)];
+    for (int i = 0; i < tokens.length; ++i) {
+      tokens[i] = tokens_.getInt(start + i);
+    }
+    return tokens;
+  }
+
+  /**
+   * @return Keyphrase source name to id, a new copy.
+   */
+  public TObjectIntHashMap<String> getSourceIds() {
+    return new TObjectIntHashMap<String>(sourceIds_);
+  }
+
+  /**
+   * @return Keyphrase source id to weight, a new copy.
+   */
+  public TIntDoubleHashMap getSourceWeights() {
+    return new TIntDoubleHashMap(sourceWeights_);
+  }
+
+  /**
+   * @return Keyphrase source name to weight, a new copy.
+   */
+  public Map<String, Double> getSourceWeightsByName() {
+    return new HashMap<String, Double>(sourceWeightsByName_);
+  }
+
+  /**
+   * Primitive values of one type mapped from the file. A single mapping is
+   * limited to 2GB, so large columns are split into segments.
+   */
+  private static class Column {
+    private static final int SEGMENT_BYTES_LOG = 30;
+
+    private final ByteBuffer[] segments_;
+
+    private final int elementBytesLog_;
+
+    private final long segmentMask_;
+
+    public Column(FileChannel channel, long start, long length, int elementBytes)
+        throws IOException {
+      elementBytesLog_ = Integer.numberOfTrailingZeros(elementBytes);
+      long elementsPerSegment = 1L << (SEGMENT_BYTES_LOG - elementBytesLog_);
+      segmentMask_ = elementsPerSegment - 1;
+      long bytes = length * elementBytes;
+      if (start + bytes > channel.size()) {
+        throw new IOException("Column exceeds the file.");
+      }
+      segments_ = new ByteBuffer[(int) ((length + elementsPerSegment - 1) / elementsPerSegment)];
+      for (int s = 0; s < segments_.length; ++s) {
+        long segmentStart = (long) s << SEGMENT_BYTES_LOG;
+        long segmentBytes = Math.min(1L << SEGMENT_BYTES_LOG, bytes - segmentStart);
+        segments_[s] = channel.map(FileChannel.MapMode.READ_ONLY,
+            start + segmentStart, segmentBytes).order(ByteOrder.LITTLE_ENDIAN);
+      }
+    }
+
+    private ByteBuffer segment(long index) {
+      return segments_[(int) (index >>> (SEGMENT_BYTES_LOG - elementBytesLog_))];
+    }
+
+    private int offset(long index) {
+      return (int) ((index & segmentMask_) << elementBytesLog_);
+    }
+
+    public int getInt(long index) {
+      return segment(index).getInt(offset(index));
+    }
+
+    public long getLong(long index) {
+      return segment(index).getLong(offset(index));
+    }
+
+    public double getDouble(long index) {
+      return segment(index).getDouble(offset(index));
+    }
+  }
+}
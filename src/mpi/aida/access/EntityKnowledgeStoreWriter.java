@@ -0,0 +1,326 @@
+package mpi.aida.access;
+
+import gnu.trove.list.array.TDoubleArrayList;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.list.array.TLongArrayList;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import mpi.aida.util.AtomicFiles;
+
+/**
+ * Creates an {@link EntityKnowledgeStore} from rows grouped by their key:
+ * the entity keyphrases and keywords by ascending entity, the keyphrase
+ * tokens by ascending keyphrase and in token order. The columns are
+ * spooled to unique temporary files next to the store, so only the offsets
+ * and the keyphrases of the current entity are held in memory, and
+ * concurrent writers do not interfere. The temporary files are removed by
+ * build() or, if the store is not built, by close().
+ */
+public class EntityKnowledgeStoreWriter implements Closeable {
+
+  private final File file_;
+
+  /** All column files created so far. */
+  private final List<ColumnFile> columns_ = new ArrayList<ColumnFile>();
+
+  private final ColumnFile keyphraseIds_;
+
+  private final ColumnFile keyphraseWeights_;
+
+  private final ColumnFile keyphraseSources_;
+
+  private final ColumnFile keywordIds_;
+
+  private final ColumnFile keywordWeights_;
+
+  private final ColumnFile tokens_;
+
+  private final TLongArrayList keyphraseOffsets_ = new TLongArrayList();
+
+  private final TLongArrayList keywordOffsets_ = new TLongArrayList();
+
+  private final TLongArrayList tokenOffsets_ = new TLongArrayList();
+
+  /** Keyphrases of the current entity, written sorted by weight. */
+  private int currentEntity_ = -1;
+  private final TIntArrayList currentKeyphrases_ = new TIntArrayList();
+  private final TDoubleArrayList currentWeights_ = new TDoubleArrayList();
+  private final TIntArrayList currentSources_ = new TIntArrayList();
+
+  private final List<Object[]> sources_ = new ArrayList<Object[]>();
+
+  public EntityKnowledgeStoreWriter(File file) throws IOException {
+    file_ = file;
+    try {
+      keyphraseIds_ = new ColumnFile("kpids");
+      keyphraseWeights_ = new ColumnFile("kpweights");
+      keyphraseSources_ = new ColumnFile("kpsources");
+      keywordIds_ = new ColumnFile("kwids");
+      keywordWeights_ = new ColumnFile("kwweights");
+      tokens_ = new ColumnFile("tokens");
+    } catch (IOException e) {
+      close();
+      throw e;
+    }
+  }
+
+  /**
+   * Adds a keyphrase of the entity. Entities must be added in ascending
+   * order, the keyphrases of an entity in any order.
+   */
+  public void addEntityKeyphrase(int entity, int keyphrase, double weight, int source)
+      throws IOException {
+    if (entity != currentEntity_) {
+      if (entity < currentEntity_) {
+        throw new IllegalArgumentException("Entity keyphrases are not sorted by entity: "
+            + entity + " after " + currentEntity_ + ".");
+      }
+      flushEntityKeyphrases();
+      currentEntity_ = entity;
+    }
+    currentKeyphrases_.add(keyphrase);
+    currentWeights_.add(weight);
+    currentSources_.add(source);
+  }
+
+  /**
+   * Adds a keyword of the entity. Entities must be added in ascending order.
+   */
+  public void addEntityKeyword(int entity, int keyword, double weight) throws IOException {
+    startRange(keywordOffsets_, entity, keywordIds_.count_, "Entity keywords", "entity");
+    keywordIds_.putInt(keyword);
+    keywordWeights_.putDouble(weight);
+  }
+
+  /**
+   * Adds the next token of the keyphrase. Keyphrases must be added in
+   * ascending order, their tokens in order.
+   */
+  public void addKeyphraseToken(int keyphrase, int token) throws IOException {
+    startRange(tokenOffsets_, keyphrase, tokens_.count_, "Keyphrase tokens", "keyphrase");
+    tokens_.putInt(token);
+  }
+
+  /**
+   * @param weight  Weight of the source, NaN if it has none.
+   */
+  public void addKeyphraseSource(int id, String name, double weight) {
+    sources_.add(new Object[] { id, name, weight });
+  }
+
+  /**
+   * Extends the offsets up to the key, the range of the key starts at the
+   * current count.
+   */
+  private void startRange(TLongArrayList offsets, int key, long count, String what, String keyName) {
+    if (key < offsets.size() - 1) {
+      throw new IllegalArgumentException(what + " are not sorted by " + keyName + ": "
+          + key + " after " + (offsets.size() - 1) + ".");
+    }
+    fillOffsets(offsets, key + 1, count);
+  }
+
+  private void fillOffsets(TLongArrayList offsets, int size, long count) {
+    while (offsets.size() < size) {
+      offsets.add(count);
+    }
+  }
+
+  private void flushEntityKeyphrases() throws IOException {
+    if (currentEntity_ < 0) {
+      return;
+    }
+    startRange(keyphraseOffsets_, currentEntity_, keyphraseIds_.count_, "Entity keyphrases", "entity");
+    int size = currentKeyphrases_.size();
+    // Sort positions by descending weight, ties by ascending keyphrase.
+    Integer[] order = new Integer[size];
+    for (int i = 0; i < size; ++i) {
+      order[i] = i;
+    }
+    Arrays.sort(order, new Comparator<Integer>() {
+
+      @Override
+      public int compare(Integer a, Integer b) {
+        int byWeight = Double.compare(currentWeights_.get(b), currentWeights_.get(a));
+        return byWeight != 0 ? byWeight
+            : Integer.compare(currentKeyphrases_.get(a), currentKeyphrases_.get(b));
+      }
+    });
+    for (int i : order) {
+      keyphraseIds_.putInt(currentKeyphrases_.get(i));
+      keyphraseWeights_.putDouble(currentWeights_.get(i));
+      keyphraseSources_.putInt(currentSources_.get(i));
+    }
+    currentKeyphrases_.clear();
+    currentWeights_.clear();
+    currentSources_.clear();
+  }
+
+  /**
+   * Writes the store and removes the temporary files. The store is written
+   * to a unique temporary file first and then moved, so that readers never
+   * map a partially written store.
+   */
+  public void build() throws IOException {
+    flushEntityKeyphrases();
+    int entityCount = Math.max(keyphraseOffsets_.size(), keywordOffsets_.size());
+    int keyphraseCount = tokenOffsets_.size();
+    // Close the ranges of the last keys and of entities without keyphrases
+    // or keywords.
+    fillOffsets(keyphraseOffsets_, entityCount + 1, keyphraseIds_.count_);
+    fillOffsets(keywordOffsets_, entityCount + 1, keywordIds_.count_);
+    fillOffsets(tokenOffsets_, keyphraseCount + 1, tokens_.count_);
+
+    File tmpFile = AtomicFiles.createTempFile(file_);
+    try {
+      try (RandomAccessFile raf = new RandomAccessFile(tmpFile, "rw");
+           FileChannel channel = raf.getChannel()) {
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(EntityKnowledgeStore.MAGIC);
+        buffer.putInt(EntityKnowledgeStore.VERSION);
+        buffer.putInt(entityCount);
+        buffer.putInt(keyphraseCount);
+        buffer.putInt(sources_.size());
+        buffer.putInt(0);
+        buffer.putLong(keyphraseIds_.count_);
+        buffer.putLong(keywordIds_.count_);
+        buffer.putLong(tokens_.count_);
+        writeOffsets(channel, buffer, keyphraseOffsets_);
+        writeFully(channel, buffer);
+        keyphraseIds_.transferTo(channel);
+        keyphraseWeights_.transferTo(channel);
+        keyphraseSources_.transferTo(channel);
+        writeOffsets(channel, buffer, keywordOffsets_);
+        writeFully(channel, buffer);
+        keywordIds_.transferTo(channel);
+        keywordWeights_.transferTo(channel);
+        writeOffsets(channel, buffer, tokenOffsets_);
+        writeFully(channel, buffer);
+        tokens_.transferTo(channel);
+        for (Object[] source : sources_) {
+          byte[] name = ((String) source[1]).getBytes(StandardCharsets.UTF_8);
+          if (buffer.remaining() < 16 + name.length) {
+            writeFully(channel, buffer);
+          }
+          buffer.putInt((Integer) source[0]);
+          buffer.putDouble((Double) source[2]);
+          buffer.putInt(name.length);
+          buffer.put(name);
+        }
+        writeFully(channel, buffer);
+      } finally {
+        close();
+      }
+      AtomicFiles.moveInPlace(tmpFile, file_);
+    } finally {
+      // Only left over if writing failed.
+      tmpFile.delete();
+    }
+  }
+
+  /**
+   * Removes the temporary files without building the store, e.g. after a
+   * failed read of the input. Does nothing after build().
+   */
+  @Override
+  public void close() throws IOException {
+    IOException exception = null;
+    for (ColumnFile column : columns_) {
+      try {
+        column.delete();
+      } catch (IOException e) {
+        exception = e;
+      }
+    }
+    columns_.clear();
+    if (exception != null) {
+      throw exception;
+    }
+  }
+
+  private void writeOffsets(FileChannel channel, ByteBuffer buffer, TLongArrayList offsets)
+      throws IOException {
+    for (int i = 0; i < offsets.size(); ++i) {
+      if (buffer.remaining() < 8) {
+        writeFully(channel, buffer);
+      }
+      buffer.putLong(offsets.get(i));
+    }
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  /**
+   * Temporary file holding the values of one column.
+   */
+  private class ColumnFile {
+    private final File tmpFile_;
+    private final RandomAccessFile raf_;
+    private final FileChannel channel_;
+    private final ByteBuffer buffer_ =
+        ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+    private long count_;
+
+    public ColumnFile(String name) throws IOException {
+      tmpFile_ = AtomicFiles.createTempFile(new File(file_.getPath() + "." + name));
+      try {
+        raf_ = new RandomAccessFile(tmpFile_, "rw");
+      } catch (IOException e) {
+        tmpFile_.delete();
+        throw e;
+      }
+      channel_ = raf_.getChannel();
+      columns_.add(this);
+    }
+
+    public void putInt(int value) throws IOException {
+      if (buffer_.remaining() < 4) {
+        writeFully(channel_, buffer_);
+      }
+      buffer_.putInt(value);
+      ++count_;
+    }
+
+    public void putDouble(double value) throws IOException {
+      if (buffer_.remaining() < 8) {
+        writeFully(channel_, buffer_);
+      }
+      buffer_.putDouble(value);
+      ++count_;
+    }
+
+    public void transferTo(FileChannel target) throws IOException {
+      writeFully(channel_, buffer_);
+      long size = channel_.size();
+      for (long position = 0; position < size; ) {
+        position += channel_.transferTo(position, size - position, target);
+      }
+    }
+
+    public void delete() throws IOException {
+      try {
+        raf_.close();
+      } finally {
+        tmpFile_.delete();
+      }
+    }
+  }
+}
@@ -47,14 +47,44 @@ public class AidaConfig {
 
   public static final String EE_NUM_THREADS = "eeNumThreads";
 
+  /** Size of the pool shared by all documents for processing chunks. */
+  public static final String CHUNK_NUM_THREADS = "chunkNumThreads";
+
+  public static final String ME_NUM_THREADS = "meNumThreads";
+
+  /** Threads annotating the documents of one batch in the tokenizer pipeline. */
+  public static final String TOKENIZER_NUM_THREADS = "tokenizerNumThreads";
+
+  /** Size of the pool shared by all documents for running NER taggers. */
+  public static final String NER_NUM_THREADS = "nerNumThreads";
+
+  /** Documents of one batch disambiguated in parallel, see BatchDisambiguator. */
+  public static final String BATCH_NUM_THREADS = "batchNumThreads";
+
   public static final String LOAD_HYENA_MODELS = "loadHyenaModels";
 
   public static final String CACHE_WORD_DATA = "cacheWordData";
 
+  /** Load the inlinks of all entities once instead of per document. */
+  public static final String INLINK_STORE = "inlinkStore";
+
   public static final String ENTITIES_CONTEXT_CACHE_SIZE = "entitiesContextCacheSize";
 
+  /** Maximum size of the entity keyphrase and keyword caches, each. */
+  public static final String ENTITIES_CACHE_MAX_MB = "entitiesCacheMaxMB";
+
+  /** 
+   * Deprecated, replaced by ENTITIES_CACHE_MAX_MB. The number of cached
+   * entities, only read if ENTITIES_CACHE_MAX_MB is not set.
+   */
+  @Deprecated
   public static final String ENTITIES_CACHE_SIZE = "entitiesCacheSize";
 
+  /** Approximate size of the cached keyterms of one entity. */
+  private static final int ENTITY_CACHE_ENTRY_KB = 32;
+
+  private static volatile boolean warnedEntitiesCacheSize = false;
+
   //format is [knowledgebase:typename,knowledgebase:typename, ...etc]
   public static final String FILTERING_TYPES = "filteringTypes";
 
@@ -70,6 +100,9 @@ public class AidaConfig {
 
   public static final String DICTIONARY_LSH_MATCHING_MIN_SIM = "dictionary.fuzzy.lsh.minsim";
 
+  /** File of the prebuilt LSH index of the dictionary names. */
+  public static final String DICTIONARY_LSH_INDEX = "dictionary.fuzzy.lsh.index";
+
   public static final String RECONCILER_PERSON_MERGE = "reconciler.person.merge";
 
   public static final String PRELOAD_ENITTY_CONTEXTS = "preloadEntityContexts";
@@ -82,6 +115,15 @@ public class AidaConfig {
 
   public static final String LOG_WEB_CALLS = "webservice.log.enable";
 
+  /** Reuse the results of documents the service has seen before. */
+  public static final String RESULT_CACHE = "resultCache";
+
+  /** Maximum size of the in-memory tier of the result cache. */
+  public static final String RESULT_CACHE_MAX_MB = "resultCacheMaxMB";
+
+  /** Directory of the on-disk tier of the result cache, empty for none. */
+  public static final String RESULT_CACHE_PATH = "resultCachePath";
+
   private Properties properties;
 
   private String path = "aida.properties";
@@ -119,6 +161,18 @@ public class AidaConfig {
     return properties.containsKey(key);
   }
 
+  private static long getEntitiesCacheMaxMBFromSize() {
+    long entities = Long.parseLong(AidaConfig.getInstance().getValue(ENTITIES_CACHE_SIZE).trim());
+    long maxMB = (entities * ENTITY_CACHE_ENTRY_KB + 1023) / 1024;
+    if (!warnedEntitiesCacheSize) {
+      warnedEntitiesCacheSize = true;
+      logger.warn("'" + ENTITIES_CACHE_SIZE + "' is deprecated, set '" + 
+          ENTITIES_CACHE_MAX_MB + "' instead. Using " + maxMB + " MB for " +
+          entities + " entities.");
+    }
+    return maxMB;
+  }
+
   public static String get(String key) {
     String value = null;
     if (AidaConfig.getInstance().hasKey(key)) {
@@ -127,17 +181,26 @@ public class AidaConfig {
       // Some default values.
       if (key.equals(EE_NUM_THREADS)) {
         value = "8";
+      } else if (key.equals(CHUNK_NUM_THREADS) || key.equals(ME_NUM_THREADS)
+          || key.equals(TOKENIZER_NUM_THREADS) || key.equals(NER_NUM_THREADS)
+          || key.equals(BATCH_NUM_THREADS)) {
+        value = String.valueOf(Runtime.getRuntime().availableProcessors());
       } else if (key.equals(MAX_NUM_CANDIDATE_ENTITIES_FOR_GRAPH)) {
         // 0 means no limit.
         value = "0";
       } else if (key.equals(CACHE_WORD_DATA)) {
         value = "true";
+      } else if (key.equals(INLINK_STORE)) {
+        value = "true";
       } else if (key.equals(LANGUAGE)) {
         value = "en";
       } else if (key.equals(ENTITIES_CONTEXT_CACHE_SIZE)) {
         value = "10";
-      } else if (key.equals(ENTITIES_CACHE_SIZE)) {
-        value = "2000";
+      } else if (key.equals(ENTITIES_CACHE_MAX_MB)
+          && AidaConfig.getInstance().hasKey(ENTITIES_CACHE_SIZE)) {
+        value = String.valueOf(getEntitiesCacheMaxMBFromSize());
+      } else if (key.equals(ENTITIES_CACHE_MAX_MB)) {
+        value = "256";
       } else if (key.equals(FILTERING_TYPES)) {
         value = "";
       } else if (key.equals(DICTIONARY_FUZZY_MATCHING)) {
@@ -148,6 +211,8 @@ public class AidaConfig {
         value = "false";
       } else if (key.equals(DICTIONARY_LSH_MATCHING_MIN_SIM)) {
         value = "0.8";
+      } else if (key.equals(DICTIONARY_LSH_INDEX)) {
+        value = "aida-dictionary_lsh.cache";
       } else if (key.equals(DOCUMENT_CHUNK_STRATEGY)) {
         value = PreparationSettings.DOCUMENT_CHUNK_STRATEGY.SINGLE.toString();
       } else if (key.equals(FIXED_LENGTH_DOCUMENT_CHUNK_SIZE)) {
@@ -162,6 +227,12 @@ public class AidaConfig {
         value = "false";
       } else if (key.equals(LOG_WEB_CALLS)) {
         value = "false";
+      } else if (key.equals(RESULT_CACHE)) {
+        value = "false";
+      } else if (key.equals(RESULT_CACHE_MAX_MB)) {
+        value = "128";
+      } else if (key.equals(RESULT_CACHE_PATH)) {
+        value = "";
       } else {
         logger.error("" +
             "Missing key in properties file with no default value: " + key);
@@ -29,6 +29,9 @@ public class DMapConfig {
   
   public static final String DEFAULT_PREFIX = "default";
 
+  public static final String ENTITY_KNOWLEDGE_STORE = "entityKnowledgeStore";
+  public static final String ENTITY_KNOWLEDGE_STORE_DEFAULT = "entity_knowledge.store";
+
   private Properties properties;
 
   public static final String PATH = "dmap_aida.properties";
@@ -74,6 +77,19 @@ public class DMapConfig {
     return new File(DIRECTORY_DEFAULT);
   }
   
+  /**
+   * @return The columnar store of entity keyphrases, keywords and keyphrase
+   * tokens, relative to the DMap directory unless configured as absolute path.
+   */
+  public static File getEntityKnowledgeStoreFile() {
+    String name = ENTITY_KNOWLEDGE_STORE_DEFAULT;
+    if (DMapConfig.getInstance().hasKey(ENTITY_KNOWLEDGE_STORE)) {
+      name = DMapConfig.getInstance().getValue(ENTITY_KNOWLEDGE_STORE);
+    }
+    File file = new File(name);
+    return file.isAbsolute() ? file : new File(getDirectory(), name);
+  }
+
   public static boolean shouldPreloadKeys(DatabaseDMap databaseDMap) {
     String key = databaseDMap.getName() + "." + PRELOAD_KEYS_POSTFIX;
     if (DMapConfig.getInstance().hasKey(key)) {
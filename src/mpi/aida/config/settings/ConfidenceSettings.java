@@ -48,6 +48,24 @@ public class ConfidenceSettings {
    */
   private boolean combineReRunConfidence;
   
+  /**
+   * Upper bound for the total number of random flips, regardless of the
+   * number of mentions.
+   */
+  private int maxIterations = 10000;
+  
+  /**
+   * Time in milliseconds after which no further sampling tasks are started.
+   * At least one task is always sampled. 0 means no limit. Setting a budget
+   * makes the confidences depend on the timing, not only on the seed.
+   */
+  private long timeBudgetMillis = 0;
+  
+  /**
+   * Seed of the random flips. The same seed gives the same confidences.
+   */
+  private long seed = 1337L;
+  
   public int getIterationsPerMention() {
     return iterationsPerMention;
   }
@@ -88,12 +106,55 @@ public class ConfidenceSettings {
     this.combineReRunConfidence = combineReRunConfidence;
   }
 
+  public int getMaxIterations() {
+    return maxIterations;
+  }
+
+  public void setMaxIterations(int maxIterations) {
+    this.maxIterations = maxIterations;
+  }
+
+  public long getTimeBudgetMillis() {
+    return timeBudgetMillis;
+  }
+
+  public void setTimeBudgetMillis(long timeBudgetMillis) {
+    this.timeBudgetMillis = timeBudgetMillis;
+  }
+
+  public long getSeed() {
+    return seed;
+  }
+
+  public void setSeed(long seed) {
+    this.seed = seed;
+  }
+
   public Map<String, Object> getAsMap() {
     Map<String, Object> s = new HashMap<String, Object>();
     s.put("confidenceBalance", String.valueOf(confidenceBalance));
     s.put("mentionFlipPercentage", String.valueOf(mentionFlipPercentage));
     s.put("iterationsPerMention", String.valueOf(iterationsPerMention));
     s.put("scoreType", scoreType.toString());
+    s.put("maxIterations", String.valueOf(maxIterations));
+    s.put("timeBudgetMillis", String.valueOf(timeBudgetMillis));
+    s.put("seed", String.valueOf(seed));
     return s;
   }
+
+  /**
+   * @return Canonical string of all values, unlike {@link #getAsMap()}.
+   */
+  public String getFingerprint() {
+    return new SettingsFingerprint()
+      .add("confidenceBalance", confidenceBalance)
+      .add("mentionFlipPercentage", mentionFlipPercentage)
+      .add("iterationsPerMention", iterationsPerMention)
+      .add("scoreType", scoreType)
+      .add("combineReRunConfidence", combineReRunConfidence)
+      .add("maxIterations", maxIterations)
+      .add("timeBudgetMillis", timeBudgetMillis)
+      .add("seed", seed)
+      .toString();
+  }
 }
@@ -221,4 +221,27 @@ public class DisambiguationSettings implements Serializable {
     }
     return s;
   }
+
+  /**
+   * @return Canonical string of all values changing the results, unlike
+   * {@link #getAsMap()}. The number of chunk threads, the store file and the
+   * tracing target do not change them.
+   */
+  public String getFingerprint() {
+    return new SettingsFingerprint()
+      .add("disambiguationTechnique", disambiguationTechnique)
+      .add("disambiguationAlgorithm", disambiguationAlgorithm)
+      .add("similaritySettings", similaritySettings == null ?
+          null : similaritySettings.getFingerprint())
+      .add("maxEntityRank", maxEntityRank)
+      .add("maxCandidatesPerEntityByPrior", maxCandidatesPerEntityByPrior)
+      .add("nullMappingThreshold", nullMappingThreshold)
+      .add("includeNullAsEntityCandidate", includeNullAsEntityCandidate)
+      .add("includeContextMentions", includeContextMentions)
+      .add("graphSettings", graphSettings == null ? null : graphSettings.getFingerprint())
+      .add("computeConfidence", computeConfidence)
+      .add("confidenceSettings", confidenceSettings == null ?
+          null : confidenceSettings.getFingerprint())
+      .toString();
+  }
 }
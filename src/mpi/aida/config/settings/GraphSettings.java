@@ -247,4 +247,28 @@ public class GraphSettings {
 
     return s;
   }
+
+  /**
+   * @return Canonical string of all values, unlike {@link #getAsMap()}.
+   */
+  public String getFingerprint() {
+    return new SettingsFingerprint()
+      .add("alpha", alpha)
+      .add("useExhaustiveSearch", useExhaustiveSearch)
+      .add("useNormalizedObjective", useNormalizedObjective)
+      .add("coherenceSimilaritySetting", coherenceSimilaritySetting == null ?
+          null : coherenceSimilaritySetting.getFingerprint())
+      .add("entitiesPerMentionConstraint", entitiesPerMentionConstraint)
+      .add("useCoherenceRobustnessTest", useCoherenceRobustnessTest)
+      .add("cohRobustnessThreshold", cohRobustnessThreshold)
+      .add("useEasyMentionsTest", useEasyMentionsTest)
+      .add("easyMentionsTestThreshold", easyMentionsTestThreshold)
+      .add("useConfidenceThresholdTest", useConfidenceThresholdTest)
+      .add("confidenceTestThreshold", confidenceTestThreshold)
+      .add("pruneCandidateEntities", pruneCandidateEntities)
+      .add("pruneCandidateThreshold", pruneCandidateThreshold)
+      .add("preCoherenceNullMappingDiscovery", preCoherenceNullMappingDiscovery)
+      .add("preCoherenceNullMappingDiscoveryThreshold", preCoherenceNullMappingDiscoveryThreshold)
+      .toString();
+  }
 }
@@ -1,6 +1,9 @@
 package mpi.aida.config.settings;
 
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 import mpi.aida.config.AidaConfig;
 import mpi.aida.data.Type;
@@ -108,16 +111,47 @@ public class PreparationSettings implements Serializable {
     return this.documentInputFormat;
   }
 
-//  public Map<String, Object> getAsMap() {
-//    Map<String, Object> s = new HashMap<String, Object>();
-//    s.put("mentionsFilter", mentionsFilter.toString());
-//    s.put("language", language.toString());
-//    s.put("minMentionOccurrenceCounts", String.valueOf(minMentionOccurrenceCount));
-//    s.put("useHybridMentionDetection", String.valueOf(useHybridMentionDetection));
-//    s.put("docChunkStrategy", docChunkStrategy.toString());
-//    s.put("docInputFormat", documentInputFormat.toString());
-//    return s;
-//  }
+  public Map<String, Object> getAsMap() {
+    Map<String, Object> s = new HashMap<String, Object>();
+    s.put("mentionsDetectionType", String.valueOf(mentionsDetectionType));
+    s.put("tokenizerType", String.valueOf(tokenizerType));
+    s.put("minMentionOccurrenceCount", String.valueOf(minMentionOccurrenceCount));
+    if (filteringTypes != null) {
+      s.put("filteringTypes", Arrays.toString(filteringTypes));
+    }
+    s.put("language", String.valueOf(language));
+    s.put("docChunkStrategy", String.valueOf(docChunkStrategy));
+    s.put("docInputFormat", String.valueOf(documentInputFormat));
+    if (documentId != null) {
+      s.put("documentId", documentId);
+    }
+    if (documentTitle != null) {
+      s.put("documentTitle", documentTitle);
+    }
+    if (documentField != null) {
+      s.put("documentField", documentField);
+    }
+    return s;
+  }
+
+  /**
+   * @return Canonical string of all values, unlike {@link #getAsMap()}.
+   */
+  public String getFingerprint() {
+    return new SettingsFingerprint()
+      .add("mentionsDetectionType", mentionsDetectionType)
+      .add("tokenizerType", tokenizerType)
+      .add("minMentionOccurrenceCount", minMentionOccurrenceCount)
+      .add("filteringTypes", filteringTypes)
+      .add("language", language)
+      .add("docChunkStrategy", docChunkStrategy)
+      .add("documentInputFormat", documentInputFormat)
+      .add("encoding", encoding)
+      .add("documentId", documentId)
+      .add("documentTitle", documentTitle)
+      .add("documentField", documentField)
+      .toString();
+  }
   
   public DocumentChunker getDocumentChunker() {
     DocumentChunker chunker = null;
@@ -0,0 +1,52 @@
+package mpi.aida.config.settings;
+
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * Canonical string of named settings values, used to recognize settings
+ * giving the same results (see the getFingerprint() methods of the settings).
+ * Unlike getAsMap(), every value that changes the result must be added, in
+ * a fixed order. Values are length-prefixed, so that no two sequences of
+ * values give the same fingerprint.
+ */
+public class SettingsFingerprint {
+
+  private final StringBuilder sb_ = new StringBuilder();
+
+  /**
+   * @param value Primitive wrapper, String, enum, array, list or any object
+   * with a canonical toString(), may be null.
+   */
+  public SettingsFingerprint add(String name, Object value) {
+    String s = canonicalize(value);
+    sb_.append(name).append('=').append(s.length()).append(':').append(s).append(';');
+    return this;
+  }
+
+  private static String canonicalize(Object value) {
+    if (value == null) {
+      return "null";
+    } else if (value instanceof Object[]) {
+      return canonicalize(Arrays.asList((Object[]) value));
+    } else if (value instanceof double[]) {
+      return Arrays.toString((double[]) value);
+    } else if (value instanceof boolean[]) {
+      return Arrays.toString((boolean[]) value);
+    } else if (value instanceof List) {
+      SettingsFingerprint elements = new SettingsFingerprint();
+      for (Object element : (List<?>) value) {
+        elements.add("", element);
+      }
+      return "[" + elements + "]";
+    } else {
+      return value.toString();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return sb_.toString();
+  }
+}
@@ -1,7 +1,5 @@
 package mpi.aida.data;
 
-import gnu.trove.map.hash.TObjectIntHashMap;
-
 import java.util.ArrayList;
 import java.util.List;
 
@@ -17,19 +15,19 @@ public class Context {
   private List<String> tokenStrings_;
   private int[] tokenIds_;
 
+  private volatile DocumentIndex index_;
+
   public Context(Tokens tokens) {
     List<String> ts = new ArrayList<>(tokens.size());
     for (Token token : tokens) {
       ts.add(token.getOriginal());
     }
     tokenStrings_ = new ArrayList<>(ts);
-    TObjectIntHashMap<String> token2ids = 
-        DataAccess.getIdsForWords(tokenStrings_);
     tokenIds_ = new int[tokens.size()];
     for (int i = 0; i < tokens.size(); ++i) {
       String token = tokenStrings_.get(i);
-      int tokenId = token2ids.get(token);
-      if (tokenId == token2ids.getNoEntryValue()) {
+      int tokenId = DataAccess.getIdForWord(token);
+      if (tokenId == 0) {
         tokenId = tokens.getIdForTransientToken(token);
       }
       tokenIds_[i] = tokenId;
@@ -47,4 +45,22 @@ public class Context {
   public int getTokenCount() {
     return tokenIds_.length;
   }
+
+  /**
+   * The index is built on first use, it needs the stopwords to be loaded.
+   * Safe to call concurrently.
+   */
+  public DocumentIndex getDocumentIndex() {
+    DocumentIndex index = index_;
+    if (index == null) {
+      synchronized (this) {
+        index = index_;
+        if (index == null) {
+          index = new DocumentIndex(tokenIds_);
+          index_ = index;
+        }
+      }
+    }
+    return index;
+  }
 }
@@ -0,0 +1,50 @@
+package mpi.aida.data;
+
+import gnu.trove.TCollections;
+import gnu.trove.map.TIntIntMap;
+import gnu.trove.map.hash.TIntIntHashMap;
+import mpi.aida.util.InputTextInvertedIndex;
+
+/**
+ * Read-only index of the tokens of a Context, built once per Context and
+ * shared by all mention-entity similarity measures working on it. As the
+ * graph and the local disambiguation of a chunk use the chunk's Context,
+ * they share the index as well.
+ */
+public class DocumentIndex {
+
+  private final int[] tokenIds_;
+
+  private final TIntIntMap tokenCounts_;
+
+  private final InputTextInvertedIndex positions_;
+
+  public DocumentIndex(int[] tokenIds) {
+    tokenIds_ = tokenIds;
+    TIntIntHashMap tokenCounts = new TIntIntHashMap();
+    for (int token : tokenIds) {
+      tokenCounts.adjustOrPutValue(token, 1, 1);
+    }
+    tokenCounts_ = TCollections.unmodifiableMap(tokenCounts);
+    positions_ = new InputTextInvertedIndex(tokenIds, true);
+  }
+
+  public int[] getTokenIds() {
+    return tokenIds_;
+  }
+
+  /**
+   * @return Number of occurrences of each distinct token id.
+   */
+  public TIntIntMap getTokenCounts() {
+    return tokenCounts_;
+  }
+
+  /**
+   * @return Positions of the tokens, with the stopword-free positions
+   * relative to a mention. Must not be extended via addToIndex().
+   */
+  public InputTextInvertedIndex getPositions() {
+    return positions_;
+  }
+}
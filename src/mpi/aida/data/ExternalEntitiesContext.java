@@ -29,6 +29,9 @@ public class ExternalEntitiesContext {
   private TObjectIntHashMap<String> existingToken2Id_ = new TObjectIntHashMap<>();
 
   private CandidateDictionary dictionary_ = new CandidateDictionary();
+
+  /** Keyphrases fetched once for a batch of documents, null if not set. */
+  private SharedKeyphrases sharedKeyphrases_;
   
   public ExternalEntitiesContext() {
     // Placeholder when no external context is present.
@@ -175,10 +178,29 @@ public class ExternalEntitiesContext {
     return entityKeyphrasesIds;
   }
 
+  public SharedKeyphrases getSharedKeyphrases() {
+    return sharedKeyphrases_;
+  }
+
+  /**
+   * Lets the keyphrase contexts read the entity keyphrases from the given
+   * shared fetch instead of the entity repository.
+   */
+  public void setSharedKeyphrases(SharedKeyphrases sharedKeyphrases) {
+    sharedKeyphrases_ = sharedKeyphrases;
+  }
+
   public CandidateDictionary getDictionary() {
     return dictionary_;
   }
 
+  /**
+   * @return true if there are neither external entities nor keyphrases.
+   */
+  public boolean isEmpty() {
+    return dictionary_.getAllEntities().isEmpty() && entityKeyphrases_.isEmpty();
+  }
+
   public boolean contains(Entity entity) {
     return dictionary_.contains(entity);
   }
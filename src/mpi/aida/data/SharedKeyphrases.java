@@ -0,0 +1,163 @@
+package mpi.aida.data;
+
+import gnu.trove.map.hash.TIntDoubleHashMap;
+import gnu.trove.map.hash.TIntIntHashMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import mpi.aida.access.DataAccess;
+
+/**
+ * Keyphrases of the candidate entities of several documents, fetched once
+ * for all of them, see {@link mpi.aida.BatchDisambiguator}. Each document gets
+ * its own top-level maps restricted to its entities, the per-entity keyphrase
+ * arrays and weight maps are shared between the documents and must not be
+ * modified.
+ */
+public class SharedKeyphrases {
+
+  private final Entities entities_;
+
+  /** Keyphrases of all entities by fetch parameters, fetched on first use. */
+  private final ConcurrentMap<List<Object>, Future<Keyphrases>> keyphrases_ =
+      new ConcurrentHashMap<List<Object>, Future<Keyphrases>>();
+
+  public SharedKeyphrases(Entities entities) {
+    entities_ = entities;
+  }
+
+  public Entities getEntities() {
+    return entities_;
+  }
+
+  /**
+   * Same as {@link DataAccess#getEntityKeyphrases(Entities, Map, double, int)},
+   * but reads the keyphrases of all shared entities in a single fetch per
+   * parameter combination. Entities that are not shared are fetched
+   * separately.
+   */
+  public Keyphrases getEntityKeyphrases(
+      Entities entities, Map<String, Double> keyphraseSourceWeights,
+      double minKeyphraseWeight, int maxEntityKeyphraseCount) {
+    Keyphrases all = getAllEntityKeyphrases(
+        keyphraseSourceWeights, minKeyphraseWeight, maxEntityKeyphraseCount);
+    Keyphrases keyphrases = subset(all, entities);
+    Entities missing = new Entities();
+    for (Entity entity : entities) {
+      if (!entities_.contains(entity.getId())) {
+        missing.add(entity);
+      }
+    }
+    if (!missing.isEmpty()) {
+      // Restricted to the missing entities, the shared ones must stay shared.
+      merge(keyphrases, subset(DataAccess.getEntityKeyphrases(
+          missing, keyphraseSourceWeights, minKeyphraseWeight, maxEntityKeyphraseCount), missing));
+    }
+    return keyphrases;
+  }
+
+  private Keyphrases getAllEntityKeyphrases(
+      Map<String, Double> keyphraseSourceWeights,
+      double minKeyphraseWeight, int maxEntityKeyphraseCount) {
+    // Copy the weights, the key must not change with the caller's map.
+    final Map<String, Double> sourceWeights = keyphraseSourceWeights == null ?
+        null : new HashMap<String, Double>(keyphraseSourceWeights);
+    final double minWeight = minKeyphraseWeight;
+    final int maxCount = maxEntityKeyphraseCount;
+    List<Object> key = Arrays.<Object>asList(sourceWeights, minWeight, maxCount);
+    Future<Keyphrases> keyphrases = keyphrases_.get(key);
+    if (keyphrases == null) {
+      FutureTask<Keyphrases> fetch = new FutureTask<Keyphrases>(
+          () -> DataAccess.getEntityKeyphrases(entities_, sourceWeights, minWeight, maxCount));
+      keyphrases = keyphrases_.putIfAbsent(key, fetch);
+      if (keyphrases == null) {
+        // Concurrent callers wait for this fetch instead of fetching themselves.
+        keyphrases = fetch;
+        fetch.run();
+      }
+    }
+    try {
+      return keyphrases.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while fetching the shared keyphrases.", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Could not fetch the shared keyphrases.", e.getCause());
+    }
+  }
+
+  private Keyphrases subset(Keyphrases all, Entities entities) {
+    TIntObjectHashMap<int[]> entityKeyphrases = new TIntObjectHashMap<int[]>();
+    TIntObjectHashMap<int[]> keyphraseTokens = new TIntObjectHashMap<int[]>();
+    TIntObjectHashMap<TIntDoubleHashMap> entity2keyphrase2mi =
+        new TIntObjectHashMap<TIntDoubleHashMap>();
+    TIntObjectHashMap<TIntDoubleHashMap> entity2keyword2mi =
+        new TIntObjectHashMap<TIntDoubleHashMap>();
+    TIntObjectHashMap<TIntIntHashMap> entityKeyphraseSources =
+        all.getEntityKeyphraseSources() == null ?
+            null : new TIntObjectHashMap<TIntIntHashMap>();
+    for (Entity entity : entities) {
+      int entityId = entity.getId();
+      int[] kps = all.getEntityKeyphrases().get(entityId);
+      if (kps != null) {
+        entityKeyphrases.put(entityId, kps);
+        for (int kp : kps) {
+          int[] tokens = all.getKeyphraseTokens().get(kp);
+          if (tokens != null) {
+            keyphraseTokens.put(kp, tokens);
+          }
+        }
+      }
+      TIntDoubleHashMap kp2mi = all.getEntityKeyphraseWeights().get(entityId);
+      if (kp2mi != null) {
+        entity2keyphrase2mi.put(entityId, kp2mi);
+      }
+      TIntDoubleHashMap kw2mi = all.getEntityKeywordWeights().get(entityId);
+      if (kw2mi != null) {
+        entity2keyword2mi.put(entityId, kw2mi);
+      }
+      if (entityKeyphraseSources != null) {
+        TIntIntHashMap kp2source = all.getEntityKeyphraseSources().get(entityId);
+        if (kp2source != null) {
+          entityKeyphraseSources.put(entityId, kp2source);
+        }
+      }
+    }
+    Keyphrases keyphrases = new Keyphrases();
+    keyphrases.setEntityKeyphrases(entityKeyphrases);
+    keyphrases.setKeyphraseTokens(keyphraseTokens);
+    keyphrases.setEntityKeyphraseWeights(entity2keyphrase2mi);
+    keyphrases.setEntityKeywordWeights(entity2keyword2mi);
+    keyphrases.setEntityKeyphraseSources(entityKeyphraseSources);
+    keyphrases.setKeyphraseSource2id(all.getKeyphraseSource2id());
+    keyphrases.setKeyphraseSourceWeights(all.getKeyphraseSourceWeights());
+    return keyphrases;
+  }
+
+  private void merge(Keyphrases keyphrases, Keyphrases additional) {
+    keyphrases.getEntityKeyphrases().putAll(additional.getEntityKeyphrases());
+    keyphrases.getEntityKeyphraseWeights().putAll(additional.getEntityKeyphraseWeights());
+    keyphrases.getEntityKeywordWeights().putAll(additional.getEntityKeywordWeights());
+    for (int[] kps : additional.getEntityKeyphrases().valueCollection()) {
+      for (int kp : kps) {
+        int[] tokens = additional.getKeyphraseTokens().get(kp);
+        if (tokens != null) {
+          keyphrases.getKeyphraseTokens().put(kp, tokens);
+        }
+      }
+    }
+    if (keyphrases.getEntityKeyphraseSources() != null
+        && additional.getEntityKeyphraseSources() != null) {
+      keyphrases.getEntityKeyphraseSources().putAll(additional.getEntityKeyphraseSources());
+    }
+  }
+}
@@ -3,10 +3,11 @@
  */
 package mpi.aida.graph;
 
-import gnu.trove.iterator.TIntDoubleIterator;
 import gnu.trove.iterator.TIntIntIterator;
 import gnu.trove.iterator.TObjectIntIterator;
+import gnu.trove.list.TDoubleList;
 import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TDoubleArrayList;
 import gnu.trove.list.array.TIntArrayList;
 import gnu.trove.map.hash.TIntDoubleHashMap;
 import gnu.trove.map.hash.TIntIntHashMap;
@@ -23,6 +24,15 @@ import java.util.Set;
 import mpi.aida.data.Entity;
 import mpi.aida.data.Mention;
 
+/**
+ * Mention-entity graph. Edges are added to a buffer while the graph is 
+ * built and are then compacted into an immutable compressed-sparse-row 
+ * (CSR) adjacency: the successors of node n are 
+ * targets[offsets[n]] .. targets[offsets[n+1] - 1], sorted by node id, 
+ * with their weights at the same positions. Use {@link #compact()} when
+ * all edges are added, afterwards the edges can only be read. Removal of
+ * nodes is tracked by flags, the adjacency itself is never changed.
+ */
 public class Graph {
 	private String name;
 	protected int nodesCount;
@@ -50,6 +60,22 @@ public class Graph {
 	protected int[] nodesOutdegrees;
 	protected double[] nodesWeightedDegrees;
 	
+	/** Edges added before compaction, one entry per undirected edge. */
+	private TIntList edgeSources;
+	private TIntList edgeTargets;
+	private TDoubleList edgeWeights;
+	
+	/** CSR adjacency, null until the graph is compacted. */
+	private int[] offsets;
+	private int[] targets;
+	private double[] weights;
+	
+	/** 
+	 * Set after the adjacency is complete, readers that see true also see
+	 * the filled arrays.
+	 */
+	private volatile boolean compacted;
+	
 	/** 
 	 * After the processing is finished, this will contain all removal steps
 	 * from the very first (in the last position) to the last (in the first
@@ -76,13 +102,19 @@ public class Graph {
 		Arrays.fill(nodesWeightedDegrees, 0);
 		
 		removalSteps = new TIntArrayList();
+		
+		edgeSources = new TIntArrayList();
+		edgeTargets = new TIntArrayList();
+		edgeWeights = new TDoubleArrayList();
 	}
 	
 	public int getNodeOutdegree(int id) {
+	  compact();
 		return nodesOutdegrees[id];
 	}
 	
 	public double getNodeWeightedDegrees(int id) {
+	  compact();
 		return nodesWeightedDegrees[id];
 	}
 	
@@ -171,6 +203,10 @@ public class Graph {
 	}
 
   private void addEdgeUsingNodeId(int node1Id, int node2Id, double weight) {
+    if (isCompacted()) {
+      throw new IllegalStateException(
+          "Graph '" + name + "' is compacted, no more edges can be added.");
+    }
 		if(isEntityNode(node1Id) && isEntityNode(node2Id))
 			weight = weight * (1-alpha);
 		else if ((isMentionNode(node1Id) && isEntityNode(node2Id))
@@ -179,18 +215,172 @@ public class Graph {
 				
 		edgesCount++;
 		
-		GraphNode node1 = nodes[node1Id];
-		GraphNode node2 = nodes[node2Id];
-		
-		node1.getSuccessors().put(node2Id, weight);
-		nodesOutdegrees[node1Id]++;
-		
-		node2.getSuccessors().put(node1Id, weight);
-		nodesOutdegrees[node2Id]++;
-		
-		nodesWeightedDegrees[node1Id] += weight;
-		nodesWeightedDegrees[node2Id] += weight;		
+		edgeSources.add(node1Id);
+		edgeTargets.add(node2Id);
+		edgeWeights.add(weight);
 	}
+  
+  public boolean isCompacted() {
+    return compacted;
+  }
+
+  /**
+   * Builds the CSR adjacency from all added edges and drops the edge buffer.
+   * Each edge is stored in both directions, the successors of each node are
+   * sorted by id. If the same edge was added more than once, the last
+   * weight wins. Out-degrees and weighted degrees are computed here.
+   * Calling this on a compacted graph does nothing. Concurrent readers of a
+   * lazily compacted graph wait until the compaction is done.
+   */
+  public void compact() {
+    if (compacted) {
+      return;
+    }
+    synchronized (this) {
+      if (!compacted) {
+        buildAdjacency();
+        compacted = true;
+      }
+    }
+  }
+
+  private void buildAdjacency() {
+    int edges = edgeSources.size();
+    int directed = 2 * edges;
+    // Counting sort of all directed edges by target ...
+    int[] targetCounts = new int[nodesCount + 1];
+    for (int i = 0; i < edges; ++i) {
+      ++targetCounts[edgeTargets.get(i) + 1];
+      ++targetCounts[edgeSources.get(i) + 1];
+    }
+    for (int n = 0; n < nodesCount; ++n) {
+      targetCounts[n + 1] += targetCounts[n];
+    }
+    int[] byTarget = new int[directed];
+    for (int i = 0; i < edges; ++i) {
+      byTarget[targetCounts[edgeTargets.get(i)]++] = 2 * i;
+      byTarget[targetCounts[edgeSources.get(i)]++] = 2 * i + 1;
+    }
+    // ... then a stable distribution by source keeps targets sorted.
+    int[] sourceOffsets = new int[nodesCount + 1];
+    for (int i = 0; i < edges; ++i) {
+      ++sourceOffsets[edgeSources.get(i) + 1];
+      ++sourceOffsets[edgeTargets.get(i) + 1];
+    }
+    for (int n = 0; n < nodesCount; ++n) {
+      sourceOffsets[n + 1] += sourceOffsets[n];
+    }
+    int[] cursor = Arrays.copyOf(sourceOffsets, nodesCount);
+    int[] sortedTargets = new int[directed];
+    double[] sortedWeights = new double[directed];
+    for (int directedEdge : byTarget) {
+      int edge = directedEdge >>> 1;
+      boolean forward = (directedEdge & 1) == 0;
+      int source = forward ? edgeSources.get(edge) : edgeTargets.get(edge);
+      int target = forward ? edgeTargets.get(edge) : edgeSources.get(edge);
+      int pos = cursor[source]++;
+      sortedTargets[pos] = target;
+      sortedWeights[pos] = edgeWeights.get(edge);
+    }
+    // Collapse duplicate edges in place, keeping the last added weight.
+    int[] offsets = new int[nodesCount + 1];
+    int write = 0;
+    for (int n = 0; n < nodesCount; ++n) {
+      offsets[n] = write;
+      double weightedDegree = 0.0;
+      for (int read = sourceOffsets[n]; read < sourceOffsets[n + 1]; ++read) {
+        if (write > offsets[n] && sortedTargets[write - 1] == sortedTargets[read]) {
+          weightedDegree -= sortedWeights[write - 1];
+          --write;
+        }
+        sortedTargets[write] = sortedTargets[read];
+        sortedWeights[write] = sortedWeights[read];
+        weightedDegree += sortedWeights[write];
+        ++write;
+      }
+      nodesOutdegrees[n] = write - offsets[n];
+      nodesWeightedDegrees[n] = weightedDegree;
+    }
+    offsets[nodesCount] = write;
+    this.offsets = offsets;
+    targets = write == directed ? sortedTargets : Arrays.copyOf(sortedTargets, write);
+    weights = write == directed ? sortedWeights : Arrays.copyOf(sortedWeights, write);
+    edgeSources = null;
+    edgeTargets = null;
+    edgeWeights = null;
+  }
+  
+  /**
+   * @return Index of the first successor edge of nodeId, use with 
+   * {@link #getSuccessor(int)} and {@link #getSuccessorWeight(int)}.
+   */
+  public int getSuccessorsBegin(int nodeId) {
+    compact();
+    return offsets[nodeId];
+  }
+
+  /**
+   * @return Index after the last successor edge of nodeId.
+   */
+  public int getSuccessorsEnd(int nodeId) {
+    compact();
+    return offsets[nodeId + 1];
+  }
+  
+  public int getSuccessor(int edgeIndex) {
+    return targets[edgeIndex];
+  }
+  
+  public double getSuccessorWeight(int edgeIndex) {
+    return weights[edgeIndex];
+  }
+  
+  public int getSuccessorsCount(int nodeId) {
+    compact();
+    return offsets[nodeId + 1] - offsets[nodeId];
+  }
+  
+  /**
+   * @return Ids of all successors of nodeId, sorted. Allocates a new array.
+   */
+  public int[] getSuccessorIds(int nodeId) {
+    compact();
+    return Arrays.copyOfRange(targets, offsets[nodeId], offsets[nodeId + 1]);
+  }
+  
+  /**
+   * @return Successor ids mapped to edge weights. Allocates a new map, use
+   * the index-based accessors on hot paths.
+   */
+  public TIntDoubleHashMap getSuccessorWeights(int nodeId) {
+    compact();
+    TIntDoubleHashMap successors = 
+        new TIntDoubleHashMap(getSuccessorsCount(nodeId));
+    for (int i = offsets[nodeId]; i < offsets[nodeId + 1]; ++i) {
+      successors.put(targets[i], weights[i]);
+    }
+    return successors;
+  }
+  
+  /**
+   * @return Index of the edge between nodeId and successorId, -1 if there is 
+   * no such edge.
+   */
+  public int getEdgeIndex(int nodeId, int successorId) {
+    compact();
+    int pos = Arrays.binarySearch(
+        targets, offsets[nodeId], offsets[nodeId + 1], successorId);
+    return pos >= 0 ? pos : -1;
+  }
+  
+  /**
+   * @return Weight of the edge between nodeId and successorId, 0.0 if there 
+   * is no such edge.
+   */
+  public double getEdgeWeight(int nodeId, int successorId) {
+    int pos = getEdgeIndex(nodeId, successorId);
+    return pos >= 0 ? weights[pos] : 0.0;
+  }
 	
 	public boolean isEntityNode(int nodeId) {
 		if(nodes[nodeId].getType() == GraphNodeTypes.ENTITY)
@@ -252,9 +442,10 @@ public class Graph {
   }
 	
   public boolean isLocalMention(int mentionId) {
-    for (int candidate : getNode(mentionId).getSuccessors().keys()) {
-      for (int neighbor : getNode(candidate).getSuccessors().keys()) {
-        if (getNode(neighbor).getType().equals(GraphNodeTypes.ENTITY)) {
+    for (int i = getSuccessorsBegin(mentionId); i < getSuccessorsEnd(mentionId); ++i) {
+      int candidate = getSuccessor(i);
+      for (int j = getSuccessorsBegin(candidate); j < getSuccessorsEnd(candidate); ++j) {
+        if (isEntityNode(getSuccessor(j))) {
           return false;
         }
       }
@@ -295,11 +486,8 @@ public class Graph {
       if (!nodesToRemove.contains(mentionId)) {
         Mention m = itr.key();
         pruned.addMentionNode(m);
-        GraphNode mentionNode = getNode(mentionId);     
-        for (TIntDoubleIterator entityItr = mentionNode.getSuccessors().iterator(); 
-            entityItr.hasNext(); ) {
-          entityItr.advance();
-          int entityId = entityItr.key();
+        for (int i = getSuccessorsBegin(mentionId); i < getSuccessorsEnd(mentionId); ++i) {
+          int entityId = getSuccessor(i);
           if (!nodesToRemove.contains(entityId)) {
             GraphNode entityNode = getNode(entityId);
             int entityInternalId = (int) entityNode.getNodeData();
@@ -309,7 +497,7 @@ public class Graph {
             }
             Edge toAdd = new Edge(mentionId, entityId);
             if (!edgesToRemove.contains(toAdd)) {
-              pruned.addEdge(m, entityInternalId, entityItr.value());
+              pruned.addEdge(m, entityInternalId, getSuccessorWeight(i));
               pruned.addMentionEntitySim(
                   m, entityInternalId, 
                   getMentionEntitySims(m).get(entityInternalId));
@@ -326,11 +514,8 @@ public class Graph {
       int entityId = itr.value();
       if (!nodesToRemove.contains(entityId)) {
         int entityInternalId = itr.key();
-        GraphNode entityNode = getNode(entityId);
-        for (TIntDoubleIterator entityItr = entityNode.getSuccessors().iterator(); 
-            entityItr.hasNext(); ) {
-          entityItr.advance();
-          int neighborId = entityItr.key();
+        for (int i = getSuccessorsBegin(entityId); i < getSuccessorsEnd(entityId); ++i) {
+          int neighborId = getSuccessor(i);
           GraphNode neighborNode = getNode(neighborId);
           if (neighborNode.getType().equals(GraphNodeTypes.ENTITY) &&
               !nodesToRemove.contains(neighborId)) {
@@ -338,13 +523,14 @@ public class Graph {
             Edge toAdd = new Edge(entityId, neighborId);
             if (!addedEdges.contains(toAdd) && 
                 !edgesToRemove.contains(toAdd)) {
-              pruned.addEdgeUsingNodeId(entityInternalId, neighborInternalId, entityItr.value());
+              pruned.addEdge(entityInternalId, neighborInternalId, getSuccessorWeight(i));
               addedEdges.add(toAdd);
             }
           }
         }
       }
     }
+    pruned.compact();
     return pruned;
   }
   
@@ -1,18 +1,14 @@
 package mpi.aida.graph;
 
-import gnu.trove.iterator.TIntDoubleIterator;
-import gnu.trove.map.hash.TIntDoubleHashMap;
-
+/**
+ * Node of a {@link Graph}. The successors are stored in the graph itself,
+ * see {@link Graph#getSuccessorsBegin(int)}.
+ */
 public class GraphNode {
 	
 	private int id;
 	private GraphNodeTypes type;
 	private Object NodeData = null;
-	private TIntDoubleHashMap successors;
-	
-	public GraphNode() {
-		successors = new TIntDoubleHashMap();
-	}
 	
 	public int getId() {
 		return id;
@@ -38,23 +34,10 @@ public class GraphNode {
 		NodeData = nodeData;
 	}
 	
-	public TIntDoubleHashMap getSuccessors() {
-		return successors;
-	}
-	
-	public void setSuccessors(TIntDoubleHashMap successors) {
-		this.successors = successors;
-	}
-	
   public String toString() {
     StringBuilder sb = new StringBuilder();
     sb.append(type).append(":").append(id);
     sb.append("_D_").append(NodeData);
-    sb.append("_S");
-    for (TIntDoubleIterator itr = successors.iterator(); itr.hasNext();) {
-      itr.advance();
-      sb.append("_").append(itr.key()).append(":").append(itr.value());
-    }
     return sb.toString();
   }	
 }
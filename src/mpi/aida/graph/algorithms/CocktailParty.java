@@ -4,6 +4,8 @@ import gnu.trove.iterator.TIntDoubleIterator;
 import gnu.trove.iterator.TIntIntIterator;
 import gnu.trove.iterator.TIntIterator;
 import gnu.trove.iterator.TObjectIntIterator;
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
 import gnu.trove.list.linked.TIntLinkedList;
 import gnu.trove.map.hash.TIntDoubleHashMap;
 import gnu.trove.set.TIntSet;
@@ -18,9 +20,11 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RecursiveAction;
 
+import mpi.aida.AidaManager;
 import mpi.aida.config.settings.ConfidenceSettings;
 import mpi.aida.config.settings.DisambiguationSettings;
 import mpi.aida.config.settings.GraphSettings;
@@ -35,8 +39,8 @@ import mpi.aida.graph.Graph;
 import mpi.aida.graph.GraphGenerator;
 import mpi.aida.graph.GraphNode;
 import mpi.aida.graph.GraphNodeTypes;
-import mpi.aida.graph.extraction.DegreeComparator;
 import mpi.aida.util.CollectionUtils;
+import mpi.aida.util.IndexedMinHeap;
 import mpi.aida.util.timing.RunningTimer;
 import mpi.experiment.trace.GraphTracer;
 import mpi.experiment.trace.NullGraphTracer;
@@ -55,22 +59,28 @@ public class CocktailParty extends DisambiguationAlgorithm {
 	private static final Logger logger = LoggerFactory
 			.getLogger(CocktailParty.class);
 
+	/** Number of mentions whose shortest paths are kept in memory at once. */
+	private static final int DISTANCE_BATCH_SIZE = 64;
+
 	protected ShortestPath shortestPath;
 	protected Graph graph_;
 
 	private boolean useExhaustiveSearch;
 	private Map<ResultMention, List<ResultEntity>> solution;
 
-	protected Map<Integer, Double> entityWeightedDegrees = new HashMap<Integer, Double>();
-
-	private Map<Integer, Double> notRemovableEntityWeightedDegrees = new HashMap<Integer, Double>();
-	private PriorityQueue<String> entitySortedDegrees = new PriorityQueue<String>(
-			2000, new DegreeComparator());
-	private PriorityQueue<String> notRemovableEntitySortedDegrees = new PriorityQueue<String>(
-			2000, new DegreeComparator());
-	protected Map<Integer, Integer> mentionDegrees = new HashMap<Integer, Integer>();
-	private Map<Integer, Integer> bestMentionDegrees = new HashMap<Integer, Integer>();
-	private Map<Integer, Double> bestWeightedDegrees = new HashMap<Integer, Double>();
+	/** Current weighted degree of every entity node, indexed by node id. */
+	protected double[] entityWeightedDegrees;
+	/** Entities that can still be removed, keyed by weighted degree. */
+	protected IndexedMinHeap removableEntities;
+	/** Entities that must stay (last candidate of a mention), keyed by weighted degree. */
+	private IndexedMinHeap notRemovableEntities;
+	/** Ids of all mention nodes in the graph. */
+	protected int[] mentionNodes;
+	/** Number of remaining candidates of every mention node, indexed by node id. */
+	protected int[] mentionDegrees;
+	private int[] bestMentionDegrees;
+	/** Weighted degrees of the removable entities in the best solution, NaN if not removable. */
+	private double[] bestWeightedDegrees;
 	private boolean[] bestRemoved;
 
 	private GraphSettings graphSettings;
@@ -87,6 +97,17 @@ public class CocktailParty extends DisambiguationAlgorithm {
 	
 	public CocktailParty(PreparedInputChunk input, DisambiguationSettings settings,                       
                       Tracer tracer) throws Exception {
+	  this(input, new GraphGenerator(input.getMentions(), 
+        input.getContext(), input.getChunkId(), settings, tracer).run(),
+        settings, tracer);
+	}
+
+	/**
+	 * Disambiguates on a graph that was already generated for the mentions
+	 * of the input, e.g. one built from synthetic similarities.
+	 */
+	public CocktailParty(PreparedInputChunk input, Graph graph,
+	                     DisambiguationSettings settings, Tracer tracer) {
 	  super(input, new ExternalEntitiesContext(), settings, tracer);
     if (!(GraphTracer.gTracer instanceof NullGraphTracer))
       isTracing = true;
@@ -96,9 +117,7 @@ public class CocktailParty extends DisambiguationAlgorithm {
     this.computeConfidence = settings.shouldComputeConfidence();
     this.confSettings = settings.getConfidenceSettings();
 
-    GraphGenerator gg = new GraphGenerator(input.getMentions(), 
-        input.getContext(), input.getChunkId(), settings, tracer);
-    this.graph_ = gg.run();
+    this.graph_ = graph;
     allEntities_ = input.getMentions().getAllCandidateEntities();
 	}
 
@@ -136,8 +155,9 @@ public class CocktailParty extends DisambiguationAlgorithm {
 			traceIntitialGraphStructure(g);
 		}
 
-		Set<Integer> bestNotRemovable = notRemovableEntityWeightedDegrees.keySet();
-		Set<Integer> bestRemovable = entityWeightedDegrees.keySet();
+		// null means the best solution is the state at the end of the loop.
+		int[] bestNotRemovable = null;
+		int[] bestRemovable = null;
 		double bestValue = initialObjective;
 		boolean noMinRemoved = false;
 
@@ -171,12 +191,10 @@ public class CocktailParty extends DisambiguationAlgorithm {
 
 			}
 
-			double removableMinimumWeightedDegree = entityWeightedDegrees
-					.get(removableMinimumNode);
+			double removableMinimumWeightedDegree = 
+			    entityWeightedDegrees[removableMinimumNode];
 
-			entitySortedDegrees.remove(removableMinimumNode + ":::"
-					+ removableMinimumWeightedDegree);
-			entityWeightedDegrees.remove(removableMinimumNode);
+			removableEntities.remove(removableMinimumNode);
 			g.setRemoved(removableMinimumNode);
 
 			updateNeighboringNodes(g, removableMinimumNode);
@@ -185,39 +203,24 @@ public class CocktailParty extends DisambiguationAlgorithm {
 				traceEntityRemovalStep(g, removableMinimumNode, removableMinimumWeightedDegree);
 			}
 
-			double removableMin = Double.POSITIVE_INFINITY;
-			double notRemovableMin = Double.POSITIVE_INFINITY;
-
-			if (!entitySortedDegrees.isEmpty()) {
-				removableMin = Double.parseDouble(entitySortedDegrees.peek()
-						.split(":::")[1]);
-			} else {
+			if (removableEntities.isEmpty()) {
 				logger.debug("No node can be removed without violating constraints.");
 				break;
 			}
 
-			if (!notRemovableEntitySortedDegrees.isEmpty()) {
-				notRemovableMin = Double.parseDouble(notRemovableEntitySortedDegrees.peek()
-						.split(":::")[1]);
-			}
-
-			double absoluteMinimumWeightedDegree = Math.min(removableMin,
-					notRemovableMin);
+			double absoluteMinimumWeightedDegree = Math.min(
+			    removableEntities.peekKey(), notRemovableEntities.peekKey());
 
 			double objective = calculateObjective(
-					absoluteMinimumWeightedDegree, entityWeightedDegrees);
+					absoluteMinimumWeightedDegree, removableEntities.size());
 			
 			if (objective > bestValue) {
 				bestValue = objective;
-				bestRemovable = new HashSet<Integer>(
-						entityWeightedDegrees.keySet());
-				bestNotRemovable = new HashSet<Integer>(
-						notRemovableEntityWeightedDegrees.keySet());
-
-				bestMentionDegrees = new HashMap<Integer, Integer>();
-				for (int men : mentionDegrees.keySet()) {
-					bestMentionDegrees.put(men, mentionDegrees.get(men));
-				}
+				bestRemovable = removableEntities.ids();
+				bestNotRemovable = notRemovableEntities.ids();
+
+				System.arraycopy(mentionDegrees, 0, bestMentionDegrees, 0,
+				    mentionDegrees.length);
 
 				for (int b = 0; b < bestRemoved.length; b++) {
 					bestRemoved[b] = g.isRemoved(b);
@@ -225,10 +228,9 @@ public class CocktailParty extends DisambiguationAlgorithm {
 				
 	      if (isTracing) {
 	        // keep track of actual weights
-	        bestWeightedDegrees = new HashMap<Integer, Double>();
-	        for (int men : entityWeightedDegrees.keySet()) {
-	          bestWeightedDegrees.put(men,
-	              entityWeightedDegrees.get(men));
+	        Arrays.fill(bestWeightedDegrees, Double.NaN);
+	        for (int e : bestRemovable) {
+	          bestWeightedDegrees[e] = entityWeightedDegrees[e];
 	        }
 	      }
 			}
@@ -236,32 +238,19 @@ public class CocktailParty extends DisambiguationAlgorithm {
 		} // end main loop of the algorithm
 
 		if (noMinRemoved) {
-			double removableMin = Double.POSITIVE_INFINITY;
-			double notRemovableMin = Double.POSITIVE_INFINITY;
-
-			if (!entitySortedDegrees.isEmpty())
-				removableMin = Double.parseDouble(entitySortedDegrees.peek()
-						.split(":::")[1]);
-			if (!notRemovableEntitySortedDegrees.isEmpty())
-				notRemovableMin = Double.parseDouble(notRemovableEntitySortedDegrees.peek()
-						.split(":::")[1]);
-			double absoluteMinimumWeightedDegree = Math.min(removableMin,
-					notRemovableMin);
+			double absoluteMinimumWeightedDegree = Math.min(
+			    removableEntities.peekKey(), notRemovableEntities.peekKey());
 
 			double objective = calculateObjective(
-					absoluteMinimumWeightedDegree, entityWeightedDegrees);
+					absoluteMinimumWeightedDegree, removableEntities.size());
 
 			if (objective > bestValue) {
 				bestValue = objective;
-				bestRemovable = new HashSet<Integer>(
-						entityWeightedDegrees.keySet());
-				bestNotRemovable = new HashSet<Integer>(
-						notRemovableEntityWeightedDegrees.keySet());
-
-				bestMentionDegrees = new HashMap<Integer, Integer>();
-				for (int men : mentionDegrees.keySet()) {
-					bestMentionDegrees.put(men, mentionDegrees.get(men));
-				}
+				bestRemovable = removableEntities.ids();
+				bestNotRemovable = notRemovableEntities.ids();
+
+				System.arraycopy(mentionDegrees, 0, bestMentionDegrees, 0,
+				    mentionDegrees.length);
 
 				for (int b = 0; b < bestRemoved.length; b++) {
 					bestRemoved[b] = g.isRemoved(b);
@@ -269,6 +258,11 @@ public class CocktailParty extends DisambiguationAlgorithm {
 			}
 		}
 
+		if (bestRemovable == null) {
+		  bestRemovable = removableEntities.ids();
+		  bestNotRemovable = notRemovableEntities.ids();
+		}
+
 		if (isTracing) {			
 			traceFinalGraphStructure(g);
 		}
@@ -281,20 +275,30 @@ public class CocktailParty extends DisambiguationAlgorithm {
 						"Solution of Objective after Graph Algorithm (max. min-weighted-degree)",
 						Double.toString(bestValue));
 
-		HashSet<Integer> finalEntities = new HashSet<Integer>(bestRemovable);
-		finalEntities.addAll(bestNotRemovable);
-
-		double[][] allCloseness = 
-		    new double[g.getNodesCount()][g.getNodesCount()];
+		HashSet<Integer> finalEntities = 
+		    new HashSet<Integer>(bestRemovable.length + bestNotRemovable.length);
+		for (int e : bestRemovable) {
+		  finalEntities.add(e);
+		}
+		for (int e : bestNotRemovable) {
+		  finalEntities.add(e);
+		}
 
-		for (int m : bestMentionDegrees.keySet()) {
-			double[] shortest = shortestPath.closeness(m, g, bestRemoved);
+		// Closeness of the final entities to the mentions, indexed by the 
+		// position of the mention in mentionNodes.
+		Map<Integer, double[]> allCloseness = 
+		    new HashMap<Integer, double[]>(finalEntities.size() * 2);
+		for (int e : finalEntities) {
+			allCloseness.put(e, new double[mentionNodes.length]);
+		}
+		for (int m = 0; m < mentionNodes.length; ++m) {
+			double[] shortest = shortestPath.closeness(mentionNodes[m], g, bestRemoved);
 			for (int e : finalEntities) {
-				allCloseness[e][m] = shortest[e];
+				allCloseness.get(e)[m] = shortest[e];
 			}
 		}
 
-		int mentions = bestMentionDegrees.keySet().size();
+		int mentions = mentionNodes.length;
 		int entities = finalEntities.size();
 		
 		debugAndTraceFinalDismabiguationProblemProperties(g, mentions, entities);
@@ -303,8 +307,8 @@ public class CocktailParty extends DisambiguationAlgorithm {
 
 		// Graph algorithm is done, check if further disambiguation is needed
 		boolean extraDisambiguationNeeded = false;
-		for (int mention : bestMentionDegrees.keySet()) {
-			int mentionDegree = bestMentionDegrees.get(mention);
+		for (int mention : mentionNodes) {
+			int mentionDegree = bestMentionDegrees[mention];
 			if (mentionDegree > 1) { // more than a candidate entity
 				extraDisambiguationNeeded = true;
 				break;
@@ -328,8 +332,12 @@ public class CocktailParty extends DisambiguationAlgorithm {
 			graphMapping = fillInSolutionObject(g, finalEntities, allCloseness);
 		} else {
 			logger.debug("Applying disambiguation");
+			Set<Integer> mentionNodeSet = new HashSet<Integer>(mentionNodes.length);
+			for (int m : mentionNodes) {
+			  mentionNodeSet.add(m);
+			}
 			GreedyHillClimbing search = new GreedyHillClimbing(g,
-					bestMentionDegrees.keySet(), finalEntities, bestRemoved,
+					mentionNodeSet, finalEntities, bestRemoved,
 					1000);
 			String solver = useExhaustiveSearch ? "Using exhaustive search"
 					: "Using Random Local Search";
@@ -348,7 +356,7 @@ public class CocktailParty extends DisambiguationAlgorithm {
 						g.getNodesCount());
 			}
 
-			for (int mentionNodeId : mentionDegrees.keySet()) {
+			for (int mentionNodeId : mentionNodes) {
 				GraphNode mentionNode = g.getNode(mentionNodeId);
 				Mention mention = (Mention) mentionNode.getNodeData();
 
@@ -363,8 +371,8 @@ public class CocktailParty extends DisambiguationAlgorithm {
 					GraphNode entityNode = g.getNode(entityNodeId);
 					int  entityInternalId = (int) entityNode.getNodeData();
 
-          double mentionEntitySimilarity = mentionNode
-              .getSuccessors().get(entityNodeId);
+          double mentionEntitySimilarity = 
+              g.getEdgeWeight(mentionNodeId, entityNodeId);
           Entity entity = allEntities_.getEntityById(entityInternalId);
 					solution.put(rm, ResultEntity
 							.getResultEntityAsList(new ResultEntity(entity,
@@ -414,8 +422,7 @@ public class CocktailParty extends DisambiguationAlgorithm {
     for (int mentionId : g.getMentionNodesIds().values()) {
       GraphNode mentionNode = g.getNode(mentionId);
       Mention mention = (Mention) mentionNode.getNodeData();
-      TIntDoubleHashMap entityCandidates = mentionNode.getSuccessors();
-      if (entityCandidates.size() == 0) {
+      if (g.getSuccessorsCount(mentionId) == 0) {
         continue;
       }
       // Remove all mentions without any entities that have coherence edges.
@@ -424,7 +431,8 @@ public class CocktailParty extends DisambiguationAlgorithm {
         GraphTracer.gTracer.addMentionToDangling(
             g.getName(), mention.getMention(), mention.getCharOffset());
         // Set solution to best local candidate.
-        Pair<Integer, Double> bestEntityScore = getBestLocalCandidateAndScore(entityCandidates);
+        Pair<Integer, Double> bestEntityScore = 
+            getBestLocalCandidateAndScore(g.getSuccessorWeights(mentionId));
         int bestEntity = bestEntityScore.getKey();
         double score = bestEntityScore.getValue();
         updateSolution(solution, g, mention, bestEntity, score);
@@ -434,18 +442,14 @@ public class CocktailParty extends DisambiguationAlgorithm {
     TIntSet entitiesToRemove = new TIntHashSet();
     // Remove entities that are only connected to removed mentions.
     for (int entityId : g.getEntityNodesIds().values()) {
-      GraphNode entityNode = g.getNode(entityId);
-      TIntDoubleHashMap successors = entityNode.getSuccessors();
       int removedCount = 0;
-      for (TIntDoubleIterator itr = successors.iterator(); 
-          itr.hasNext(); ) {
-        itr.advance();
-        int neighborId = itr.key();
+      for (int i = g.getSuccessorsBegin(entityId); i < g.getSuccessorsEnd(entityId); ++i) {
+        int neighborId = g.getSuccessor(i);
         if (mentionsToRemove.contains(neighborId)) {
           ++removedCount;
         }
       }
-      if (removedCount == successors.size()) {
+      if (removedCount == g.getSuccessorsCount(entityId)) {
         entitiesToRemove.add(entityId);
       }
     }
@@ -526,11 +530,8 @@ public class CocktailParty extends DisambiguationAlgorithm {
       if (!nodesToRemove.contains(mentionId)) {
         Mention m = itr.key();
         pruned.addMentionNode(m);
-        GraphNode mentionNode = g.getNode(mentionId);     
-        for (TIntDoubleIterator entityItr = mentionNode.getSuccessors().iterator(); 
-            entityItr.hasNext(); ) {
-          entityItr.advance();
-          int entityId = entityItr.key();
+        for (int i = g.getSuccessorsBegin(mentionId); i < g.getSuccessorsEnd(mentionId); ++i) {
+          int entityId = g.getSuccessor(i);
           if (!nodesToRemove.contains(entityId)) {
             GraphNode entityNode = g.getNode(entityId);
             int entityInternalId = (int) entityNode.getNodeData();
@@ -540,7 +541,7 @@ public class CocktailParty extends DisambiguationAlgorithm {
             }
             Edge toAdd = new Edge(mentionId, entityId);
             if (!edgesToRemove.contains(toAdd)) {
-              pruned.addEdge(m, entityInternalId, entityItr.value());
+              pruned.addEdge(m, entityInternalId, g.getSuccessorWeight(i));
               pruned.addMentionEntitySim(
                   m, entityInternalId, 
                   g.getMentionEntitySims(m).get(entityInternalId));
@@ -559,11 +560,8 @@ public class CocktailParty extends DisambiguationAlgorithm {
       int entityId = itr.value();
       if (!nodesToRemove.contains(entityId)) {
         int entityInternalId = itr.key();
-        GraphNode entityNode = g.getNode(entityId);
-        for (TIntDoubleIterator entityItr = entityNode.getSuccessors().iterator(); 
-            entityItr.hasNext(); ) {
-          entityItr.advance();
-          int neighborId = entityItr.key();
+        for (int i = g.getSuccessorsBegin(entityId); i < g.getSuccessorsEnd(entityId); ++i) {
+          int neighborId = g.getSuccessor(i);
           GraphNode neighborNode = g.getNode(neighborId);
           if (neighborNode.getType().equals(GraphNodeTypes.ENTITY) &&
               !nodesToRemove.contains(neighborId)) {
@@ -571,13 +569,14 @@ public class CocktailParty extends DisambiguationAlgorithm {
             Edge toAdd = new Edge(entityId, neighborId);
             if (!addedEdges.contains(toAdd) && 
                 !edgesToRemove.contains(toAdd)) {
-              pruned.addEdge(entityInternalId, neighborInternalId, entityItr.value());
+              pruned.addEdge(entityInternalId, neighborInternalId, g.getSuccessorWeight(i));
               addedEdges.add(toAdd);
             }
           }
         }
       }
     }
+    pruned.compact();
     return pruned;
   }
 
@@ -623,9 +622,9 @@ public class CocktailParty extends DisambiguationAlgorithm {
 	}
 
 	protected double calculateObjective(double absoluteMinimumWeightedDegree,
-			Map<Integer, Double> ewd) {
+			int removableEntitiesCount) {
 		if (graphSettings.shouldUseNormalizedObjective()) {
-			return absoluteMinimumWeightedDegree / ewd.size();
+			return absoluteMinimumWeightedDegree / removableEntitiesCount;
 		} else {
 			return absoluteMinimumWeightedDegree;
 		}
@@ -635,13 +634,8 @@ public class CocktailParty extends DisambiguationAlgorithm {
 	    Graph graph, int entityNodeId) {
 		TIntLinkedList mentions = new TIntLinkedList();
 
-		GraphNode entityNode = graph.getNode(entityNodeId);
-		TIntDoubleHashMap successorsMap = entityNode.getSuccessors();
-		TIntDoubleIterator successorsIterator = successorsMap.iterator();
-		for (int i = successorsMap.size(); i-- > 0;) {
-			successorsIterator.advance();
-
-			int successorId = successorsIterator.key();
+		for (int i = graph.getSuccessorsBegin(entityNodeId); i < graph.getSuccessorsEnd(entityNodeId); ++i) {
+			int successorId = graph.getSuccessor(i);
 			GraphNode successorNode = graph.getNode(successorId);
 			if (successorNode.getType() == GraphNodeTypes.MENTION) {
 				mentions.add(successorId);
@@ -653,19 +647,13 @@ public class CocktailParty extends DisambiguationAlgorithm {
 	private Map<Integer, Double> getConnectedEntities(Graph graph, int nodeId) {
 		Map<Integer, Double> entities = new HashMap<Integer, Double>();
 
-		GraphNode entityNode = graph.getNode(nodeId);
-
-		TIntDoubleHashMap successorsMap = entityNode.getSuccessors();
-		TIntDoubleIterator successorsIterator = successorsMap.iterator();
-		for (int i = successorsMap.size(); i-- > 0;) {
-			successorsIterator.advance();
-
-			int successorId = successorsIterator.key();
+		for (int i = graph.getSuccessorsBegin(nodeId); i < graph.getSuccessorsEnd(nodeId); ++i) {
+			int successorId = graph.getSuccessor(i);
 			GraphNode successorNode = graph.getNode(successorId);
 
 			if (successorNode.getType() == GraphNodeTypes.ENTITY) {
 				int entity = (int) successorNode.getNodeData();
-				double weight = successorsIterator.value();
+				double weight = graph.getSuccessorWeight(i);
 
 				entities.put(entity, weight);
 			}
@@ -682,9 +670,9 @@ public class CocktailParty extends DisambiguationAlgorithm {
 	 * @return mention-entity mapping in the original graph.
 	 */
 	private Map<Integer, Integer> fillInSolutionObject(Graph graph, 
-	    HashSet<Integer> finalEntities, double[][] allCloseness) {
+	    HashSet<Integer> finalEntities, Map<Integer, double[]> allCloseness) {
 	  Map<Integer, Integer> graphMapping = new HashMap<Integer, Integer>();
-		for (int mentionNodeId : bestMentionDegrees.keySet()) {
+		for (int mentionNodeId : mentionNodes) {
 			GraphNode mentionNode = graph.getNode(mentionNodeId);
 			Mention mention = (Mention) mentionNode.getNodeData();
 
@@ -699,28 +687,23 @@ public class CocktailParty extends DisambiguationAlgorithm {
 								.getNoMatchingEntity()));
 				graphMapping.put(mentionNodeId, -1);
 			} else {
-				TIntDoubleHashMap successorsMap = mentionNode.getSuccessors();
-				TIntDoubleIterator successorsIterator = successorsMap
-						.iterator();
-				for (int i = successorsMap.size(); i-- > 0;) {
-					successorsIterator.advance();
-
-					int entityNodeId = successorsIterator.key();
-					double mentionEntitySimilarity = successorsIterator.value();
+				for (int i = graph.getSuccessorsBegin(mentionNodeId); i < graph.getSuccessorsEnd(mentionNodeId); ++i) {
+					int entityNodeId = graph.getSuccessor(i);
+					double mentionEntitySimilarity = graph.getSuccessorWeight(i);
 					if (finalEntities.contains(entityNodeId)) {
 						double confidence = mentionEntitySimilarity;
 						double averageCloseness = 0.0;
+						double[] entityCloseness = allCloseness.get(entityNodeId);
 
-						for (int otherMention : bestMentionDegrees.keySet()) {
-							if (otherMention == mentionNodeId
-									|| allCloseness[entityNodeId][otherMention] == Double.NEGATIVE_INFINITY) {
+						for (int m = 0; m < mentionNodes.length; ++m) {
+							if (mentionNodes[m] == mentionNodeId
+									|| entityCloseness[m] == Double.NEGATIVE_INFINITY) {
 								continue;
 							}
-							averageCloseness += allCloseness[entityNodeId][otherMention];
+							averageCloseness += entityCloseness[m];
 						}
 
-						int numOtherMentions = bestMentionDegrees.keySet()
-								.size() - 1;
+						int numOtherMentions = mentionNodes.length - 1;
 						if (numOtherMentions > 0) {
 							averageCloseness = averageCloseness
 									/ numOtherMentions;
@@ -743,44 +726,25 @@ public class CocktailParty extends DisambiguationAlgorithm {
 	}
 
 	private void updateNeighboringNodes(Graph graph, int removableMinimumNodeId) {
-		GraphNode node = graph.getNode(removableMinimumNodeId);
-		TIntDoubleHashMap successorsMap = node.getSuccessors();
-		TIntDoubleIterator successorsIterator = successorsMap.iterator();
-		for (int i = successorsMap.size(); i-- > 0;) {
-			successorsIterator.advance();
-
-			int successorId = successorsIterator.key();
-			double edgeWeight = successorsIterator.value();
+		for (int i = graph.getSuccessorsBegin(removableMinimumNodeId); i < graph.getSuccessorsEnd(removableMinimumNodeId); ++i) {
+			int successorId = graph.getSuccessor(i);
+			double edgeWeight = graph.getSuccessorWeight(i);
 
 			GraphNode successorNode = graph.getNode(successorId);
 			if (successorNode.getType() == GraphNodeTypes.MENTION) {
 				// successor is a mention node, just update the degree
-				int mentionNodeDegree = mentionDegrees.get(successorId);
-				mentionDegrees.put(successorId, --mentionNodeDegree);
+				int mentionNodeDegree = --mentionDegrees[successorId];
 				if (mentionNodeDegree == 1) {
 					// this mention has one remaining candidate
 					// Find this remaining candidate
-					TIntDoubleHashMap candidatesMap = successorNode.getSuccessors();
-					TIntDoubleIterator candidatesIterator = candidatesMap
-							.iterator();
-					for (int j = candidatesMap.size(); j-- > 0;) {
-						candidatesIterator.advance();
-						int candidateNodeId = candidatesIterator.key();
+					for (int j = graph.getSuccessorsBegin(successorId); j < graph.getSuccessorsEnd(successorId); ++j) {
+						int candidateNodeId = graph.getSuccessor(j);
 						if (!graph.isRemoved(candidateNodeId)) {
 							// mark this candidate as non removable if not
 							// already marked
-							if (entityWeightedDegrees
-									.containsKey(candidateNodeId)) {
-								double weightedDegree = entityWeightedDegrees
-										.get(candidateNodeId);
-								entityWeightedDegrees.remove(candidateNodeId);
-								entitySortedDegrees.remove(candidateNodeId
-										+ ":::" + weightedDegree);
-
-								notRemovableEntityWeightedDegrees.put(candidateNodeId,
-										weightedDegree);
-								notRemovableEntitySortedDegrees.add(candidateNodeId + ":::"
-										+ weightedDegree);
+							if (removableEntities.remove(candidateNodeId)) {
+								notRemovableEntities.add(candidateNodeId,
+										entityWeightedDegrees[candidateNodeId]);
 							}
 							break;
 						}
@@ -790,44 +754,38 @@ public class CocktailParty extends DisambiguationAlgorithm {
 
 			} else {
 				// successor is an entity. update its weighted degree
-				if (entityWeightedDegrees.get(successorId) != null) {
-					double oldWeightedDegree = entityWeightedDegrees
-							.get(successorId);
-					double newWeightedDegree = oldWeightedDegree - edgeWeight;
-					entityWeightedDegrees.put(successorId, newWeightedDegree);
-					entitySortedDegrees.remove(successorId + ":::"
-							+ oldWeightedDegree);
-					entitySortedDegrees.add(successorId + ":::"
-							+ newWeightedDegree);
-				} else if (notRemovableEntityWeightedDegrees.get(successorId) != null) {
-
-					double oldWeightedDegree = notRemovableEntityWeightedDegrees
-							.get(successorId);
-					double newWeightedDegree = oldWeightedDegree - edgeWeight;
-					notRemovableEntityWeightedDegrees.put(successorId, newWeightedDegree);
-				}
+				decreaseWeightedDegree(successorId, edgeWeight);
 			}
 		} // end updating all the neighbor nodes
 	}
 
+	/**
+	 * Subtracts edgeWeight from the weighted degree of a remaining entity and
+	 * updates its position in the removable or not-removable heap.
+	 */
+	private void decreaseWeightedDegree(int entityNodeId, double edgeWeight) {
+		if (removableEntities.contains(entityNodeId)) {
+			entityWeightedDegrees[entityNodeId] -= edgeWeight;
+			removableEntities.updateKey(
+			    entityNodeId, entityWeightedDegrees[entityNodeId]);
+		} else if (notRemovableEntities.contains(entityNodeId)) {
+			entityWeightedDegrees[entityNodeId] -= edgeWeight;
+			notRemovableEntities.updateKey(
+			    entityNodeId, entityWeightedDegrees[entityNodeId]);
+		}
+	}
+
 	private int getRemovableMinimumNode(Graph graph) {
 		int removableMinimumNode = -1;
 
-		while (removableMinimumNode == -1 && !entitySortedDegrees.isEmpty()) {
-			String minimumEntityString = entitySortedDegrees.peek();
-			int minimumEntity = Integer.parseInt(minimumEntityString
-					.split(":::")[0]);
-			double minimumWeightedDegree = Double
-					.parseDouble(minimumEntityString.split(":::")[1]);
+		while (removableMinimumNode == -1 && !removableEntities.isEmpty()) {
+			int minimumEntity = removableEntities.peek();
 
 			boolean removable = isNodeRemovable(graph, minimumEntity);
 			if (!removable) {
-				entityWeightedDegrees.remove(minimumEntity);
-				entitySortedDegrees.remove(minimumEntity + ":::"
-						+ minimumWeightedDegree);
-				notRemovableEntityWeightedDegrees.put(minimumEntity, minimumWeightedDegree);
-				notRemovableEntitySortedDegrees.add(minimumEntity + ":::"
-						+ minimumWeightedDegree);
+				removableEntities.remove(minimumEntity);
+				notRemovableEntities.add(minimumEntity,
+				    entityWeightedDegrees[minimumEntity]);
 			} else {
 				// Mark the entity as removable
 				removableMinimumNode = minimumEntity;
@@ -842,16 +800,12 @@ public class CocktailParty extends DisambiguationAlgorithm {
 			return false;
 		// Check if the entity is removable
 
-		TIntDoubleHashMap successorsMap = node.getSuccessors();
-		TIntDoubleIterator successorsIterator = successorsMap.iterator();
-		for (int i = successorsMap.size(); i-- > 0;) {
-			successorsIterator.advance();
-
-			int successorNodeId = successorsIterator.key();
+		for (int i = graph.getSuccessorsBegin(nodeId); i < graph.getSuccessorsEnd(nodeId); ++i) {
+			int successorNodeId = graph.getSuccessor(i);
 			GraphNode successorNode = graph.getNode(successorNodeId);
 			// if mention and mention connected to only one entity
 			if (successorNode.getType() == GraphNodeTypes.MENTION
-					&& mentionDegrees.get(successorNodeId) == 1) {
+					&& mentionDegrees[successorNodeId] == 1) {
 				return false;
 			}
 
@@ -863,19 +817,11 @@ public class CocktailParty extends DisambiguationAlgorithm {
 	    Graph graph) {
 		ArrayList<Integer> toRemove = new ArrayList<Integer>();
 
-		double[][] allDistances = new double[graph.getNodesCount()][graph
-				.getNodesCount()];
-
 		HashMap<Integer, Integer> checkMentionDegree = new HashMap<Integer, Integer>();
 		HashMap<Integer, Double> mentionMaxWeightedDegree = new HashMap<Integer, Double>();
 		HashMap<Integer, Integer> mentionMaxEntity = new HashMap<Integer, Integer>();
 
-		for (int m : mentionDegrees.keySet()) {
-			double[] shortest = shortestPath.run(m, graph);
-			for (int e : entityWeightedDegrees.keySet()) {
-				allDistances[e][m] = shortest[e];
-			}
-		} // end distance loop
+		double[] entityDistances = calcEntityDistances(graph, removableEntities.ids());
 
 		for (GraphNode node : graph.getNodes()) {
 			int nodeId = node.getId();
@@ -886,16 +832,11 @@ public class CocktailParty extends DisambiguationAlgorithm {
 				continue;
 			}
 
-			double entityDistance = calcEntityDistance(allDistances[nodeId]);
+			double entityDistance = entityDistances[nodeId];
 
 			if (entityDistance > distanceThreshold_) {
-				TIntDoubleHashMap successorsMap = node.getSuccessors();
-				TIntDoubleIterator successorsIterator = successorsMap
-						.iterator();
-				for (int i = successorsMap.size(); i-- > 0;) {
-					successorsIterator.advance();
-
-					int successorNodeId = successorsIterator.key();
+				for (int i = graph.getSuccessorsBegin(nodeId); i < graph.getSuccessorsEnd(nodeId); ++i) {
+					int successorNodeId = graph.getSuccessor(i);
 
 					if (!graph.isEntityNode(successorNodeId)) {
 						if (checkMentionDegree.get(successorNodeId) == null)
@@ -905,8 +846,7 @@ public class CocktailParty extends DisambiguationAlgorithm {
 									.put(successorNodeId,
 											1 + checkMentionDegree
 													.get(successorNodeId));
-						double weightedDegree = entityWeightedDegrees
-								.get(nodeId);
+						double weightedDegree = entityWeightedDegrees[nodeId];
 						if (mentionMaxWeightedDegree.get(successorNodeId) == null) {
 							mentionMaxWeightedDegree.put(successorNodeId,
 									weightedDegree);
@@ -943,68 +883,31 @@ public class CocktailParty extends DisambiguationAlgorithm {
 		// one entity for mention
 		for (int mention : checkMentionDegree.keySet()) {
 
-			if (checkMentionDegree.get(mention).intValue() == mentionDegrees
-					.get(mention).intValue()) {
+			if (checkMentionDegree.get(mention).intValue() == mentionDegrees[mention]) {
 				int maxEntity = mentionMaxEntity.get(mention);
-				double maxWeightedDegree = mentionMaxWeightedDegree
-						.get(mention);
 				toRemove.remove(new Integer(maxEntity));
-				entityWeightedDegrees.remove(maxEntity);
-				entitySortedDegrees.remove(maxEntity + ":::"
-						+ maxWeightedDegree);
-
-				notRemovableEntityWeightedDegrees.put(maxEntity, maxWeightedDegree);
-				notRemovableEntitySortedDegrees.add(maxEntity + ":::" + maxWeightedDegree);
+				if (removableEntities.remove(maxEntity)) {
+					notRemovableEntities.add(maxEntity, entityWeightedDegrees[maxEntity]);
+				}
 			}
 		}
 
 		for (int en : toRemove) {
-			GraphNode node = graph.getNode(en);
-			TIntDoubleHashMap successorsMap = node.getSuccessors();
-			TIntDoubleIterator successorsIterator = successorsMap.iterator();
-			for (int i = successorsMap.size(); i-- > 0;) {
-				successorsIterator.advance();
-
-				int successorId = successorsIterator.key();
-				double edgeWeight = successorsIterator.value();
+			for (int i = graph.getSuccessorsBegin(en); i < graph.getSuccessorsEnd(en); ++i) {
+				int successorId = graph.getSuccessor(i);
+				double edgeWeight = graph.getSuccessorWeight(i);
 				if (graph.isMentionNode(successorId)) {
 					// Mention successor
-					int oldDegree = mentionDegrees.get(successorId);
-					mentionDegrees.put(successorId, --oldDegree);
+					--mentionDegrees[successorId];
 				} else {
-					if (entityWeightedDegrees.get(successorId) != null) {
-						double oldWeightedDegree = entityWeightedDegrees
-								.get(successorId);
-
-						double newWeightedDegree = oldWeightedDegree
-								- edgeWeight;
-						entityWeightedDegrees.put(successorId,
-								newWeightedDegree);
-						entitySortedDegrees.remove(successorId + ":::"
-								+ oldWeightedDegree);
-						entitySortedDegrees.add(successorId + ":::"
-								+ newWeightedDegree);
-					}
-
-					else if (notRemovableEntityWeightedDegrees.get(successorId) != null) {
-						double oldWeightedDegree = notRemovableEntityWeightedDegrees
-								.get(successorId);
-						double newWeightedDegree = oldWeightedDegree
-								- edgeWeight;
-						notRemovableEntityWeightedDegrees
-								.put(successorId, newWeightedDegree);
-						notRemovableEntitySortedDegrees.remove(successorId + ":::"
-								+ oldWeightedDegree);
-						notRemovableEntitySortedDegrees.add(successorId + ":::"
-								+ newWeightedDegree);
-					}
+					decreaseWeightedDegree(successorId, edgeWeight);
 				}
 
 			} // end updating all the neighbor nodes
 
-			double oldDegree = entityWeightedDegrees.get(en);
-			entitySortedDegrees.remove(en + ":::" + oldDegree);
-			entityWeightedDegrees.remove(en);
+			if (!removableEntities.remove(en)) {
+				notRemovableEntities.remove(en);
+			}
 			graph.setRemoved(en);
 
 			// removed++;
@@ -1016,21 +919,142 @@ public class CocktailParty extends DisambiguationAlgorithm {
 				Integer.toString(toRemove.size()));
 	}
 
-	protected double calcEntityDistance(double[] ds) {
-		ArrayList<Double> finiteDistanceNodes = new ArrayList<Double>();
-		double finiteDistance = 0.0;
+	/**
+	 * Computes the distance of each given entity to the mentions from the
+	 * shortest-path distances of all mention-entity pairs. The shortest paths
+	 * of the mentions are computed in parallel on the mention-entity pool, 
+	 * one batch of mentions at a time. Only the distances to the given 
+	 * entities are kept, and they are accumulated in mention order, so the 
+	 * result does not depend on the scheduling. The distance arrays and heaps
+	 * of the searches are reused for all mentions, there are only as many as
+	 * searches ran at the same time.
+	 * 
+	 * @return Entity distance per node id, NaN for all other nodes.
+	 */
+	protected double[] calcEntityDistances(Graph graph, int[] entities) {
+	  Integer id = RunningTimer.recordStartTime("CalcEntityDistances");
+		int nodesCount = graph.getNodesCount();
+		boolean[] isTarget = new boolean[nodesCount];
+		for (int e : entities) {
+			isTarget[e] = true;
+		}
 
-		for (int w : mentionDegrees.keySet()) {
-			if (ds[w] != Double.POSITIVE_INFINITY) {
-				finiteDistanceNodes.add(ds[w]);
-				finiteDistance += ds[w];
+		double[] finiteDistances = new double[entities.length];
+		int[] finiteDistanceNodes = new int[entities.length];
+		ConcurrentLinkedQueue<SearchScratch> scratches = 
+		    new ConcurrentLinkedQueue<SearchScratch>();
+		double[][] batch = 
+		    new double[Math.min(DISTANCE_BATCH_SIZE, mentionNodes.length)][];
+		for (int from = 0; from < mentionNodes.length; from += DISTANCE_BATCH_SIZE) {
+			int to = Math.min(from + DISTANCE_BATCH_SIZE, mentionNodes.length);
+			AidaManager.getMentionEntityPool().invoke(new MentionDistancesTask(
+			    graph, isTarget, entities, batch, from, from, to, scratches));
+			for (int m = from; m < to; ++m) {
+				double[] ds = batch[m - from];
+				for (int i = 0; i < entities.length; ++i) {
+					if (ds[i] != Double.POSITIVE_INFINITY) {
+						++finiteDistanceNodes[i];
+						finiteDistances[i] += calcDistanceContribution(ds[i]);
+					}
+				}
 			}
 		}
 
+		double[] entityDistances = new double[nodesCount];
+		Arrays.fill(entityDistances, Double.NaN);
+		for (int i = 0; i < entities.length; ++i) {
+			entityDistances[entities[i]] = 
+			    calcEntityDistance(finiteDistances[i], finiteDistanceNodes[i]);
+		}
+		RunningTimer.recordEndTime("CalcEntityDistances", id);
+		return entityDistances;
+	}
+
+	/**
+	 * Computes the shortest-path distances of the mentions [from, to) to the
+	 * target entities, splitting the range until a single mention is left.
+	 * Each mention writes only to its own row of the batch.
+	 */
+	private class MentionDistancesTask extends RecursiveAction {
+		private static final long serialVersionUID = 6311582290658170133L;
+
+		private Graph graph;
+		private boolean[] isTarget;
+		private int[] targets;
+		private double[][] batch;
+		private int batchStart;
+		private int from;
+		private int to;
+		private ConcurrentLinkedQueue<SearchScratch> scratches;
+
+		public MentionDistancesTask(Graph graph, boolean[] isTarget, int[] targets,
+		    double[][] batch, int batchStart, int from, int to,
+		    ConcurrentLinkedQueue<SearchScratch> scratches) {
+			this.graph = graph;
+			this.isTarget = isTarget;
+			this.targets = targets;
+			this.batch = batch;
+			this.batchStart = batchStart;
+			this.from = from;
+			this.to = to;
+			this.scratches = scratches;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				SearchScratch scratch = scratches.poll();
+				if (scratch == null) {
+					scratch = new SearchScratch(graph.getNodesCount());
+				}
+				shortestPath.run(mentionNodes[from], graph, isTarget, targets.length,
+				    scratch.distances, scratch.unvisited);
+				double[] ds = new double[targets.length];
+				for (int i = 0; i < targets.length; ++i) {
+					ds[i] = scratch.distances[targets[i]];
+				}
+				// Only returned after a complete search, the heap is empty again.
+				scratches.add(scratch);
+				batch[from - batchStart] = ds;
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			invokeAll(
+			    new MentionDistancesTask(graph, isTarget, targets, batch, batchStart, from, mid, scratches),
+			    new MentionDistancesTask(graph, isTarget, targets, batch, batchStart, mid, to, scratches));
+		}
+	}
+
+	/** Distance array and heap of one shortest-path search. */
+	private static class SearchScratch {
+		private final double[] distances;
+		private final IndexedMinHeap unvisited;
+
+		SearchScratch(int nodesCount) {
+			distances = new double[nodesCount];
+			unvisited = new IndexedMinHeap(nodesCount);
+		}
+	}
+
+	/**
+	 * @return Contribution of a finite mention-entity distance to the sum
+	 * passed to calcEntityDistance().
+	 */
+	protected double calcDistanceContribution(double distance) {
+		return distance;
+	}
+
+	/**
+	 * @param finiteDistance Sum of the contributions of the finite distances
+	 * of the entity to all mentions.
+	 * @param finiteDistanceNodes Number of mentions at a finite distance.
+	 * @return Average finite distance, NaN if there is none.
+	 */
+	protected double calcEntityDistance(double finiteDistance, int finiteDistanceNodes) {
 		double entityDistance = Double.NaN;
 
-		if (finiteDistanceNodes.size() > 0) {
-			entityDistance = finiteDistance / finiteDistanceNodes.size();
+		if (finiteDistanceNodes > 0) {
+			entityDistance = finiteDistance / finiteDistanceNodes;
 		}
 
 		return entityDistance;
@@ -1039,23 +1063,27 @@ public class CocktailParty extends DisambiguationAlgorithm {
 	private double firstScanAndCalculateInitialObjective(Graph graph) throws IOException {
 		double initialObjective = Double.POSITIVE_INFINITY;
 
+		int nodesCount = graph.getNodesCount();
+		entityWeightedDegrees = new double[nodesCount];
+		removableEntities = new IndexedMinHeap(nodesCount);
+		notRemovableEntities = new IndexedMinHeap(nodesCount);
+		mentionDegrees = new int[nodesCount];
+		bestWeightedDegrees = new double[nodesCount];
+		Arrays.fill(bestWeightedDegrees, Double.NaN);
+		TIntList mentions = new TIntArrayList();
+
 		for (GraphNode node : graph.getNodes()) {
 			int nodeId = node.getId();
 			int degree = graph.getNodeOutdegree(nodeId);
 			if (graph.isMentionNode(nodeId)) { // mention node
-				mentionDegrees.put(nodeId, degree);
-				bestMentionDegrees.put(nodeId, degree);
+				mentionDegrees[nodeId] = degree;
+				mentions.add(nodeId);
 			} else { // entity node
 				double weightedDegree = graph.getNodeWeightedDegrees(nodeId);
 				boolean notRemovable = false;
 
-				TIntDoubleHashMap successorsMap = node.getSuccessors();
-				TIntDoubleIterator successorsIterator = successorsMap
-						.iterator();
-				for (int i = successorsMap.size(); i-- > 0;) {
-					successorsIterator.advance();
-
-					int successorId = successorsIterator.key();
+				for (int i = graph.getSuccessorsBegin(nodeId); i < graph.getSuccessorsEnd(nodeId); ++i) {
+					int successorId = graph.getSuccessor(i);
 
 					if (graph.isMentionNode(successorId)) {
 						// The current successor is a mention
@@ -1064,18 +1092,19 @@ public class CocktailParty extends DisambiguationAlgorithm {
 					}
 				}
 
+				entityWeightedDegrees[nodeId] = weightedDegree;
 				if (notRemovable) {
-					notRemovableEntityWeightedDegrees.put(nodeId, weightedDegree);
-					notRemovableEntitySortedDegrees.add(nodeId + ":::" + weightedDegree);
+					notRemovableEntities.add(nodeId, weightedDegree);
 				} else {
-					entitySortedDegrees.add(nodeId + ":::" + weightedDegree);
-					entityWeightedDegrees.put(nodeId, weightedDegree);
+					removableEntities.add(nodeId, weightedDegree);
 				}
 				if (weightedDegree < initialObjective) {
 					initialObjective = weightedDegree;
 				}
 			}
 		}
+		mentionNodes = mentions.toArray();
+		bestMentionDegrees = mentionDegrees.clone();
 
 		return initialObjective;
 
@@ -1108,25 +1137,15 @@ public class CocktailParty extends DisambiguationAlgorithm {
 	}
 
 	private void traceIntitialGraphStructure(Graph graph) {
-		for (int menNodeId : mentionDegrees.keySet()) {
+		for (int menNodeId : mentionNodes) {
 			GraphNode menNode = graph.getNode(menNodeId);
 			Mention mention = (Mention) menNode.getNodeData();
 
-			TIntDoubleHashMap successorsMap = menNode.getSuccessors();
-			TIntDoubleIterator successorsIterator = successorsMap.iterator();
-			for (int i = successorsMap.size(); i-- > 0;) {
-				successorsIterator.advance();
-
-				int successorNodeId = successorsIterator.key();
-				double sim = successorsIterator.value();
-
-				double weight = 0.0;
+			for (int i = graph.getSuccessorsBegin(menNodeId); i < graph.getSuccessorsEnd(menNodeId); ++i) {
+				int successorNodeId = graph.getSuccessor(i);
+				double sim = graph.getSuccessorWeight(i);
 
-				if (entityWeightedDegrees.containsKey(successorNodeId)) {
-					weight = entityWeightedDegrees.get(successorNodeId);
-				} else {
-					weight = notRemovableEntityWeightedDegrees.get(successorNodeId);
-				}
+				double weight = entityWeightedDegrees[successorNodeId];
 
 				GraphNode entityNode = graph.getNode(successorNodeId);
 				int entity = (int) entityNode.getNodeData();
@@ -1142,16 +1161,16 @@ public class CocktailParty extends DisambiguationAlgorithm {
 
 	private void debugAndTraceInitialDismabiguationProblemProperties(Graph graph) {
 		logger.debug("Initial number of entities: "
-				+ entitySortedDegrees.size());
+				+ removableEntities.size());
 		logger.debug("Initial number of mentions: "
-				+ mentionDegrees.keySet().size());
+				+ mentionNodes.length);
 
 		GraphTracer.gTracer.addStat(graph.getName(),
 				"Number of Initial Mentions",
-				Integer.toString(mentionDegrees.keySet().size()));
+				Integer.toString(mentionNodes.length));
 		GraphTracer.gTracer.addStat(graph.getName(),
 				"Number of Initial Entities",
-				Integer.toString(entitySortedDegrees.size()));
+				Integer.toString(removableEntities.size()));
 
 	}
 
@@ -1170,26 +1189,17 @@ public class CocktailParty extends DisambiguationAlgorithm {
 
 	private void traceCleanedGraphStructure(Graph graph) {
 
-		for (int menNodeId : mentionDegrees.keySet()) {
+		for (int menNodeId : mentionNodes) {
 
 			GraphNode menNode = graph.getNode(menNodeId);
 			Mention mention = (Mention) menNode.getNodeData();
 
-			TIntDoubleHashMap successorsMap = menNode.getSuccessors();
-			TIntDoubleIterator successorsIterator = successorsMap.iterator();
-			for (int i = successorsMap.size(); i-- > 0;) {
-				successorsIterator.advance();
-
-				int successorNodeId = successorsIterator.key();
+			for (int i = graph.getSuccessorsBegin(menNodeId); i < graph.getSuccessorsEnd(menNodeId); ++i) {
+				int successorNodeId = graph.getSuccessor(i);
 
 				if (!graph.isRemoved(successorNodeId)) {
 					double sim = 0;
-					double weight = 0.0;
-					if (entityWeightedDegrees.containsKey(successorNodeId)) {
-						weight = entityWeightedDegrees.get(successorNodeId);
-					} else {
-						weight = notRemovableEntityWeightedDegrees.get(successorNodeId);
-					}
+					double weight = entityWeightedDegrees[successorNodeId];
 
 					GraphNode entityNode = graph.getNode(successorNodeId);
 					int entity = (int) entityNode.getNodeData();
@@ -1224,27 +1234,22 @@ public class CocktailParty extends DisambiguationAlgorithm {
 	}
 
 	private void traceFinalGraphStructure(Graph graph) {
-		for (int menNodeId : mentionDegrees.keySet()) {
+		for (int menNodeId : mentionNodes) {
 
 			GraphNode menNode = graph.getNode(menNodeId);
 			Mention mention = (Mention) menNode.getNodeData();
 
-			TIntDoubleHashMap successorsMap = menNode.getSuccessors();
-			TIntDoubleIterator successorsIterator = successorsMap.iterator();
-			for (int i = successorsMap.size(); i-- > 0;) {
-				successorsIterator.advance();
-
-				int successorNodeId = successorsIterator.key();
+			for (int i = graph.getSuccessorsBegin(menNodeId); i < graph.getSuccessorsEnd(menNodeId); ++i) {
+				int successorNodeId = graph.getSuccessor(i);
 				if (!bestRemoved[successorNodeId]) {
 
 					double sim = 0;
 					double weight = 0.0;
 
-					if (bestWeightedDegrees.containsKey(successorNodeId)) {
-						weight = bestWeightedDegrees.get(successorNodeId);
-					} else if (notRemovableEntityWeightedDegrees
-							.containsKey(successorNodeId)) {
-						weight = notRemovableEntityWeightedDegrees.get(successorNodeId);
+					if (!Double.isNaN(bestWeightedDegrees[successorNodeId])) {
+						weight = bestWeightedDegrees[successorNodeId];
+					} else if (notRemovableEntities.contains(successorNodeId)) {
+						weight = entityWeightedDegrees[successorNodeId];
 					} else {
 						weight = GraphTracer.gTracer.getRemovedEntityDegree(graph.getName(), (int) graph.getNode(successorNodeId).getNodeData());
 					}
@@ -1,8 +1,5 @@
 package mpi.aida.graph.algorithms;
 
-import gnu.trove.iterator.TIntDoubleIterator;
-import gnu.trove.map.hash.TIntDoubleHashMap;
-
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -16,7 +13,6 @@ import java.util.Map.Entry;
 import mpi.aida.config.settings.DisambiguationSettings;
 import mpi.aida.data.PreparedInputChunk;
 import mpi.aida.graph.Graph;
-import mpi.aida.graph.GraphNode;
 import mpi.experiment.trace.Tracer;
 
 public class CocktailPartySizeConstrained extends
@@ -38,20 +34,16 @@ public class CocktailPartySizeConstrained extends
 	protected void removeInitialEntitiesByDistance(Graph graph) {
 		ArrayList<Integer> toRemove = new ArrayList<Integer>();
 		
-		int nodesCount = graph.getNodesCount();
-
-		double[][] allDistances = new double[nodesCount][nodesCount];
-
-		fillDistances(graph, allDistances);
+		int[] removable = removableEntities.ids();
+		double[] allEntityDistances = calcEntityDistances(graph, removable);
 
 		Map<Integer, Double> entityDistances = new HashMap<Integer, Double>();
 
-		for (int q : entityWeightedDegrees.keySet()) {
+		for (int q : removable) {
 			if (graph.isRemoved(q))
 				continue;
 
-			double entityDistance = calcEntityDistance(allDistances[q]);
-			entityDistances.put(q, entityDistance);
+			entityDistances.put(q, allEntityDistances[q]);
 		}
 
 		List<Entry<Integer, Double>> entries = new ArrayList<Entry<Integer, Double>>(
@@ -75,7 +67,7 @@ public class CocktailPartySizeConstrained extends
 		HashMap<Integer, Double> mentionMaxWeightedDegree = new HashMap<Integer, Double>();
 		HashMap<Integer, Integer> mentionMaxEntity = new HashMap<Integer, Integer>();
 
-		int numberToKeep = (int) Math.ceil(mentionDegrees.size()
+		int numberToKeep = (int) Math.ceil(mentionNodes.length
 				* initialGraphSize);
 
 		int i = 0;
@@ -84,14 +76,8 @@ public class CocktailPartySizeConstrained extends
 			
 			if (i > numberToKeep) {
 				toRemove.add(entityNodeId);
-				GraphNode entityNode = graph.getNode(entityNodeId);
-				TIntDoubleHashMap successorsMap = entityNode.getSuccessors();
-				TIntDoubleIterator successorsIterator = successorsMap
-						.iterator();
-				for (int s = successorsMap.size(); s-- > 0;) {
-					successorsIterator.advance();
-					
-					int succId = successorsIterator.key();
+				for (int s = graph.getSuccessorsBegin(entityNodeId); s < graph.getSuccessorsEnd(entityNodeId); ++s) {
+					int succId = graph.getSuccessor(s);
 					
 					if (!graph.isEntityNode(succId)) {
 						if (checkMentionDegree.get(succId) == null)
@@ -99,8 +85,7 @@ public class CocktailPartySizeConstrained extends
 						else
 							checkMentionDegree.put(succId,
 									1 + checkMentionDegree.get(succId));
-						double weightedDegree = entityWeightedDegrees
-								.get(entityNodeId);
+						double weightedDegree = entityWeightedDegrees[entityNodeId];
 						if (mentionMaxWeightedDegree.get(succId) == null) {
 							mentionMaxWeightedDegree.put(succId, weightedDegree);
 							mentionMaxEntity.put(succId, entityNodeId);
@@ -124,27 +109,13 @@ public class CocktailPartySizeConstrained extends
 				mentionMaxWeightedDegree);
 	}
 
-	private void fillDistances(Graph graph, double[][] allDistances) {
-
-		for (int m : mentionDegrees.keySet()) {
-			double[] shortest = shortestPath.run(m, graph);
-			for (int e : entityWeightedDegrees.keySet()) {
-				allDistances[e][m] = shortest[e];
-			}
-		} // end distance loop
+	@Override
+	protected double calcDistanceContribution(double distance) {
+		return Math.pow(distance, 2);
 	}
 
-	protected double calcEntityDistance(double[] ds) {
-		ArrayList<Double> finiteDistanceNodes = new ArrayList<Double>();
-		double finiteDistance = 0.0;
-
-		for (int w : mentionDegrees.keySet()) {
-			if (ds[w] != Double.POSITIVE_INFINITY) {
-				finiteDistanceNodes.add(ds[w]);
-				finiteDistance += Math.pow(ds[w], 2);
-			}
-		}
-
+	@Override
+	protected double calcEntityDistance(double finiteDistance, int finiteDistanceNodes) {
 		return finiteDistance;
 	}
 }
@@ -1,28 +1,26 @@
   package mpi.aida.graph.algorithms;
 
 import gnu.trove.iterator.TIntDoubleIterator;
-import gnu.trove.iterator.TIntIntIterator;
-import gnu.trove.iterator.TIntIterator;
-import gnu.trove.iterator.TIntObjectIterator;
 import gnu.trove.list.TIntList;
 import gnu.trove.list.array.TIntArrayList;
 import gnu.trove.map.hash.TIntDoubleHashMap;
 import gnu.trove.map.hash.TIntIntHashMap;
-import gnu.trove.map.hash.TIntObjectHashMap;
 import gnu.trove.set.TIntSet;
 import gnu.trove.set.hash.TIntHashSet;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.RecursiveTask;
 
+import mpi.aida.AidaManager;
 import mpi.aida.config.settings.ConfidenceSettings;
 import mpi.aida.data.Mention;
 import mpi.aida.graph.Graph;
-import mpi.aida.graph.GraphNode;
 import mpi.aida.util.CollectionUtils;
 import mpi.aida.util.timing.RunningTimer;
 
@@ -34,13 +32,18 @@ import org.slf4j.LoggerFactory;
  * switching entity mappings. Keeps track of how often each the candidate
  * entities of other mentions are chosen.
  * Single-candidate mentions are assigned a default confidence of 0.9.
+ * 
+ * The iterations are sampled in parallel on the mention-entity pool. Each
+ * task of ITERATIONS_PER_TASK iterations has its own random stream split from
+ * the seed in the ConfidenceSettings, so the result is reproducible unless
+ * a time budget cuts off the sampling.
  */
 public class GraphConfidenceEstimator {
   // TODO below for testing
   public static final double OUT_OF_DICTIONARY_CONFIDENCE = 1.0;
   public static final double SINGLE_CANDIDATE_CONFIDENCE = 1.0;
   
-  private static final int MAX_ITERATIONS = 10000;
+  private static final int ITERATIONS_PER_TASK = 256;
   
   private int outOfGraphEntityId = -1;
   
@@ -74,16 +77,29 @@ public class GraphConfidenceEstimator {
 
   private Graph g_;
   private Map<Integer, Integer> solution_;
-  private Random random_;
   
-  private TIntObjectHashMap<TIntIntHashMap> mentionEntityCounts_ = 
-      new TIntObjectHashMap<TIntIntHashMap>();
+  // The solution as arrays, shared read-only by all samplers.
+  /** Mention ids of the solution, sorted. */
+  private int[] mentions_;
+  /** Entity id each mention is mapped to, -1 for missing entities. */
+  private int[] solutionEntities_;
+  /** Candidates of mention m are in [candidateOffsets_[m], candidateOffsets_[m+1]). */
+  private int[] candidateOffsets_;
+  private int[] candidates_;
+  private double[] candidateWeights_;
+  /** Indexes into mentions_ of all mentions with more than one candidate. */
+  private int[] flipCandidates_;
+  /** Number of times each node is present in the solution. */
+  private int[] presentCounts_;
+  /** Weighted degrees of all candidates in the solution. */
+  private double[] weightedDegrees_;
+  /** Candidates with the maximum weighted degree per mention in the solution. */
+  private int[][] bestCandidates_;
    
   public GraphConfidenceEstimator(
       final Graph g, final Map<Integer, Integer> solution) {
     g_ = g;
     solution_ = new HashMap<Integer, Integer>(solution);
-    random_ = new Random(1337);
   }
 
   /**
@@ -159,25 +175,18 @@ public class GraphConfidenceEstimator {
       logger_.debug("Computing only local confidence scores by normalization");
       confidences = localConfidences;
     } else {
-      // Get the numebr of iterations, bounded by MAX_ITERATIONS
+      // Get the numebr of iterations, bounded by the maximum iterations
       int totalIterations = 
           Math.min(confSettings.getIterationsPerMention() * solution_.size(),
-                   MAX_ITERATIONS);
+                   confSettings.getMaxIterations());
       logger_.debug(
           "Estimating confidence with " + totalIterations + " iterations.");
-      for (int i = 0; i < totalIterations; ++i) {
-        // Create configuration with switched mappings - mentions without
-        // coherence candidates are ignored.
-        Configuration configuration = 
-            getRandomConfiguration(
-                g_, solution_, confSettings.getMentionFlipPercentage());
-        // Increment counts for non-switched mentions and their chosen entities.
-        Map<Integer, Integer> best = getBestCandidates(g_, configuration);
-        incrementCounts(best, mentionEntityCounts_);
-      }
+      // Mentions without coherence candidates were removed from the solution.
+      prepareSampling();
+      int[] counts = sample(totalIterations, confSettings);
       
       Map<Integer, Map<Integer, Double>> coherenceConfidences = 
-          computeConfidence(g_, mentionEntityCounts_);
+          computeConfidence(g_, counts);
       confidences = 
           mergeCoherenceConfidences(
               localConfidences, coherenceConfidences, 
@@ -242,13 +251,10 @@ public class GraphConfidenceEstimator {
     // When coherence robustness is enabled, all but one candidate entities
     // are dropped and the (normalized) score is always 1 (and thus useless).
     // Use the original scores if they are available.
-    GraphNode mentionNode = g.getNode(mentionId);
-    TIntDoubleHashMap successors = mentionNode.getSuccessors();
-    if (successors.size() > 1) {
-      for (TIntDoubleIterator itr = g.getNode(mentionId).getSuccessors().iterator(); 
-          itr.hasNext(); ) {
-        itr.advance();
-        int entity = itr.key();
+    if (g.getSuccessorsCount(mentionId) > 1) {
+      for (int i = g.getSuccessorsBegin(mentionId); 
+          i < g.getSuccessorsEnd(mentionId); ++i) {
+        int entity = g.getSuccessor(i);
         scores.put(entity, computeWeightedDegree(g, configuration, entity));      
       }
     } else {
@@ -258,217 +264,399 @@ public class GraphConfidenceEstimator {
     return scores;
   }
 
-  private Configuration getRandomConfiguration(
-      Graph g, Map<Integer, Integer> solution,
-      float mentionFlipPercentage) {
-    Configuration flippedConfiguration = new Configuration();
-    
-    // Solution has at least 2 mentions, other case is handled in estimate().
-    // Decide number of mentions to switch - at least 1, at most 20%.
-    int mentionSize = Math.round(solution.size() * mentionFlipPercentage);
-    mentionSize = Math.max(1, mentionSize);
-    int numFlips = Math.max(1, random_.nextInt(mentionSize));
-    TIntSet flipCandidates = getFlipCandidates(g, solution);
-    TIntSet flippedMentions = getRandomElements(flipCandidates, numFlips);
-    flippedConfiguration.flippedMentions_ = flippedMentions;
-    Map<Integer, Integer> flippedSolution = 
-        new HashMap<Integer, Integer>(solution);
-    for (TIntIterator itr = flippedMentions.iterator(); itr.hasNext(); ) {
-      int mentionId = itr.next();
-      TIntDoubleHashMap entityCandidates = new TIntDoubleHashMap(
-          getConnectedEntitiesWithScores(g_, mentionId));
-      // Remove correct solution from candidates - it should not be chosen
-      // when flipping.
-     entityCandidates.remove(solution.get(mentionId));
-     // Put placeholder if resembling a missing entity (will not contribute
-     // to coherence at all).
-     Integer flippedEntity = -1;     
-     if (entityCandidates.size() > 0) {
-       TIntDoubleHashMap entityCandidateProbabilities = 
-           CollectionUtils.normalizeValuesToSum(entityCandidates);
-       flippedEntity = 
-           getRandomEntity(mentionId, entityCandidateProbabilities, random_);
-     }
-     flippedSolution.put(mentionId, flippedEntity);
+  /**
+   * Builds the solution as arrays, together with the weighted degree of all
+   * candidates and the best candidates of each mention in the solution. The
+   * samples only recompute what their flips change.
+   */
+  private void prepareSampling() {
+    int nodesCount = g_.getNodesCount();
+    mentions_ = new int[solution_.size()];
+    int m = 0;
+    for (int mentionId : solution_.keySet()) {
+      mentions_[m++] = mentionId;
     }
-    flippedConfiguration.mapping_ = flippedSolution;
-    // Store active nodes in graph for faster lookup.
-    flippedConfiguration.presentGraphNodes_ = new TIntHashSet();
-    for (Entry<Integer, Integer> entry : flippedSolution.entrySet()) {
-      flippedConfiguration.presentGraphNodes_.add(entry.getKey());
-      flippedConfiguration.presentGraphNodes_.add(entry.getValue());
+    Arrays.sort(mentions_);
+
+    solutionEntities_ = new int[mentions_.length];
+    candidateOffsets_ = new int[mentions_.length + 1];
+    presentCounts_ = new int[nodesCount];
+    TIntList flipCandidates = new TIntArrayList();
+    for (m = 0; m < mentions_.length; ++m) {
+      int mentionId = mentions_[m];
+      int entityId = solution_.get(mentionId);
+      solutionEntities_[m] = entityId;
+      ++presentCounts_[mentionId];
+      if (entityId >= 0) {
+        ++presentCounts_[entityId];
+      }
+      int candidateCount = g_.getSuccessorsCount(mentionId);
+      candidateOffsets_[m + 1] = candidateOffsets_[m] + candidateCount;
+      if (candidateCount > 1) {
+        flipCandidates.add(m);
+      }
+    }
+    flipCandidates_ = flipCandidates.toArray();
+
+    candidates_ = new int[candidateOffsets_[mentions_.length]];
+    candidateWeights_ = new double[candidates_.length];
+    weightedDegrees_ = new double[nodesCount];
+    Arrays.fill(weightedDegrees_, Double.NaN);
+    bestCandidates_ = new int[mentions_.length][];
+    for (m = 0; m < mentions_.length; ++m) {
+      int c = candidateOffsets_[m];
+      int mentionId = mentions_[m];
+      for (int i = g_.getSuccessorsBegin(mentionId); 
+          i < g_.getSuccessorsEnd(mentionId); ++i, ++c) {
+        int entityId = g_.getSuccessor(i);
+        candidates_[c] = entityId;
+        candidateWeights_[c] = g_.getSuccessorWeight(i);
+        if (Double.isNaN(weightedDegrees_[entityId])) {
+          weightedDegrees_[entityId] = 
+              computeWeightedDegree(g_, presentCounts_, entityId);
+        }
+      }
+      bestCandidates_[m] = getBestCandidates(m, weightedDegrees_, null, 0);
     }
-//    logger_.debug("Flipped " + flippedMentions.size() + " mentions: " + 
-//                  flippedMentions);
-    return flippedConfiguration;
   }
-  
+
   /**
-   * Selects one candidate key in the entityProbabilities map based on the
-   * probability of the entity given by its value.
-   *  
-   * @param mention Mention to choose the entity for.
-   * @param entityCandidates A map of entity-id to probability.
-   * @return  A key from the entityProbabilities selected randomly based on the probability.
+   * Runs the sampling iterations in tasks of ITERATIONS_PER_TASK on the 
+   * mention-entity pool. The random stream of each task is split from the
+   * seed in task order, so the counts only depend on the seed. With a time 
+   * budget, the tasks that have not started when it is exceeded are skipped.
+   * 
+   * @return Number of times each candidate had the maximum weighted degree,
+   * indexed like candidates_.
    */
-  private Integer getRandomEntity(
-      int mention, TIntDoubleHashMap entityCandidates, Random rand) {
-      return CollectionUtils.getConditionalElement(entityCandidates, rand);
+  private int[] sample(int iterations, ConfidenceSettings confSettings) {
+    int taskCount = (iterations + ITERATIONS_PER_TASK - 1) / ITERATIONS_PER_TASK;
+    if (taskCount == 0) {
+      return new int[candidates_.length];
+    }
+    SplittableRandom seedRandom = new SplittableRandom(confSettings.getSeed());
+    SplittableRandom[] randoms = new SplittableRandom[taskCount];
+    for (int t = 0; t < taskCount; ++t) {
+      randoms[t] = seedRandom.split();
+    }
+    long deadline = Long.MAX_VALUE;
+    if (confSettings.getTimeBudgetMillis() > 0) {
+      deadline = System.currentTimeMillis() + confSettings.getTimeBudgetMillis();
+    }
+    return AidaManager.getMentionEntityPool().invoke(new SamplingTask(
+        randoms, iterations, confSettings.getMentionFlipPercentage(), 
+        deadline, 0, taskCount));
   }
 
   /**
-   * Return all mention node ids with more than candidate entity. Others
-   * cannot be flipped. 
-   * 
-   * @param g Input graph.
-   * @param solution  Disambiguation solution.
-   * @return  Mention node flipping candidates.
+   * Samples the tasks [from, to), splitting the range until a single task 
+   * is left, and sums up their counts.
    */
-  private TIntSet getFlipCandidates(Graph g, Map<Integer, Integer> solution) {
-    TIntSet candidates = new TIntHashSet();
-    for (int mention : solution.keySet()) {
-      if (g.getNode(mention).getSuccessors().size() > 1) {
-        candidates.add(mention);
+  private class SamplingTask extends RecursiveTask<int[]> {
+    private static final long serialVersionUID = 4101871938551270395L;
+
+    private SplittableRandom[] randoms;
+    private int iterations;
+    private float mentionFlipPercentage;
+    private long deadline;
+    private int from;
+    private int to;
+
+    public SamplingTask(SplittableRandom[] randoms, int iterations, 
+        float mentionFlipPercentage, long deadline, int from, int to) {
+      this.randoms = randoms;
+      this.iterations = iterations;
+      this.mentionFlipPercentage = mentionFlipPercentage;
+      this.deadline = deadline;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected int[] compute() {
+      if (to - from == 1) {
+        // The first task always runs, so that there are counts at all.
+        if (from > 0 && System.currentTimeMillis() > deadline) {
+          return new int[candidates_.length];
+        }
+        int taskIterations = 
+            Math.min(ITERATIONS_PER_TASK, iterations - from * ITERATIONS_PER_TASK);
+        return new Sampler(randoms[from], mentionFlipPercentage).run(taskIterations);
       }
+      int mid = (from + to) >>> 1;
+      SamplingTask left = new SamplingTask(
+          randoms, iterations, mentionFlipPercentage, deadline, from, mid);
+      left.fork();
+      int[] counts = new SamplingTask(
+          randoms, iterations, mentionFlipPercentage, deadline, mid, to).compute();
+      int[] leftCounts = left.join();
+      for (int i = 0; i < counts.length; ++i) {
+        counts[i] += leftCounts[i];
+      }
+      return counts;
     }
-    return candidates;
   }
 
   /**
-   * Will return numElements integers from the input elements. If numElements
-   * is larger than elements.size(), everything will be returned.
-   * 
-   * @param elements    Elements to choose from.
-   * @param numElements Number of elements to choose.
-   * @return            numElement random integers from elements.
+   * Draws random configurations by flipping mentions of the solution. Each
+   * configuration only differs from the solution by the flipped mentions, so
+   * only the weighted degrees of the entities adjacent to a node that was
+   * added or removed are recomputed, and only the best candidates of the 
+   * mentions with such an entity.
    */
-  private TIntSet getRandomElements(TIntSet elements,
-      int numElements) {
-    TIntList source = new TIntArrayList(elements.toArray());
-    TIntSet randomElements = new TIntHashSet();
-    for (int i = 0; i < numElements; ++i) {
-      if (source.size() == 0) {
-        break;
+  private class Sampler {
+    private SplittableRandom random;
+    private float mentionFlipPercentage;
+    private int[] counts = new int[candidates_.length];
+    /** presentCounts_ of the current configuration. */
+    private int[] presentCounts = presentCounts_.clone();
+    /** Iteration in which an entity was adjacent to an added or removed node. */
+    private int[] changed;
+    /** Iteration in which the weighted degree of an entity was recomputed. */
+    private int[] recomputed;
+    private double[] weightedDegrees;
+    /** Iteration in which a mention was flipped. */
+    private int[] flipped = new int[mentions_.length];
+    private int[] flippedEntities = new int[mentions_.length];
+    private int[] flipCandidates = flipCandidates_.clone();
+
+    public Sampler(SplittableRandom random, float mentionFlipPercentage) {
+      this.random = random;
+      this.mentionFlipPercentage = mentionFlipPercentage;
+      int nodesCount = presentCounts.length;
+      changed = new int[nodesCount];
+      recomputed = new int[nodesCount];
+      weightedDegrees = new double[nodesCount];
+    }
+
+    public int[] run(int iterations) {
+      // Iterations are numbered from 1, so that 0 marks nothing.
+      for (int iteration = 1; iteration <= iterations; ++iteration) {
+        int numFlips = flipMentions(iteration);
+        countBestCandidates(iteration);
+        // Restore the solution.
+        for (int f = 0; f < numFlips; ++f) {
+          int m = flipCandidates[f];
+          if (solutionEntities_[m] >= 0) {
+            ++presentCounts[solutionEntities_[m]];
+          }
+          if (flippedEntities[m] >= 0) {
+            --presentCounts[flippedEntities[m]];
+          }
+        }
       }
-      // TODO(jh) this is not efficient, as deleting from the ArrayList
-      // will copy ... make this more efficient when necessary.
-      int elementPosition = random_.nextInt(source.size());
-      int element = source.get(elementPosition);
-      source.remove(element);
-      randomElements.add(element);
+      return counts;
+    }
+
+    /**
+     * Flips random mentions to random other candidates. The flipped mentions
+     * are moved to the start of flipCandidates.
+     * 
+     * @return Number of flipped mentions.
+     */
+    private int flipMentions(int iteration) {
+      // Solution has at least 2 mentions, other case is handled in estimate().
+      // Decide number of mentions to switch - at least 1, at most 20%.
+      int mentionSize = Math.round(mentions_.length * mentionFlipPercentage);
+      mentionSize = Math.max(1, mentionSize);
+      int numFlips = Math.max(1, random.nextInt(mentionSize));
+      numFlips = Math.min(numFlips, flipCandidates.length);
+      for (int f = 0; f < numFlips; ++f) {
+        int pick = f + random.nextInt(flipCandidates.length - f);
+        int m = flipCandidates[pick];
+        flipCandidates[pick] = flipCandidates[f];
+        flipCandidates[f] = m;
+
+        flipped[m] = iteration;
+        int flippedEntity = getRandomOtherCandidate(m);
+        flippedEntities[m] = flippedEntity;
+        int solutionEntity = solutionEntities_[m];
+        if (solutionEntity >= 0 && --presentCounts[solutionEntity] == 0) {
+          markAdjacentEntities(solutionEntity, iteration);
+        }
+        if (flippedEntity >= 0 && ++presentCounts[flippedEntity] == 1) {
+          markAdjacentEntities(flippedEntity, iteration);
+        }
+      }
+      return numFlips;
     }
-    return randomElements;
-  }
 
-  private Map<Integer, Integer> getBestCandidates(Graph g, Configuration conf) {
-    Map<Integer, Integer> bestCandidates = new HashMap<Integer, Integer>();
-    TIntDoubleHashMap entityWeightedDegrees = new TIntDoubleHashMap(); 
-    for (int mentionId : conf.mapping_.keySet()) {
-      // Ignore mentions that were switched, only work on the stable ones.
-      if (!conf.flippedMentions_.contains(mentionId)) {
-        // Find the maximum weighted degree first, then select the entities.
-        double maxWeightedDegree = -Double.MAX_VALUE;
-        int[] connectedEntities = getConnectedEntities(g, mentionId).toArray();
-        for (int entityId : connectedEntities) {
-          // Cache for entities - do not recompute when connected to
-          // multiple mentions.
-          double weightedDegree = entityWeightedDegrees.get(entityId);
-          if (weightedDegree == entityWeightedDegrees.getNoEntryValue()) {
-            weightedDegree = computeWeightedDegree(g, conf, entityId);
-            entityWeightedDegrees.put(entityId, weightedDegree);
+    /**
+     * Chooses a candidate other than the solution entity with a probability
+     * proportional to its mention-entity weight.
+     * 
+     * @return Candidate entity, -1 if there is no other candidate.
+     */
+    private int getRandomOtherCandidate(int m) {
+      int solutionEntity = solutionEntities_[m];
+      double total = 0.0;
+      int last = -1;
+      for (int c = candidateOffsets_[m]; c < candidateOffsets_[m + 1]; ++c) {
+        if (candidates_[c] != solutionEntity) {
+          total += candidateWeights_[c];
+          last = candidates_[c];
+        }
+      }
+      if (total == 0.0) {
+        return last;
+      }
+      double r = random.nextDouble() * total;
+      double bound = 0.0;
+      for (int c = candidateOffsets_[m]; c < candidateOffsets_[m + 1]; ++c) {
+        if (candidates_[c] != solutionEntity) {
+          bound += candidateWeights_[c];
+          if (r < bound) {
+            return candidates_[c];
           }
-//          logger_.trace("Weighted degree for " + entityId + ": " + weightedDegree);
-          if (weightedDegree > maxWeightedDegree) {
-            maxWeightedDegree = weightedDegree;
+        }
+      }
+      return last;
+    }
+
+    private void markAdjacentEntities(int nodeId, int iteration) {
+      for (int i = g_.getSuccessorsBegin(nodeId); i < g_.getSuccessorsEnd(nodeId); ++i) {
+        changed[g_.getSuccessor(i)] = iteration;
+      }
+    }
+
+    /**
+     * Increments the counts for the best candidates of the non-flipped
+     * mentions. Ties are broken randomly.
+     */
+    private void countBestCandidates(int iteration) {
+      for (int m = 0; m < mentions_.length; ++m) {
+        if (flipped[m] == iteration) {
+          continue;
+        }
+        int[] best = bestCandidates_[m];
+        boolean mentionChanged = false;
+        for (int c = candidateOffsets_[m]; c < candidateOffsets_[m + 1]; ++c) {
+          int entityId = candidates_[c];
+          if (changed[entityId] == iteration) {
+            mentionChanged = true;
+            if (recomputed[entityId] != iteration) {
+              weightedDegrees[entityId] = 
+                  computeWeightedDegree(g_, presentCounts, entityId);
+              recomputed[entityId] = iteration;
+            }
           }
         }
-        
-        // Get all candidates with the maximum weighted degree, just randomly
-        // among them. This happens frequently when all candidates have a 
-        // 0.0 weight.
-        TIntSet candidates = new TIntHashSet();
-        for (int entityId : connectedEntities) {
-          if (entityWeightedDegrees.get(entityId) == maxWeightedDegree) {
-            candidates.add(entityId);
+        if (mentionChanged) {
+          best = getBestCandidates(m, weightedDegrees, recomputed, iteration);
+        }
+        if (best.length == 0) {
+          continue;
+        }
+        int entityId = best.length == 1 ? best[0] : best[random.nextInt(best.length)];
+        for (int c = candidateOffsets_[m]; c < candidateOffsets_[m + 1]; ++c) {
+          if (candidates_[c] == entityId) {
+            ++counts[c];
+            break;
           }
-        }        
-        TIntSet candidate = getRandomElements(candidates, 1);
-        assert candidate.size() == 1 : "No candidate found";
-        bestCandidates.put(mentionId, candidate.iterator().next());
-//        logger_.trace("Best for " + mentionId + ": " + bestEntityId);
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets all candidates of the mention with the maximum weighted degree.
+   * 
+   * @param weightedDegrees Weighted degrees of the recomputed entities.
+   * @param recomputed  Iteration in which each entity was recomputed, null 
+   *                    if all weighted degrees are in weightedDegrees.
+   * @param iteration Current iteration.
+   */
+  private int[] getBestCandidates(int m, double[] weightedDegrees, 
+      int[] recomputed, int iteration) {
+    // Find the maximum weighted degree first, then select the entities.
+    double maxWeightedDegree = -Double.MAX_VALUE;
+    int begin = candidateOffsets_[m];
+    int end = candidateOffsets_[m + 1];
+    for (int c = begin; c < end; ++c) {
+      maxWeightedDegree = Math.max(maxWeightedDegree, 
+          getWeightedDegree(candidates_[c], weightedDegrees, recomputed, iteration));
+    }
+    // Get all candidates with the maximum weighted degree, one is chosen
+    // randomly among them. This happens frequently when all candidates have 
+    // a 0.0 weight.
+    TIntList best = new TIntArrayList();
+    for (int c = begin; c < end; ++c) {
+      if (getWeightedDegree(candidates_[c], weightedDegrees, recomputed, iteration) 
+          == maxWeightedDegree) {
+        best.add(candidates_[c]);
       }
     }
-    return bestCandidates;
+    return best.toArray();
+  }
+
+  private double getWeightedDegree(int entityId, double[] weightedDegrees,
+      int[] recomputed, int iteration) {
+    if (recomputed == null || recomputed[entityId] == iteration) {
+      return weightedDegrees[entityId];
+    }
+    return weightedDegrees_[entityId];
   }
   
   private double computeWeightedDegree(
       Graph g, Configuration conf, int entityId) {
     double weightedDegree = 0;
-    for (TIntDoubleIterator itr = g.getNode(entityId).getSuccessors().iterator();
-        itr.hasNext(); ) {
-      itr.advance();
-      int nodeId = itr.key();
+    for (int i = g.getSuccessorsBegin(entityId); 
+        i < g.getSuccessorsEnd(entityId); ++i) {
+      int nodeId = g.getSuccessor(i);
       if (conf.isPresent(nodeId)) {
-        weightedDegree += itr.value();
+        weightedDegree += g.getSuccessorWeight(i);
       }
     }
     return weightedDegree;
   }
 
-  private void incrementCounts(Map<Integer, Integer> best,
-      TIntObjectHashMap<TIntIntHashMap> mentionEntityCounts) {
-    for (Entry<Integer, Integer> entry : best.entrySet()) {
-      TIntIntHashMap entityCounts = mentionEntityCounts.get(entry.getKey());
-      if (entityCounts == null) {
-        entityCounts = new TIntIntHashMap();
-        mentionEntityCounts.put(entry.getKey(), entityCounts);
+  /**
+   * Weighted degree of the entity in the configuration given by the number
+   * of times each node is present.
+   */
+  private double computeWeightedDegree(
+      Graph g, int[] presentCounts, int entityId) {
+    double weightedDegree = 0;
+    for (int i = g.getSuccessorsBegin(entityId); 
+        i < g.getSuccessorsEnd(entityId); ++i) {
+      if (presentCounts[g.getSuccessor(i)] > 0) {
+        weightedDegree += g.getSuccessorWeight(i);
       }
-      entityCounts.adjustOrPutValue(entry.getValue(), 1, 1);
     }
+    return weightedDegree;
   }
 
   private Map<Integer, Map<Integer, Double>> computeConfidence(
-      Graph g, TIntObjectHashMap<TIntIntHashMap> mentionEntityCounts) {
+      Graph g, int[] counts) {
     Map<Integer, Map<Integer, Double>> confidences = 
         new HashMap<Integer, Map<Integer,Double>>();
-    // Fill with 0 confidences
-    for (int mentionId : solution_.keySet()) {
-      Map<Integer, Double> mentionConfidences = new HashMap<Integer, Double>();
-      confidences.put(mentionId, mentionConfidences);
-      int[] candidateEntities = g.getNode(mentionId).getSuccessors().keys();
-      for (int entity : candidateEntities) {
-        mentionConfidences.put(entity, 0.0);
-      }
-    }
-    
-    for (TIntObjectIterator<TIntIntHashMap> itr = mentionEntityCounts.iterator(); 
-        itr.hasNext(); ) {
-      itr.advance();
-      int mentionId = itr.key();
-      // Get total count for mention.
+    for (int m = 0; m < mentions_.length; ++m) {
+      // Fill with 0 confidences
+      Map<Integer, Double> entityConfidences = new HashMap<Integer, Double>();
+      confidences.put(mentions_[m], entityConfidences);
+      int begin = candidateOffsets_[m];
+      int end = candidateOffsets_[m + 1];
       int totalCount = 0;
-      for (TIntIntIterator innerItr = itr.value().iterator(); innerItr.hasNext(); ) {
-        innerItr.advance();
-        totalCount += innerItr.value();
+      for (int c = begin; c < end; ++c) {
+        entityConfidences.put(candidates_[c], 0.0);
+        totalCount += counts[c];
+      }
+      if (totalCount == 0) {
+        continue;
       }
       // Compute confidences (by normalizing).
-      Map<Integer, Double> entityConfidences = confidences.get(mentionId);
-      if (entityConfidences.size() == 1) { 
-        entityConfidences.put(entityConfidences.keySet().iterator().next(), 
-                              SINGLE_CANDIDATE_CONFIDENCE);
+      if (end - begin == 1) { 
+        entityConfidences.put(candidates_[begin], SINGLE_CANDIDATE_CONFIDENCE);
       } else {
-        TIntIntHashMap entityCounts = itr.value();
-        for (TIntIntIterator innerItr = entityCounts.iterator(); innerItr.hasNext(); ) {
-          innerItr.advance();
-          int entityId = innerItr.key();
-          double entityConfidence = 
-              (double) innerItr.value() / (double) totalCount;
-          assert entityConfidence <= 1.0001;
-          assert entityConfidence >= -0.0001;
-          entityConfidences.put(entityId, entityConfidence);
+        for (int c = begin; c < end; ++c) {
+          if (counts[c] > 0) {
+            double entityConfidence = (double) counts[c] / (double) totalCount;
+            assert entityConfidence <= 1.0001;
+            assert entityConfidence >= -0.0001;
+            entityConfidences.put(candidates_[c], entityConfidence);
+          }
         }
       }
-      confidences.put(mentionId, entityConfidences);
     }
     return confidences;
   }
@@ -513,16 +701,4 @@ public class GraphConfidenceEstimator {
     }
     return confidences;
   }
-
-  private TIntSet getConnectedEntities(Graph g, int mentionId) {
-    // Mentions can only have connected entities, no need to check.
-    TIntSet connectedEntities = g.getNode(mentionId).getSuccessors().keySet();
-    return connectedEntities;
-  }
-  
-  private TIntDoubleHashMap getConnectedEntitiesWithScores(
-      Graph g, int mentionId) {
-    // Mentions can only have connected entities, no need to check.
-    return g.getNode(mentionId).getSuccessors();
-  }
 }
\ No newline at end of file
@@ -1,8 +1,5 @@
 package mpi.aida.graph.algorithms;
 
-import gnu.trove.iterator.TIntDoubleIterator;
-import gnu.trove.map.hash.TIntDoubleHashMap;
-
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -13,7 +10,6 @@ import java.util.Random;
 import java.util.Set;
 
 import mpi.aida.graph.Graph;
-import mpi.aida.graph.GraphNode;
 import mpi.experiment.trace.GraphTracer;
 
 import org.slf4j.Logger;
@@ -68,17 +64,11 @@ public class GreedyHillClimbing {
 
 			if (inputGraph.isRemoved(mentionNodeId))
 				continue;
-			GraphNode mentionNode = inputGraph.getNode(mentionNodeId);
-
-			TIntDoubleHashMap successorsMap = mentionNode.getSuccessors();
-			TIntDoubleIterator successorsIterator = successorsMap.iterator();
-			for (int i = successorsMap.size(); i-- > 0;) {
-				successorsIterator.advance();
-
-				int successorId = successorsIterator.key();
+			for (int i = inputGraph.getSuccessorsBegin(mentionNodeId); i < inputGraph.getSuccessorsEnd(mentionNodeId); ++i) {
+				int successorId = inputGraph.getSuccessor(i);
 				if (inputGraph.isRemoved(successorId))
 					continue;
-				double weight = successorsIterator.value();
+				double weight = inputGraph.getSuccessorWeight(i);
 
 				if (successorId == currentSolution.get(mentionNodeId)) {
 					totalWeight += weight;
@@ -94,17 +84,11 @@ public class GreedyHillClimbing {
 
 			if (inputGraph.isRemoved(entityId))
 				continue;
-			GraphNode entityNode = inputGraph.getNode(entityId);
-
-			TIntDoubleHashMap successorsMap = entityNode.getSuccessors();
-			TIntDoubleIterator successorsIterator = successorsMap.iterator();
-			for (int i = successorsMap.size(); i-- > 0;) {
-				successorsIterator.advance();
-
-				int successorId = successorsIterator.key();
+			for (int i = inputGraph.getSuccessorsBegin(entityId); i < inputGraph.getSuccessorsEnd(entityId); ++i) {
+				int successorId = inputGraph.getSuccessor(i);
 				if (inputGraph.isRemoved(successorId))
 					continue;
-				double weight = successorsIterator.value();
+				double weight = inputGraph.getSuccessorWeight(i);
 
 				if (entities.contains(successorId) && entityId < successorId) {
 					totalWeight += weight;
@@ -142,16 +126,11 @@ public class GreedyHillClimbing {
 			if (inputGraph.isRemoved(mentionNodeId))
 				continue;
 
-			GraphNode mentionNode = inputGraph.getNode(mentionNodeId);
 			int actualOutdegree = 0;
 			List<Integer> actualSuccessors = new LinkedList<Integer>();
 
-			TIntDoubleHashMap successorsMap = mentionNode.getSuccessors();
-			TIntDoubleIterator successorsIterator = successorsMap.iterator();
-			for (int i = successorsMap.size(); i-- > 0;) {
-				successorsIterator.advance();
-
-				int successorId = successorsIterator.key();
+			for (int i = inputGraph.getSuccessorsBegin(mentionNodeId); i < inputGraph.getSuccessorsEnd(mentionNodeId); ++i) {
+				int successorId = inputGraph.getSuccessor(i);
 				if (inputGraph.isRemoved(successorId))
 					continue;
 
@@ -275,29 +254,22 @@ public class GreedyHillClimbing {
 
 			mentionList.add(mentionNodeId);
 			// find the candidate with the highest mention/entity similarity
-			GraphNode mentionNode = inputGraph.getNode(mentionNodeId);
-
 			double max = Double.NEGATIVE_INFINITY;
 			int outdegree = inputGraph.getNodeOutdegree(mentionNodeId);
 			int actualOutdegree = 0;
 			Integer[] actualSuccessors = new Integer[outdegree];
 
-			TIntDoubleHashMap successorsMap = mentionNode.getSuccessors();
-			TIntDoubleIterator successorsIterator = successorsMap.iterator();
-
 			int selected = -1;
 			int readIndex = -1;
-			for (int i = successorsMap.size(); i-- > 0;) {
-				successorsIterator.advance();
-
-				int successor = successorsIterator.key();
+			for (int i = inputGraph.getSuccessorsBegin(mentionNodeId); i < inputGraph.getSuccessorsEnd(mentionNodeId); ++i) {
+				int successor = inputGraph.getSuccessor(i);
 				if (inputGraph.isRemoved(successor))
 					continue;
 
 				actualOutdegree++;
 				actualSuccessors[++readIndex] = successor;
 
-				double mentionEntitySimilarity = successorsIterator.value();
+				double mentionEntitySimilarity = inputGraph.getSuccessorWeight(i);
 
 				if (mentionEntitySimilarity > max) {
 
@@ -1,14 +1,11 @@
 package mpi.aida.graph.algorithms;
 
 
-import gnu.trove.iterator.TIntDoubleIterator;
-import gnu.trove.map.hash.TIntDoubleHashMap;
-
 import java.util.Arrays;
 import java.util.PriorityQueue;
 
 import mpi.aida.graph.Graph;
-import mpi.aida.graph.GraphNode;
+import mpi.aida.util.IndexedMinHeap;
 import mpi.aida.util.timing.RunningTimer;
 
 import org.slf4j.Logger;
@@ -20,84 +17,57 @@ public class ShortestPath {
   private static final Logger logger = 
       LoggerFactory.getLogger(ShortestPath.class);
 
-	// Use a method that takes the vector of flags telling which nodes have been
-	// removed - THIS IS USED BY FCPSC
-	public double[] run(int mention, Graph graph) {
-	  
+	/**
+	 * Distances from the source to the target nodes, skipping removed nodes.
+	 * Only reached nodes are kept in the heap, and the search stops as soon
+	 * as all targets are settled.
+	 *
+	 * @param isTarget Flags of the target nodes, indexed by node id.
+	 * @param targetCount Number of targets.
+	 * @param distances Filled with the distances of the targets, 
+	 * POSITIVE_INFINITY for unreachable targets. Values of other nodes are 
+	 * unspecified. Must have one slot per node.
+	 * @param unvisited Empty heap with one slot per node, empty again on return.
+	 */
+	public void run(int source, Graph graph, boolean[] isTarget, int targetCount,
+	    double[] distances, IndexedMinHeap unvisited) {
 	  Integer id = RunningTimer.recordStartTime("ShortestPathRun");
-		int nodesCount = graph.getNodesCount();
-		double[] distances = new double[nodesCount];
-
 		Arrays.fill(distances, Double.POSITIVE_INFINITY);
-
-		int[] previous = new int[nodesCount];
-		Arrays.fill(previous, -1);
-
-		PriorityQueue<Node> unvisited = new PriorityQueue<Node>(
-				nodesCount, new NodeComparator());
-		
-		mloop: for (int n = 0; n < nodesCount; n++) {
-			Node current = null;
-			if (graph.isRemoved(n))
-				continue mloop;
-			if (n == mention) {
-				current = new Node(n, 0.0);
-				unvisited.add(current);
-			} else {
-				current = new Node(n, Double.POSITIVE_INFINITY);
-				unvisited.add(current);
+		distances[source] = 0.0;
+		unvisited.add(source, 0.0);
+
+		int settledTargets = 0;
+		while (!unvisited.isEmpty() && settledTargets < targetCount) {
+			int currentId = unvisited.poll();
+			if (isTarget[currentId]) {
+				++settledTargets;
 			}
-		}
-		
-		// mainloop
-		while (!unvisited.isEmpty()) {
-
-			Node current = unvisited.poll();
-						
-			if (current.getDistance() == Double.POSITIVE_INFINITY)
-				break; // all the remaining nodes are unreachable from the
-						// source node
-			distances[current.getKey()] = current.getDistance();
 
-			GraphNode currentGraphNode = graph.getNode(current.getKey());
-			
-			TIntDoubleHashMap successorsMap = currentGraphNode.getSuccessors();
-			TIntDoubleIterator successorsIterator = successorsMap
-					.iterator();
-			for (int i = successorsMap.size(); i-- > 0;) {
-				successorsIterator.advance();
-				
-				int neighborId = successorsIterator.key(); 
+			double currentDistance = distances[currentId];
+			int end = graph.getSuccessorsEnd(currentId);
+			for (int i = graph.getSuccessorsBegin(currentId); i < end; ++i) {
+				int neighborId = graph.getSuccessor(i); 
 				if (graph.isRemoved(neighborId))
 					continue;
 				
-				double weight = successorsIterator.value();
-				
 				// All the similarity measures are in 0,1
-				double distance = 1.0 - weight;
+				double distance = 1.0 - graph.getSuccessorWeight(i);
 				
 				if (distance < 0.0 || distance > 1.0) {
 				  logger.error("VIOLATION");
 				  throw new IllegalArgumentException("Distance '"+distance+"' not in [0,1], this is not valid, EXITING!");
 				}
 
-				if (distances[neighborId] > (distances[current.getKey()] + distance)) {
-					distances[neighborId] = distances[current.getKey()]
-							+ distance;
-
-					Node nnode = new Node(neighborId, distances[neighborId]);
-					unvisited.remove(nnode);
-					unvisited.add(nnode);
-					previous[neighborId] = current.getKey();
+				// Settled nodes never improve, the distances are non-negative.
+				if (distances[neighborId] > currentDistance + distance) {
+					distances[neighborId] = currentDistance + distance;
+					unvisited.add(neighborId, distances[neighborId]);
 				}
-
 			} // end scanning all the neighbors of the current node
-
 		} // end main loop
-		
-		// Return the distances
+		unvisited.clear();
+
 		RunningTimer.recordEndTime("ShortestPathRun", id);
-		return distances;
 	}
 	
 	
@@ -145,19 +115,14 @@ public class ShortestPath {
 
 			distances[current.getKey()] = current.getDistance();
 			
-			GraphNode currentGraphNode = graph.getNode(current.getKey());
-			
-			TIntDoubleHashMap successorsMap = currentGraphNode.getSuccessors();
-			TIntDoubleIterator successorsIterator = successorsMap
-					.iterator();
-			for (int i = successorsMap.size(); i-- > 0;) {
-				successorsIterator.advance();
-				
-				int neighborId = successorsIterator.key(); 
+			int currentId = current.getKey();
+			int end = graph.getSuccessorsEnd(currentId);
+			for (int i = graph.getSuccessorsBegin(currentId); i < end; ++i) {
+				int neighborId = graph.getSuccessor(i); 
 				if (isRemoved[neighborId])
 					continue ;
 				
-				double weight = successorsIterator.value();
+				double weight = graph.getSuccessorWeight(i);
 				
 				// All the similarity measures are in 0,1
 				double distance = 1.0 - weight;
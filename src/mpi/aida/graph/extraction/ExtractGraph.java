@@ -1,10 +1,5 @@
 package mpi.aida.graph.extraction;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
-
 import mpi.aida.config.AidaConfig;
 import mpi.aida.data.Entities;
 import mpi.aida.data.Entity;
@@ -12,6 +7,7 @@ import mpi.aida.data.Mention;
 import mpi.aida.data.Mentions;
 import mpi.aida.graph.Graph;
 import mpi.aida.graph.similarity.EnsembleEntityEntitySimilarity;
+import mpi.aida.graph.similarity.util.EntityEntitySimilarityMatrix;
 import mpi.aida.graph.similarity.util.ParallelEntityEntityRelatednessComputation;
 import mpi.aida.util.timing.RunningTimer;
 
@@ -33,11 +29,10 @@ public class ExtractGraph {
   private Integer timerId;
 
   /**
-   * Keeps the precalculated similarities. Do not access directly, always use
-   * the getEntityEntitySimilarity() method. Not all similarities are
-   * calculated because of performance.
+   * Keeps the precalculated similarities. Not all similarities are
+   * calculated because of performance, missing pairs are NaN.
    */
-  private Map<Entity, Map<Entity, Double>> entityEntitySimilarities = Collections.synchronizedMap(new HashMap<Entity, Map<Entity, Double>>());
+  private EntityEntitySimilarityMatrix entityEntitySimilarities;
 
   private EnsembleEntityEntitySimilarity entitySimilarity;
 
@@ -92,15 +87,19 @@ public class ExtractGraph {
       }
     }
     // add entity-entity edges
-    for (Entity e1 : uniqueEntities.getEntities()) {
-      for (Entity e2 : uniqueEntities.getEntities()) {
-        if (e1.compareTo(e2) < 1) continue;
-        double eeSim = getEntityEntitySimilarity(e1, e2);
+    int n = entityEntitySimilarities.size();
+    for (int i = 0; i < n; ++i) {
+      for (int j = i + 1; j < n; ++j) {
+        double eeSim = entityEntitySimilarities.get(i, j);
+        // not computed pairs are NaN and fail the check
         if (eeSim > 0.0) {
-          graph.addEdge(e1, e2, eeSim);
+          graph.addEdge(entityEntitySimilarities.getEntity(j), 
+              entityEntitySimilarities.getEntity(i), eeSim);
         }
       }
     }
+    // All edges are known, build the adjacency arrays in one pass.
+    graph.compact();
     RunningTimer.recordEndTime("AddGraphEdge", id);
   }
   
@@ -132,9 +131,9 @@ public class ExtractGraph {
     
     // scale to make absolute values of mention-entity and entity-entity
     // edges comparable - only rescale if there are EE edges
-    if (entityEntitySimilarities.size() > 0) {
+    if (entityEntitySimilarities.hasComputedPairs()) {
       double averageMentionEdgeWeight = calculateAverageMentionEdgeWeight(mentions);
-      double averageEntityEdgeWeight = calculateAverageEntityEdgeWeight(uniqueEntities.getEntities());
+      double averageEntityEdgeWeight = calculateAverageEntityEdgeWeight(entityEntitySimilarities);
 
       // no need for rescaling if one side is only zeros      
       if (!Double.isNaN(averageEntityEdgeWeight) 
@@ -149,7 +148,7 @@ public class ExtractGraph {
         if (mentionEntityScaling > 1.0) {
           scaleMentionEntityEdges(mentions, 1 / mentionEntityScaling);
         } else {
-          scaleEntityEntityEdges(uniqueEntities.getEntities(), mentionEntityScaling);
+          scaleEntityEntityEdges(entityEntitySimilarities, mentionEntityScaling);
         }
         RunningTimer.recordEndTime("ScaleME", id);
       }
@@ -158,8 +157,8 @@ public class ExtractGraph {
     double averageMentionEdgeWeight = calculateAverageMentionEdgeWeight(mentions);
     double averageEntityEdgeWeight = 0.0;
 
-    if (entityEntitySimilarities.size() > 0) {
-      averageEntityEdgeWeight = calculateAverageEntityEdgeWeight(uniqueEntities.getEntities());
+    if (entityEntitySimilarities.hasComputedPairs()) {
+      averageEntityEdgeWeight = calculateAverageEntityEdgeWeight(entityEntitySimilarities);
     }
     /*
      * FileWriter writer = new FileWriter(graphBasename + ".weights");
@@ -210,17 +209,21 @@ public class ExtractGraph {
     }
   }
 
-  private void rescaleEntityEdgeWeights(Map<Entity, Map<Entity, Double>> ees) {
+  private void rescaleEntityEdgeWeights(EntityEntitySimilarityMatrix ees) {
     // get max/min
     double maxWeight = 0.0;
     double minWeight = Double.MAX_VALUE;
 
     int edgeCount = 0;
 
-    for (Entity e1 : ees.keySet()) {
-      for (Entity e2 : ees.get(e1).keySet()) {
+    int n = ees.size();
+    for (int i = 0; i < n; ++i) {
+      for (int j = i + 1; j < n; ++j) {
+        if (!ees.isComputed(i, j)) {
+          continue;
+        }
         edgeCount++;
-        double weight = getEntityEntitySimilarity(e1, e2);
+        double weight = ees.get(i, j);
         if (weight > maxWeight) {
           maxWeight = weight;
         }
@@ -234,10 +237,12 @@ public class ExtractGraph {
       return;
     }
     // rescale
-    for (Entity e1 : ees.keySet()) {
-      for (Entity e2 : ees.get(e1).keySet()) {
-        double scaledWeight = (getEntityEntitySimilarity(e1, e2) - minWeight) / (maxWeight - minWeight);
-        setEntityEntitySimilarity(e1, e2, scaledWeight);
+    for (int i = 0; i < n; ++i) {
+      for (int j = i + 1; j < n; ++j) {
+        if (ees.isComputed(i, j)) {
+          double scaledWeight = (ees.get(i, j) - minWeight) / (maxWeight - minWeight);
+          ees.set(i, j, scaledWeight);
+        }
       }
     }
   }
@@ -266,18 +271,16 @@ public class ExtractGraph {
     return averageEdgeWeight;
   }
 
-  private double calculateAverageEntityEdgeWeight(Set<Entity> ue) {
+  private double calculateAverageEntityEdgeWeight(EntityEntitySimilarityMatrix ees) {
     Integer id = RunningTimer.recordStartTime("calcAvgEEWeight");
     double totalEdgeWeight = 0.0;
     long totalEdgeCount = 0;
-    for (Entity e : ue) {
-      if (entityEntitySimilarities.get(e) == null) {
-        continue;
-      }
-      for (Entity adjancentE : entityEntitySimilarities.get(e).keySet()) {
-        double eeWeight = getEntityEntitySimilarity(e, adjancentE);
+    int n = ees.size();
+    for (int i = 0; i < n; ++i) {
+      for (int j = i + 1; j < n; ++j) {
+        double eeWeight = ees.get(i, j);
 
-        // edges with 0 weight do not exist
+        // edges with 0 weight do not exist, not computed ones are NaN
         if (eeWeight > 0.0) {
           totalEdgeCount++;
           totalEdgeWeight += eeWeight;
@@ -285,8 +288,6 @@ public class ExtractGraph {
       }
     }
 
-    // each edge is counted twice (for each entity), but that doesn't affect
-    // the average weight
     RunningTimer.recordEndTime("calcAvgEEWeight", id);
     if (totalEdgeCount > 0) {
       double averageEntityEdgeWeight = totalEdgeWeight / totalEdgeCount;
@@ -305,43 +306,14 @@ public class ExtractGraph {
     }
   }
 
-  private void scaleEntityEntityEdges(Set<Entity> ue, double scalingFactor) {
-    for (Entity e : ue) {
-      if (entityEntitySimilarities.get(e) == null) {
-        continue;
-      }
-      for (Entity adjacentE : entityEntitySimilarities.get(e).keySet()) {
-        double scaledWeight = getEntityEntitySimilarity(e, adjacentE) * scalingFactor;
-        entityEntitySimilarities.get(e).put(adjacentE, scaledWeight);
+  private void scaleEntityEntityEdges(EntityEntitySimilarityMatrix ees, double scalingFactor) {
+    int n = ees.size();
+    for (int i = 0; i < n; ++i) {
+      for (int j = i + 1; j < n; ++j) {
+        if (ees.isComputed(i, j)) {
+          ees.set(i, j, ees.get(i, j) * scalingFactor);
+        }
       }
     }
   }
-
-  private void setEntityEntitySimilarity(Entity e1, Entity e2, double sim) {
-    if (e1.compareTo(e2) < 0) {
-      entityEntitySimilarities.get(e1).put(e2, sim);
-    } else {
-      entityEntitySimilarities.get(e2).put(e1, sim);
-    }
-  }
-
-  private double getEntityEntitySimilarity(Entity e1, Entity e2) {
-    if (e1.equals(e2)) {
-      return 1.0; // entities are fully similar to themselves
-    }
-
-    Entity first = e1;
-    Entity second = e2;
-
-    if (e1.compareTo(e2) > 0) {
-      second = e1;
-      first = e2;
-    }
-
-    if (entityEntitySimilarities.get(first) == null || entityEntitySimilarities.get(first).get(second) == null) {
-      return -1.0;
-    } else {
-      return entityEntitySimilarities.get(first).get(second);
-    }
-  }
 }
@@ -1,12 +1,12 @@
 package mpi.aida.graph.similarity;
 
 import com.google.common.collect.Iterables;
-import gnu.trove.iterator.TIntDoubleIterator;
-import gnu.trove.map.hash.TIntDoubleHashMap;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
 
+import mpi.aida.AidaManager;
 import mpi.aida.data.Context;
 import mpi.aida.data.Entities;
 import mpi.aida.data.Entity;
@@ -16,6 +16,7 @@ import mpi.aida.data.Mentions;
 import mpi.aida.graph.similarity.importance.EntityImportance;
 import mpi.aida.graph.similarity.util.SimilaritySettings;
 import mpi.aida.util.MathUtil;
+import mpi.aida.util.SortedIntArrays;
 import mpi.aida.util.timing.RunningTimer;
 import mpi.experiment.trace.Tracer;
 import mpi.experiment.trace.measures.EntityImportanceMeasureTracer;
@@ -40,8 +41,19 @@ public class EnsembleMentionEntitySimilarity {
   
   private List<MentionEntitySimilarity> mesNoPrior;
   private List<MentionEntitySimilarity> mesWithPrior;
-  private Map<String, double[]> mesMinMax;
-  Map<String, Map<Mention, TIntDoubleHashMap>> precomputedScores;  
+  /** Position of each measure in mesWithPrior/mesNoPrior in precomputedScores. */
+  private int[] mesWithPriorIds;
+  private int[] mesNoPriorIds;
+  /** Min and max score of each measure. */
+  private double[][] mesMinMax;
+  /** Scores per measure, for all mention-candidate pairs. */
+  private double[][] precomputedScores;
+  /** Position of each mention in candidateIds and candidateOffsets. */
+  private Map<Mention, Integer> mentionIds;
+  /** Sorted candidate entity ids per mention. */
+  private int[][] candidateIds;
+  /** Start of the candidates of each mention in the per-measure scores. */
+  private int[] candidateOffsets;
   /**
    * EntityImportances need to be in [0, 1].
    */
@@ -104,53 +116,155 @@ public class EnsembleMentionEntitySimilarity {
   }
   
   /**
-   * Updates precomputedScores. 
+   * Computes the scores of all measures for all mention-candidate pairs,
+   * processing the mentions in parallel on the shared mention-entity pool.
+   * Updates precomputedScores.
    * 
    * @param mentions
    * @param mentionsContexts
-   * @return
+   * @return Min and max score of each measure.
    * @throws Exception
    */
-  private Map<String, double[]> precomputeMinMax(
+  private double[][] precomputeMinMax(
       Mentions mentions, Map<Mention, Context> mentionsContexts) throws Exception {
-    precomputedScores = new HashMap<String, Map<Mention,TIntDoubleHashMap>>();
     //scores stay the same for the switched measures, only weights change
-    
+    Map<String, Integer> measureIds = new HashMap<String, Integer>();
+    List<MentionEntitySimilarity> measures = new ArrayList<MentionEntitySimilarity>();
     for (MentionEntitySimilarity s : Iterables.concat(mesWithPrior, mesNoPrior)) {
-      if(precomputedScores.containsKey(s.getIdentifier())) {
-        continue;
+      if (!measureIds.containsKey(s.getIdentifier())) {
+        measureIds.put(s.getIdentifier(), measures.size());
+        measures.add(s);
       }
-      Map<Mention, TIntDoubleHashMap> measureScores =
-          new HashMap<Mention, TIntDoubleHashMap>();
-      precomputedScores.put(s.getIdentifier(), measureScores);
-      for (Mention m : mentions.getMentions()) {
-        Context context = mentionsContexts.get(m);
-        TIntDoubleHashMap mentionScores = new TIntDoubleHashMap();
-        measureScores.put(m, mentionScores);
-        for (Entity e : m.getCandidateEntities()) {
-          double sim = s.calcSimilarity(m, context, e);
-          mentionScores.put(e.getId(), sim);
-        }
+    }
+    mesWithPriorIds = getMeasureIds(mesWithPrior, measureIds);
+    mesNoPriorIds = getMeasureIds(mesNoPrior, measureIds);
+
+    // Lay out the sorted candidates of all mentions in one flat array.
+    List<Mention> mentionList = mentions.getMentions();
+    mentionIds = new HashMap<Mention, Integer>();
+    candidateIds = new int[mentionList.size()][];
+    candidateOffsets = new int[mentionList.size()];
+    int numPairs = 0;
+    for (int i = 0; i < mentionList.size(); ++i) {
+      Mention m = mentionList.get(i);
+      mentionIds.put(m, i);
+      int[] candidates = new int[m.getCandidateEntities().size()];
+      int c = 0;
+      for (Entity e : m.getCandidateEntities()) {
+        candidates[c++] = e.getId();
       }
+      candidateIds[i] = SortedIntArrays.sortedUnique(candidates);
+      candidateOffsets[i] = numPairs;
+      numPairs += candidateIds[i].length;
     }
-    Map<String, double[]> measureMinMaxs =
-        new HashMap<String, double[]>();
-    for (String  s : precomputedScores.keySet()) {
+    precomputedScores = new double[measures.size()][numPairs];
+
+    if (!mentionList.isEmpty() && !measures.isEmpty()) {
+      AtomicReference<Exception> failure = new AtomicReference<Exception>();
+      AidaManager.getMentionEntityPool().invoke(new MentionsTask(
+          measures, mentionList, mentionsContexts, failure, 0, mentionList.size()));
+      if (failure.get() != null) {
+        throw failure.get();
+      }
+    }
+
+    double[][] measureMinMaxs = new double[measures.size()][];
+    for (int s = 0; s < measures.size(); ++s) {
       double[] minMax = new double[] { Double.MAX_VALUE, 0.0 }; 
-      measureMinMaxs.put(s, minMax);
-      Map<Mention, TIntDoubleHashMap> measureScores = precomputedScores.get(s);
-      for (TIntDoubleHashMap mentionScores : measureScores.values()) {
-        for (TIntDoubleIterator itr = mentionScores.iterator(); itr.hasNext(); ) {
-          itr.advance();
-          double score = itr.value();
-          minMax[0] = Math.min(minMax[0], score);
-          minMax[1] = Math.max(minMax[1], score);
-        }
+      measureMinMaxs[s] = minMax;
+      for (double score : precomputedScores[s]) {
+        minMax[0] = Math.min(minMax[0], score);
+        minMax[1] = Math.max(minMax[1], score);
       }
     }
     return measureMinMaxs;
   }
 
+  private int[] getMeasureIds(
+      List<MentionEntitySimilarity> mes, Map<String, Integer> measureIds) {
+    int[] ids = new int[mes.size()];
+    for (int i = 0; i < ids.length; ++i) {
+      ids[i] = measureIds.get(mes.get(i).getIdentifier());
+    }
+    return ids;
+  }
+
+  /**
+   * @return Precomputed score of the given measure, 0.0 if the entity is 
+   * not a candidate of the mention.
+   */
+  private double getPrecomputedScore(int measureId, Mention mention, Entity entity) {
+    Integer mentionId = mentionIds.get(mention);
+    if (mentionId == null) {
+      return 0.0;
+    }
+    int pos = Arrays.binarySearch(candidateIds[mentionId], entity.getId());
+    if (pos < 0) {
+      return 0.0;
+    }
+    return precomputedScores[measureId][candidateOffsets[mentionId] + pos];
+  }
+
+  /**
+   * Computes all measures for the mentions [from, to), splitting the range
+   * until a single mention is left. Each mention writes only to its own slots
+   * of precomputedScores.
+   */
+  private class MentionsTask extends RecursiveAction {
+    private static final long serialVersionUID = -2538541395728618466L;
+
+    private List<MentionEntitySimilarity> measures;
+    private List<Mention> mentionList;
+    private Map<Mention, Context> mentionsContexts;
+    private AtomicReference<Exception> failure;
+    private int from;
+    private int to;
+
+    public MentionsTask(List<MentionEntitySimilarity> measures,
+        List<Mention> mentionList, Map<Mention, Context> mentionsContexts,
+        AtomicReference<Exception> failure, int from, int to) {
+      this.measures = measures;
+      this.mentionList = mentionList;
+      this.mentionsContexts = mentionsContexts;
+      this.failure = failure;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from == 1) {
+        computeMention(from);
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      invokeAll(
+          new MentionsTask(measures, mentionList, mentionsContexts, failure, from, mid),
+          new MentionsTask(measures, mentionList, mentionsContexts, failure, mid, to));
+    }
+
+    private void computeMention(int mentionId) {
+      if (failure.get() != null) {
+        return;
+      }
+      Mention m = mentionList.get(mentionId);
+      Context context = mentionsContexts.get(m);
+      int[] candidates = candidateIds[mentionId];
+      int offset = candidateOffsets[mentionId];
+      try {
+        for (int s = 0; s < measures.size(); ++s) {
+          double[] scores = precomputedScores[s];
+          for (Entity e : m.getCandidateEntities()) {
+            int pos = Arrays.binarySearch(candidates, e.getId());
+            scores[offset + pos] = measures.get(s).calcSimilarity(m, context, e);
+          }
+        }
+      } catch (Exception e) {
+        failure.compareAndSet(null, e);
+      }
+    }
+  }
+
   public static double[] rescaleArray(double[] in) {
     double[] out = new double[in.length];
 
@@ -176,15 +290,17 @@ public class EnsembleMentionEntitySimilarity {
     // If non-switch sim is computed, prior is always used. Otherwise determine based on the threshold and the distribution.
     boolean shouldUsePrior = !shouldSwitch || shouldIncludePrior(bestPrior, settings.getPriorThreshold(), mention);
     List<MentionEntitySimilarity> mesToUse = shouldUsePrior ? mesWithPrior : mesNoPrior;
+    int[] mesToUseIds = shouldUsePrior ? mesWithPriorIds : mesNoPriorIds;
     List<EntityImportance> eisToUse = shouldUsePrior ? eisWithPrior : eisNoPrior;
 
     double weightedSimilarity = 0.0;
 
-    for (MentionEntitySimilarity s : mesToUse) {
-      double singleSimilarity = precomputedScores.get(s.getIdentifier()).get(mention).get(entity.getId());
-      double[] minMax = mesMinMax.get(s.getIdentifier());
+    for (int i = 0; i < mesToUse.size(); ++i) {
+      int measureId = mesToUseIds[i];
+      double singleSimilarity = getPrecomputedScore(measureId, mention, entity);
+      double[] minMax = mesMinMax[measureId];
       singleSimilarity = rescale(singleSimilarity, minMax[0], minMax[1]);
-      weightedSimilarity += singleSimilarity * s.getWeight();
+      weightedSimilarity += singleSimilarity * mesToUse.get(i).getWeight();
     }
 
     switch (settings.getImportanceAggregationStrategy()) {
@@ -10,6 +10,7 @@ import java.util.Arrays;
 import mpi.aida.access.DataAccess;
 import mpi.aida.data.Entities;
 import mpi.aida.data.Entity;
+import mpi.aida.util.SortedIntArrays;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,8 +29,9 @@ public class FastWeightedKeyphrasesContext extends WeightedKeyphrasesContext {
   
   private TIntDoubleHashMap entityVectorNorms;
   
-  // for fast similarity calculation
+  // for fast similarity calculation, all int[] are sorted and duplicate-free
   private TIntObjectHashMap<int[]> entity2keywordIds;
+  private TIntObjectHashMap<int[]> keyphrase2sortedTokenIds;
   
   /** Contains all keyphrase weights sorted by the weight (not by the
    * initial keyphrase order.
@@ -56,6 +58,7 @@ public class FastWeightedKeyphrasesContext extends WeightedKeyphrasesContext {
             
     // create vectors + datastructures for speeding up the calculation    
     entity2keywordIds = createEntity2keywordMapping();
+    keyphrase2sortedTokenIds = createKeyphrase2sortedTokenIdsMapping();
     entity2combinedMiIdfKeyphraseWeights = createEntity2combinedMiIdfKeyphraseWeightsMapping();
     entity2keyword2keyphrases = createEntity2keyword2keyphrasesMapping();
     entity2keyphrase2keywordWeightSum = createEntity2keyphrase2keywordWeightSumMapping();        
@@ -111,7 +114,9 @@ public class FastWeightedKeyphrasesContext extends WeightedKeyphrasesContext {
 		  }
 		  TIntObjectHashMap<int[]> kw2kp_array = new TIntObjectHashMap<int[]>();
 		  for (int kw : kw2kp.keys()) {
-			  kw2kp_array.put(kw, kw2kp.get(kw).toArray());
+			  int[] kps = kw2kp.get(kw).toArray();
+			  Arrays.sort(kps);
+			  kw2kp_array.put(kw, kps);
 		  }
 		  m.put(e.getId(), kw2kp_array);
 	  }
@@ -152,6 +157,18 @@ public class FastWeightedKeyphrasesContext extends WeightedKeyphrasesContext {
 	  return m;
   }
 
+  private TIntObjectHashMap<int[]> createKeyphrase2sortedTokenIdsMapping() {
+    TIntObjectHashMap<int[]> m = new TIntObjectHashMap<int[]>();
+    for (Entity e : entities) {
+      for (int kp : getEntityKeyphraseIds(e)) {
+        if (!m.containsKey(kp)) {
+          m.put(kp, SortedIntArrays.sortedUnique(getKeyphraseTokenIds(kp, true)));
+        }
+      }
+    }
+    return m;
+  }
+
   @Override
   public int[] getContext(Entity entity) {
     TIntLinkedList keywords = new TIntLinkedList();    
@@ -181,6 +198,14 @@ public class FastWeightedKeyphrasesContext extends WeightedKeyphrasesContext {
 	  return entity2keywordIds.get(entity.getId());
   }
   
+  /**
+   * @return Stopword-free tokens of the keyphrase, sorted and without
+   * duplicates.
+   */
+  public int[] getSortedKeyphraseTokenIds(int keyphraseId) {
+    return keyphrase2sortedTokenIds.get(keyphraseId);
+  }
+
   public int[] getKeyphrasesForKeyword(Entity entity, int token) {
 	  return entity2keyword2keyphrases.get(entity.getId()).get(token);
   }
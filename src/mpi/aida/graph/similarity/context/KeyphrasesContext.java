@@ -21,6 +21,7 @@ import mpi.aida.data.Entities;
 import mpi.aida.data.Entity;
 import mpi.aida.data.ExternalEntitiesContext;
 import mpi.aida.data.Keyphrases;
+import mpi.aida.data.SharedKeyphrases;
 import mpi.aida.graph.similarity.context.EntitiesContextSettings.EntitiesContextType;
 import mpi.aida.graph.similarity.measure.WeightComputation;
 import mpi.aida.util.StopWord;
@@ -142,11 +143,19 @@ public class KeyphrasesContext extends EntitiesContext {
       minEntityKeyphraseWeight = settings.getMinimumEntityKeyphraseWeight();
       maxEntityKeyphraseCount = settings.getMaxEntityKeyphraseCount();
     }
-    Keyphrases keyphrases = 
-        DataAccess.getEntityKeyphrases(
-            entities, keyphraseSourceWeights, 
-            minEntityKeyphraseWeight,
-            maxEntityKeyphraseCount);
+    Keyphrases keyphrases;
+    SharedKeyphrases sharedKeyphrases = externalContext.getSharedKeyphrases();
+    if (sharedKeyphrases != null) {
+      keyphrases = sharedKeyphrases.getEntityKeyphrases(
+          entities, keyphraseSourceWeights,
+          minEntityKeyphraseWeight, maxEntityKeyphraseCount);
+    } else {
+      keyphrases = 
+          DataAccess.getEntityKeyphrases(
+              entities, keyphraseSourceWeights, 
+              minEntityKeyphraseWeight,
+              maxEntityKeyphraseCount);
+    }
 
     eKps = keyphrases.getEntityKeyphrases();
     kpTokens = keyphrases.getKeyphraseTokens();
@@ -1,16 +1,16 @@
 package mpi.aida.graph.similarity.measure;
 
-import gnu.trove.iterator.TIntObjectIterator;
 import gnu.trove.map.hash.TIntObjectHashMap;
 
+import java.nio.IntBuffer;
 import java.sql.Connection;
 
-import javaewah.EWAHCompressedBitmap;
 import mpi.aida.access.DataAccess;
 import mpi.aida.data.Entities;
 import mpi.aida.data.Entity;
 import mpi.aida.graph.similarity.EntityEntitySimilarity;
 import mpi.aida.graph.similarity.context.EntitiesContext;
+import mpi.aida.util.SortedIntArrays;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,7 +24,7 @@ public class InlinkOverlapEntityEntitySimilarity extends EntityEntitySimilarity
   private static final Logger logger = 
       LoggerFactory.getLogger(InlinkOverlapEntityEntitySimilarity.class);
 
-  private TIntObjectHashMap<EWAHCompressedBitmap> entity2vector;
+  private TIntObjectHashMap<IntBuffer> entity2vector;
 
   Connection con;
 
@@ -43,34 +43,19 @@ public class InlinkOverlapEntityEntitySimilarity extends EntityEntitySimilarity
 
     logger.debug("Initializing InlinkEntityEntitySimilarity for " + entities.size() + " entities");
 
-    entity2vector = new TIntObjectHashMap<EWAHCompressedBitmap>();
-
-    TIntObjectHashMap<int[]> entityInlinks = 
-        DataAccess.getInlinkNeighbors(entities);
-    
-    for (TIntObjectIterator<int[]> itr = entityInlinks.iterator();
-        itr.hasNext(); ) {
-      itr.advance();
-      int entity = itr.key();
-      int[] inLinks = itr.value();
-          
-      EWAHCompressedBitmap bs = new EWAHCompressedBitmap();
-      for (int l : inLinks) {
-        bs.set(l);
-      }
-      entity2vector.put(entity, bs);
-    }
+    // Sorted inlinks, views on the inlinks of all entities unless disabled.
+    entity2vector = DataAccess.getInlinkSets(entities);
 
     logger.debug("Done initializing InlinkEntityEntitySimilarity");
   }
 
   @Override
   public double calcSimilarity(Entity a, Entity b) throws Exception {
-    EWAHCompressedBitmap bsA = entity2vector.get(a.getId());
-    EWAHCompressedBitmap bsB = entity2vector.get(b.getId());
+    IntBuffer bsA = entity2vector.get(a.getId());
+    IntBuffer bsB = entity2vector.get(b.getId());
     
-    int isecCount = bsA.andCardinality(bsB);
-    int unionCount = bsA.orCardinality(bsB);
+    int isecCount = SortedIntArrays.intersectionCount(bsA, bsB);
+    int unionCount = bsA.limit() + bsB.limit() - isecCount;
 
     if (isecCount == 0 || unionCount == 0) {
       return 0.0; // cannot calc
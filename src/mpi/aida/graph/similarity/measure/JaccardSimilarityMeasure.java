@@ -1,5 +1,6 @@
 package mpi.aida.graph.similarity.measure;
 
+import gnu.trove.set.TIntSet;
 import gnu.trove.set.hash.TIntHashSet;
 import mpi.aida.access.DataAccess;
 import mpi.aida.data.Context;
@@ -16,7 +17,7 @@ public class JaccardSimilarityMeasure extends MentionEntitySimilarityMeasure {
 
   @Override
   public double calcSimilarity(Mention mention, Context context, Entity entity, EntitiesContext entitiesContext) {
-    TIntHashSet contextA = new TIntHashSet(context.getTokenIds());
+    TIntSet contextA = context.getDocumentIndex().getTokenCounts().keySet();
     TIntHashSet contextB = new TIntHashSet(entitiesContext.getContext(entity));
 
     TIntHashSet union = getUnion(contextA, contextB);
@@ -26,7 +27,7 @@ public class JaccardSimilarityMeasure extends MentionEntitySimilarityMeasure {
     return jaccardSim;
   }
 
-  private TIntHashSet getIntersection(TIntHashSet contextA, TIntHashSet contextB) {
+  private TIntHashSet getIntersection(TIntSet contextA, TIntHashSet contextB) {
     TIntHashSet is = new TIntHashSet();
 
     for (int a : contextA.toArray()) {
@@ -38,7 +39,7 @@ public class JaccardSimilarityMeasure extends MentionEntitySimilarityMeasure {
     return is;
   }
 
-  private TIntHashSet getUnion(TIntHashSet contextA, TIntHashSet contextB) {
+  private TIntHashSet getUnion(TIntSet contextA, TIntHashSet contextB) {
     TIntHashSet union = new TIntHashSet();
 
     for (int a : contextB.toArray()) {
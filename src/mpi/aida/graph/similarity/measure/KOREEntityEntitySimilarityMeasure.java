@@ -2,8 +2,6 @@ package mpi.aida.graph.similarity.measure;
 
 import gnu.trove.TIntCollection;
 import gnu.trove.list.linked.TIntLinkedList;
-import gnu.trove.map.hash.TIntObjectHashMap;
-import gnu.trove.set.hash.TIntHashSet;
 
 import java.util.Arrays;
 import java.util.HashMap;
@@ -13,6 +11,7 @@ import mpi.aida.data.Entity;
 import mpi.aida.graph.similarity.context.EntitiesContext;
 import mpi.aida.graph.similarity.context.FastWeightedKeyphrasesContext;
 import mpi.aida.util.CollectionUtils;
+import mpi.aida.util.SortedIntArrays;
 import mpi.experiment.trace.NullEntityEntityTracing;
 import mpi.experiment.trace.Tracer;
 import mpi.experiment.trace.measures.KeytermEntityEntityMeasureTracer;
@@ -26,65 +25,109 @@ public class KOREEntityEntitySimilarityMeasure
 		super(tracer);
 	}
 
+	/**
+	 * Reusable buffers for calcSimilarity(), one set per thread.
+	 */
+	private static class Scratch {
+	  int[] keywords = new int[64];
+	  int[] tokens = new int[16];
+	  /** Overlapping keyphrase pairs, packed as (kpA << 32 | kpB). */
+	  long[] pairs = new long[256];
+	}
+
+	private static final ThreadLocal<Scratch> scratch = new ThreadLocal<Scratch>() {
+	  @Override
+	  protected Scratch initialValue() {
+	    return new Scratch();
+	  }
+	};
+
 	@Override
   public double calcSimilarity(Entity a, Entity b, EntitiesContext context) {	  
     FastWeightedKeyphrasesContext kwc = (FastWeightedKeyphrasesContext) context;
+    Scratch s = scratch.get();
+
+    int[] kwA = kwc.getKeywordArray(a);
+    int[] kwB = kwc.getKeywordArray(b);
+    if (s.keywords.length < Math.min(kwA.length, kwB.length)) {
+      s.keywords = new int[Math.min(kwA.length, kwB.length)];
+    }
+    int sharedCount = SortedIntArrays.intersect(kwA, kwB, s.keywords);
 
     // generate keyphrase pairs that intersect
-    TIntObjectHashMap<TIntHashSet> overlapping = new TIntObjectHashMap<TIntHashSet>();
-    for (int t : intersect(kwc.getKeywordArray(a),
-        kwc.getKeywordArray(b))) {
-      for (int kpA : kwc.getKeyphrasesForKeyword(a, t)) {
-        for (int kpB : kwc.getKeyphrasesForKeyword(b, t)) {
-          if (!overlapping.contains(kpA)) {
-            overlapping.put(kpA, new TIntHashSet());
-          }
-          overlapping.get(kpA).add(kpB);
+    int pairCount = 0;
+    for (int k = 0; k < sharedCount; ++k) {
+      int t = s.keywords[k];
+      int[] kpsForA = kwc.getKeyphrasesForKeyword(a, t);
+      int[] kpsForB = kwc.getKeyphrasesForKeyword(b, t);
+      int needed = pairCount + kpsForA.length * kpsForB.length;
+      if (s.pairs.length < needed) {
+        s.pairs = Arrays.copyOf(s.pairs, Math.max(needed, 2 * s.pairs.length));
+      }
+      for (int kpA : kpsForA) {
+        for (int kpB : kpsForB) {
+          s.pairs[pairCount++] = ((long) kpA << 32) | (kpB & 0xFFFFFFFFL);
         }
       }
     }
+    // pairs sharing multiple keywords are generated more than once
+    Arrays.sort(s.pairs, 0, pairCount);
 
     double n = .0;
     
     // tracing
-    Map<Integer, TermTracer> matchesA = new HashMap<Integer, TermTracer>();
-    Map<Integer, TermTracer> matchesB = new HashMap<Integer, TermTracer>();
+    boolean tracing = !(tracer.eeTracing() instanceof NullEntityEntityTracing);
+    Map<Integer, TermTracer> matchesA = null;
+    Map<Integer, TermTracer> matchesB = null;
+    if (tracing) {
+      matchesA = new HashMap<Integer, TermTracer>();
+      matchesB = new HashMap<Integer, TermTracer>();
+    }
 
     // iterate over overlapping phrase pairs
-    for (int kpA : overlapping.keys()) {
-      for (int kpB : overlapping.get(kpA).toArray()) {
-        double psimn = .0; //, psimd = .0;
-        TermTracer tt = new TermTracer();
-        for (int t : intersect(kwc.getKeyphraseTokenIds(kpA, true),
-            kwc.getKeyphraseTokenIds(kpB, true))) {
-          double kwWeight = Math.min(
-              kwc.getCombinedKeywordMiIdfWeight(a, t),
-              kwc.getCombinedKeywordMiIdfWeight(b, t));
-          psimn += kwWeight;
-          // Requires too much main memory, enable if needed.
-          // if (kwWeight > 0.0) {
-          //  tt.addInnerMatch(t, kwWeight);
-          //}
-        }
+    for (int p = 0; p < pairCount; ++p) {
+      if (p > 0 && s.pairs[p] == s.pairs[p - 1]) {
+        continue;
+      }
+      int kpA = (int) (s.pairs[p] >> 32);
+      int kpB = (int) s.pairs[p];
+      double psimn = .0; //, psimd = .0;
+      int[] tokensA = kwc.getSortedKeyphraseTokenIds(kpA);
+      int[] tokensB = kwc.getSortedKeyphraseTokenIds(kpB);
+      if (s.tokens.length < Math.min(tokensA.length, tokensB.length)) {
+        s.tokens = new int[Math.min(tokensA.length, tokensB.length)];
+      }
+      int commonCount = SortedIntArrays.intersect(tokensA, tokensB, s.tokens);
+      for (int c = 0; c < commonCount; ++c) {
+        int t = s.tokens[c];
+        double kwWeight = Math.min(
+            kwc.getCombinedKeywordMiIdfWeight(a, t),
+            kwc.getCombinedKeywordMiIdfWeight(b, t));
+        psimn += kwWeight;
+        // Requires too much main memory, enable if needed.
+        // if (kwWeight > 0.0) {
+        //  tt.addInnerMatch(t, kwWeight);
+        //}
+      }
+      
+      double kpASourceWeight = kwc.getKeyphraseSourceWeight(a, kpA);
+      double kpBSourceWeight = kwc.getKeyphraseSourceWeight(b, kpB);
+      double kpWeight = 
+          Math.min(kpASourceWeight * kwc.getCombinedKeyphraseMiIdfWeight(a, kpA),
+                   kpBSourceWeight * kwc.getCombinedKeyphraseMiIdfWeight(b, kpB));
+      double psimd = kwc.getKeywordWeightSum(a, kpA) + kwc.getKeywordWeightSum(b, kpB) - psimn;
+      if (psimd != 0.0) {
+        double kpJaccardSim = (psimn / psimd);        
+        double matchWeight = kpWeight * Math.pow(kpJaccardSim, 2);   
         
-        double kpASourceWeight = kwc.getKeyphraseSourceWeight(a, kpA);
-        double kpBSourceWeight = kwc.getKeyphraseSourceWeight(b, kpB);
-        double kpWeight = 
-            Math.min(kpASourceWeight * kwc.getCombinedKeyphraseMiIdfWeight(a, kpA),
-                     kpBSourceWeight * kwc.getCombinedKeyphraseMiIdfWeight(b, kpB));
-        double psimd = kwc.getKeywordWeightSum(a, kpA) + kwc.getKeywordWeightSum(b, kpB) - psimn;
-        if (psimd != 0.0) {
-          double kpJaccardSim = (psimn / psimd);        
-          double matchWeight = kpWeight * Math.pow(kpJaccardSim, 2);   
-          
-          n += matchWeight;
-          
-          // Tracing.
-          if (matchWeight > 0) {
-            matchesA.put(kpA, tt);
-            matchesB.put(kpB, tt);
-            tt.setTermWeight(matchWeight);
-          }
+        n += matchWeight;
+        
+        // Tracing.
+        if (tracing && matchWeight > 0) {
+          TermTracer tt = new TermTracer();
+          matchesA.put(kpA, tt);
+          matchesB.put(kpB, tt);
+          tt.setTermWeight(matchWeight);
         }
       }
     }
@@ -100,7 +143,7 @@ public class KOREEntityEntitySimilarityMeasure
       denom += kwc.getKeyphraseSourceWeight(b, kp) * kwc.getCombinedKeyphraseMiIdfWeight(b, kp);
     }
     
-    if (!(tracer.eeTracing() instanceof NullEntityEntityTracing)) {
+    if (tracing) {
       collectTracingInfo(a, b, 
           kpsA, kpsB, n / denom, matchesA, matchesB, kwc);
     }
@@ -138,37 +181,6 @@ public class KOREEntityEntitySimilarityMeasure
 		return s;
 	}
 
-	protected int[] intersect(int[] aOrig, int[] bOrig) {
-	  if (aOrig == null || aOrig.length == 0 || bOrig == null || bOrig.length == 0) {
-	    return new int[0];
-	  }
-	 
-    // TODO(jhoffart) make sure all arrays are duplicate-free and
-    // sorted when passed, then drop the following steps.
-	  TIntHashSet aSet = new TIntHashSet(aOrig);
-	  TIntHashSet bSet = new TIntHashSet(bOrig);
-	  int[] a = aSet.toArray();
-	  int[] b = bSet.toArray();
-    Arrays.sort(a);
-    Arrays.sort(b);
-    // Drop until above.
-   
-		TIntCollection is = new TIntLinkedList();
-		int i = 0, j = 0;
-		while (i < a.length && j < b.length) {
-			if (a[i] == b[j]) {
-				is.add(a[i]);
-				++i;
-				++j;
-			} else if (a[i] < b[j]) {
-				++i;
-			} else {
-				++j;
-			}
-		}
-		return is.toArray();
-	}
-
 	@SuppressWarnings("unused")
 	private int[] union(int[] a, int[] b) {
 		TIntCollection u = new TIntLinkedList();
@@ -1,8 +1,9 @@
 package mpi.aida.graph.similarity.measure;
 
+import gnu.trove.list.array.TIntArrayList;
 import gnu.trove.map.hash.TIntDoubleHashMap;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import mpi.aida.data.Context;
@@ -27,17 +28,28 @@ public abstract class KeyphrasesBasedMentionEntitySimilarityMeasure extends Ment
   private static final Logger logger = 
       LoggerFactory.getLogger(KeyphrasesBasedMentionEntitySimilarityMeasure.class);
   
-  protected InputTextInvertedIndex originalInputTextindex;
   //used to keep any extra context other the input text
   protected InputTextInvertedIndex extraContextIndex;
 
   private MinCoverCalculator minCoverCalculator;
 
-  protected KeyphrasesContext keyphrasesContext;
+  /**
+   * Reusable buffers for the keyphrase similarity, one set per thread.
+   */
+  private static class Scratch {
+    int[][] positions = new int[16][];
+    MinCover minCover = new MinCover();
+  }
+
+  private static final ThreadLocal<Scratch> scratch = new ThreadLocal<Scratch>() {
+    @Override
+    protected Scratch initialValue() {
+      return new Scratch();
+    }
+  };
 
   // TODO(jhoffart,mamir) below needs to be passed
   protected boolean normalize;
-  private boolean removeStopwords = true;
   
   private boolean isTracing = false;
   
@@ -56,10 +68,8 @@ public abstract class KeyphrasesBasedMentionEntitySimilarityMeasure extends Ment
   @Override
   public double calcSimilarity(Mention mention, Context context, Entity entity, EntitiesContext entitiesContext) {    
     Integer id = RunningTimer.recordStartTime("KeyphraseBasedMESim:calcSimilarity");
-    keyphrasesContext = (KeyphrasesContext) entitiesContext;
-    if (originalInputTextindex == null) {
-      originalInputTextindex = new InputTextInvertedIndex(context.getTokenIds(), removeStopwords);
-    }
+    KeyphrasesContext keyphrasesContext = (KeyphrasesContext) entitiesContext;
+    InputTextInvertedIndex inputTextIndex = context.getDocumentIndex().getPositions();
 
     int[] keyphrases = entitiesContext.getContext(entity);
     
@@ -73,10 +83,10 @@ public abstract class KeyphrasesBasedMentionEntitySimilarityMeasure extends Ment
 
     if (keyphrases != null) {
       for (int keyphrase : keyphrases) {
-        int[] keyphraseTokens = ((KeyphrasesContext) entitiesContext).getKeyphraseTokens(keyphrase);
+        int[] keyphraseTokens = keyphrasesContext.getKeyphraseTokens(keyphrase);
         int[] cleanedKeyphraseTokens = cleanKeyphrase(keyphraseTokens, mention, context.getTokens(), entity, entitiesContext);
         TIntDoubleHashMap matchedKeywords = new TIntDoubleHashMap();
-        double keyphraseSimilarity = calculateContextKeyphraseSimilarity(mention, entity, keyphrase, cleanedKeyphraseTokens, matchedKeywords, entitiesContext, context.getTokenIds());
+        double keyphraseSimilarity = calculateContextKeyphraseSimilarity(mention, entity, keyphrase, cleanedKeyphraseTokens, matchedKeywords, keyphrasesContext, inputTextIndex, context.getTokenIds());
         
         double keyphraseSourceWeight = keyphrasesContext.getKeyphraseSourceWeight(entity, keyphrase);
         similarity += keyphraseSourceWeight * keyphraseSimilarity;
@@ -119,10 +129,11 @@ public abstract class KeyphrasesBasedMentionEntitySimilarityMeasure extends Ment
     return keyphraseTokens;
   }
 
-  protected abstract double getKeywordScore(Entity entity, int keyword);
-  
-  private double calculateContextKeyphraseSimilarity(Mention mention, Entity entity, int keyphrase, int[] cleanedKeyphraseTokens, TIntDoubleHashMap matchedKeywords, EntitiesContext entitiesContext, int[] is) {
-    List<List<Integer>> commonWordsPositions = new ArrayList<List<Integer>>();
+  protected abstract double getKeywordScore(Entity entity, int keyword, KeyphrasesContext keyphrasesContext);
+
+  private double calculateContextKeyphraseSimilarity(Mention mention, Entity entity, int keyphrase, int[] cleanedKeyphraseTokens, TIntDoubleHashMap matchedKeywords, KeyphrasesContext keyphrasesContext, InputTextInvertedIndex inputTextIndex, int[] is) {
+    Scratch s = scratch.get();
+    int intersectionSize = 0;
 
     double allKeywordsTotalScore = 0;
     double commonKeywordsTotalScore = 0;
@@ -135,17 +146,17 @@ public abstract class KeyphrasesBasedMentionEntitySimilarityMeasure extends Ment
       }
       
       int expandedKeyword = keyphrasesContext.expandTerm(keyword);
-      keywordScore = getKeywordScore(entity, keyword);
+      keywordScore = getKeywordScore(entity, keyword, keyphrasesContext);
       phraseImportance += keywordScore;
       allKeywordsTotalScore += keywordScore;
       if (Double.isInfinite(phraseImportance)) {
         logger.debug("inf");
       }
       int matchedKeywordInTheOriginalContext = -1;
-      if (originalInputTextindex.containsWord(keyword, mention)) matchedKeywordInTheOriginalContext = keyword;
-      else if (originalInputTextindex.containsWord(expandedKeyword, mention)) matchedKeywordInTheOriginalContext = expandedKeyword;
+      if (inputTextIndex.containsWord(keyword, mention)) matchedKeywordInTheOriginalContext = keyword;
+      else if (inputTextIndex.containsWord(expandedKeyword, mention)) matchedKeywordInTheOriginalContext = expandedKeyword;
       if (matchedKeywordInTheOriginalContext != -1) { //the word matched
-        commonWordsPositions.add(originalInputTextindex.getPositions(matchedKeywordInTheOriginalContext, mention));
+        intersectionSize = addPositions(s, intersectionSize, inputTextIndex.getPositions(matchedKeywordInTheOriginalContext, mention));
         if (!matchedKeywords.containsKey(keyword)) {
           matchedKeywords.put(keyword, keywordScore);
         }
@@ -156,7 +167,7 @@ public abstract class KeyphrasesBasedMentionEntitySimilarityMeasure extends Ment
       if (extraContextIndex.containsWord(keyword, mention)) matchedKeywordInExtraContext = keyword;
       else if (extraContextIndex.containsWord(expandedKeyword, mention)) matchedKeywordInExtraContext = expandedKeyword;
       if (matchedKeywordInExtraContext != -1) { //the word matched
-        commonWordsPositions.add(extraContextIndex.getPositions(matchedKeywordInExtraContext, mention));
+        intersectionSize = addPositions(s, intersectionSize, extraContextIndex.getPositions(matchedKeywordInExtraContext, mention));
         if (!matchedKeywords.containsKey(keyword)) {
           matchedKeywords.put(keyword, keywordScore);
         }
@@ -165,11 +176,10 @@ public abstract class KeyphrasesBasedMentionEntitySimilarityMeasure extends Ment
       }      
     }
 
-    int intersectionSize = commonWordsPositions.size();
     if (intersectionSize == 0) return 0;
 
-    MinCover minCoverData = 
-        minCoverCalculator.calculateMinCover(commonWordsPositions);
+    MinCover minCoverData = s.minCover;
+    minCoverCalculator.calculateMinCover(s.positions, intersectionSize, minCoverData);
 
     double minCover = minCoverData.length;
 
@@ -209,12 +219,20 @@ public abstract class KeyphrasesBasedMentionEntitySimilarityMeasure extends Ment
     return Math.max(0.0, score);
   }
 
+  private int addPositions(Scratch s, int count, int[] positions) {
+    if (count == s.positions.length) {
+      s.positions = Arrays.copyOf(s.positions, 2 * count);
+    }
+    s.positions[count] = positions;
+    return count + 1;
+  }
+
   private int getDistanceToMention(Mention mention, MinCover minCoverData) {
     //The distance is the smallest difference over all distances to all occurrencecs
     //Distance to occurence is the largest of difference between mention and start/end.
     int mentionPosition = mention.getStartToken();
-    List<Integer> startPositions = minCoverData.startPositions;
-    List<Integer> endPositions = minCoverData.endPositions;
+    TIntArrayList startPositions = minCoverData.startPositions;
+    TIntArrayList endPositions = minCoverData.endPositions;
     int distanceToMention = Math.max(Math.abs(mentionPosition - startPositions.get(0)), Math.abs(mentionPosition - endPositions.get(0)));
     for (int i = 1; i < startPositions.size(); i++) {
       int currentDistanceToMention = Math.max(Math.abs(mentionPosition - startPositions.get(i)), Math.abs(mentionPosition - endPositions.get(i)));
@@ -1,13 +1,15 @@
 package mpi.aida.graph.similarity.measure;
 
-import gnu.trove.iterator.TIntObjectIterator;
 import gnu.trove.map.hash.TIntObjectHashMap;
-import javaewah.EWAHCompressedBitmap;
+
+import java.nio.IntBuffer;
+
 import mpi.aida.access.DataAccess;
 import mpi.aida.data.Entities;
 import mpi.aida.data.Entity;
 import mpi.aida.graph.similarity.EntityEntitySimilarity;
 import mpi.aida.graph.similarity.context.EntitiesContext;
+import mpi.aida.util.SortedIntArrays;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,7 +18,7 @@ public class MilneWittenEntityEntitySimilarity extends EntityEntitySimilarity {
   private static final Logger logger = 
       LoggerFactory.getLogger(MilneWittenEntityEntitySimilarity.class);
   
-  private TIntObjectHashMap<EWAHCompressedBitmap> entity2vector;
+  private TIntObjectHashMap<IntBuffer> entity2vector;
 
   private int collectionSize;
 
@@ -33,24 +35,8 @@ public class MilneWittenEntityEntitySimilarity extends EntityEntitySimilarity {
 
     collectionSize = DataAccess.getCollectionSize();
     
-    TIntObjectHashMap<int[]> entityInlinks = 
-        DataAccess.getInlinkNeighbors(entities);
-    
-    // inlinks are assumed to be pre-sorted.
-    entity2vector = new TIntObjectHashMap<EWAHCompressedBitmap>();
-
-    for (TIntObjectIterator<int[]> itr = entityInlinks.iterator();
-        itr.hasNext(); ) {
-      itr.advance();
-      int entity = itr.key();
-      int[] inLinks = itr.value();
-          
-      EWAHCompressedBitmap bs = new EWAHCompressedBitmap();
-      for (int l : inLinks) {
-        bs.set(l);
-      }
-      entity2vector.put(entity, bs);
-    }
+    // Sorted inlinks, views on the inlinks of all entities unless disabled.
+    entity2vector = DataAccess.getInlinkSets(entities);
     
     logger.debug("Done initializing MilneWittenEntityEntitySimilarity for " + 
                 entities.size() + " entities");
@@ -58,11 +44,11 @@ public class MilneWittenEntityEntitySimilarity extends EntityEntitySimilarity {
 
   @Override
   public double calcSimilarity(Entity a, Entity b) throws Exception {
-    EWAHCompressedBitmap bsA = entity2vector.get(a.getId());
-    EWAHCompressedBitmap bsB = entity2vector.get(b.getId());
+    IntBuffer bsA = entity2vector.get(a.getId());
+    IntBuffer bsB = entity2vector.get(b.getId());
 
-    double sizeA = bsA.cardinality();
-    double sizeB = bsB.cardinality();
+    double sizeA = bsA.limit();
+    double sizeB = bsB.limit();
 
     double max = -1.0;
     double min = -1.0;
@@ -77,7 +63,7 @@ public class MilneWittenEntityEntitySimilarity extends EntityEntitySimilarity {
     
     double sim = 0.0; // default is no sim
     
-    int overlap = bsA.andCardinality(bsB);
+    int overlap = SortedIntArrays.intersectionCount(bsA, bsB);
     
     if (overlap > 0) {  
       // now calc the real similarity
@@ -1,5 +1,6 @@
 package mpi.aida.graph.similarity.measure;
 
+import gnu.trove.map.TIntIntMap;
 import gnu.trove.map.hash.TIntDoubleHashMap;
 import gnu.trove.map.hash.TIntIntHashMap;
 import gnu.trove.set.hash.TIntHashSet;
@@ -27,7 +28,7 @@ public class TfIdfCosineSimilarityMeasure extends MentionEntitySimilarityMeasure
 
   @Override
   public double calcSimilarity(Mention mention, Context context, Entity entity, EntitiesContext entitiesContext) {
-    TIntDoubleHashMap contextVec = getTfIdfVector(context.getTokenIds());
+    TIntDoubleHashMap contextVec = getTfIdfVector(context.getDocumentIndex().getTokenCounts());
     TIntDoubleHashMap entityVec = getTfIdfVector(entitiesContext.getContext(entity));
 
     double sim = calcCosine(entityVec, contextVec);
@@ -71,18 +72,22 @@ public class TfIdfCosineSimilarityMeasure extends MentionEntitySimilarityMeasure
   }
 
   private TIntDoubleHashMap getTfIdfVector(int[] is) {
-    TIntDoubleHashMap vector = new TIntDoubleHashMap();
-
     TIntIntHashMap tfs = new TIntIntHashMap();
 
     for (int term : is) {
       tfs.adjustOrPutValue(term, 1, 1);
     }
 
+    return getTfIdfVector(tfs);
+  }
+
+  private TIntDoubleHashMap getTfIdfVector(TIntIntMap tfs) {
+    TIntDoubleHashMap vector = new TIntDoubleHashMap();
+
     TIntIntHashMap termDFs =
-        DataAccess.getKeywordDocumentFrequencies(new TIntHashSet(is));
+        DataAccess.getKeywordDocumentFrequencies(new TIntHashSet(tfs.keySet()));
     
-    for (int term : new TIntHashSet(is).toArray()) {
+    for (int term : tfs.keys()) {
       int tf = tfs.get(term);
       int df = termDFs.get(term);
       if (df == 0) df = collectionSize_; // default smoothing
@@ -1,6 +1,7 @@
 package mpi.aida.graph.similarity.measure;
 
 import mpi.aida.data.Entity;
+import mpi.aida.graph.similarity.context.KeyphrasesContext;
 import mpi.experiment.trace.Tracer;
 
 public class UnnormalizedKeyphrasesBasedIDFSimilarity extends UnnormalizedKeyphrasesBasedMISimilarity {
@@ -9,7 +10,7 @@ public class UnnormalizedKeyphrasesBasedIDFSimilarity extends UnnormalizedKeyphr
     super(tracer);
   }
 
-  protected double getKeywordScore(Entity entity, int keyword) {
+  protected double getKeywordScore(Entity entity, int keyword, KeyphrasesContext keyphrasesContext) {
     return keyphrasesContext.getKeywordIDFWeight(keyword);
   }
 
@@ -1,6 +1,7 @@
 package mpi.aida.graph.similarity.measure;
 
 import mpi.aida.data.Entity;
+import mpi.aida.graph.similarity.context.KeyphrasesContext;
 import mpi.experiment.trace.Tracer;
 
 
@@ -9,7 +10,7 @@ public class UnnormalizedKeyphrasesBasedMISimilarity extends KeyphrasesBasedMent
     super(tracer);
   }
 
-  protected double getKeywordScore(Entity entity, int keyword) {
+  protected double getKeywordScore(Entity entity, int keyword, KeyphrasesContext keyphrasesContext) {
     double score = keyphrasesContext.getKeywordMIWeight(entity, keyword);
     return score;
   }
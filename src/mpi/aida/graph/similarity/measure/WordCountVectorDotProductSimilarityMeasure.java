@@ -1,6 +1,7 @@
 package mpi.aida.graph.similarity.measure;
 
 import gnu.trove.iterator.TIntIntIterator;
+import gnu.trove.map.TIntIntMap;
 import gnu.trove.map.hash.TIntIntHashMap;
 import mpi.aida.access.DataAccess;
 import mpi.aida.data.Context;
@@ -24,7 +25,7 @@ public class WordCountVectorDotProductSimilarityMeasure extends MentionEntitySim
   @Override
   public double calcSimilarity(Mention mention, Context context, Entity entity, EntitiesContext entitiesContext) {
     // create two Maps representing the word count vectors
-    TIntIntHashMap contextVec = createWordCountVector(context.getTokenIds());
+    TIntIntMap contextVec = context.getDocumentIndex().getTokenCounts();
     TIntIntHashMap entityVec = createWordCountVector(entitiesContext.getContext(entity));
 
     // calc dot product between them
@@ -43,7 +44,7 @@ public class WordCountVectorDotProductSimilarityMeasure extends MentionEntitySim
   }
 
   private double calcDotProduct(
-      TIntIntHashMap entityVec, TIntIntHashMap contextVec) {
+      TIntIntHashMap entityVec, TIntIntMap contextVec) {
     int dotProduct = 0;
 
     for (TIntIntIterator it = entityVec.iterator(); it.hasNext(); ) {
@@ -0,0 +1,108 @@
+package mpi.aida.graph.similarity.util;
+
+import gnu.trove.map.hash.TIntIntHashMap;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import mpi.aida.data.Entity;
+
+/**
+ * Symmetric entity-entity similarities of a single document, stored as the
+ * upper triangle (without the diagonal) of a dense double matrix.
+ *
+ * Entities get dense ordinals in their natural (lexicographic) order, so for
+ * i < j the entry (i, j) holds calcSimilarity(getEntity(i), getEntity(j)).
+ * Pairs that were not computed hold NaN.
+ */
+public class EntityEntitySimilarityMatrix {
+
+  private Entity[] entities;
+
+  /** Entity id -> ordinal. */
+  private TIntIntHashMap ordinals;
+
+  private double[] sims;
+
+  public EntityEntitySimilarityMatrix(Collection<Entity> entities) {
+    this.entities = entities.toArray(new Entity[entities.size()]);
+    Arrays.sort(this.entities);
+    ordinals = new TIntIntHashMap(this.entities.length, 0.5f, -1, -1);
+    for (int i = 0; i < this.entities.length; ++i) {
+      ordinals.put(this.entities[i].getId(), i);
+    }
+    long n = this.entities.length;
+    long cells = n * (n - 1) / 2;
+    if (cells > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(
+          "Too many entities for a similarity matrix: " + n);
+    }
+    sims = new double[(int) cells];
+    Arrays.fill(sims, Double.NaN);
+  }
+
+  public int size() {
+    return entities.length;
+  }
+
+  public Entity getEntity(int ordinal) {
+    return entities[ordinal];
+  }
+
+  /**
+   * @return Ordinal of the entity, -1 if it is not part of the matrix.
+   */
+  public int getOrdinal(Entity entity) {
+    return ordinals.get(entity.getId());
+  }
+
+  /**
+   * @return Similarity between the entities with ordinals i and j, NaN if
+   * it was not computed. Entities are fully similar to themselves.
+   */
+  public double get(int i, int j) {
+    if (i == j) {
+      return 1.0;
+    }
+    return sims[index(i, j)];
+  }
+
+  public double get(Entity e1, Entity e2) {
+    return get(getOrdinal(e1), getOrdinal(e2));
+  }
+
+  /**
+   * Sets the similarity of the pair. Concurrent calls are safe as long as
+   * they write distinct pairs.
+   */
+  public void set(int i, int j, double sim) {
+    sims[index(i, j)] = sim;
+  }
+
+  public boolean isComputed(int i, int j) {
+    return i == j || !Double.isNaN(sims[index(i, j)]);
+  }
+
+  /**
+   * @return true if at least one pair was computed.
+   */
+  public boolean hasComputedPairs() {
+    for (double sim : sims) {
+      if (!Double.isNaN(sim)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int index(int i, int j) {
+    if (i > j) {
+      int tmp = i;
+      i = j;
+      j = tmp;
+    }
+    // Rows 0..i-1 hold (n-1) + (n-2) + ... + (n-i) cells.
+    long n = entities.length;
+    return (int) (i * (2 * n - i - 1) / 2 + (j - i - 1));
+  }
+}
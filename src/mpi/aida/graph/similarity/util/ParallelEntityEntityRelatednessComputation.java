@@ -1,16 +1,14 @@
 package mpi.aida.graph.similarity.util;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import gnu.trove.list.array.TIntArrayList;
+
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
-import mpi.aida.config.AidaConfig;
+import mpi.aida.AidaManager;
 import mpi.aida.data.Entities;
 import mpi.aida.data.Entity;
 import mpi.aida.data.Mention;
@@ -18,98 +16,203 @@ import mpi.aida.data.Mentions;
 import mpi.aida.graph.similarity.EnsembleEntityEntitySimilarity;
 import mpi.aida.util.timing.RunningTimer;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Computes the relatedness of all entity pairs of a document. The upper
+ * triangle of the pair matrix is split into square tiles, which are
+ * processed by a shared work-stealing pool and written directly into an
+ * {@link EntityEntitySimilarityMatrix}.
+ */
 public class ParallelEntityEntityRelatednessComputation {
-  private int numThreads = 4; // default.
+  private static final Logger logger =
+      LoggerFactory.getLogger(ParallelEntityEntityRelatednessComputation.class);
+
+  /** Number of entities per tile side. */
+  private static final int TILE_SIZE = 32;
+
+  /** Parallelism of the dedicated pool, 0 to use the shared pool. */
+  private int numThreads;
   private long totalNumCalcs = 0; // this is only valid if the object is created anew for each entitiy set - used for timing experiments
-  
+
   public ParallelEntityEntityRelatednessComputation() {
-    this(Integer.parseInt(AidaConfig.get(AidaConfig.EE_NUM_THREADS)));
+    this(0);
   }
-  
+
+  /**
+   * Uses a dedicated pool with the given parallelism instead of the shared
+   * one. The pool is created for each computation and shut down after it.
+   */
   public ParallelEntityEntityRelatednessComputation(int numThreads) {
     this.numThreads = numThreads;
   }
-  
-  public Map<Entity, Map<Entity, Double>> computeRelatedness(EnsembleEntityEntitySimilarity entitySimilarity, Entities entities) throws InterruptedException {
+
+  public EntityEntitySimilarityMatrix computeRelatedness(EnsembleEntityEntitySimilarity entitySimilarity, Entities entities) {
     return computeRelatedness(entitySimilarity, entities, null);
   }
-    
-  public Map<Entity, Map<Entity, Double>> computeRelatedness(EnsembleEntityEntitySimilarity entitySimilarity, Entities entities, Mentions mentions) throws InterruptedException {
-    Integer runId = RunningTimer.recordStartTime("computeRelatedness"); 
-    Map<Entity, Map<Entity, Double>> entityEntitySimilarities = Collections.synchronizedMap(new HashMap<Entity, Map<Entity, Double>>());
-    
-    Map<Entity, List<Mention>> entityMentionsMap = null;        
-    if (mentions != null) {
-      entityMentionsMap = prepareEntityMentionsMap(mentions);      
-    }
 
-    List<Set<Entity>> entityPartitions = new LinkedList<Set<Entity>>();
-    List<Entity> allEntities = new ArrayList<Entity>(entities.getEntities());
-    
-    int overall = 0;
-    Set<Entity> part = null;
-    int partSize = entities.size() / numThreads;
+  public EntityEntitySimilarityMatrix computeRelatedness(EnsembleEntityEntitySimilarity entitySimilarity, Entities entities, Mentions mentions) {
+    Integer runId = RunningTimer.recordStartTime("computeRelatedness");
+    EntityEntitySimilarityMatrix matrix =
+        new EntityEntitySimilarityMatrix(entities.getEntities());
 
-    for (int currentPart = 0; currentPart < numThreads; currentPart++) {
-      part = new HashSet<Entity>();
-      entityPartitions.add(part);
+    int[][] entityMentions = null;
+    if (mentions != null) {
+      entityMentions = prepareEntityMentions(matrix, mentions);
+    }
 
-      for (int j = 0; j < partSize; j++) {
-        int total = (currentPart * partSize) + j;
-        part.add(allEntities.get(total));
+    int blocks = (matrix.size() + TILE_SIZE - 1) / TILE_SIZE;
+    TIntArrayList tiles = new TIntArrayList(blocks * (blocks + 1) / 2);
+    for (int row = 0; row < blocks; ++row) {
+      for (int col = row; col < blocks; ++col) {
+        tiles.add(row * blocks + col);
+      }
+    }
 
-        overall++;
+    if (!tiles.isEmpty()) {
+      ForkJoinPool pool = numThreads > 0 ?
+          new ForkJoinPool(numThreads) : AidaManager.getEntityEntityPool();
+      try {
+        totalNumCalcs += pool.invoke(new TilesTask(
+            entitySimilarity, matrix, entityMentions,
+            tiles.toArray(), blocks, 0, tiles.size()));
+      } finally {
+        if (numThreads > 0) {
+          pool.shutdown();
+        }
       }
     }
+    RunningTimer.recordEndTime("computeRelatedness", runId);
+    return matrix;
+  }
 
-    // add rest to last part
-    for (; overall < allEntities.size(); overall++) {
-      part.add(allEntities.get(overall));
+  /**
+   * @return Sorted ids of the mentions each entity (by ordinal) is a
+   * candidate for.
+   */
+  private int[][] prepareEntityMentions(
+      EntityEntitySimilarityMatrix matrix, Mentions mentions) {
+    TIntArrayList[] lists = new TIntArrayList[matrix.size()];
+    Map<Mention, Integer> mentionIds = new HashMap<Mention, Integer>();
+    for (Mention mention : mentions.getMentions()) {
+      Integer mentionId = mentionIds.get(mention);
+      if (mentionId == null) {
+        mentionId = mentionIds.size();
+        mentionIds.put(mention, mentionId);
+      }
+      for (Entity entity : mention.getCandidateEntities()) {
+        int ordinal = matrix.getOrdinal(entity);
+        if (ordinal == -1) {
+          continue;
+        }
+        if (lists[ordinal] == null) {
+          lists[ordinal] = new TIntArrayList();
+        }
+        if (!lists[ordinal].contains(mentionId)) {
+          lists[ordinal].add(mentionId);
+        }
+      }
+    }
+    int[][] entityMentions = new int[matrix.size()][];
+    for (int i = 0; i < lists.length; ++i) {
+      if (lists[i] == null) {
+        entityMentions[i] = new int[0];
+      } else {
+        lists[i].sort();
+        entityMentions[i] = lists[i].toArray();
+      }
     }
+    return entityMentions;
+  }
 
-    // create threads and run
-    CountDownLatch cdl = new CountDownLatch(numThreads);
+  public long getTotalNumCalcs() {
+    return totalNumCalcs;
+  }
 
-    List<ParallelEntityEntityRelatednessComputationThread> scs = new LinkedList<ParallelEntityEntityRelatednessComputationThread>();
+  /**
+   * Processes the tiles [from, to), splitting the range until a single tile
+   * is left. Returns the number of computed similarities.
+   */
+  private static class TilesTask extends RecursiveTask<Long> {
+    private static final long serialVersionUID = 2843186742117213853L;
 
-    for (int i = 0; i < numThreads; i++) {
-      ParallelEntityEntityRelatednessComputationThread sc = new ParallelEntityEntityRelatednessComputationThread(entityPartitions.get(i), entities, entitySimilarity, entityEntitySimilarities, entityMentionsMap, cdl);
-      scs.add(sc);
-      sc.start();
+    private EnsembleEntityEntitySimilarity eeSimMeasure;
+    private EntityEntitySimilarityMatrix matrix;
+    private int[][] entityMentions;
+    private int[] tiles;
+    private int blocks;
+    private int from;
+    private int to;
+
+    public TilesTask(EnsembleEntityEntitySimilarity eeSimMeasure,
+        EntityEntitySimilarityMatrix matrix, int[][] entityMentions,
+        int[] tiles, int blocks, int from, int to) {
+      this.eeSimMeasure = eeSimMeasure;
+      this.matrix = matrix;
+      this.entityMentions = entityMentions;
+      this.tiles = tiles;
+      this.blocks = blocks;
+      this.from = from;
+      this.to = to;
     }
-    
-    // wait for calculation to finish
-    cdl.await();
-    
-    // sum up total number of calculations
-    for (ParallelEntityEntityRelatednessComputationThread sc : scs) {
-      totalNumCalcs += sc.getNumCalcs();
+
+    @Override
+    protected Long compute() {
+      if (to - from == 1) {
+        return computeTile(tiles[from]);
+      }
+      int mid = (from + to) >>> 1;
+      TilesTask left = new TilesTask(
+          eeSimMeasure, matrix, entityMentions, tiles, blocks, from, mid);
+      TilesTask right = new TilesTask(
+          eeSimMeasure, matrix, entityMentions, tiles, blocks, mid, to);
+      left.fork();
+      long numCalcs = right.compute();
+      return numCalcs + left.join();
     }
-    RunningTimer.recordEndTime("computeRelatedness", runId);
-    return entityEntitySimilarities;
-  }
-    
-  private Map<Entity, List<Mention>> prepareEntityMentionsMap(Mentions mentions) {
-    Map<Entity, List<Mention>> entityMentionsMap = new HashMap<Entity, List<Mention>>();
-    
-    for (int i = 0; i < mentions.getMentions().size(); i++) {
-      Mention mention = mentions.getMentions().get(i);
-      Entities entities = mention.getCandidateEntities();
-      for (Entity entity : entities) {
-        List<Mention> entityMentions = entityMentionsMap.get(entity);
-        if (entityMentions == null) {
-          entityMentions = new LinkedList<Mention>();
-          entityMentionsMap.put(entity, entityMentions);
+
+    private long computeTile(int tile) {
+      int n = matrix.size();
+      int rowStart = (tile / blocks) * TILE_SIZE;
+      int rowEnd = Math.min(rowStart + TILE_SIZE, n);
+      int colStart = (tile % blocks) * TILE_SIZE;
+      int colEnd = Math.min(colStart + TILE_SIZE, n);
+      long numCalcs = 0;
+      for (int i = rowStart; i < rowEnd; ++i) {
+        Entity e1 = matrix.getEntity(i);
+        // only calculate if e1 < e2 (similarities are symmetric,
+        // calculate in lexicographic order)
+        for (int j = Math.max(colStart, i + 1); j < colEnd; ++j) {
+          // calculate only if they belong to different mentions
+          if (!shouldCalculate(i, j)) {
+            continue;
+          }
+          Entity e2 = matrix.getEntity(j);
+          double sim = 0.0;
+          try {
+            sim = eeSimMeasure.calcSimilarity(e1, e2);
+            numCalcs++;
+            // negative is not allowed
+            if (sim < 0) {
+              logger.warn("Coherence of '"+e1+"' and '"+e2+"' was < 0, set to 0");
+              sim = 0.0;
+            }
+          } catch (Exception e) {
+            logger.error("Could not compute coherence of '" + e1 + "' and '"
+                + e2 + "': " + e.getLocalizedMessage(), e);
+          }
+          matrix.set(i, j, sim);
         }
-        entityMentions.add(mention);
       }
+      return numCalcs;
+    }
+
+    private boolean shouldCalculate(int i, int j) {
+      if (entityMentions == null) {
+        return true;
+      }
+      return !Arrays.equals(entityMentions[i], entityMentions[j]);
     }
-    
-    return entityMentionsMap;
   }
- 
-  public long getTotalNumCalcs() {
-    return totalNumCalcs;
-  }  
 }
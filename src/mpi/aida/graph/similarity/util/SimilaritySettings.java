@@ -11,6 +11,7 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 import mpi.aida.access.DataAccessSQL;
+import mpi.aida.config.settings.SettingsFingerprint;
 import mpi.aida.data.Entities;
 import mpi.aida.data.ExternalEntitiesContext;
 import mpi.aida.graph.similarity.UnitType;
@@ -706,6 +707,41 @@ public class SimilaritySettings implements Serializable {
     return s;
   }
 
+  /**
+   * @return Canonical string of all values changing the similarities, unlike
+   * {@link #getAsMap()}. The identifier and the path are only names.
+   */
+  public String getFingerprint() {
+    return new SettingsFingerprint()
+      .add("mentionEntitySimilaritiesNoPrior", mentionEntitySimilaritiesNoPrior)
+      .add("mentionEntitySimilaritiesWithPrior", mentionEntitySimilaritiesWithPrior)
+      .add("entityImportancesNoPrior", entityImportancesNoPrior)
+      .add("entityImportancesWithPrior", entityImportancesWithPrior)
+      .add("entityEntitySimilarities", entityEntitySimilarities)
+      .add("mentionEntityKeyphraseSourceWeights", mentionEntityKeyphraseSourceWeights)
+      .add("entityEntityKeyphraseSourceWeights", entityEntityKeyphraseSourceWeights)
+      .add("priorWeight", priorWeight)
+      .add("priorTakeLog", priorTakeLog)
+      .add("priorDampingFactor", priorDampingFactor)
+      .add("priorThreshold", priorThreshold)
+      .add("numberOfEntityKeyphrase", numberOfEntityKeyphrase)
+      .add("entityCohKeyphraseAlpha", entityCohKeyphraseAlpha)
+      .add("entityCohKeywordAlpha", entityCohKeywordAlpha)
+      .add("normalizeCoherenceWeights", normalizeCoherenceWeights)
+      .add("shouldAverageCoherenceWeights", shouldAverageCoherenceWeights)
+      .add("useConfusableMIWeights", useConfusableMIWeights)
+      .add("minimumEntityKeyphraseWeight", minimumEntityKeyphraseWeight)
+      .add("maxEntityKeyphraseCount", maxEntityKeyphraseCount)
+      .add("lshBandSize", lshBandSize)
+      .add("lshBandCount", lshBandCount)
+      .add("lshDatabaseTable", lshDatabaseTable)
+      .add("unitSmoothingParameter", unitSmoothingParameter)
+      .add("unitIgnoreMention", unitIgnoreMention)
+      .add("nGramLength", nGramLength)
+      .add("importanceAggregationStrategy", importanceAggregationStrategy)
+      .toString();
+  }
+
   public ImportanceAggregationStrategy getImportanceAggregationStrategy() {
     return importanceAggregationStrategy;
   }
@@ -0,0 +1,74 @@
+package mpi.aida.preparation.lookup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Set;
+
+import mpi.aida.access.DataAccess;
+import mpi.aida.config.AidaConfig;
+import mpi.lsh.LSHIndex;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Provides the prebuilt {@link LSHIndex} of all dictionary names used for
+ * fuzzy dictionary matching. The index file carries the hash of the data
+ * configuration it was built from and is only rebuilt if the data changed,
+ * so the service does not recompute the signatures of all names on every
+ * start. Run main() to build the index offline.
+ */
+public class DictionaryLsh {
+  private static final Logger logger = LoggerFactory.getLogger(DictionaryLsh.class);
+
+  public static final int NGRAM_LENGTH = 3;
+
+  public static final int BAND_SIZE = 4;
+
+  public static final int BAND_COUNT = 6;
+
+  /**
+   * @return The index of the current data, built if the index file is
+   * missing or outdated.
+   */
+  public static LSHIndex load() throws IOException, InterruptedException {
+    File file = getIndexFile();
+    long fingerprint = DataAccess.getDataConfigHash();
+    if (file.exists() && LSHIndex.getStringsFile(file).exists()) {
+      try {
+        LSHIndex index = new LSHIndex(file);
+        if (index.getFingerprint() == fingerprint
+            && index.hasParameters(NGRAM_LENGTH, BAND_SIZE, BAND_COUNT)) {
+          logger.info("Loaded dictionary LSH index of " + index.size() + " names from " + file + ".");
+          return index;
+        }
+        logger.info("Dictionary LSH index " + file + " is outdated.");
+      } catch (IOException e) {
+        logger.warn("Could not read dictionary LSH index, rebuilding it: " + e.getLocalizedMessage());
+      }
+    } else {
+      logger.info("Dictionary LSH index " + file + " doesn't exist.");
+    }
+    build(file, fingerprint);
+    return new LSHIndex(file);
+  }
+
+  private static void build(File file, long fingerprint) throws IOException, InterruptedException {
+    logger.info("Reading all entity names to build the dictionary LSH index.");
+    Set<String> names = DataAccess.getDictionary().keySet();
+    LSHIndex.build(names, NGRAM_LENGTH, BAND_SIZE, BAND_COUNT, fingerprint,
+        Runtime.getRuntime().availableProcessors(), file);
+    logger.info("Wrote dictionary LSH index of " + names.size() + " names to " + file + ".");
+  }
+
+  public static File getIndexFile() {
+    return new File(AidaConfig.get(AidaConfig.DICTIONARY_LSH_INDEX));
+  }
+
+  /**
+   * Builds the dictionary LSH index for the configured data.
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    build(getIndexFile(), DataAccess.getDataConfigHash());
+  }
+}
@@ -1,19 +1,18 @@
 package mpi.aida.preparation.lookup;
 
+import gnu.trove.iterator.TIntIterator;
 import gnu.trove.iterator.TIntObjectIterator;
 import gnu.trove.map.hash.TIntObjectHashMap;
+import gnu.trove.set.hash.TIntHashSet;
 import mpi.aida.AidaManager;
 import mpi.aida.access.DataAccess;
 import mpi.aida.config.AidaConfig;
 import mpi.aida.data.*;
 import mpi.aida.graph.similarity.PriorProbability;
 import mpi.aida.util.Counter;
-import mpi.aida.util.MathUtil;
-import mpi.aida.util.StringUtils;
 import mpi.aida.util.YagoUtil.Gender;
 import mpi.aida.util.timing.RunningTimer;
-import mpi.lsh.LSH;
-import mpi.lsh.LSHStringNgramFeatureExtractor;
+import mpi.lsh.LSHIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,7 +30,7 @@ abstract class EntityLookup {
 
   private Logger logger_ = LoggerFactory.getLogger(EntityLookup.class);
 
-  private LSH<String> lshEntityLookup_;
+  private LSHIndex lshEntityLookup_;
 
   protected final Set<String> malePronouns = new HashSet<String>() {
 
@@ -66,13 +65,12 @@ abstract class EntityLookup {
     }
   }
 
-  private LSH<String> createMentionLsh() {
-    logger_.info("Reading all entity names to create LSH representation.");
-    Set<String> names = DataAccess.getDictionary().keySet();
-    logger_.info("Creating LSH representation.");
-    LSH<String> lsh = null;
+  private LSHIndex createMentionLsh() {
+    LSHIndex lsh = null;
     try {
-      lsh = LSH.createLSH(names, new LSHStringNgramFeatureExtractor(), 4, 6, 1);
+      lsh = DictionaryLsh.load();
+    } catch (IOException e) {
+      logger_.error("Could not load the dictionary LSH index: " + e.getLocalizedMessage(), e);
     } catch (InterruptedException e) {
       logger_.warn("Could not finish the creation of the mention LSH.");
       Thread.currentThread().interrupt();
@@ -82,6 +80,15 @@ abstract class EntityLookup {
 
   public abstract Entities getEntitiesForMention(Mention mention, double maxEntityRank, int topByPrior, boolean mentionIsPrefix) throws IOException;
 
+  /**
+   * Retrieves the candidates for all given normalized mention strings in a
+   * single lookup.
+   *
+   * @return Candidates keyed by the given strings, empty Entities for
+   * strings without candidates.
+   */
+  public abstract Map<String, Entities> getEntitiesForMentions(Collection<String> normalizedMentions, double maxEntityRank, int topByPrior, boolean mentionIsPrefix) throws IOException;
+
   public void fillInCandidateEntities(Mentions mentions, 
       CandidateDictionary externalDictionary, 
       boolean includeNullEntityCandidates, boolean includeContextMentions, 
@@ -102,20 +109,43 @@ abstract class EntityLookup {
     }
 
     Set<Type> filteringTypes = mentions.getEntitiesTypes();
-    //TODO This method shouldn't be doing one DB call per mention!
+    // Collect all distinct normalized mentions and look them up at once.
+    Set<String> normalizedMentions = new LinkedHashSet<String>();
+    for (Mention m : mentions.getMentions()) {
+      if (!isPronoun(m)) {
+        normalizedMentions.addAll(m.getNormalizedMention());
+      }
+    }
+    Map<String, Entities> normalizedMentionCandidates = 
+        getEntitiesForMentions(normalizedMentions, maxEntityRank, topByPrior, mentionIsPrefix);
+    // Fuzzy matches of mentions without direct candidates.
+    Map<String, Entities> fuzzyCandidates = new HashMap<String, Entities>();
     for (int i = 0; i < mentions.getMentions().size(); i++) {
       Mention m = mentions.getMentions().get(i);
       Entities mentionCandidateEntities;
-      if (malePronouns.contains(m.getMention()) || femalePronouns.contains(m.getMention())) {
+      if (isPronoun(m)) {
         // TODO If we want pronouns, we need to enable this again.
         // setCandiatesFromPreviousMentions(mentions, i);
         // TODO For now, just set empty candidates.
         m.setCandidateEntities(new Entities());
       } else {
-        mentionCandidateEntities = getEntitiesForMention(m, maxEntityRank, topByPrior, mentionIsPrefix);
+        mentionCandidateEntities = new Entities();
+        for (String normalizedMention : m.getNormalizedMention()) {
+          Entities candidates = normalizedMentionCandidates.get(normalizedMention);
+          if (candidates != null) {
+            addCopies(mentionCandidateEntities, candidates);
+          }
+        }
         // Check for fallback options when no candidate was found using direct lookup.
         if(mentionCandidateEntities.size() == 0) {
-          mentionCandidateEntities = getEntitiesByFuzzy(m, maxEntityRank, topByPrior);
+          Entities fuzzy = fuzzyCandidates.get(m.getMention());
+          if (fuzzy == null) {
+            fuzzy = getEntitiesByFuzzy(m, maxEntityRank, topByPrior);
+            fuzzyCandidates.put(m.getMention(), fuzzy);
+          } else {
+            Counter.incrementCount("MENTION_WITHOUT_CANDIDATE");
+          }
+          addCopies(mentionCandidateEntities, fuzzy);
         }
         
         if (externalDictionary != null) {
@@ -155,6 +185,19 @@ abstract class EntityLookup {
     RunningTimer.recordEndTime("EntityLookup:fillInCandidates", id);
   }
 
+  private boolean isPronoun(Mention m) {
+    return malePronouns.contains(m.getMention()) || femalePronouns.contains(m.getMention());
+  }
+
+  /**
+   * Adds a fresh instance of each candidate, candidates of different mentions
+   * must not share Entity objects as they carry the mention-entity similarity.
+   */
+  private void addCopies(Entities target, Entities candidates) {
+    for (Entity e : candidates) {
+      target.add(new Entity(e.getKbIdentifiedEntity(), e.getId()));
+    }
+  }
 
   private Entities getEntitiesByFuzzy(Mention m, double maxEntityRank, int topByPrior) {
     Counter.incrementCount("MENTION_WITHOUT_CANDIDATE");
@@ -210,17 +253,12 @@ abstract class EntityLookup {
       String mention, double maxEntityRank, int topByPrior) {
     Entities candidates = new Entities();
     String conflatedMention = PriorProbability.conflateMention(mention);
-    Set<String> names = lshEntityLookup_.getSimilarItemsForFeature(conflatedMention);
-
     // Check for a sufficiently high Jaccard overlap to avoid false positives.
+    TIntHashSet similar = lshEntityLookup_.getSimilarItems(conflatedMention,
+        AidaConfig.getDouble(AidaConfig.DICTIONARY_LSH_MATCHING_MIN_SIM));
     Set<String> similarNames = new HashSet<>();
-    Set<String> mentionTrigrams = StringUtils.getNgrams(conflatedMention, 3);
-    for (String candidate : names) {
-      Set<String> candTrigrams = StringUtils.getNgrams(candidate, 3);
-      double jSim = MathUtil.computeJaccardSimilarity(mentionTrigrams, candTrigrams);
-      if (jSim > AidaConfig.getDouble(AidaConfig.DICTIONARY_LSH_MATCHING_MIN_SIM)) {
-        similarNames.add(candidate);
-      }
+    for (TIntIterator itr = similar.iterator(); itr.hasNext(); ) {
+      similarNames.add(lshEntityLookup_.getItem(itr.next()));
     }
 
     Collection<Entities> mentionCandidates =
@@ -64,4 +64,13 @@ public class MentionsDetector implements Serializable {
 
     return new MentionDetectionResults(tokens, mentions, filteredText);
   }
+
+  /**
+   * Automatic mention detection on a text that was already tokenized, e.g.
+   * as part of a batch.
+   */
+  public MentionDetectionResults filter(String docId, String text, Tokens tokens) {
+    Mentions mentions = NERManager.singleton().findMentions(docId, text, tokens);
+    return new MentionDetectionResults(tokens, mentions, text);
+  }
 }
\ No newline at end of file
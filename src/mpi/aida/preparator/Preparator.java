@@ -3,6 +3,8 @@ package mpi.aida.preparator;
 import gnu.trove.map.hash.TObjectIntHashMap;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 
 import mpi.aida.config.settings.PreparationSettings;
@@ -11,6 +13,7 @@ import mpi.aida.data.ExternalEntitiesContext;
 import mpi.aida.data.Mention;
 import mpi.aida.data.Mentions;
 import mpi.aida.data.PreparedInput;
+import mpi.aida.data.Type;
 import mpi.aida.preparation.documentchunking.DocumentChunker;
 import mpi.aida.preparation.mentionrecognition.MentionDetectionResults;
 import mpi.aida.preparation.mentionrecognition.MentionsDetector;
@@ -22,6 +25,7 @@ import mpi.aida.preparator.inputformat.xml.Robust04PreparatorInputFormat;
 import mpi.aida.preparator.inputformat.xml.SpiegelPreparatorInputFormat;
 import mpi.aida.preparator.inputformat.xml.TEIPreparatorInputFormat;
 import mpi.aida.util.normalization.TextNormalizerManager;
+import mpi.tokenizer.data.TokenizerManager;
 import mpi.tokenizer.data.Tokens;
 import mpi.tools.javatools.datatypes.Pair;
 
@@ -102,7 +106,66 @@ public class Preparator {
     text = TextNormalizerManager.normalize(text);
     MentionDetectionResults mdr = filterMention.filter(docId, text,
         settings.getTokenizerType(), settings.getMentionsDetectionType(), settings.getLanguage());
+    return prepareInputData(mdr, docId, externalContext, settings);
+  }
+
+  /**
+   * Prepares all texts with the same settings, like 
+   * {@link PlainPreparatorInputFormat} including the filtering types. With
+   * automatic mention detection, the texts are tokenized in one pass of the
+   * tokenizer pipeline.
+   * 
+   * @return  Prepared inputs, in the order of the texts.
+   */
+  public static List<PreparedInput> prepareInputData(
+      List<String> texts, List<String> docIds, 
+      ExternalEntitiesContext externalContext, PreparationSettings settings) {
+    List<PreparedInput> preparedInputs = new ArrayList<PreparedInput>(texts.size());
+    if (settings.getMentionsDetectionType() != MentionsDetector.type.AUTOMATIC) {
+      for (int i = 0; i < texts.size(); ++i) {
+        PreparedInput preparedInput = prepareInputData(
+            texts.get(i), docIds.get(i), externalContext, settings);
+        applyFilteringTypes(preparedInput, settings);
+        preparedInputs.add(preparedInput);
+      }
+      return preparedInputs;
+    }
+    List<String> normalizedTexts = new ArrayList<String>(texts.size());
+    for (String text : texts) {
+      normalizedTexts.add(TextNormalizerManager.normalize(text));
+    }
+    List<Tokens> allTokens = TokenizerManager.tokenize(
+        normalizedTexts, settings.getTokenizerType(), false);
+    for (int i = 0; i < texts.size(); ++i) {
+      MentionDetectionResults mdr = filterMention.filter(
+          docIds.get(i), normalizedTexts.get(i), allTokens.get(i));
+      PreparedInput preparedInput = 
+          prepareInputData(mdr, docIds.get(i), externalContext, settings);
+      applyFilteringTypes(preparedInput, settings);
+      preparedInputs.add(preparedInput);
+    }
+    return preparedInputs;
+  }
+
+  /**
+   * Restricts the candidate entities of all mentions to the filtering types
+   * of the settings, if there are any.
+   * 
+   * @return  true if filtering types were set.
+   */
+  public static boolean applyFilteringTypes(
+      PreparedInput preparedInput, PreparationSettings settings) {
+    Type[] types = settings.getFilteringTypes();
+    if (types == null) {
+      return false;
+    }
+    preparedInput.setMentionEntitiesTypes(new HashSet<Type>(Arrays.asList(types)));
+    return true;
+  }
 
+  private static PreparedInput prepareInputData(
+      MentionDetectionResults mdr, String docId, 
+      ExternalEntitiesContext externalContext, PreparationSettings settings) {
     // Drop mentions below min occurrence count.
     if (settings.getMinMentionOccurrenceCount() > 1) {
       dropMentionsBelowOccurrenceCount(mdr.getMentions(), settings.getMinMentionOccurrenceCount());
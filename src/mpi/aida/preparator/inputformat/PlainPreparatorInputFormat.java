@@ -1,15 +1,11 @@
 package mpi.aida.preparator.inputformat;
 
-import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 
 import mpi.aida.config.settings.PreparationSettings;
 import mpi.aida.data.ExternalEntitiesContext;
 import mpi.aida.data.PreparedInput;
-import mpi.aida.data.Type;
 import mpi.aida.preparator.Preparator;
 import mpi.aida.util.timing.RunningTimer;
 
@@ -89,11 +85,8 @@ public class PlainPreparatorInputFormat implements PreparatorInputFormatInterfac
 
     PreparedInput preparedInput = Preparator.prepareInputData(text, docId, externalContext, settings);
 
-    Type[] types = settings.getFilteringTypes();
-    if (types != null) {
+    if (Preparator.applyFilteringTypes(preparedInput, settings)) {
       logger_.info("Entity Types Filter Set!");
-      Set<Type> filteringTypes = new HashSet<Type>(Arrays.asList(settings.getFilteringTypes()));
-      preparedInput.setMentionEntitiesTypes(filteringTypes);
     }
     RunningTimer.recordEndTime("Preparator", timerId);
     return preparedInput;
@@ -4,6 +4,8 @@ import com.google.protobuf.DescriptorProtos;
 import com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Label;
 import com.google.protobuf.Descriptors;
 import de.jhoff.dmap.DMapBuilder;
+import mpi.aida.access.DataAccessSQL;
+import mpi.aida.access.EntityKnowledgeStoreWriter;
 import mpi.aida.util.YagoUtil;
 import com.google.protobuf.DescriptorProtos.FieldDescriptorProto.Type;
 import org.apache.commons.io.IOUtils;
@@ -237,6 +239,84 @@ public class SqlToProtobufDMap {
     return true;
   }
   
+  /**
+   * Requests the entity keyphrases, entity keywords, keyphrase tokens and 
+   * keyphrase sources from the database and writes them into the columnar
+   * entity knowledge store read by the 'columnar' data access.
+   * 
+   * @param connection The Connection to the database
+   * @param file the store file, see {@link mpi.aida.config.DMapConfig#getEntityKnowledgeStoreFile()}
+   * @param reuse true if we don't want to overwrite an existing store
+   * @return true if a new store was created false otherwise
+   * @throws SQLException
+   * @throws IOException
+   */
+  public static boolean requestAndWriteEntityKnowledgeStore(Connection connection, File file, boolean reuse)
+    throws SQLException, IOException {
+    File directory = file.getAbsoluteFile().getParentFile();
+    if (!directory.exists() || !directory.isDirectory()) {
+      logger.info("Directory '" + directory + "' does not exist. Creating...");
+      directory.mkdirs();
+    }
+    if (file.exists() && reuse)
+      return false;
+
+    connection.setAutoCommit(false);
+    // The writer removes its temporary files if the store is not built.
+    try (Statement statement = connection.createStatement();
+         EntityKnowledgeStoreWriter writer = new EntityKnowledgeStoreWriter(file)) {
+      statement.setFetchSize(FETCH_SIZE);
+
+      String sql = "SELECT entity, keyphrase, weight, source FROM " + DataAccessSQL.ENTITY_KEYPHRASES +
+        " ORDER BY entity;";
+      logger.info("Requesting database: " + sql);
+      ResultSet rs = statement.executeQuery(sql);
+      int count = 0;
+      while (rs.next()) {
+        writer.addEntityKeyphrase(rs.getInt(1), rs.getInt(2), rs.getDouble(3), rs.getInt(4));
+        if (++count % 1_000_000 == 0)
+          logger.info("Read " + count/1_000_000 + " mio entity keyphrases");
+      }
+      rs.close();
+
+      sql = "SELECT entity, keyword, weight FROM " + DataAccessSQL.ENTITY_KEYWORDS + " ORDER BY entity;";
+      logger.info("Requesting database: " + sql);
+      rs = statement.executeQuery(sql);
+      count = 0;
+      while (rs.next()) {
+        writer.addEntityKeyword(rs.getInt(1), rs.getInt(2), rs.getDouble(3));
+        if (++count % 1_000_000 == 0)
+          logger.info("Read " + count/1_000_000 + " mio entity keywords");
+      }
+      rs.close();
+
+      sql = "SELECT keyphrase, token FROM " + DataAccessSQL.KEYPHRASES_TOKENS + " ORDER BY keyphrase, position;";
+      logger.info("Requesting database: " + sql);
+      rs = statement.executeQuery(sql);
+      count = 0;
+      while (rs.next()) {
+        writer.addKeyphraseToken(rs.getInt(1), rs.getInt(2));
+        if (++count % 1_000_000 == 0)
+          logger.info("Read " + count/1_000_000 + " mio keyphrase tokens");
+      }
+      rs.close();
+
+      sql = "SELECT s.source_id, s.source, w.weight FROM " + DataAccessSQL.KEYPHRASES_SOURCE + " s" +
+        " LEFT JOIN " + DataAccessSQL.KEYPHRASES_SOURCES_WEIGHTS + " w ON s.source_id = w.source;";
+      logger.info("Requesting database: " + sql);
+      rs = statement.executeQuery(sql);
+      while (rs.next()) {
+        double weight = rs.getDouble(3);
+        writer.addKeyphraseSource(rs.getInt(1), rs.getString(2), rs.wasNull() ? Double.NaN : weight);
+      }
+      rs.close();
+
+      logger.info("Writing entity knowledge store: " + file);
+      writer.build();
+    }
+    return true;
+  }
+
   // converts a SQL type into a protobuf type
   private static DescriptorProtos.FieldDescriptorProto.Type SQLType2ProtobufType(String sqlType) throws InvalidTypeException {
     switch (sqlType) {
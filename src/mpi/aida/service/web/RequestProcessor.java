@@ -1,6 +1,7 @@
 package mpi.aida.service.web;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -20,6 +21,7 @@ import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 
 import mpi.aida.AidaManager;
+import mpi.aida.BatchDisambiguator;
 import mpi.aida.Disambiguator;
 import mpi.aida.access.DataAccess;
 import mpi.aida.config.AidaConfig;
@@ -53,12 +55,14 @@ import mpi.aida.graph.similarity.util.SimilaritySettings;
 import mpi.aida.preparation.mentionrecognition.MentionsDetector.type;
 import mpi.aida.preparator.Preparator;
 import mpi.aida.service.web.logger.WebCallLogger;
+import mpi.aida.util.timing.MetricsRegistry;
 import mpi.experiment.trace.GraphTracer;
 import mpi.experiment.trace.GraphTracer.TracingTarget;
 import mpi.experiment.trace.NullTracer;
 import mpi.experiment.trace.Tracer;
 import mpi.keyphraseextraction.KeyphraseExtractor;
 import mpi.keyphraseextraction.NounPhrase;
+import mpi.tools.javatools.datatypes.Pair;
 
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
@@ -92,6 +96,42 @@ public class RequestProcessor {
 		return "Processed " + processCount + " docs.";
 	}
 
+	@Path("/resultcache")
+	@GET
+	@Produces(MediaType.APPLICATION_JSON)
+	public String resultCacheStatistics() {
+		return new JSONObject(ResultCache.singleton().getStatistics()).toJSONString();
+	}
+
+	/**
+	 * Module latencies (in microseconds), counters and the statistics of the
+	 * executors and caches.
+	 */
+	@Path("/metrics")
+	@GET
+	@Produces(MediaType.APPLICATION_JSON)
+	public String metrics() {
+		MetricsRegistry registry = MetricsRegistry.singleton();
+		JSONObject metrics = new JSONObject();
+		metrics.put("latencies", registry.getLatencySnapshot());
+		metrics.put("counters", registry.getCounterSnapshot());
+		metrics.put("executors", AidaManager.getExecutorStatistics());
+		metrics.put("keytermsCache", DataAccess.getKeytermsCacheStatistics());
+		metrics.put("resultCache", ResultCache.singleton().getStatistics());
+		return metrics.toJSONString();
+	}
+
+	/**
+	 * Resets the module latencies and counters.
+	 */
+	@Path("/metrics/reset")
+	@POST
+	@Produces(MediaType.TEXT_PLAIN)
+	public String resetMetrics() {
+		MetricsRegistry.singleton().reset();
+		return "Metrics reset.";
+	}
+
 	/**
 	 * Does not work anymore! Please use processWebRequest or processJSONWebRequest.
 	 */
@@ -244,87 +284,10 @@ public class RequestProcessor {
 	   
 	   logger.info("Processing JSON request with input "+inputJson);
 	   
-	   String text = null; 
-	   String inputType = null; 
-	   String tagMode = null;
-	   String docId = null;
-	   String technique = null;
-	   String algorithm = null;
-	   String coherenceMeasure = null;
-	   Double alpha = null;
-	   Double ppWeight = null;
-	   Double importanceWeight = null;
-	   Integer ambiguity = null;
-	   Double coherence = null;
-	   Boolean isWebInterface = null;
-	   Boolean exhaustiveSearch = null;
-	   Boolean fastMode = null;
-	   String filteringTypes = null;
-	   String keyphrasesSourceWeightsStr = null;
-	   Integer maxResults = null;
-	   Double nullMappingThreshold = null;
-		 String jsonType = null;
-	   
-	   if(inputJson.get("text")!=null){
-	     text = inputJson.get("text").toString();
+	   JsonRequestParameters params = parseJsonParameters(inputJson);
+	   if (params.text == null) {
+	     return error("Please specify the \"text\" to disambiguate.");
 	   }
-	   if(inputJson.get("inputType")!=null){
-	     inputType = inputJson.get("inputType").toString();
-     }
-	   if(inputJson.get("tagMode")!=null){
-	     tagMode = inputJson.get("tagMode").toString();
-     }
-	   if(inputJson.get("docId")!=null){
-	     docId = inputJson.get("docId").toString();
-     }
-	   if(inputJson.get("technique")!=null){
-	     technique = inputJson.get("technique").toString();
-     }
-	   if(inputJson.get("algorithm")!=null){
-	     algorithm = inputJson.get("algorithm").toString();
-     }
-	   if(inputJson.get("coherenceMeasure")!=null){
-	     coherenceMeasure = inputJson.get("coherenceMeasure").toString();
-     }
-	   if(inputJson.get("alpha")!=null){
-	     alpha = Double.parseDouble(inputJson.get("alpha").toString());
-     }
-	   if(inputJson.get("ppWeight")!=null){
-	     ppWeight = Double.parseDouble(inputJson.get("ppWeight").toString());
-     }
-	   if(inputJson.get("importanceWeight")!=null){
-	     importanceWeight = Double.parseDouble(inputJson.get("importanceWeight").toString());
-     }
-	   if(inputJson.get("entitiesPerMention")!=null){
-	     ambiguity = Integer.parseInt(inputJson.get("entitiesPerMention").toString());
-     }
-	   if(inputJson.get("coherenceTreshold")!=null){
-	     coherence = Double.parseDouble(inputJson.get("coherenceTreshold").toString());
-     }
-	   if(inputJson.get("isWebInterface")!=null){
-	     isWebInterface = Boolean.parseBoolean(inputJson.get("isWebInterface").toString());
-     }
-	   if(inputJson.get("exhaustiveSearch")!=null){
-	     exhaustiveSearch = Boolean.parseBoolean(inputJson.get("exhaustiveSearch").toString());
-     }
-	   if(inputJson.get("fastMode")!=null){
-	     fastMode = Boolean.parseBoolean(inputJson.get("fastMode").toString());
-     }
-	   if(inputJson.get("filteringTypes")!=null){
-	     filteringTypes = inputJson.get("filteringTypes").toString();
-     }
-	   if(inputJson.get("keyphrasesSourceWeightsStr")!=null){
-	     keyphrasesSourceWeightsStr = inputJson.get("keyphrasesSourceWeightsStr").toString();
-     }
-	   if(inputJson.get("maxResults")!=null){
-	     maxResults = Integer.parseInt(inputJson.get("maxResults").toString());
-     }
-	   if(inputJson.get("nullMappingThreshold")!=null){
-	     nullMappingThreshold = Double.parseDouble(inputJson.get("nullMappingThreshold").toString());
-     }
-		 if(inputJson.get("jsonType")!=null){
-			 jsonType = inputJson.get("jsonType").toString();
-		 }
 
 	   ExternalEntitiesContext eec = null;
 	   Map<String, List<KBIdentifiedEntity>> mentionEntityDictionary = new HashMap<>();
@@ -376,33 +339,157 @@ public class RequestProcessor {
 
 	   //Process the request and return the result
 	   JSONObject result = processRequest(
-	       text,
-	       inputType,
-	       tagMode,
-	       docId,
-	       technique,
-	       algorithm,
-	       coherenceMeasure,
-	       alpha,
-	       ppWeight,
-	       importanceWeight,
-	       ambiguity,
-	       coherence,
-	       isWebInterface,
-	       exhaustiveSearch,
-	       fastMode,
-	       filteringTypes,
-	       keyphrasesSourceWeightsStr,
-	       maxResults,
-	       nullMappingThreshold,
+	       params.text,
+	       params.inputType,
+	       params.tagMode,
+	       params.docId,
+	       params.technique,
+	       params.algorithm,
+	       params.coherenceMeasure,
+	       params.alpha,
+	       params.ppWeight,
+	       params.importanceWeight,
+	       params.ambiguity,
+	       params.coherence,
+	       params.isWebInterface,
+	       params.exhaustiveSearch,
+	       params.fastMode,
+	       params.filteringTypes,
+	       params.keyphrasesSourceWeightsStr,
+	       params.maxResults,
+	       params.nullMappingThreshold,
 	       getCallerIp(req),
-				 jsonType,
+	       params.jsonType,
 	       eec
 	       );
 	   //JSONObject result = new JSONObject();
 	   return result;
    }
 
+	/**
+	 * Disambiguates several documents with the same settings. The keyphrases
+	 * of the candidate entities of all documents are fetched once and shared,
+	 * see {@link BatchDisambiguator}. Takes the settings of /disambiguate and
+	 * "documents", an array of objects with "text" and optionally "docId".
+	 * External entities and the web interface are not supported.
+	 *
+	 * @return JSON object with the results of the "documents", in input order,
+	 * or with an "ERROR" if a document has no "text" or a setting is invalid.
+	 */
+	@POST
+	@Path("/disambiguateBatch")
+	@Produces(MediaType.APPLICATION_JSON)
+	@Consumes(MediaType.APPLICATION_JSON)
+	public JSONObject processJSONBatchRequest(@Context HttpServletRequest req, String requestParam) throws Exception {
+		long time = System.currentTimeMillis();
+		JSONParser jsonParser = new JSONParser();
+		JSONObject inputJson;
+		try {
+			inputJson = (JSONObject) jsonParser.parse(requestParam);
+		} catch (ParseException e) {
+			logger.error("Error parsing the input JSON object "+e.getMessage());
+			throw new ParseException(e.getErrorType());
+		}
+
+		if (!(inputJson.get("documents") instanceof JSONArray)) {
+			return error("Please specify the \"documents\" to disambiguate.");
+		}
+		JSONArray documents = (JSONArray) inputJson.get("documents");
+		for (int i = 0; i < documents.size(); ++i) {
+			Object document = documents.get(i);
+			if (!(document instanceof JSONObject) || ((JSONObject) document).get("text") == null) {
+				return error("Please specify the \"text\" of document " + i + ".");
+			}
+		}
+		logger.info("Processing JSON batch request with " + documents.size() + " documents.");
+
+		JsonRequestParameters params = parseJsonParameters(inputJson);
+		int maxNum = 15;
+		if (params.maxResults != null) {
+			maxNum = params.maxResults;
+		}
+		JSONTYPE resultType = JSONTYPE.DEFAULT;
+		if (params.jsonType != null) {
+			resultType = parseJsonType(params.jsonType);
+			if (resultType == null) {
+				return invalidJsonTypeError();
+			}
+		}
+
+		Pair<PreparationSettings, DisambiguationSettings> settings = buildSettings(
+				params.tagMode, params.technique, params.algorithm, params.coherenceMeasure,
+				params.alpha, params.ppWeight, params.importanceWeight, params.ambiguity,
+				params.coherence, params.exhaustiveSearch, params.fastMode, params.filteringTypes,
+				params.keyphrasesSourceWeightsStr, params.nullMappingThreshold);
+		if (settings == null) {
+			return invalidTechniqueError();
+		}
+		PreparationSettings prepSettings = settings.first();
+		DisambiguationSettings disSettings = settings.second();
+
+		// Answer documents from the result cache, disambiguate the rest together.
+		ResultCache resultCache = ResultCache.singleton();
+		JSONObject[] results = new JSONObject[documents.size()];
+		String[] cacheKeys = new String[documents.size()];
+		List<Integer> positions = new ArrayList<Integer>();
+		List<String> texts = new ArrayList<String>();
+		List<String> docIds = new ArrayList<String>();
+		for (int i = 0; i < documents.size(); ++i) {
+			JSONObject document = (JSONObject) documents.get(i);
+			String text = document.get("text").toString();
+			String docId = null;
+			if (document.get("docId") != null) {
+				docId = document.get("docId").toString();
+			} else {
+				docId = text.hashCode() + "_" + System.currentTimeMillis() + "_" + i;
+			}
+			if (resultCache.isEnabled()) {
+				cacheKeys[i] = resultCache.getKey(text, prepSettings, disSettings, resultType + ":" + maxNum);
+				JSONObject cached = resultCache.get(cacheKeys[i]);
+				if (cached != null) {
+					cached.put("docID", docId);
+					results[i] = cached;
+					incrememtProcessCount();
+					continue;
+				}
+			}
+			positions.add(i);
+			texts.add(text);
+			docIds.add(docId);
+		}
+
+		if (!texts.isEmpty()) {
+			List<PreparedInput> inputs = Preparator.prepareInputData(
+					texts, docIds, new ExternalEntitiesContext(), prepSettings);
+			BatchDisambiguator disambiguator = new BatchDisambiguator(
+					inputs, disSettings, AidaConfig.getAsInt(AidaConfig.BATCH_NUM_THREADS));
+			List<DisambiguationResults> batchResults = disambiguator.disambiguate();
+			long duration = System.currentTimeMillis() - time;
+			for (int j = 0; j < inputs.size(); ++j) {
+				incrememtProcessCount();
+				ResultProcessor rp = new ResultProcessor(batchResults.get(j), null, inputs.get(j), maxNum);
+				rp.setOverallTime(duration);
+				JSONObject json = rp.process(resultType);
+				int i = positions.get(j);
+				if (cacheKeys[i] != null) {
+					resultCache.put(cacheKeys[i], json);
+				}
+				results[i] = json;
+				RequestLogger.logProcess(getCallerIp(req), inputs.get(j), prepSettings.getClass().getName(),
+						disSettings.getDisambiguationTechnique(), disSettings.getDisambiguationAlgorithm(), duration);
+			}
+		}
+
+		JSONArray resultsJson = new JSONArray();
+		for (JSONObject result : results) {
+			resultsJson.add(result);
+		}
+		JSONObject json = new JSONObject();
+		json.put("documents", resultsJson);
+		json.put("overallTime", "" + (System.currentTimeMillis() - time));
+		return json;
+	}
+
 	/**
 	 * Method to call the AIDA disambiguation service.
 	 * 
@@ -780,11 +867,12 @@ public class RequestProcessor {
 		++processCount;
 	}
 	 
-	 private JSONObject processRequest(
-       String   text,
-       String   inputType,
+	/**
+	 * @return Preparation and disambiguation settings for the request
+	 * parameters, null if the technique is invalid.
+	 */
+	private Pair<PreparationSettings, DisambiguationSettings> buildSettings(
        String   tagMode,
-       String   docId,
        String   technique,
        String   algorithm,
        String   coherenceMeasure,
@@ -793,19 +881,11 @@ public class RequestProcessor {
        Double   importanceWeight,
        Integer  ambiguity,
        Double   coherence,
-       Boolean  isWebInterface,
        Boolean  exhaustiveSearch,
        Boolean  fastMode,
        String   filteringTypes,
        String   keyphrasesSourceWeightsStr,
-       Integer  maxResults,
-       Double   nullMappingThreshold,
-       String   IP,
-			 String   jsonType,
-       ExternalEntitiesContext eec
-       ) throws Exception{
-     long time = System.currentTimeMillis();
-
+       Double   nullMappingThreshold) throws Exception {
       // 2. generate preparedSettings and set all required parameters
       // including filter types
       PreparationSettings prepSettings;
@@ -880,11 +960,7 @@ public class RequestProcessor {
         } else if (technique.equals("GRAPH-JACCARD")) {
           disSettings = new CocktailPartyJaccardDisambiguationSettings();
         } else {
-          // TODO return something that makes sense.. like a json with error
-          // code
-          JSONObject json = new JSONObject();
-          json.put("ERROR", "Please specify a valid technique. Valid technuques are: LOCAL, LOCAL-IDF, GRAPH, GRAPH-IDF, GRAPH-KORE, GRAPH-KORELSH, GRAPH-JACCARD.");
-          return json;
+          return null;
         }
       }
       
@@ -921,22 +997,6 @@ public class RequestProcessor {
 		  if (coherence != null) {
 				disSettings.getGraphSettings().setCohRobustnessThreshold(coherence);
 			}
-      Tracer tracer = null;
-		  if (isWebInterface == null) {
-				isWebInterface = false;
-			}
-      if (isWebInterface) {
-        disSettings.setTracingTarget(TracingTarget.WEB_INTERFACE);
-        GraphTracer.gTracer = new GraphTracer();
-        if (technique.equals("PRIOR") || technique.equals("LOCAL")
-            || technique.equals("LOCAL-IDF")) {
-          tracer = new Tracer(docId);
-        } else {
-          tracer = new NullTracer();
-        }
-      } else {
-        tracer = new NullTracer();
-      }
       // 4a. make sure to update similarity settings with prior weight and/or
       // importance weight
       SimilaritySettings simSettings = disSettings.getSimilaritySettings();
@@ -970,6 +1030,183 @@ public class RequestProcessor {
         simSettings
             .setMentionEntityKeyphraseSourceWeights(mentionEntityKeyphraseSourceWeightsList);
       }
+      return new Pair<PreparationSettings, DisambiguationSettings>(prepSettings, disSettings);
+	}
+
+	private JSONObject invalidTechniqueError() {
+		// TODO return something that makes sense.. like a json with error
+		// code
+		JSONObject json = new JSONObject();
+		json.put("ERROR", "Please specify a valid technique. Valid technuques are: LOCAL, LOCAL-IDF, GRAPH, GRAPH-IDF, GRAPH-KORE, GRAPH-KORELSH, GRAPH-JACCARD.");
+		return json;
+	}
+
+	private JSONObject invalidJsonTypeError() {
+		return error("Please specify a valid jsonType. Valid types are: "
+				+ Arrays.toString(JSONTYPE.values()) + ".");
+	}
+
+	private JSONObject error(String message) {
+		JSONObject json = new JSONObject();
+		json.put("ERROR", message);
+		return json;
+	}
+
+	/**
+	 * @return The JSONTYPE named jsonType, null if there is none.
+	 */
+	private JSONTYPE parseJsonType(String jsonType) {
+		try {
+			return JSONTYPE.valueOf(jsonType);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Parameters of the JSON requests, null if not given. See
+	 * processJSONWebRequest for their meaning.
+	 */
+	private static class JsonRequestParameters {
+		String text;
+		String inputType;
+		String tagMode;
+		String docId;
+		String technique;
+		String algorithm;
+		String coherenceMeasure;
+		Double alpha;
+		Double ppWeight;
+		Double importanceWeight;
+		Integer ambiguity;
+		Double coherence;
+		Boolean isWebInterface;
+		Boolean exhaustiveSearch;
+		Boolean fastMode;
+		String filteringTypes;
+		String keyphrasesSourceWeightsStr;
+		Integer maxResults;
+		Double nullMappingThreshold;
+		String jsonType;
+	}
+
+	private JsonRequestParameters parseJsonParameters(JSONObject inputJson) {
+		JsonRequestParameters params = new JsonRequestParameters();
+		if (inputJson.get("text") != null) {
+			params.text = inputJson.get("text").toString();
+		}
+		if (inputJson.get("inputType") != null) {
+			params.inputType = inputJson.get("inputType").toString();
+		}
+		if (inputJson.get("tagMode") != null) {
+			params.tagMode = inputJson.get("tagMode").toString();
+		}
+		if (inputJson.get("docId") != null) {
+			params.docId = inputJson.get("docId").toString();
+		}
+		if (inputJson.get("technique") != null) {
+			params.technique = inputJson.get("technique").toString();
+		}
+		if (inputJson.get("algorithm") != null) {
+			params.algorithm = inputJson.get("algorithm").toString();
+		}
+		if (inputJson.get("coherenceMeasure") != null) {
+			params.coherenceMeasure = inputJson.get("coherenceMeasure").toString();
+		}
+		if (inputJson.get("alpha") != null) {
+			params.alpha = Double.parseDouble(inputJson.get("alpha").toString());
+		}
+		if (inputJson.get("ppWeight") != null) {
+			params.ppWeight = Double.parseDouble(inputJson.get("ppWeight").toString());
+		}
+		if (inputJson.get("importanceWeight") != null) {
+			params.importanceWeight = Double.parseDouble(inputJson.get("importanceWeight").toString());
+		}
+		if (inputJson.get("entitiesPerMention") != null) {
+			params.ambiguity = Integer.parseInt(inputJson.get("entitiesPerMention").toString());
+		}
+		if (inputJson.get("coherenceTreshold") != null) {
+			params.coherence = Double.parseDouble(inputJson.get("coherenceTreshold").toString());
+		}
+		if (inputJson.get("isWebInterface") != null) {
+			params.isWebInterface = Boolean.parseBoolean(inputJson.get("isWebInterface").toString());
+		}
+		if (inputJson.get("exhaustiveSearch") != null) {
+			params.exhaustiveSearch = Boolean.parseBoolean(inputJson.get("exhaustiveSearch").toString());
+		}
+		if (inputJson.get("fastMode") != null) {
+			params.fastMode = Boolean.parseBoolean(inputJson.get("fastMode").toString());
+		}
+		if (inputJson.get("filteringTypes") != null) {
+			params.filteringTypes = inputJson.get("filteringTypes").toString();
+		}
+		if (inputJson.get("keyphrasesSourceWeightsStr") != null) {
+			params.keyphrasesSourceWeightsStr = inputJson.get("keyphrasesSourceWeightsStr").toString();
+		}
+		if (inputJson.get("maxResults") != null) {
+			params.maxResults = Integer.parseInt(inputJson.get("maxResults").toString());
+		}
+		if (inputJson.get("nullMappingThreshold") != null) {
+			params.nullMappingThreshold = Double.parseDouble(inputJson.get("nullMappingThreshold").toString());
+		}
+		if (inputJson.get("jsonType") != null) {
+			params.jsonType = inputJson.get("jsonType").toString();
+		}
+		return params;
+	}
+
+	 private JSONObject processRequest(
+       String   text,
+       String   inputType,
+       String   tagMode,
+       String   docId,
+       String   technique,
+       String   algorithm,
+       String   coherenceMeasure,
+       Double   alpha,
+       Double   ppWeight,
+       Double   importanceWeight,
+       Integer  ambiguity,
+       Double   coherence,
+       Boolean  isWebInterface,
+       Boolean  exhaustiveSearch,
+       Boolean  fastMode,
+       String   filteringTypes,
+       String   keyphrasesSourceWeightsStr,
+       Integer  maxResults,
+       Double   nullMappingThreshold,
+       String   IP,
+			 String   jsonType,
+       ExternalEntitiesContext eec
+       ) throws Exception{
+     long time = System.currentTimeMillis();
+
+      Pair<PreparationSettings, DisambiguationSettings> settings = buildSettings(
+          tagMode, technique, algorithm, coherenceMeasure, alpha, ppWeight,
+          importanceWeight, ambiguity, coherence, exhaustiveSearch, fastMode,
+          filteringTypes, keyphrasesSourceWeightsStr, nullMappingThreshold);
+      if (settings == null) {
+        return invalidTechniqueError();
+      }
+      PreparationSettings prepSettings = settings.first();
+      DisambiguationSettings disSettings = settings.second();
+
+      Tracer tracer = null;
+		  if (isWebInterface == null) {
+				isWebInterface = false;
+			}
+      if (isWebInterface) {
+        disSettings.setTracingTarget(TracingTarget.WEB_INTERFACE);
+        GraphTracer.gTracer = new GraphTracer();
+        if (technique.equals("PRIOR") || technique.equals("LOCAL")
+            || technique.equals("LOCAL-IDF")) {
+          tracer = new Tracer(docId);
+        } else {
+          tracer = new NullTracer();
+        }
+      } else {
+        tracer = new NullTracer();
+      }
 
       // 4c. prepare input
       if (docId == null) {
@@ -980,6 +1217,36 @@ public class RequestProcessor {
 			 eec = new ExternalEntitiesContext();
 		 }
 
+      int maxNum = 15;
+      if (maxResults != null) {
+        maxNum = maxResults;
+      }
+		 JSONTYPE resultType = JSONTYPE.DEFAULT;
+      if (isWebInterface) {
+				resultType = JSONTYPE.WEB;
+      } else if (jsonType != null) {
+        resultType = parseJsonType(jsonType);
+        if (resultType == null) {
+          return invalidJsonTypeError();
+        }
+      }
+
+      // 4d. return a cached result for the same text and settings. Web
+      // interface results contain traces, external entities are not part of
+      // the settings, so neither is cached.
+      ResultCache resultCache = ResultCache.singleton();
+      String cacheKey = null;
+      if (resultCache.isEnabled() && !isWebInterface && eec.isEmpty()) {
+        cacheKey = resultCache.getKey(text, prepSettings, disSettings, resultType + ":" + maxNum);
+        JSONObject cached = resultCache.get(cacheKey);
+        if (cached != null) {
+          cached.put("docID", docId);
+          cached.put("overallTime", "" + (System.currentTimeMillis() - time));
+          incrememtProcessCount();
+          return cached;
+        }
+      }
+
       Preparator p = new Preparator();
       PreparedInput preInput = p.prepare(docId, text, prepSettings, eec);
 
@@ -992,22 +1259,14 @@ public class RequestProcessor {
       // based on the interface json returned will have HTML string / JSON
       // repr of Disambi Results
 
-      int maxNum = 15;
-      if (maxResults != null) {
-        maxNum = maxResults;
-      }
       ResultProcessor rp = new ResultProcessor(results, null, preInput,
           maxNum);
       long duration = System.currentTimeMillis() - time;
       rp.setOverallTime(duration);
-		 JSONTYPE resultType = JSONTYPE.DEFAULT;
-      JSONObject json;
-      if (isWebInterface) {
-				resultType = JSONTYPE.WEB;
-      } else if (jsonType != null) {
-			 	resultType = JSONTYPE.valueOf(jsonType);
+      JSONObject json = rp.process(resultType);
+      if (cacheKey != null) {
+        resultCache.put(cacheKey, json);
       }
-		  json = rp.process(resultType);
       
       // log request details
 		  if (IP == null) {
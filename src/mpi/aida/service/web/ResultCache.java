@@ -0,0 +1,323 @@
+package mpi.aida.service.web;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import mpi.aida.access.DataAccess;
+import mpi.aida.config.AidaConfig;
+import mpi.aida.config.settings.DisambiguationSettings;
+import mpi.aida.config.settings.PreparationSettings;
+import mpi.aida.util.AtomicFiles;
+import mpi.aida.util.ConcurrentWeightedCache;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * JSON results of documents that were disambiguated before. The key is a
+ * SHA-256 hash of the text, the fingerprints of the preparation and
+ * disambiguation settings, the config values read while disambiguating,
+ * the response options and the data configuration, so results computed
+ * with other settings or against another entity repository are never
+ * returned.
+ *
+ * Results are kept in a bounded in-memory tier and, if a directory is
+ * configured, in an on-disk tier that survives restarts. The on-disk tier
+ * is cleared when the data configuration changes.
+ */
+public class ResultCache {
+  private static final Logger logger = LoggerFactory.getLogger(ResultCache.class);
+
+  private static final String FINGERPRINT_FILE = "repository.fingerprint";
+
+  /**
+   * Version of the key, to be increased whenever the fingerprints change,
+   * e.g. when a setting is added.
+   */
+  static final int KEY_VERSION = 2;
+
+  /** Config values read during preparation and disambiguation. */
+  static final String[] RESULT_CONFIG_KEYS = new String[] {
+      AidaConfig.LANGUAGE,
+      AidaConfig.FILTERING_TYPES,
+      AidaConfig.FIXED_LENGTH_DOCUMENT_CHUNK_SIZE,
+      AidaConfig.CANDIDATE_ENTITY_LOOKUP,
+      AidaConfig.CANDIDATE_ENTITY_LOOKUP_MENTION_IS_PREFIX,
+      AidaConfig.DICTIONARY_FUZZY_MATCHING,
+      AidaConfig.DICTIONARY_FUZZY_MATCHING_MIN_SIM,
+      AidaConfig.DICTIONARY_LSH_MATCHING,
+      AidaConfig.DICTIONARY_LSH_MATCHING_MIN_SIM,
+      AidaConfig.DICTIONARY_LSH_INDEX,
+      AidaConfig.MAX_NUM_CANDIDATE_ENTITIES_FOR_GRAPH,
+      AidaConfig.RECONCILER_PERSON_MERGE };
+
+  /** Names of the shard directories, the first two digits of the keys. */
+  private static final Pattern SHARD = Pattern.compile("[0-9a-f]{2}");
+
+  private static class ResultCacheHolder {
+    public static ResultCache cache = createFromConfig();
+  }
+
+  public static ResultCache singleton() {
+    return ResultCacheHolder.cache;
+  }
+
+  private static ResultCache createFromConfig() {
+    if (!AidaConfig.getBoolean(AidaConfig.RESULT_CACHE)) {
+      return new ResultCache(false, 0, null, null);
+    }
+    String path = AidaConfig.get(AidaConfig.RESULT_CACHE_PATH);
+    File directory = path.isEmpty() ? null : new File(path);
+    String repositoryFingerprint = DataAccess.getConfigurationName() + ":"
+        + Long.toHexString(DataAccess.getDataConfigHash());
+    long maxBytes = AidaConfig.getAsInt(AidaConfig.RESULT_CACHE_MAX_MB) * 1024L * 1024L;
+    return new ResultCache(true, maxBytes, directory, repositoryFingerprint);
+  }
+
+  private final boolean enabled_;
+
+  private final ConcurrentWeightedCache<CachedResult> memory_;
+
+  private final File directory_;
+
+  private final String repositoryFingerprint_;
+
+  private final LongAdder hits_ = new LongAdder();
+
+  private final LongAdder diskHits_ = new LongAdder();
+
+  private final LongAdder misses_ = new LongAdder();
+
+  /**
+   * @param enabled Set to false to never cache anything.
+   * @param maxBytes Approximate maximum size of the in-memory tier.
+   * @param directory Directory of the on-disk tier, null for none.
+   * @param repositoryFingerprint Identifies the entity repository.
+   */
+  ResultCache(boolean enabled, long maxBytes, File directory, String repositoryFingerprint) {
+    enabled_ = enabled;
+    repositoryFingerprint_ = repositoryFingerprint;
+    memory_ = new ConcurrentWeightedCache<CachedResult>(maxBytes,
+        new ConcurrentWeightedCache.Weigher<CachedResult>() {
+
+          @Override
+          public int weigh(CachedResult value) {
+            // Java strings use 2 bytes per character.
+            return 64 + 2 * (value.key.length() + value.json.length());
+          }
+        });
+    if (enabled && directory != null && !prepareDirectory(directory)) {
+      directory = null;
+    }
+    directory_ = directory;
+  }
+
+  public boolean isEnabled() {
+    return enabled_;
+  }
+
+  /**
+   * @param text  Document text, hashed as is since the character offsets in
+   * the results refer to it.
+   * @param options Anything else that changes the result, e.g. the JSON type.
+   * @return Key of the result.
+   */
+  public String getKey(String text, PreparationSettings prepSettings,
+      DisambiguationSettings disSettings, String options) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    update(digest, String.valueOf(KEY_VERSION));
+    update(digest, repositoryFingerprint_);
+    update(digest, prepSettings.getClass().getName());
+    update(digest, prepSettings.getFingerprint());
+    update(digest, disSettings.getClass().getName());
+    update(digest, disSettings.getFingerprint());
+    for (String configKey : RESULT_CONFIG_KEYS) {
+      update(digest, configKey);
+      update(digest, AidaConfig.get(configKey));
+    }
+    update(digest, options);
+    update(digest, text);
+    StringBuilder key = new StringBuilder(64);
+    for (byte b : digest.digest()) {
+      key.append(Character.forDigit((b >> 4) & 0xF, 16));
+      key.append(Character.forDigit(b & 0xF, 16));
+    }
+    return key.toString();
+  }
+
+  /**
+   * Length-prefixed, so that no two sequences of strings hash the same.
+   */
+  private void update(MessageDigest digest, String value) {
+    byte[] bytes = String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+    digest.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+    digest.update(bytes);
+  }
+
+  /**
+   * @return A new copy of the cached result, null if it is not cached.
+   */
+  public JSONObject get(String key) {
+    if (!enabled_) {
+      return null;
+    }
+    long memoryKey = getMemoryKey(key);
+    CachedResult cached = memory_.get(memoryKey);
+    String json = null;
+    if (cached != null && cached.key.equals(key)) {
+      json = cached.json;
+    } else if (directory_ != null) {
+      json = readFromDisk(key);
+      if (json != null) {
+        diskHits_.increment();
+        memory_.put(memoryKey, new CachedResult(key, json));
+      }
+    }
+    if (json != null) {
+      try {
+        JSONObject result = (JSONObject) new JSONParser().parse(json);
+        hits_.increment();
+        return result;
+      } catch (ParseException e) {
+        logger.warn("Could not parse cached result " + key + ": " + e);
+      }
+    }
+    misses_.increment();
+    return null;
+  }
+
+  public void put(String key, JSONObject result) {
+    if (!enabled_) {
+      return;
+    }
+    String json = result.toJSONString();
+    memory_.put(getMemoryKey(key), new CachedResult(key, json));
+    if (directory_ != null) {
+      writeToDisk(key, json);
+    }
+  }
+
+  /**
+   * @return Hits (in memory or on disk), hits on disk, misses, and the
+   * entries, bytes and evictions of the in-memory tier.
+   */
+  public Map<String, Long> getStatistics() {
+    Map<String, Long> stats = new LinkedHashMap<String, Long>();
+    stats.put("hits", hits_.sum());
+    stats.put("diskHits", diskHits_.sum());
+    stats.put("misses", misses_.sum());
+    stats.put("memory.entries", memory_.size());
+    stats.put("memory.bytes", memory_.getWeight());
+    stats.put("memory.evictions", memory_.getEvictionCount());
+    return stats;
+  }
+
+  private long getMemoryKey(String key) {
+    return Long.parseUnsignedLong(key.substring(0, 16), 16);
+  }
+
+  private File getFile(String key) {
+    return new File(new File(directory_, key.substring(0, 2)), key + ".json");
+  }
+
+  private String readFromDisk(String key) {
+    File file = getFile(key);
+    if (!file.exists()) {
+      return null;
+    }
+    try {
+      return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      logger.warn("Could not read cached result " + file + ": " + e.getLocalizedMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Writes to a unique temporary file first, so that concurrent readers
+   * never see a partially written result.
+   */
+  private void writeToDisk(String key, String json) {
+    File file = getFile(key);
+    File tmpFile = null;
+    try {
+      file.getParentFile().mkdirs();
+      tmpFile = AtomicFiles.createTempFile(file);
+      Files.write(tmpFile.toPath(), json.getBytes(StandardCharsets.UTF_8));
+      AtomicFiles.moveInPlace(tmpFile, file);
+    } catch (IOException e) {
+      logger.warn("Could not write cached result " + file + ": " + e.getLocalizedMessage());
+      if (tmpFile != null) {
+        tmpFile.delete();
+      }
+    }
+  }
+
+  /**
+   * Clears the shard directories if their results were computed against
+   * another entity repository. Other files in the directory are kept.
+   *
+   * @return false if the directory cannot be used.
+   */
+  private boolean prepareDirectory(File directory) {
+    File fingerprintFile = new File(directory, FINGERPRINT_FILE);
+    try {
+      if (fingerprintFile.exists()) {
+        String fingerprint = new String(
+            Files.readAllBytes(fingerprintFile.toPath()), StandardCharsets.UTF_8);
+        if (fingerprint.equals(repositoryFingerprint_)) {
+          return true;
+        }
+        logger.info("Entity repository changed, clearing result cache in " + directory + ".");
+        File[] shards = directory.listFiles();
+        for (File shard : shards == null ? new File[0] : shards) {
+          if (!shard.isDirectory() || !SHARD.matcher(shard.getName()).matches()) {
+            continue;
+          }
+          File[] results = shard.listFiles();
+          for (File result : results == null ? new File[0] : results) {
+            if (result.getName().endsWith(".json") || result.getName().endsWith(".tmp")) {
+              result.delete();
+            }
+          }
+          shard.delete();
+        }
+      }
+      directory.mkdirs();
+      Files.write(fingerprintFile.toPath(),
+          repositoryFingerprint_.getBytes(StandardCharsets.UTF_8));
+      return true;
+    } catch (IOException e) {
+      logger.error("Could not use result cache directory " + directory
+          + ", caching in memory only: " + e.getLocalizedMessage());
+      return false;
+    }
+  }
+
+  private static class CachedResult {
+    private final String key;
+    private final String json;
+
+    public CachedResult(String key, String json) {
+      this.key = key;
+      this.json = json;
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package mpi.aida.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+
+/**
+ * Replaces files atomically: the content is written to a unique temporary
+ * file next to the target, which is then moved in place. Readers, also in
+ * other JVMs, see either the old or the complete new file, and concurrent
+ * writers never write into the same temporary file.
+ */
+public class AtomicFiles {
+
+  /**
+   * @return New, empty temporary file in the directory of target.
+   */
+  public static File createTempFile(File target) throws IOException {
+    File directory = target.getAbsoluteFile().getParentFile();
+    Path tmp = Files.createTempFile(directory.toPath(), target.getName() + ".", ".tmp");
+    try {
+      // Temporary files are only readable by the owner, the target is not.
+      Files.setPosixFilePermissions(tmp, PosixFilePermissions.fromString("rw-r--r--"));
+    } catch (UnsupportedOperationException e) {
+      // Not a POSIX file system, keep the default permissions.
+    }
+    return tmp.toFile();
+  }
+
+  /**
+   * Moves tmpFile to target, replacing target if it exists.
+   */
+  public static void moveInPlace(File tmpFile, File target) throws IOException {
+    Files.move(tmpFile.toPath(), target.toPath(),
+        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+}
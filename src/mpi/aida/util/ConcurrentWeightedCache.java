@@ -0,0 +1,250 @@
+package mpi.aida.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe cache with long keys, bounded by the total weight of its values
+ * (e.g. their approximate size in bytes) instead of the number of entries.
+ *
+ * Keys are spread over independently locked segments. Each segment evicts
+ * using segmented LRU: new entries go to a probation area and are promoted to
+ * a protected area when they are hit, so a single document with many new
+ * entities does not flush the entries shared by most documents.
+ */
+public class ConcurrentWeightedCache<V> {
+
+  /**
+   * Computes the weight of a value, e.g. its approximate size in bytes.
+   */
+  public interface Weigher<V> {
+    int weigh(V value);
+  }
+
+  private static final int DEFAULT_NUM_SEGMENTS = 16;
+
+  /** Share of the weight of each segment reserved for protected entries. */
+  private static final double PROTECTED_RATIO = 0.8;
+
+  private final Segment<V>[] segments;
+
+  private final int segmentMask;
+
+  private final Weigher<V> weigher;
+
+  private final long maxWeight;
+
+  private final LongAdder hits = new LongAdder();
+
+  private final LongAdder misses = new LongAdder();
+
+  private final LongAdder evictions = new LongAdder();
+
+  public ConcurrentWeightedCache(long maxWeight, Weigher<V> weigher) {
+    this(maxWeight, DEFAULT_NUM_SEGMENTS, weigher);
+  }
+
+  /**
+   * @param maxWeight Maximum total weight of all values.
+   * @param numSegments Number of independently locked segments, rounded up
+   *  to the next power of two.
+   * @param weigher Computes the weight of a value.
+   */
+  @SuppressWarnings("unchecked")
+  public ConcurrentWeightedCache(long maxWeight, int numSegments, Weigher<V> weigher) {
+    int size = 1;
+    while (size < numSegments) {
+      size <<= 1;
+    }
+    this.maxWeight = maxWeight;
+    this.weigher = weigher;
+    segmentMask = size - 1;
+    segments = new Segment[size];
+    for (int i = 0; i < size; ++i) {
+      segments[i] = new Segment<V>(maxWeight / size);
+    }
+  }
+
+  /**
+   * @return Cached value or null if the key is not cached.
+   */
+  public V get(long key) {
+    V value = segmentFor(key).get(key);
+    if (value == null) {
+      misses.increment();
+    } else {
+      hits.increment();
+    }
+    return value;
+  }
+
+  /**
+   * Caches the value, evicting the least recently used entries of its
+   * segment if necessary. Values heavier than a segment are not cached.
+   */
+  public void put(long key, V value) {
+    int evicted = segmentFor(key).put(key, value, weigher.weigh(value));
+    if (evicted > 0) {
+      evictions.add(evicted);
+    }
+  }
+
+  public void clear() {
+    for (Segment<V> segment : segments) {
+      segment.clear();
+    }
+  }
+
+  public long size() {
+    long size = 0;
+    for (Segment<V> segment : segments) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  public long getWeight() {
+    long weight = 0;
+    for (Segment<V> segment : segments) {
+      weight += segment.getWeight();
+    }
+    return weight;
+  }
+
+  public long getMaxWeight() {
+    return maxWeight;
+  }
+
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  private Segment<V> segmentFor(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return segments[(int) (h ^ (h >>> 32)) & segmentMask];
+  }
+
+  private static class Entry<V> {
+    final V value;
+
+    final int weight;
+
+    public Entry(V value, int weight) {
+      this.value = value;
+      this.weight = weight;
+    }
+  }
+
+  /**
+   * Both areas are kept in insertion order, the eldest entry is the least
+   * recently used one.
+   */
+  private static class Segment<V> {
+    private final long maxWeight;
+
+    private final long maxProtectedWeight;
+
+    private LinkedHashMap<Long, Entry<V>> probation = new LinkedHashMap<Long, Entry<V>>();
+
+    private LinkedHashMap<Long, Entry<V>> protectedArea = new LinkedHashMap<Long, Entry<V>>();
+
+    private long probationWeight;
+
+    private long protectedWeight;
+
+    public Segment(long maxWeight) {
+      this.maxWeight = maxWeight;
+      maxProtectedWeight = (long) (maxWeight * PROTECTED_RATIO);
+    }
+
+    public synchronized V get(long key) {
+      Entry<V> entry = protectedArea.remove(key);
+      if (entry != null) {
+        protectedArea.put(key, entry);
+        return entry.value;
+      }
+      entry = probation.remove(key);
+      if (entry == null) {
+        return null;
+      }
+      probationWeight -= entry.weight;
+      protectedArea.put(key, entry);
+      protectedWeight += entry.weight;
+      // Demote the least recently used protected entries.
+      while (protectedWeight > maxProtectedWeight) {
+        Iterator<Map.Entry<Long, Entry<V>>> itr = protectedArea.entrySet().iterator();
+        Map.Entry<Long, Entry<V>> eldest = itr.next();
+        itr.remove();
+        protectedWeight -= eldest.getValue().weight;
+        probation.put(eldest.getKey(), eldest.getValue());
+        probationWeight += eldest.getValue().weight;
+      }
+      return entry.value;
+    }
+
+    /**
+     * @return Number of evicted entries.
+     */
+    public synchronized int put(long key, V value, int weight) {
+      remove(key);
+      if (weight > maxWeight) {
+        return 0;
+      }
+      probation.put(key, new Entry<V>(value, weight));
+      probationWeight += weight;
+      int evicted = 0;
+      while (probationWeight + protectedWeight > maxWeight) {
+        if (!probation.isEmpty()) {
+          probationWeight -= removeEldest(probation);
+        } else {
+          protectedWeight -= removeEldest(protectedArea);
+        }
+        ++evicted;
+      }
+      return evicted;
+    }
+
+    private void remove(long key) {
+      Entry<V> entry = probation.remove(key);
+      if (entry != null) {
+        probationWeight -= entry.weight;
+      }
+      entry = protectedArea.remove(key);
+      if (entry != null) {
+        protectedWeight -= entry.weight;
+      }
+    }
+
+    private int removeEldest(LinkedHashMap<Long, Entry<V>> area) {
+      Iterator<Entry<V>> itr = area.values().iterator();
+      int weight = itr.next().weight;
+      itr.remove();
+      return weight;
+    }
+
+    public synchronized void clear() {
+      probation.clear();
+      protectedArea.clear();
+      probationWeight = 0;
+      protectedWeight = 0;
+    }
+
+    public synchronized int size() {
+      return probation.size() + protectedArea.size();
+    }
+
+    public synchronized long getWeight() {
+      return probationWeight + protectedWeight;
+    }
+  }
+}
@@ -1,31 +1,34 @@
 package mpi.aida.util;
 
-import gnu.trove.iterator.TObjectIntIterator;
-import gnu.trove.map.hash.TObjectIntHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
 
+import mpi.aida.util.timing.MetricsRegistry;
 
+/**
+ * Global event counters, kept as striped counters in the MetricsRegistry so
+ * that concurrent increments do not contend on a lock.
+ */
 public class Counter {
-  private static TObjectIntHashMap<String> counts = 
-      new TObjectIntHashMap<String>();
   
   public static void incrementCount(String counterName) {
-    synchronized (counts) {
-      counts.adjustOrPutValue(counterName, 1, 1);      
-    }
+    MetricsRegistry.singleton().increment(counterName, 1);
   }
   
   public static void incrementCountByValue(String counterName, int value) {
-    synchronized (counts) {     
-      counts.adjustOrPutValue(counterName, value, value);
-    }
+    MetricsRegistry.singleton().increment(counterName, value);
+  }
+
+  public static long getCount(String counterName) {
+    return MetricsRegistry.singleton().getCount(counterName);
   }
   
   public static String getOverview() {
     StringBuilder sb = new StringBuilder();
     sb.append("COUNTER_NAME\tCOUNTER_VALUE\n");
-    for (TObjectIntIterator<String> itr = counts.iterator(); itr.hasNext(); ) {
-      itr.advance();
-      sb.append(itr.key()).append("\t").append(itr.value()).append("\n");
+    Map<String, Long> counts = MetricsRegistry.singleton().getCounterSnapshot();
+    for (Entry<String, Long> e : counts.entrySet()) {
+      sb.append(e.getKey()).append("\t").append(e.getValue()).append("\n");
     }
     return sb.toString();
   }
@@ -0,0 +1,189 @@
+package mpi.aida.util;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap over int ids in [0, capacity) with double keys.
+ * Keeps the heap position of every id, so contains/remove/updateKey run
+ * in O(1)/O(log n) without allocating. Ties are broken by the smaller id
+ * to keep the order deterministic.
+ */
+public class IndexedMinHeap {
+
+  /** Heap slot -> id. */
+  private int[] heap;
+
+  /** Id -> heap slot, -1 if the id is not in the heap. */
+  private int[] positions;
+
+  /** Id -> key. Only valid for ids in the heap. */
+  private double[] keys;
+
+  private int size;
+
+  public IndexedMinHeap(int capacity) {
+    heap = new int[capacity];
+    positions = new int[capacity];
+    Arrays.fill(positions, -1);
+    keys = new double[capacity];
+    size = 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public boolean contains(int id) {
+    return positions[id] != -1;
+  }
+
+  /**
+   * @return The key of id. Only valid if the id is contained in the heap.
+   */
+  public double getKey(int id) {
+    return keys[id];
+  }
+
+  /**
+   * Adds id with the given key. If the id is already contained, its key
+   * is updated.
+   */
+  public void add(int id, double key) {
+    if (contains(id)) {
+      updateKey(id, key);
+      return;
+    }
+    keys[id] = key;
+    heap[size] = id;
+    positions[id] = size;
+    siftUp(size);
+    ++size;
+  }
+
+  /**
+   * Changes the key of a contained id, moving it up or down as needed.
+   */
+  public void updateKey(int id, double key) {
+    int pos = positions[id];
+    if (pos == -1) {
+      throw new IllegalArgumentException("Id " + id + " is not in the heap.");
+    }
+    double old = keys[id];
+    keys[id] = key;
+    if (key < old) {
+      siftUp(pos);
+    } else if (key > old) {
+      siftDown(pos);
+    }
+  }
+
+  /**
+   * @return Id with the smallest key, -1 if the heap is empty.
+   */
+  public int peek() {
+    return size == 0 ? -1 : heap[0];
+  }
+
+  /**
+   * @return Smallest key, Double.POSITIVE_INFINITY if the heap is empty.
+   */
+  public double peekKey() {
+    return size == 0 ? Double.POSITIVE_INFINITY : keys[heap[0]];
+  }
+
+  /**
+   * Removes and returns the id with the smallest key, -1 if the heap is empty.
+   */
+  public int poll() {
+    if (size == 0) {
+      return -1;
+    }
+    int id = heap[0];
+    remove(id);
+    return id;
+  }
+
+  /**
+   * Removes id from the heap.
+   *
+   * @return true if the id was contained.
+   */
+  public boolean remove(int id) {
+    int pos = positions[id];
+    if (pos == -1) {
+      return false;
+    }
+    --size;
+    positions[id] = -1;
+    if (pos != size) {
+      int last = heap[size];
+      heap[pos] = last;
+      positions[last] = pos;
+      siftUp(pos);
+      siftDown(positions[last]);
+    }
+    return true;
+  }
+
+  /**
+   * @return All ids currently in the heap, in heap (not sorted) order.
+   */
+  public int[] ids() {
+    return Arrays.copyOf(heap, size);
+  }
+
+  public void clear() {
+    for (int i = 0; i < size; ++i) {
+      positions[heap[i]] = -1;
+    }
+    size = 0;
+  }
+
+  private boolean less(int a, int b) {
+    double ka = keys[a];
+    double kb = keys[b];
+    return ka < kb || (ka == kb && a < b);
+  }
+
+  private void siftUp(int pos) {
+    int id = heap[pos];
+    while (pos > 0) {
+      int parentPos = (pos - 1) >>> 1;
+      int parent = heap[parentPos];
+      if (!less(id, parent)) {
+        break;
+      }
+      heap[pos] = parent;
+      positions[parent] = pos;
+      pos = parentPos;
+    }
+    heap[pos] = id;
+    positions[id] = pos;
+  }
+
+  private void siftDown(int pos) {
+    int id = heap[pos];
+    int half = size >>> 1;
+    while (pos < half) {
+      int childPos = 2 * pos + 1;
+      int child = heap[childPos];
+      int rightPos = childPos + 1;
+      if (rightPos < size && less(heap[rightPos], child)) {
+        childPos = rightPos;
+        child = heap[childPos];
+      }
+      if (!less(child, id)) {
+        break;
+      }
+      heap[pos] = child;
+      positions[child] = pos;
+      pos = childPos;
+    }
+    heap[pos] = id;
+    positions[id] = pos;
+  }
+}
@@ -5,8 +5,7 @@ import gnu.trove.map.hash.TIntIntHashMap;
 import gnu.trove.map.hash.TIntObjectHashMap;
 import mpi.aida.data.Mention;
 
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Arrays;
 
 public class InputTextInvertedIndex {
 	private static final int POSITIONS_LIST_INIT_SIZE = 4;
@@ -58,25 +57,46 @@ public class InputTextInvertedIndex {
 		return false;
 	}
 	
-	public List<Integer> getPositions(int word, Mention mention) {
+	/**
+	 * Positions of the word outside of the mention in the text without
+	 * stopwords, positions after the mention are shifted by the mention length.
+	 *
+	 * @return Positions sorted ascending.
+	 */
+	public int[] getPositions(int word, Mention mention) {
 		int mentionStart = mention.getStartToken();
 		int mentionEnd = mention.getEndToken();
 		int mentionLength = mentionEnd - mentionStart + 1;
 
-		List<Integer> positions = new LinkedList<>();
 		TIntArrayList positionsIncludingStopWords = indexIncludingStopWords.get(word);
 		TIntArrayList positionsWithoutStopWords = indexWithoutStopWords.get(word);
+		int count = 0;
+		for (int i = 0; i < positionsIncludingStopWords.size(); i++) {
+			int position = positionsIncludingStopWords.getQuick(i);
+			if (position < mentionStart || position > mentionEnd)
+				count++;
+		}
+		int[] positions = new int[count];
+		int next = 0;
+		boolean sorted = true;
 		//we need to subtract the mention length if the keyword is after the mention
 		for (int i = 0; i < positionsIncludingStopWords.size(); i++) {
 			//get the keyword position from the full index (including stopwords)
-			int position = positionsIncludingStopWords.get(i);
+			int position = positionsIncludingStopWords.getQuick(i);
 			//compare to know the position of the keyword relative to the mention
-			if(position < mentionStart) //before the mention, return the actual position from the stopwords free index
-				positions.add(positionsWithoutStopWords.get(i));
-			else if((position > mentionEnd)) //if after the mention, get the actual position and subtract mention length
-				positions.add(positionsWithoutStopWords.get(i) - mentionLength);
+			if (position < mentionStart) //before the mention, return the actual position from the stopwords free index
+				position = positionsWithoutStopWords.getQuick(i);
+			else if (position > mentionEnd) //if after the mention, get the actual position and subtract mention length
+				position = positionsWithoutStopWords.getQuick(i) - mentionLength;
+			else
+				continue;
+			if (next > 0 && position < positions[next - 1])
+				sorted = false;
+			positions[next++] = position;
 		}
-		
+		// mentions containing stopwords and added context can break the order
+		if (!sorted)
+			Arrays.sort(positions);
 		return positions;
 	}
 	
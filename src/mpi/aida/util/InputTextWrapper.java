@@ -3,7 +3,6 @@ package mpi.aida.util;
 import gnu.trove.impl.Constants;
 import gnu.trove.map.TIntIntMap;
 import gnu.trove.map.hash.TIntIntHashMap;
-import gnu.trove.map.hash.TObjectIntHashMap;
 import mpi.aida.access.DataAccess;
 import mpi.aida.data.Context;
 import mpi.aida.data.Mention;
@@ -35,12 +34,11 @@ public class InputTextWrapper {
       }
     }
 
-    TObjectIntHashMap<String> wordIds = DataAccess.getIdsForWords(unitStrings);
     units = new int[unitStrings.size()];
-    unitCounts = new TIntIntHashMap((int) (wordIds.size()/Constants.DEFAULT_LOAD_FACTOR), Constants.DEFAULT_LOAD_FACTOR);
+    unitCounts = new TIntIntHashMap((int) (unitStrings.size()/Constants.DEFAULT_LOAD_FACTOR), Constants.DEFAULT_LOAD_FACTOR);
     numOfUnits = 0;
     for (int i = 0; i < unitStrings.size(); i++) {
-      int unitId = wordIds.get(unitStrings.get(i));
+      int unitId = DataAccess.getIdForWord(unitStrings.get(i));
       if (unitId == 0)
         continue;
       int contractedUnitId = DataAccess.contractTerm(unitId);
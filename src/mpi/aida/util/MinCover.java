@@ -1,10 +1,15 @@
 package mpi.aida.util;
 
-import java.util.ArrayList;
-import java.util.List;
+import gnu.trove.list.array.TIntArrayList;
 
 public class MinCover {
 	public int length;
-	public List<Integer> startPositions =  new ArrayList<Integer>();
-	public List<Integer> endPositions =  new ArrayList<Integer>();
+	public TIntArrayList startPositions = new TIntArrayList();
+	public TIntArrayList endPositions = new TIntArrayList();
+
+	public void clear() {
+		length = -1;
+		startPositions.resetQuick();
+		endPositions.resetQuick();
+	}
 }
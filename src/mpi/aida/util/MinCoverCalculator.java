@@ -1,138 +1,172 @@
 package mpi.aida.util;
 
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
-import java.util.ListIterator;
+/**
+ * Calculates the shortest windows covering one position of every symbol.
+ * The sorted position arrays of the symbols are merged through a heap of
+ * symbols keyed by their next position, the heap and the currently covered
+ * positions are reused per thread.
+ */
+public class MinCoverCalculator {
 
-import org.apache.commons.collections.buffer.PriorityBuffer;
+	private static class Scratch {
+		int[] heap = new int[16];
+		int[] cursors = new int[16];
+		int[] covered = new int[16];
+	}
 
-public class MinCoverCalculator {
+	private static final ThreadLocal<Scratch> scratch = new ThreadLocal<Scratch>() {
+		@Override
+		protected Scratch initialValue() {
+			return new Scratch();
+		}
+	};
 
-	public MinCover calculateMinCover(List<List<Integer>> positions) {
+	public MinCover calculateMinCover(int[]... positions) {
 		MinCover minCover = new MinCover();
-		if (positions == null) {
-			minCover.length = -1;
-			return minCover;
+		calculateMinCover(positions, positions.length, minCover);
+		return minCover;
+	}
+
+	/**
+	 * Fills minCover with the cover of the first symbolsCount position arrays.
+	 * The length is -1 if there are no symbols or a symbol has no positions.
+	 *
+	 * @param positions Positions of each symbol, sorted ascending.
+	 * @param symbolsCount Number of symbols, the arrays after it are ignored.
+	 * @param minCover Result, cleared before being filled.
+	 */
+	public void calculateMinCover(int[][] positions, int symbolsCount, MinCover minCover) {
+		minCover.clear();
+		if (symbolsCount < 1) {
+			return;
 		}
-		if (positions.size() < 1) {
-			minCover.length = -1;
-			return minCover;
+		for (int i = 0; i < symbolsCount; i++) {
+			if (positions[i].length == 0) {
+				return;
+			}
 		}
-		if (positions.size() == 1) {
+		if (symbolsCount == 1) {
 			minCover.length = 1;
-			minCover.startPositions = positions.get(0);
-			minCover.endPositions = positions.get(0);
-			return minCover;
+			minCover.startPositions.add(positions[0]);
+			minCover.endPositions.add(positions[0]);
+			return;
 		}
 
-		PriorityBuffer occurrences = new PriorityBuffer(
-				new SymbolOccurrenceComparator());
-		int symbolsCount = positions.size();
-		for (int i = 0; i < symbolsCount; i++) {
-			ListIterator<Integer> symbolPositionsIterator = positions.get(i)
-					.listIterator();
-			while (symbolPositionsIterator.hasNext())
-				occurrences.add(new SymbolOccurrence(i, symbolPositionsIterator
-						.next()));
-
+		Scratch s = scratch.get();
+		if (s.heap.length < symbolsCount) {
+			s.heap = new int[symbolsCount];
+			s.cursors = new int[symbolsCount];
+			s.covered = new int[symbolsCount];
 		}
+		int[] heap = s.heap;
+		int[] cursors = s.cursors;
+		int[] coveredOccurrences = s.covered;
 
-		// prepare a list to hold the currently select occurrences
-		int coveredOccurrences[] = new int[symbolsCount];
+		int heapSize = symbolsCount;
 		for (int i = 0; i < symbolsCount; i++) {
+			cursors[i] = 0;
 			coveredOccurrences[i] = -1;
+			heap[i] = i;
+		}
+		for (int i = heapSize / 2 - 1; i >= 0; i--) {
+			siftDown(heap, heapSize, i, positions, cursors);
 		}
 
+		// keep taking occurrences as long as not all symbols are covered
 		int coveredSymbolsCount = 0;
-		SymbolOccurrence symbolOccurrence;
 		while (coveredSymbolsCount < symbolsCount) {
-			// keep taking symbols as long as not all symbols are covered
-			symbolOccurrence = (SymbolOccurrence) occurrences.remove();
-			if (coveredOccurrences[symbolOccurrence.id] == -1) {// new symbol
-																// got covered
+			int symbol = heap[0];
+			if (coveredOccurrences[symbol] == -1) {
 				coveredSymbolsCount++;
 			}
-			coveredOccurrences[symbolOccurrence.id] = symbolOccurrence.position;
+			coveredOccurrences[symbol] = positions[symbol][cursors[symbol]];
+			heapSize = advance(heap, heapSize, positions, cursors);
 		}
 
 		// hold the min and max selected occurrence to easily calculate the
 		// cover length
 		int minSelectOccurence = coveredOccurrences[0];
 		int maxSelectOccurence = coveredOccurrences[0];
-
 		for (int i = 1; i < symbolsCount; i++) {
-			minSelectOccurence = Math.min(minSelectOccurence,
-					coveredOccurrences[i]);
-			maxSelectOccurence = Math.max(maxSelectOccurence,
-					coveredOccurrences[i]);
+			minSelectOccurence = Math.min(minSelectOccurence, coveredOccurrences[i]);
+			maxSelectOccurence = Math.max(maxSelectOccurence, coveredOccurrences[i]);
 		}
 		int minCoverLength = maxSelectOccurence - minSelectOccurence + 1;
 		minCover.length = minCoverLength;
-		minCover.startPositions = new ArrayList<Integer>();
 		minCover.startPositions.add(minSelectOccurence);
-		minCover.endPositions = new ArrayList<Integer>();
 		minCover.endPositions.add(maxSelectOccurence);
 
-
-		int coverLength;
-		while (minCoverLength > symbolsCount && !occurrences.isEmpty()) {
-			symbolOccurrence = (SymbolOccurrence) occurrences.remove();
-			maxSelectOccurence = symbolOccurrence.position;
+		while (minCoverLength > symbolsCount && heapSize > 0) {
+			int symbol = heap[0];
+			int position = positions[symbol][cursors[symbol]];
+			heapSize = advance(heap, heapSize, positions, cursors);
+			maxSelectOccurence = position;
 			// if the new symbol was the minimum occurrence before, then min
 			// needs to be updated as well
-			if (coveredOccurrences[symbolOccurrence.id] == minSelectOccurence) {
-				coveredOccurrences[symbolOccurrence.id] = symbolOccurrence.position;
+			boolean wasMin = coveredOccurrences[symbol] == minSelectOccurence;
+			coveredOccurrences[symbol] = position;
+			if (wasMin) {
 				minSelectOccurence = coveredOccurrences[0];
 				for (int i = 1; i < symbolsCount; i++) {
-					minSelectOccurence = Math.min(minSelectOccurence,
-							coveredOccurrences[i]);
+					minSelectOccurence = Math.min(minSelectOccurence, coveredOccurrences[i]);
 				}
-			} else { // otherwise, just update the occurrences array
-				coveredOccurrences[symbolOccurrence.id] = symbolOccurrence.position;
 			}
-			coverLength = maxSelectOccurence - minSelectOccurence + 1;
+			int coverLength = maxSelectOccurence - minSelectOccurence + 1;
 			if (coverLength < minCoverLength) {
 				minCoverLength = coverLength;
 				minCover.length = coverLength;
-				minCover.startPositions = new ArrayList<Integer>();
+				minCover.startPositions.resetQuick();
 				minCover.startPositions.add(minSelectOccurence);
-				minCover.endPositions = new ArrayList<Integer>();
+				minCover.endPositions.resetQuick();
 				minCover.endPositions.add(maxSelectOccurence);
 			} else if (coverLength == minCoverLength) {
 				minCover.startPositions.add(minSelectOccurence);
 				minCover.endPositions.add(maxSelectOccurence);
 			}
 		}
-		return minCover;
 	}
 
-	private class SymbolOccurrence {
-		private int id;
-		private int position;
-
-		public SymbolOccurrence(int id, int index) {
-			super();
-			this.id = id;
-			this.position = index;
+	/**
+	 * Moves the symbol at the top of the heap to its next position, removing
+	 * it if it has none left.
+	 *
+	 * @return New heap size.
+	 */
+	private static int advance(int[] heap, int heapSize, int[][] positions, int[] cursors) {
+		int symbol = heap[0];
+		cursors[symbol]++;
+		if (cursors[symbol] == positions[symbol].length) {
+			heapSize--;
+			heap[0] = heap[heapSize];
 		}
-
+		if (heapSize > 0) {
+			siftDown(heap, heapSize, 0, positions, cursors);
+		}
+		return heapSize;
 	}
 
-	private class SymbolOccurrenceComparator implements
-			Comparator<SymbolOccurrence> {
-
-		@Override
-		public int compare(SymbolOccurrence o1, SymbolOccurrence o2) {
-			if (o1.position < o2.position)
-				return -1;
-			else if (o1.position == o2.position)
-				return 0;
-			else if (o1.position > o2.position)
-				return 1;
-			return 0;
+	private static void siftDown(int[] heap, int heapSize, int index, int[][] positions, int[] cursors) {
+		int symbol = heap[index];
+		int key = positions[symbol][cursors[symbol]];
+		while (true) {
+			int child = 2 * index + 1;
+			if (child >= heapSize) {
+				break;
+			}
+			int childKey = positions[heap[child]][cursors[heap[child]]];
+			if (child + 1 < heapSize) {
+				int rightKey = positions[heap[child + 1]][cursors[heap[child + 1]]];
+				if (rightKey < childKey) {
+					child++;
+					childKey = rightKey;
+				}
+			}
+			if (key <= childKey) {
+				break;
+			}
+			heap[index] = heap[child];
+			index = child;
 		}
-
+		heap[index] = symbol;
 	}
-
 }
@@ -0,0 +1,162 @@
+package mpi.aida.util;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Kernels for int arrays that are sorted ascending and duplicate-free.
+ * None of the methods allocate, except for sortedUnique(). The IntBuffer
+ * variants read the buffers from index 0 to their limit, so they work on
+ * memory-mapped data without copying it.
+ */
+public class SortedIntArrays {
+
+  /**
+   * Switch from a linear merge to galloping (exponential search) when one
+   * array is this many times larger than the other.
+   */
+  private static final int GALLOP_RATIO = 16;
+
+  /**
+   * @return Sorted copy of values without duplicates. null is treated as
+   * empty array.
+   */
+  public static int[] sortedUnique(int[] values) {
+    if (values == null || values.length == 0) {
+      return new int[0];
+    }
+    int[] sorted = Arrays.copyOf(values, values.length);
+    Arrays.sort(sorted);
+    int size = 1;
+    for (int i = 1; i < sorted.length; ++i) {
+      if (sorted[i] != sorted[size - 1]) {
+        sorted[size++] = sorted[i];
+      }
+    }
+    return size == sorted.length ? sorted : Arrays.copyOf(sorted, size);
+  }
+
+  /**
+   * Writes the intersection of a and b to out, which must be able to hold
+   * min(a.length, b.length) elements. null is treated as empty array.
+   *
+   * @return Number of elements written to out.
+   */
+  public static int intersect(int[] a, int[] b, int[] out) {
+    if (a == null || b == null || a.length == 0 || b.length == 0) {
+      return 0;
+    }
+    if (a.length > b.length) {
+      int[] tmp = a;
+      a = b;
+      b = tmp;
+    }
+    if (b.length / a.length >= GALLOP_RATIO) {
+      return gallopingIntersect(a, b, out);
+    }
+    int count = 0;
+    int i = 0, j = 0;
+    while (i < a.length && j < b.length) {
+      if (a[i] == b[j]) {
+        out[count++] = a[i];
+        ++i;
+        ++j;
+      } else if (a[i] < b[j]) {
+        ++i;
+      } else {
+        ++j;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Looks up every element of the small array in the large one, searching
+   * exponentially from the last match.
+   */
+  private static int gallopingIntersect(int[] small, int[] large, int[] out) {
+    int count = 0;
+    int lo = 0;
+    for (int value : small) {
+      int bound = 1;
+      while (lo + bound < large.length && large[lo + bound] < value) {
+        bound <<= 1;
+      }
+      int hi = Math.min(lo + bound + 1, large.length);
+      int pos = Arrays.binarySearch(large, lo, hi, value);
+      if (pos >= 0) {
+        out[count++] = value;
+        lo = pos + 1;
+      } else {
+        lo = -pos - 1;
+      }
+      if (lo >= large.length) {
+        break;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * @return Size of the intersection of a and b, which are read from index 0
+   * to their limit. null is treated as empty buffer.
+   */
+  public static int intersectionCount(IntBuffer a, IntBuffer b) {
+    if (a == null || b == null || a.limit() == 0 || b.limit() == 0) {
+      return 0;
+    }
+    if (a.limit() > b.limit()) {
+      IntBuffer tmp = a;
+      a = b;
+      b = tmp;
+    }
+    int aLength = a.limit();
+    int bLength = b.limit();
+    if (bLength / aLength >= GALLOP_RATIO) {
+      return gallopingIntersectionCount(a, b);
+    }
+    // Branch-free merge, the comparisons compile to conditional moves, which
+    // avoids the mispredictions of the three-way branch on random inlinks.
+    int count = 0;
+    int i = 0, j = 0;
+    while (i < aLength && j < bLength) {
+      int x = a.get(i);
+      int y = b.get(j);
+      count += x == y ? 1 : 0;
+      i += x <= y ? 1 : 0;
+      j += y <= x ? 1 : 0;
+    }
+    return count;
+  }
+
+  private static int gallopingIntersectionCount(IntBuffer small, IntBuffer large) {
+    int count = 0;
+    int lo = 0;
+    int largeLength = large.limit();
+    for (int s = 0; s < small.limit(); ++s) {
+      int value = small.get(s);
+      int bound = 1;
+      while (lo + bound < largeLength && large.get(lo + bound) < value) {
+        bound <<= 1;
+      }
+      // Binary search in [lo, hi) for the first element >= value.
+      int hi = Math.min(lo + bound + 1, largeLength);
+      while (lo < hi) {
+        int mid = (lo + hi) >>> 1;
+        if (large.get(mid) < value) {
+          lo = mid + 1;
+        } else {
+          hi = mid;
+        }
+      }
+      if (lo >= largeLength) {
+        break;
+      }
+      if (large.get(lo) == value) {
+        ++count;
+        ++lo;
+      }
+    }
+    return count;
+  }
+}
@@ -43,4 +43,25 @@ public class StringUtils {
     }
     return ngrams;
   }
+
+  /**
+   * Hash codes of all ngrams in the string, as returned by getNgrams(), 
+   * without creating the ngram strings.
+   *
+   * @param s String to extract ngrams from.
+   * @param length  Length of the ngrams.
+   * @return  Sorted, duplicate-free String.hashCode() of each ngram.
+   */
+  public static int[] getNgramHashes(String s, int length) {
+    char boundary = BOUNDARY_CHAR.charAt(0);
+    int[] hashes = new int[s.length() + length - 1];
+    for (int i = -length + 1; i < s.length(); ++i) {
+      int hash = 0;
+      for (int j = i; j < i + length; ++j) {
+        hash = 31 * hash + ((j < 0 || j >= s.length()) ? boundary : s.charAt(j));
+      }
+      hashes[i + length - 1] = hash;
+    }
+    return SortedIntArrays.sortedUnique(hashes);
+  }
 }
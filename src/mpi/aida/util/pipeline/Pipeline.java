@@ -0,0 +1,269 @@
+package mpi.aida.util.pipeline;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Passes items through a sequence of stages, each with its own number of
+ * worker threads. Consecutive stages are connected by bounded queues, so a
+ * slow stage blocks the stages before it instead of letting the input pile
+ * up in memory. The items are read from the source in the calling thread,
+ * which forms the 'read' stage.
+ *
+ * Items failing in a stage are logged and dropped, the other items are not
+ * affected. The order of the items is not preserved if a stage has more
+ * than one worker.
+ */
+public class Pipeline<T> {
+  private static final Logger logger = LoggerFactory.getLogger(Pipeline.class);
+
+  public static final String READ_STAGE = "read";
+
+  /** Tells the workers of a stage that no more items follow. */
+  private static final Object END = new Object();
+
+  private final String name_;
+
+  private final int queueCapacity_;
+
+  private final List<Stage> stages_ = new ArrayList<Stage>();
+
+  private final AtomicLong readCount_ = new AtomicLong();
+
+  private final AtomicLong readNanos_ = new AtomicLong();
+
+  private long startTime_;
+
+  private long reportIntervalMillis_ = 60000;
+
+  /**
+   * @param name  Prefix of the worker thread names.
+   * @param queueCapacity Maximum number of items waiting for each stage.
+   */
+  public Pipeline(String name, int queueCapacity) {
+    name_ = name;
+    queueCapacity_ = queueCapacity;
+  }
+
+  /**
+   * Appends a stage processing the items passed on by the previous stage.
+   */
+  public void addStage(String name, int workerCount, StageProcessor<T> processor) {
+    if (workerCount < 1) {
+      throw new IllegalArgumentException("Stage '" + name + "' needs at least one worker.");
+    }
+    stages_.add(new Stage(name, workerCount, processor));
+  }
+
+  /**
+   * @param reportIntervalMillis Gap between progress reports in the log,
+   * 0 to disable them.
+   */
+  public void setReportInterval(long reportIntervalMillis) {
+    reportIntervalMillis_ = reportIntervalMillis;
+  }
+
+  /**
+   * Runs all items of the source through the stages, returning when the
+   * last stage is done.
+   */
+  public void run(Iterator<T> source) throws InterruptedException {
+    startTime_ = System.currentTimeMillis();
+    int threadCount = 0;
+    for (Stage stage : stages_) {
+      threadCount += stage.workerCount_;
+    }
+    CountDownLatch done = new CountDownLatch(threadCount);
+    for (int s = 0; s < stages_.size(); ++s) {
+      Stage stage = stages_.get(s);
+      Stage next = (s + 1 < stages_.size()) ? stages_.get(s + 1) : null;
+      for (int w = 1; w <= stage.workerCount_; ++w) {
+        Thread thread = new Thread(new Worker(stage, next, done),
+            name_ + "-" + stage.name_ + "-" + w);
+        thread.setDaemon(true);
+        thread.start();
+      }
+    }
+
+    long lastReport = startTime_;
+    if (!stages_.isEmpty()) {
+      BlockingQueue<Object> first = stages_.get(0).queue_;
+      try {
+        while (true) {
+          long readStart = System.nanoTime();
+          if (!source.hasNext()) {
+            break;
+          }
+          T item = source.next();
+          readNanos_.addAndGet(System.nanoTime() - readStart);
+          readCount_.incrementAndGet();
+          first.put(item);
+          if (reportIntervalMillis_ > 0
+              && System.currentTimeMillis() - lastReport >= reportIntervalMillis_) {
+            logger.info(getOverview());
+            lastReport = System.currentTimeMillis();
+          }
+        }
+      } finally {
+        first.put(END);
+      }
+    }
+    long waitMillis = reportIntervalMillis_ > 0 ? reportIntervalMillis_ : Long.MAX_VALUE;
+    while (!done.await(waitMillis, TimeUnit.MILLISECONDS)) {
+      logger.info(getOverview());
+    }
+  }
+
+  /**
+   * @return Per stage: items processed and failed, items processed per
+   * second, busy time in ms summed over all workers, items waiting in the
+   * input queue (including the end marker once the input is done) and the
+   * number of workers.
+   */
+  public Map<String, Long> getStatistics() {
+    Map<String, Long> stats = new LinkedHashMap<String, Long>();
+    long elapsed = Math.max(1, System.currentTimeMillis() - startTime_);
+    long read = readCount_.get();
+    stats.put(READ_STAGE + ".processed", read);
+    stats.put(READ_STAGE + ".failed", 0L);
+    stats.put(READ_STAGE + ".perSecond", read * 1000 / elapsed);
+    stats.put(READ_STAGE + ".busyMs", TimeUnit.NANOSECONDS.toMillis(readNanos_.get()));
+    stats.put(READ_STAGE + ".queued", 0L);
+    stats.put(READ_STAGE + ".workers", 1L);
+    for (Stage stage : stages_) {
+      long processed = stage.processed_.get();
+      stats.put(stage.name_ + ".processed", processed);
+      stats.put(stage.name_ + ".failed", stage.failed_.get());
+      stats.put(stage.name_ + ".perSecond", processed * 1000 / elapsed);
+      stats.put(stage.name_ + ".busyMs", TimeUnit.NANOSECONDS.toMillis(stage.busyNanos_.get()));
+      stats.put(stage.name_ + ".queued", (long) stage.queue_.size());
+      stats.put(stage.name_ + ".workers", (long) stage.workerCount_);
+    }
+    return stats;
+  }
+
+  /**
+   * @return One line per stage with its statistics.
+   */
+  public String getOverview() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("Pipeline '").append(name_).append("' after ")
+      .append((System.currentTimeMillis() - startTime_) / 1000).append("s:");
+    String currentStage = null;
+    for (Entry<String, Long> e : getStatistics().entrySet()) {
+      int dot = e.getKey().indexOf('.');
+      String stage = e.getKey().substring(0, dot);
+      if (!stage.equals(currentStage)) {
+        sb.append("\n  ").append(stage);
+        currentStage = stage;
+      }
+      sb.append(" ").append(e.getKey().substring(dot + 1)).append("=").append(e.getValue());
+    }
+    return sb.toString();
+  }
+
+  private class Stage {
+    private final String name_;
+    private final int workerCount_;
+    private final StageProcessor<T> processor_;
+    private final BlockingQueue<Object> queue_;
+    private final AtomicInteger activeWorkers_;
+    private final AtomicLong processed_ = new AtomicLong();
+    private final AtomicLong failed_ = new AtomicLong();
+    private final AtomicLong busyNanos_ = new AtomicLong();
+
+    public Stage(String name, int workerCount, StageProcessor<T> processor) {
+      name_ = name;
+      workerCount_ = workerCount;
+      processor_ = processor;
+      queue_ = new ArrayBlockingQueue<Object>(queueCapacity_);
+      activeWorkers_ = new AtomicInteger(workerCount);
+    }
+  }
+
+  private class Worker implements Runnable {
+    private final Stage stage_;
+    private final Stage next_;
+    private final CountDownLatch done_;
+
+    public Worker(Stage stage, Stage next, CountDownLatch done) {
+      stage_ = stage;
+      next_ = next;
+      done_ = done;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void run() {
+      try {
+        while (true) {
+          Object item = stage_.queue_.take();
+          if (item == END) {
+            // Leave the marker for the other workers of the stage.
+            stage_.queue_.put(END);
+            break;
+          }
+          long start = System.nanoTime();
+          boolean passOn = false;
+          try {
+            passOn = stage_.processor_.process((T) item);
+            stage_.processed_.incrementAndGet();
+          } catch (Throwable e) {
+            // Also errors, e.g. a StackOverflowError on one document must not
+            // stop the worker.
+            stage_.failed_.incrementAndGet();
+            logger.error("Stage '" + stage_.name_ + "' failed on " + item + ": "
+                + e.getLocalizedMessage(), e);
+          }
+          stage_.busyNanos_.addAndGet(System.nanoTime() - start);
+          if (passOn && next_ != null) {
+            next_.queue_.put(item);
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        try {
+          // The last worker of a stage ends the next stage, however the
+          // workers ended, so that run() always returns.
+          if (stage_.activeWorkers_.decrementAndGet() == 0 && next_ != null) {
+            putEnd(next_);
+          }
+        } finally {
+          done_.countDown();
+        }
+      }
+    }
+
+    /**
+     * Puts the end marker even if the thread is interrupted.
+     */
+    private void putEnd(Stage stage) {
+      boolean interrupted = Thread.interrupted();
+      while (true) {
+        try {
+          stage.queue_.put(END);
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
@@ -0,0 +1,14 @@
+package mpi.aida.util.pipeline;
+
+/**
+ * Work done by one stage of a {@link Pipeline} on a single item. It is
+ * called concurrently by all workers of the stage.
+ */
+public interface StageProcessor<T> {
+
+  /**
+   * @return false to drop the item, true to pass it on to the next stage.
+   * @throws Exception Drops the item, it is counted as failed.
+   */
+  boolean process(T item) throws Exception;
+}
@@ -0,0 +1,108 @@
+package mpi.aida.util.splitter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Streaming version of {@link DelimBasedTextSplitter}: returns the documents
+ * of a reader one by one, holding only the current document in memory.
+ * Lines are joined with '\n', the documents are the same as the ones of
+ * DelimBasedTextSplitter.split() on the content read line by line.
+ * The reader is closed when the last document was returned.
+ */
+public class DelimBasedTextIterator implements Iterator<String> {
+  private Logger logger = LoggerFactory.getLogger(DelimBasedTextIterator.class);
+
+  private final BufferedReader reader_;
+  private final String delim_;
+
+  /** Starts with the delimiter once the first one was found. */
+  private final StringBuilder buffer_ = new StringBuilder();
+  private boolean inDocument_ = false;
+  /** Offset in buffer_ up to which no delimiter has been found. */
+  private int searchFrom_ = 0;
+  private boolean eof_ = false;
+  private String next_;
+
+  public DelimBasedTextIterator(BufferedReader reader, String delim) {
+    reader_ = reader;
+    delim_ = delim;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (next_ == null) {
+      next_ = readDocument();
+    }
+    return next_ != null;
+  }
+
+  @Override
+  public String next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    String document = next_;
+    next_ = null;
+    return document;
+  }
+
+  private String readDocument() {
+    while (true) {
+      if (!inDocument_) {
+        int start = buffer_.indexOf(delim_, searchFrom_);
+        if (start >= 0) {
+          // Text before the first delimiter is no document.
+          buffer_.delete(0, start);
+          inDocument_ = true;
+          searchFrom_ = 1;
+          continue;
+        }
+      } else {
+        int end = buffer_.indexOf(delim_, Math.max(1, searchFrom_));
+        if (end >= 0) {
+          String document = buffer_.substring(0, end);
+          buffer_.delete(0, end);
+          searchFrom_ = 1;
+          return document;
+        }
+      }
+      if (eof_) {
+        if (inDocument_ && buffer_.length() > 0) {
+          String document = buffer_.toString();
+          buffer_.setLength(0);
+          return document;
+        }
+        return null;
+      }
+      // A delimiter may start in the last characters already searched.
+      searchFrom_ = Math.max(0, buffer_.length() - delim_.length() + 1);
+      readLine();
+    }
+  }
+
+  private void readLine() {
+    try {
+      String line = reader_.readLine();
+      if (line == null) {
+        eof_ = true;
+        reader_.close();
+      } else {
+        buffer_.append(line).append('\n');
+      }
+    } catch (IOException e) {
+      logger.error("Could not read documents: " + e.getLocalizedMessage());
+      eof_ = true;
+    }
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+}
@@ -0,0 +1,147 @@
+package mpi.aida.util.timing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size, lock-free histogram of latencies in nanoseconds. Buckets are
+ * log-linear: each power of two is split into SUB_BUCKETS equally wide
+ * buckets, so a percentile is accurate to within 1/SUB_BUCKETS of its value
+ * regardless of the magnitude, in a constant amount of memory.
+ */
+public class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 4;
+
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  /** Values below SUB_BUCKETS have their own bucket, then one range per exponent. */
+  private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+  private final AtomicLongArray buckets_ = new AtomicLongArray(BUCKET_COUNT);
+
+  private final LongAdder count_ = new LongAdder();
+
+  private final LongAdder sum_ = new LongAdder();
+
+  private final LongAccumulator max_ = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Records a latency, negative values are counted as 0.
+   */
+  public void record(long nanos) {
+    long value = Math.max(0, nanos);
+    buckets_.incrementAndGet(getBucket(value));
+    count_.increment();
+    sum_.add(value);
+    max_.accumulate(value);
+  }
+
+  static int getBucket(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  /**
+   * @return Largest value falling into the bucket.
+   */
+  static long getBucketUpperBound(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    long subBucket = bucket % SUB_BUCKETS;
+    long lowerBound = (1L << exponent) + (subBucket << (exponent - SUB_BUCKET_BITS));
+    return lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+  }
+
+  public long getCount() {
+    return count_.sum();
+  }
+
+  public long getMax() {
+    return max_.get();
+  }
+
+  /**
+   * @return Mean latency in nanoseconds, 0 if nothing was recorded.
+   */
+  public double getMean() {
+    long count = count_.sum();
+    return count == 0 ? 0.0 : (double) sum_.sum() / count;
+  }
+
+  /**
+   * @param percentile In (0, 100].
+   * @return Upper bound of the bucket holding the percentile, capped by the
+   * maximum, 0 if nothing was recorded.
+   */
+  public long getPercentile(double percentile) {
+    long[] counts = new long[BUCKET_COUNT];
+    long total = 0;
+    for (int i = 0; i < BUCKET_COUNT; ++i) {
+      counts[i] = buckets_.get(i);
+      total += counts[i];
+    }
+    return getPercentile(counts, total, percentile);
+  }
+
+  private long getPercentile(long[] counts, long total, double percentile) {
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+    long seen = 0;
+    for (int i = 0; i < counts.length; ++i) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(getBucketUpperBound(i), getMax());
+      }
+    }
+    return getMax();
+  }
+
+  /**
+   * Reads the values without blocking the writers, so values recorded
+   * concurrently may be partially contained.
+   *
+   * @return count, total, mean, p50, p95, p99 and max, the latencies in
+   * microseconds.
+   */
+  public Map<String, Long> getSnapshot() {
+    long[] counts = new long[BUCKET_COUNT];
+    long total = 0;
+    for (int i = 0; i < BUCKET_COUNT; ++i) {
+      counts[i] = buckets_.get(i);
+      total += counts[i];
+    }
+    Map<String, Long> snapshot = new LinkedHashMap<String, Long>();
+    snapshot.put("count", total);
+    snapshot.put("totalMicros", sum_.sum() / 1000);
+    snapshot.put("meanMicros", total == 0 ? 0 : sum_.sum() / total / 1000);
+    snapshot.put("p50Micros", getPercentile(counts, total, 50) / 1000);
+    snapshot.put("p95Micros", getPercentile(counts, total, 95) / 1000);
+    snapshot.put("p99Micros", getPercentile(counts, total, 99) / 1000);
+    snapshot.put("maxMicros", getMax() / 1000);
+    return snapshot;
+  }
+
+  /**
+   * Resets all values. Values recorded concurrently may be partially kept.
+   */
+  public void reset() {
+    for (int i = 0; i < BUCKET_COUNT; ++i) {
+      buckets_.set(i, 0);
+    }
+    count_.reset();
+    sum_.reset();
+    max_.reset();
+  }
+}
@@ -0,0 +1,107 @@
+package mpi.aida.util.timing;
+
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide counters and module latencies. Counters are striped
+ * LongAdders and latencies are fixed-size {@link LatencyHistogram}s, so
+ * recording never locks and the memory does not grow with the number of
+ * calls, only with the number of distinct names.
+ *
+ * Fed by {@link RunningTimer} and {@link mpi.aida.util.Counter}.
+ */
+public class MetricsRegistry {
+
+  private final ConcurrentMap<String, LongAdder> counters_ =
+      new ConcurrentHashMap<String, LongAdder>();
+
+  private final ConcurrentMap<String, LatencyHistogram> latencies_ =
+      new ConcurrentHashMap<String, LatencyHistogram>();
+
+  private static class MetricsRegistryHolder {
+
+    public static MetricsRegistry registry = new MetricsRegistry();
+  }
+
+  public static MetricsRegistry singleton() {
+    return MetricsRegistryHolder.registry;
+  }
+
+  MetricsRegistry() {
+  }
+
+  public void increment(String counter, long value) {
+    LongAdder adder = counters_.get(counter);
+    if (adder == null) {
+      adder = counters_.computeIfAbsent(counter, k -> new LongAdder());
+    }
+    adder.add(value);
+  }
+
+  /**
+   * @return Current value of the counter, 0 if it was never incremented.
+   */
+  public long getCount(String counter) {
+    LongAdder adder = counters_.get(counter);
+    return adder == null ? 0 : adder.sum();
+  }
+
+  public void recordLatency(String module, long nanos) {
+    getLatencies(module).record(nanos);
+  }
+
+  /**
+   * @return Histogram of the module, created on first use.
+   */
+  public LatencyHistogram getLatencies(String module) {
+    LatencyHistogram histogram = latencies_.get(module);
+    if (histogram == null) {
+      histogram = latencies_.computeIfAbsent(module, k -> new LatencyHistogram());
+    }
+    return histogram;
+  }
+
+  /**
+   * @return Counter name to value, sorted by name.
+   */
+  public Map<String, Long> getCounterSnapshot() {
+    Map<String, Long> snapshot = new TreeMap<String, Long>();
+    for (Entry<String, LongAdder> e : counters_.entrySet()) {
+      snapshot.put(e.getKey(), e.getValue().sum());
+    }
+    return snapshot;
+  }
+
+  /**
+   * @return Module to its latency snapshot (see
+   * {@link LatencyHistogram#getSnapshot()}), sorted by module.
+   */
+  public Map<String, Map<String, Long>> getLatencySnapshot() {
+    Map<String, Map<String, Long>> snapshot = new TreeMap<String, Map<String, Long>>();
+    for (Entry<String, LatencyHistogram> e : latencies_.entrySet()) {
+      snapshot.put(e.getKey(), e.getValue().getSnapshot());
+    }
+    return snapshot;
+  }
+
+  /**
+   * Resets all counters and latencies, names stay registered.
+   */
+  public void reset() {
+    for (LongAdder adder : counters_.values()) {
+      adder.reset();
+    }
+    resetLatencies();
+  }
+
+  public void resetLatencies() {
+    for (LatencyHistogram histogram : latencies_.values()) {
+      histogram.reset();
+    }
+  }
+}
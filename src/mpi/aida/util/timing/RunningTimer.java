@@ -3,14 +3,15 @@ package mpi.aida.util.timing;
 import mpi.aida.util.timing.document.DocumentTimeTracker;
 import mpi.aida.util.timing.formatter.HierarchicalTimingInfoFormatter;
 import mpi.aida.util.timing.formatter.TimingInfoFormatter;
+import mpi.aida.util.timing.tracker.MetricsRunningTimeTracker;
 import mpi.aida.util.timing.tracker.NoopRunningTimeTracker;
-import mpi.aida.util.timing.tracker.RealRunningTimeTracker;
 import mpi.aida.util.timing.tracker.RunningTimeTracker;
 
 /**
- * Captures the running time of modules and their stages. The timing is not
- * perfectly accurate due to synchronization, however the contention should
- * be very low. Don't use this class to do high-frequency profiling, this 
+ * Captures the running time of modules and their stages. By default, the
+ * calls are recorded into the lock-free latency histograms of the
+ * {@link MetricsRegistry}, which is cheap enough to stay enabled in
+ * production. Don't use this class to do high-frequency profiling, this 
  * is useful for high-level performance measuring. 
  * 
  * A module is usually a class and a stage is usually one logical
@@ -20,7 +21,7 @@ import mpi.aida.util.timing.tracker.RunningTimeTracker;
  */
 public class RunningTimer {
   
-  private static RunningTimeTracker tracker_ = new NoopRunningTimeTracker();
+  private static volatile RunningTimeTracker tracker_ = new MetricsRunningTimeTracker();
 
   private static DocumentTimeTracker docTracker_ = new DocumentTimeTracker();
   
@@ -63,7 +64,19 @@ public class RunningTimer {
     return tracker_.recordEndTime(moduleId, uniqueId);
   }
 
+  /**
+   * Records the running times into the MetricsRegistry, the default.
+   */
   public static void enableRealTimeTracker() {
-    tracker_ = new RealRunningTimeTracker();
-  }    
+    if (!(tracker_ instanceof MetricsRunningTimeTracker)) {
+      tracker_ = new MetricsRunningTimeTracker();
+    }
+  }
+
+  /**
+   * Stops recording running times.
+   */
+  public static void disableTracker() {
+    tracker_ = new NoopRunningTimeTracker();
+  }
 }
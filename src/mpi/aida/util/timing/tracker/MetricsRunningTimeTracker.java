@@ -0,0 +1,152 @@
+package mpi.aida.util.timing.tracker;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import mpi.aida.util.timing.LatencyHistogram;
+import mpi.aida.util.timing.MetricsRegistry;
+import mpi.aida.util.timing.data.Module;
+import mpi.aida.util.timing.data.TimingInfo;
+
+/**
+ * Records the running time of each module call into the latency histograms
+ * of the {@link MetricsRegistry}. Only calls in flight are kept, finished
+ * calls just update the histogram, so neither locking nor memory grows with
+ * the number of calls.
+ *
+ * A call that is started but never ended, e.g. because of an exception, is
+ * dropped when a call enclosing it on the same thread ends. Calls without an
+ * enclosing call are dropped once they are older than the maximum call time.
+ */
+public class MetricsRunningTimeTracker extends RunningTimeTracker {
+
+  /** Number of starts between two sweeps for calls that never ended. */
+  private static final int EXPIRY_INTERVAL = 4096;
+
+  private final MetricsRegistry registry_;
+
+  private final long maxCallNs_;
+
+  /** Start time in ns of the calls in flight, by unique id. */
+  private final ConcurrentMap<Integer, Long> starts_ = new ConcurrentHashMap<Integer, Long>();
+
+  private final AtomicInteger nextId_ = new AtomicInteger();
+
+  /** Nesting level of each module, as seen in its first call. */
+  private final ConcurrentMap<String, Integer> moduleLevels_ = new ConcurrentHashMap<String, Integer>();
+
+  /** Ids of the calls in flight started by the current thread, innermost last. */
+  private final ThreadLocal<ArrayDeque<Integer>> openCalls_ =
+      new ThreadLocal<ArrayDeque<Integer>>() {
+
+    @Override
+    protected ArrayDeque<Integer> initialValue() {
+      return new ArrayDeque<Integer>();
+    }
+  };
+
+  public MetricsRunningTimeTracker() {
+    this(MetricsRegistry.singleton());
+  }
+
+  public MetricsRunningTimeTracker(MetricsRegistry registry) {
+    this(registry, 1, TimeUnit.HOURS);
+  }
+
+  /**
+   * @param maxCallTime Calls running longer are assumed to never end and
+   * are not recorded.
+   */
+  public MetricsRunningTimeTracker(MetricsRegistry registry, long maxCallTime, TimeUnit unit) {
+    registry_ = registry;
+    maxCallNs_ = unit.toNanos(maxCallTime);
+  }
+
+  @Override
+  public Integer recordStartTime(String moduleId) {
+    if (overallStartTime == 0) {
+      updateOverallStartTime(System.currentTimeMillis());
+    }
+    ArrayDeque<Integer> openCalls = openCalls_.get();
+    // Calls ended by another thread or expired do not enclose this one.
+    while (!openCalls.isEmpty() && !starts_.containsKey(openCalls.peekLast())) {
+      openCalls.pollLast();
+    }
+    int level = openCalls.size() + 1;
+    if (!moduleLevels_.containsKey(moduleId)) {
+      moduleLevels_.putIfAbsent(moduleId, level);
+    }
+    Integer uniqueId = nextId_.incrementAndGet();
+    long start = System.nanoTime();
+    if (uniqueId % EXPIRY_INTERVAL == 0) {
+      expireCalls(start);
+    }
+    starts_.put(uniqueId, start);
+    openCalls.addLast(uniqueId);
+    return uniqueId;
+  }
+
+  private void expireCalls(long now) {
+    for (Iterator<Long> it = starts_.values().iterator(); it.hasNext();) {
+      if (now - it.next() > maxCallNs_) {
+        it.remove();
+      }
+    }
+  }
+
+  /**
+   * @return Running time of the call in ms, 0 if the start is unknown.
+   */
+  @Override
+  public Long recordEndTime(String moduleId, Integer uniqueId) {
+    long end = System.nanoTime();
+    Long start = uniqueId == null ? null : starts_.remove(uniqueId);
+    ArrayDeque<Integer> openCalls = openCalls_.get();
+    if (uniqueId != null && openCalls.contains(uniqueId)) {
+      // Calls started inside this one and not ended will never end.
+      for (Integer id = openCalls.pollLast(); !uniqueId.equals(id); id = openCalls.pollLast()) {
+        starts_.remove(id);
+      }
+    }
+    updateOverallEndTime(System.currentTimeMillis());
+    if (start == null) {
+      return 0L;
+    }
+    registry_.recordLatency(moduleId, end - start);
+    return (end - start) / 1000000;
+  }
+
+  @Override
+  public TimingInfo getTrackedInfo() {
+    TimingInfo timingInfo = new TimingInfo();
+    for (Entry<String, Integer> e : moduleLevels_.entrySet()) {
+      LatencyHistogram histogram = registry_.getLatencies(e.getKey());
+      if (histogram.getCount() > 0) {
+        timingInfo.addModule(new Module(e.getKey(), e.getValue(), (int) histogram.getCount(),
+            histogram.getMean() / 1000000, histogram.getMax() / 1000000.0));
+      }
+    }
+    timingInfo.setTotalExecutionTime(overallEndTime - overallStartTime);
+    return timingInfo;
+  }
+
+  /**
+   * @return Number of calls started but not ended yet.
+   */
+  public int getCallsInFlight() {
+    return starts_.size();
+  }
+
+  @Override
+  public void clearTrackedInfo() {
+    registry_.resetLatencies();
+    moduleLevels_.clear();
+    overallStartTime = 0;
+    overallEndTime = 0;
+  }
+}
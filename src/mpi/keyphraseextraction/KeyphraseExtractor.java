@@ -85,6 +85,10 @@ public class KeyphraseExtractor {
        
     // tokenize text
     Tokens tokens = TokenizerManager.tokenize(text, Tokenizer.type.ENGLISH_POS, false);
+    return gatherKeyphrases(splitSentences(tokens));
+  }
+
+  private List<List<Token>> splitSentences(Tokens tokens) {
     int currentSentence = -1;
     List<List<Token>> sentences = new ArrayList<>();
     List<Token> sentenceTokens = new ArrayList<>();
@@ -98,8 +102,7 @@ public class KeyphraseExtractor {
       }
       sentenceTokens.add(token);
     }
-
-    return gatherKeyphrases(sentences);
+    return sentences;
   }
 
   protected List<NounPhrase> gatherKeyphrases(List<List<Token>> sentences) {
@@ -0,0 +1,450 @@
+package mpi.lsh;
+
+import gnu.trove.iterator.TIntIterator;
+import gnu.trove.set.hash.TIntHashSet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import mpi.aida.util.AtomicFiles;
+import mpi.aida.util.SortedIntArrays;
+import mpi.aida.util.StringUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Prebuilt, memory-mapped LSH index of strings, using the same ngram
+ * features, minhashes and band signatures as {@link LSH} with an
+ * {@link LSHStringNgramFeatureExtractor}. It is built once, in parallel,
+ * and queried in place, nothing is loaded onto the heap.
+ *
+ * The strings are sorted and identified by their ordinal. Each band maps a
+ * band hash to the sorted ordinals of the strings in its bucket: the
+ * distinct hashes are a sorted int array searched by bisection, the buckets
+ * are ranges of one ordinal array given by an offset array. The strings are
+ * kept in a separate string table file.
+ *
+ * Index file layout (little-endian): magic, version, ngram length, band
+ * size, band count, item count, fingerprint (long), the number of distinct
+ * hashes of each band, then per band: hashes, offsets (hashes + 1),
+ * ordinals (item count).
+ *
+ * String table layout (little-endian): magic, version, item count,
+ * offsets (item count + 1), UTF-8 bytes of the strings.
+ */
+public class LSHIndex {
+  private static final Logger logger = LoggerFactory.getLogger(LSHIndex.class);
+
+  private static final int INDEX_MAGIC = 0x4149444c; // "AIDL"
+
+  private static final int STRINGS_MAGIC = 0x41494453; // "AIDS"
+
+  private static final int VERSION = 1;
+
+  private static final int INDEX_HEADER_BYTES = 32;
+
+  private static final int STRINGS_HEADER_BYTES = 12;
+
+  private final int ngramLength_;
+
+  private final int bandSize_;
+
+  private final int bandCount_;
+
+  private final int itemCount_;
+
+  private final long fingerprint_;
+
+  private final MinHasher<String> minHasher_;
+
+  private final IntBuffer[] hashes_;
+
+  private final IntBuffer[] offsets_;
+
+  private final IntBuffer[] ordinals_;
+
+  private final IntBuffer stringOffsets_;
+
+  private final ByteBuffer strings_;
+
+  /**
+   * Maps the index file and its string table.
+   *
+   * @throws IOException If the files cannot be read or are no valid index.
+   */
+  public LSHIndex(File file) throws IOException {
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+         FileChannel channel = raf.getChannel()) {
+      ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      channel.read(header, 0);
+      header.flip();
+      if (header.limit() < INDEX_HEADER_BYTES
+          || header.getInt() != INDEX_MAGIC || header.getInt() != VERSION) {
+        throw new IOException(file + " is not a valid LSH index.");
+      }
+      ngramLength_ = header.getInt();
+      bandSize_ = header.getInt();
+      bandCount_ = header.getInt();
+      itemCount_ = header.getInt();
+      fingerprint_ = header.getLong();
+      IntBuffer hashCounts = map(channel, INDEX_HEADER_BYTES, 4L * bandCount_);
+      hashes_ = new IntBuffer[bandCount_];
+      offsets_ = new IntBuffer[bandCount_];
+      ordinals_ = new IntBuffer[bandCount_];
+      long position = INDEX_HEADER_BYTES + 4L * bandCount_;
+      // The mappings stay valid after the channel is closed.
+      for (int b = 0; b < bandCount_; ++b) {
+        int hashCount = hashCounts.get(b);
+        hashes_[b] = map(channel, position, 4L * hashCount);
+        position += 4L * hashCount;
+        offsets_[b] = map(channel, position, 4L * (hashCount + 1));
+        position += 4L * (hashCount + 1);
+        ordinals_[b] = map(channel, position, 4L * itemCount_);
+        position += 4L * itemCount_;
+      }
+    }
+    File stringsFile = getStringsFile(file);
+    try (RandomAccessFile raf = new RandomAccessFile(stringsFile, "r");
+         FileChannel channel = raf.getChannel()) {
+      IntBuffer header = map(channel, 0, STRINGS_HEADER_BYTES);
+      if (header.get(0) != STRINGS_MAGIC || header.get(1) != VERSION
+          || header.get(2) != itemCount_) {
+        throw new IOException(stringsFile + " is not the string table of " + file + ".");
+      }
+      long offsetsBytes = 4L * (itemCount_ + 1);
+      stringOffsets_ = map(channel, STRINGS_HEADER_BYTES, offsetsBytes);
+      long stringsStart = STRINGS_HEADER_BYTES + offsetsBytes;
+      strings_ = channel.map(FileChannel.MapMode.READ_ONLY,
+          stringsStart, channel.size() - stringsStart);
+    }
+    minHasher_ = new MinHasher<String>(bandSize_ * bandCount_, 1);
+  }
+
+  private static IntBuffer map(FileChannel channel, long start, long length) throws IOException {
+    if (start + length > channel.size()) {
+      throw new IOException("Truncated LSH index.");
+    }
+    return channel.map(FileChannel.MapMode.READ_ONLY, start, length)
+        .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+  }
+
+  /**
+   * @return The string table belonging to the index file.
+   */
+  public static File getStringsFile(File file) {
+    return new File(file.getPath() + ".strings");
+  }
+
+  /**
+   * @return The fingerprint the index was built with.
+   */
+  public long getFingerprint() {
+    return fingerprint_;
+  }
+
+  /**
+   * @return true if the index was built with these parameters.
+   */
+  public boolean hasParameters(int ngramLength, int bandSize, int bandCount) {
+    return ngramLength_ == ngramLength && bandSize_ == bandSize && bandCount_ == bandCount;
+  }
+
+  public int size() {
+    return itemCount_;
+  }
+
+  /**
+   * @return The string with the given ordinal.
+   */
+  public String getItem(int ordinal) {
+    int start = stringOffsets_.get(ordinal);
+    byte[] bytes = new byte[stringOffsets_.get(ordinal + 1) - start];
+    ByteBuffer view = strings_.duplicate();
+    view.position(start);
+    view.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @return Ordinals of all strings sharing a bucket with the item in at
+   * least one band.
+   */
+  public TIntHashSet getSimilarItems(String item) {
+    return getSimilarItems(StringUtils.getNgramHashes(item, ngramLength_));
+  }
+
+  /**
+   * @param minSimilarity Minimum Jaccard similarity of the ngrams,
+   * exclusive.
+   * @return Ordinals of the similar strings whose ngrams are more similar
+   * to the ones of the item than the minimum.
+   */
+  public TIntHashSet getSimilarItems(String item, double minSimilarity) {
+    int[] features = StringUtils.getNgramHashes(item, ngramLength_);
+    TIntHashSet similar = getSimilarItems(features);
+    TIntHashSet result = new TIntHashSet();
+    for (TIntIterator itr = similar.iterator(); itr.hasNext(); ) {
+      int ordinal = itr.next();
+      int[] candidate = StringUtils.getNgramHashes(getItem(ordinal), ngramLength_);
+      int intersection = SortedIntArrays.intersectionCount(
+          IntBuffer.wrap(features), IntBuffer.wrap(candidate));
+      double jaccard =
+          (double) intersection / (features.length + candidate.length - intersection);
+      if (jaccard > minSimilarity) {
+        result.add(ordinal);
+      }
+    }
+    return result;
+  }
+
+  private TIntHashSet getSimilarItems(int[] features) {
+    int[] signature =
+        createBandSignature(minHasher_.minhash(features), bandSize_, bandCount_);
+    TIntHashSet similar = new TIntHashSet();
+    for (int b = 0; b < bandCount_; ++b) {
+      int bucket = binarySearch(hashes_[b], signature[b]);
+      if (bucket >= 0) {
+        IntBuffer ordinals = ordinals_[b];
+        for (int i = offsets_[b].get(bucket), end = offsets_[b].get(bucket + 1); i < end; ++i) {
+          similar.add(ordinals.get(i));
+        }
+      }
+    }
+    return similar;
+  }
+
+  private static int binarySearch(IntBuffer sorted, int key) {
+    int low = 0;
+    int high = sorted.limit() - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int value = sorted.get(mid);
+      if (value < key) {
+        low = mid + 1;
+      } else if (value > key) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Sums the minhashes of each band, as LSH does.
+   */
+  private static int[] createBandSignature(int[] minHashes, int bandSize, int bandCount) {
+    int[] signature = new int[bandCount];
+    for (int i = 0; i < bandCount; ++i) {
+      int sum = 0;
+      for (int j = bandSize * i; j < bandSize * (i + 1); ++j) {
+        sum += minHashes[j];
+      }
+      signature[i] = sum;
+    }
+    return signature;
+  }
+
+  /**
+   * Builds the index of the items and writes it to the file and its string
+   * table. The files are written to unique temporary files first, so that
+   * readers never map a partially written index and concurrent builds do
+   * not write into the same file.
+   *
+   * @param fingerprint Identifies the items, e.g. the data they come from.
+   * @param threadCount Number of threads computing the signatures.
+   */
+  public static void build(Collection<String> items, int ngramLength, int bandSize,
+      int bandCount, long fingerprint, int threadCount, File file)
+      throws IOException, InterruptedException {
+    final String[] names = items.toArray(new String[items.size()]);
+    Arrays.sort(names);
+    logger.info("Computing LSH signatures of " + names.length + " items.");
+    final int[] signatures = computeSignatures(
+        names, ngramLength, bandSize, bandCount, threadCount);
+
+    File tmpFile = AtomicFiles.createTempFile(file);
+    File stringsFile = getStringsFile(file);
+    File tmpStringsFile = null;
+    try {
+      try (RandomAccessFile raf = new RandomAccessFile(tmpFile, "rw");
+           FileChannel channel = raf.getChannel()) {
+        raf.setLength(0);
+        IntWriter out = new IntWriter(channel);
+        out.putInt(INDEX_MAGIC);
+        out.putInt(VERSION);
+        out.putInt(ngramLength);
+        out.putInt(bandSize);
+        out.putInt(bandCount);
+        out.putInt(names.length);
+        out.putInt((int) fingerprint);
+        out.putInt((int) (fingerprint >>> 32));
+        for (int b = 0; b < bandCount; ++b) {
+          // Filled in once the band is written.
+          out.putInt(0);
+        }
+        long[] entries = new long[names.length];
+        int[] hashCounts = new int[bandCount];
+        for (int b = 0; b < bandCount; ++b) {
+          logger.debug("Writing LSH band " + (b + 1) + " of " + bandCount + ".");
+          // Hash in the upper, ordinal in the lower half: sorted by hash, then
+          // by ordinal.
+          for (int i = 0; i < names.length; ++i) {
+            entries[i] = ((long) signatures[i * bandCount + b] << 32) | i;
+          }
+          Arrays.parallelSort(entries);
+          for (int i = 0; i < entries.length; ++i) {
+            if (i == 0 || (int) (entries[i] >> 32) != (int) (entries[i - 1] >> 32)) {
+              out.putInt((int) (entries[i] >> 32));
+              ++hashCounts[b];
+            }
+          }
+          for (int i = 0; i < entries.length; ++i) {
+            if (i == 0 || (int) (entries[i] >> 32) != (int) (entries[i - 1] >> 32)) {
+              out.putInt(i);
+            }
+          }
+          out.putInt(entries.length);
+          for (long entry : entries) {
+            out.putInt((int) entry);
+          }
+        }
+        out.flush();
+        ByteBuffer counts = ByteBuffer.allocate(4 * bandCount).order(ByteOrder.LITTLE_ENDIAN);
+        for (int hashCount : hashCounts) {
+          counts.putInt(hashCount);
+        }
+        counts.flip();
+        channel.write(counts, INDEX_HEADER_BYTES);
+      }
+
+      tmpStringsFile = AtomicFiles.createTempFile(stringsFile);
+      try (RandomAccessFile raf = new RandomAccessFile(tmpStringsFile, "rw");
+           FileChannel channel = raf.getChannel()) {
+        raf.setLength(0);
+        byte[][] bytes = new byte[names.length][];
+        long total = 0;
+        for (int i = 0; i < names.length; ++i) {
+          bytes[i] = names[i].getBytes(StandardCharsets.UTF_8);
+          total += bytes[i].length;
+        }
+        if (total > Integer.MAX_VALUE) {
+          throw new IOException("The items exceed the maximum string table size.");
+        }
+        IntWriter out = new IntWriter(channel);
+        out.putInt(STRINGS_MAGIC);
+        out.putInt(VERSION);
+        out.putInt(names.length);
+        int offset = 0;
+        for (byte[] b : bytes) {
+          out.putInt(offset);
+          offset += b.length;
+        }
+        out.putInt(offset);
+        for (byte[] b : bytes) {
+          out.putBytes(b);
+        }
+        out.flush();
+      }
+      AtomicFiles.moveInPlace(tmpStringsFile, stringsFile);
+      AtomicFiles.moveInPlace(tmpFile, file);
+    } finally {
+      // Only left over if writing failed.
+      tmpFile.delete();
+      if (tmpStringsFile != null) {
+        tmpStringsFile.delete();
+      }
+    }
+  }
+
+  /**
+   * @return Band signatures of all names, the ones of name i start at
+   * i * bandCount.
+   */
+  private static int[] computeSignatures(final String[] names, final int ngramLength,
+      final int bandSize, final int bandCount, int threadCount) throws InterruptedException {
+    final int[] signatures = new int[names.length * bandCount];
+    final MinHasher<String> minHasher = new MinHasher<String>(bandSize * bandCount, threadCount);
+    ExecutorService pool = Executors.newFixedThreadPool(threadCount);
+    try {
+      List<Future<?>> futures = new ArrayList<Future<?>>(threadCount);
+      final int chunk = (names.length + threadCount - 1) / threadCount;
+      for (int t = 0; t < threadCount; ++t) {
+        final int start = t * chunk;
+        final int end = Math.min(names.length, start + chunk);
+        futures.add(pool.submit(new Runnable() {
+
+          @Override
+          public void run() {
+            for (int i = start; i < end; ++i) {
+              int[] signature = createBandSignature(minHasher.minhash(
+                  StringUtils.getNgramHashes(names[i], ngramLength)), bandSize, bandCount);
+              System.arraycopy(signature, 0, signatures, i * bandCount, bandCount);
+            }
+          }
+        }));
+      }
+      for (Future<?> f : futures) {
+        f.get();
+      }
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Could not compute LSH signatures.", e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+    return signatures;
+  }
+
+  /**
+   * Buffered little-endian writer.
+   */
+  private static class IntWriter {
+    private final FileChannel channel_;
+    private final ByteBuffer buffer_ = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+
+    public IntWriter(FileChannel channel) {
+      channel_ = channel;
+    }
+
+    public void putInt(int value) throws IOException {
+      if (buffer_.remaining() < 4) {
+        flush();
+      }
+      buffer_.putInt(value);
+    }
+
+    public void putBytes(byte[] bytes) throws IOException {
+      for (int written = 0; written < bytes.length; ) {
+        if (!buffer_.hasRemaining()) {
+          flush();
+        }
+        int length = Math.min(buffer_.remaining(), bytes.length - written);
+        buffer_.put(bytes, written, length);
+        written += length;
+      }
+    }
+
+    public void flush() throws IOException {
+      buffer_.flip();
+      while (buffer_.hasRemaining()) {
+        channel_.write(buffer_);
+      }
+      buffer_.clear();
+    }
+  }
+}
@@ -3,9 +3,6 @@ package mpi.lsh;
 import mpi.aida.util.StringUtils;
 
 import java.util.Collection;
-import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Creates features by extracting ngrams from the given strings, then hashes them to get an int representation.
@@ -32,14 +29,26 @@ public class LSHStringNgramFeatureExtractor extends LSHFeatureExtractor<String>
 
   @Override
   public int[] convert(Collection<String> features) {
-    List<Integer> featureIds = features.stream()
-            .flatMap(f -> StringUtils.getNgrams(f, ngramLength_).stream())
-            .map(String::hashCode).collect(Collectors.toList());
-    int[] fIds = new int[featureIds.size()];
+    if (features.size() == 1) {
+      return StringUtils.getNgramHashes(features.iterator().next(), ngramLength_);
+    }
+    int[][] featureIds = new int[features.size()][];
+    int size = 0;
     int i = 0;
-    for (Integer f : featureIds) {
-      fIds[i++] = f;
+    for (String f : features) {
+      featureIds[i] = StringUtils.getNgramHashes(f, ngramLength_);
+      size += featureIds[i++].length;
+    }
+    int[] fIds = new int[size];
+    int pos = 0;
+    for (int[] ids : featureIds) {
+      System.arraycopy(ids, 0, fIds, pos, ids.length);
+      pos += ids.length;
     }
     return fIds;
   }
+
+  public int getNgramLength() {
+    return ngramLength_;
+  }
 }
@@ -4,14 +4,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Future;
+
+import mpi.aida.AidaManager;
 
 
 public class MinHasher<T> {
@@ -56,8 +58,9 @@ public class MinHasher<T> {
   
   public Map<T, int[]> createSignatures(
       Map<T, int[]> itemsFeatures) {
+    // Written concurrently by the workers.
     Map<T, int[]> sigs = 
-        new HashMap<>();
+        new ConcurrentHashMap<>(itemsFeatures.size());
     
     // Divide the work.
     List<List<T>> workPackages = new ArrayList<>(threadCount_);
@@ -71,17 +74,22 @@ public class MinHasher<T> {
       ++i;
     }    
     
-    ExecutorService es = Executors.newFixedThreadPool(threadCount_);
+    // Run on the shared pool instead of creating threads for each call.
+    ExecutorService es = AidaManager.getMentionEntityPool();
+    List<Future<?>> futures = new ArrayList<>(threadCount_);
     for (i = 0; i < threadCount_; ++i) {
       SigComputer sc = new SigComputer(workPackages.get(i), itemsFeatures, sigs);
-      es.submit(sc);
+      futures.add(es.submit(sc));
     }
-    es.shutdown();
     try {
-      es.awaitTermination(1, TimeUnit.HOURS);
+      for (Future<?> f : futures) {
+        f.get();
+      }
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
       logger_.warn("MinHasher was interrupted, not all signatures are available.");
+    } catch (ExecutionException e) {
+      logger_.error("Could not compute signatures: " + e.getLocalizedMessage(), e);
     }
     return sigs;
   }
@@ -121,7 +129,7 @@ public class MinHasher<T> {
     return true;
   }
   
-  class SigComputer extends Thread {
+  class SigComputer implements Runnable {
     List<T> items_;
     Map<T, int[]> itemsFeatures_;
     Map<T, int[]> sigs_;
@@ -1,6 +1,6 @@
 package mpi.ner;
 
-import gnu.trove.map.hash.TIntObjectHashMap;
+import mpi.aida.AidaManager;
 import mpi.aida.data.Mention;
 import mpi.aida.data.Mentions;
 import mpi.aida.util.ClassPathUtils;
@@ -9,13 +9,17 @@ import mpi.aida.util.timing.RunningTimer;
 import mpi.ner.config.NERConfig;
 import mpi.tokenizer.data.Token;
 import mpi.tokenizer.data.Tokens;
-import mpi.tools.javatools.datatypes.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class NERManager {
 
@@ -35,7 +39,7 @@ public class NERManager {
 	}
 
 	private NERManager() {
-		ners = new LinkedList<>();
+		ners = new ArrayList<>();
 		normalizers = new LinkedList<>();
 		
 		String nerSettingsFile = "ner.properties";
@@ -67,186 +71,191 @@ public class NERManager {
 	}
 
 	public Mentions findMentions(String docId, String text, Tokens tokens) {
-		List<Name> names = findNames(docId, text, tokens);
-		return alignNameAndCreateMentions(names, tokens);
+		int[] tokenBegins = getTokenBegins(tokens);
+		NameIntervals names = findNames(docId, text, tokens, tokenBegins);
+		return alignNameAndCreateMentions(names.reconcile(), tokens, tokenBegins);
 	}
 
-	// Tokens are passed to make sure the returned names are aligned to the
-	// tokens
-	private List<Name> findNames(String docId, String text, Tokens tokens) {
+	/**
+	 * Runs all NERs concurrently on the shared NER executor. A NER that does
+	 * not finish within its timeout is cancelled and its names are skipped.
+	 *
+	 * Tokens are passed to make sure the returned names are aligned to the
+	 * tokens, NERs implementing TokenizedNER work on them directly.
+	 */
+	private NameIntervals findNames(final String docId, final String text,
+			final Tokens tokens, int[] tokenBegins) {
+		ExecutorService executor = AidaManager.getNerExecutor();
+		long submitTime = System.currentTimeMillis();
+		List<Future<List<Name>>> futures = new ArrayList<>(ners.size());
+		for (final NER ner : ners) {
+			futures.add(executor.submit(new Callable<List<Name>>() {
 
-		Map<String, List<Name>> annotations = new HashMap<String, List<Name>>();
-		// run the NERs in paralle to fill in the map
+				@Override
+				public List<Name> call() throws Exception {
+					String timerId = "NER:" + ner.getId();
+					Integer id = RunningTimer.recordStartTime(timerId);
+					try {
+						if (ner instanceof TokenizedNER) {
+							// Reuses the tokens instead of annotating the text again.
+							return ((TokenizedNER) ner).findNames(docId, text, tokens);
+						}
+						return ner.findNames(docId, text);
+					} finally {
+						RunningTimer.recordEndTime(timerId, id);
+					}
+				}
+			}));
+		}
 
-		for (NER ner : ners) {
-			String id = ner.getId();
-			List<Name> names = ner.findNames(docId, text);
-			logger_.debug(id);
+		NameIntervals intervals = new NameIntervals();
+		for (int i = 0; i < ners.size(); ++i) {
+			NER ner = ners.get(i);
+			List<Name> names = getNames(ner, futures.get(i), submitTime, docId);
+			logger_.debug(ner.getId());
 			for (Name name : names) {
-			  logger_.debug(name.toString());
+				logger_.debug(name.toString());
+				if (keepName(name, tokens, tokenBegins)) {
+					intervals.add(name);
+				}
 			}
-			annotations.put(id, names);
 		}
-		Map<String, List<Name>> filteredAnnotations = filterAnnotations(annotations, tokens);
-		List<Name> allAnnotations = reconcileAnnotations(filteredAnnotations, tokens);
-		// align annotations to the original tokens
-
-		// System.out.println("Recondiled Names");
-		// for(Name name: allAnnotations) {
-		// System.out.println(name);
-		// }
-		//
+		return intervals;
+	}
 
-		return allAnnotations;
+	private List<Name> getNames(NER ner, Future<List<Name>> future,
+			long submitTime, String docId) {
+		long timeout = getTimeout(ner);
+		try {
+			if (timeout <= 0) {
+				return future.get();
+			}
+			long remaining = submitTime + timeout - System.currentTimeMillis();
+			return future.get(Math.max(0, remaining), TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			future.cancel(true);
+			Counter.incrementCount("NER_TIMEOUT");
+			logger_.warn("NER '" + ner.getId() + "' timed out after " + timeout
+					+ "ms on document '" + docId + "', skipping its names.");
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException("NER '" + ner.getId() + "' failed.", cause);
+		}
+		return Collections.emptyList();
 	}
 
-	public Map<String, List<Name>> filterAnnotations(Map<String, List<Name>> annotations, Tokens tokens) {
-		Map<String, List<Name>> filteredAnnotations = annotations;
-		filteredAnnotations = filterAnnotationsBySingleChar(filteredAnnotations, tokens);
-		filteredAnnotations = filterAnnotationsIfBeginningOfSentence(filteredAnnotations, tokens);
-		return filteredAnnotations;
+	/**
+	 * @return Timeout of the NER in ms, 0 for none. A 'tagger.[id].timeout.ms'
+	 * setting overrides the common one.
+	 */
+	private long getTimeout(NER ner) {
+		String timeout = NERConfig.get(
+				"tagger." + ner.getId() + ".timeout.ms", NERConfig.get(NERConfig.TAGGER_TIMEOUT));
+		return Long.parseLong(timeout.trim());
 	}
 
-	private Map<String, List<Name>> filterAnnotationsBySingleChar(Map<String, List<Name>> annotations, Tokens tokens) {
-		if (NERConfig.getBoolean(NERConfig.MENTION_FILTER_REMOVESINGLECHAR)) {
-			// Filter single-character mentions.
-			Map<String, List<Name>> filteredAnnotations = new HashMap<>(annotations.size());
-			for (Map.Entry<String, List<Name>> entry : annotations.entrySet()) {
-				String nerId = entry.getKey();
-				List<Name> names = entry.getValue();
-				List<Name> filteredNames = names.stream().filter(n -> n.getLength() > 1).collect(Collectors.toList());
-				Counter.incrementCountByValue("MENTION_FILTER_REMOVESINGLECHAR", names.size() - filteredNames.size());
-				filteredAnnotations.put(nerId, filteredNames);
-			}
-			return filteredAnnotations;
-		} else {
-			return annotations;
+	/**
+	 * @return Sorted begin offsets of all tokens, the index is the token index.
+	 */
+	private int[] getTokenBegins(Tokens tokens) {
+		int[] tokenBegins = new int[tokens.size()];
+		for (int i = 0; i < tokenBegins.length; i++) {
+			tokenBegins[i] = tokens.getToken(i).getBeginIndex();
 		}
+		return tokenBegins;
 	}
 
-	private Map<String,List<Name>> filterAnnotationsIfBeginningOfSentence(Map<String, List<Name>> annotations, Tokens tokens) {
-		if (NERConfig.getBoolean(NERConfig.MENTION_FILTER_REMOVEIFBEGINNINGOFSENTENCE)) {
-			// Filter mentions if they are at the beginning of a sentence.
-			Map<String, List<Name>> filteredAnnotations = new HashMap<>(annotations.size());
-
-			// Build token offset map.
-			TIntObjectHashMap<Token> offset2token = new TIntObjectHashMap<>(tokens.size());
-			for (Token t : tokens) {
-				offset2token.put(t.getBeginIndex(), t);
-			}
+	/**
+	 * @return Index of the token containing the character offset, -1 if there
+	 * is none. Of two adjacent tokens, the second one contains the shared offset.
+	 */
+	private int findToken(int offset, Tokens tokens, int[] tokenBegins) {
+		int index = Arrays.binarySearch(tokenBegins, offset);
+		if (index < 0) {
+			// Last token beginning before the offset.
+			index = -index - 2;
+		}
+		if (index < 0 || offset > tokens.getToken(index).getEndIndex()) {
+			return -1;
+		}
+		return index;
+	}
 
-			// Filter the names.
-			for (Map.Entry<String, List<Name>> entry : annotations.entrySet()) {
-				String nerId = entry.getKey();
-				List<Name> names = entry.getValue();
-				List<Name> filteredNames = new ArrayList<>(names.size());
-				for (Name n : names) {
-					Token t = offset2token.get(n.getStart());
-					if (t == null) {
-						logger_.warn("Could not find token for name, probably there is a problem with offset alignment");
-						filteredNames.add(n);
-					} else {
-						// Only add name if it is in the middle of a sentence.
-						if (t.getId() > 0) {
-							Token prevToken = tokens.getToken(t.getId() - 1);
-							if (prevToken.getSentence() == t.getSentence()) {
-								filteredNames.add(n);
-							}
-						}
-					}
+	public Map<String, List<Name>> filterAnnotations(Map<String, List<Name>> annotations, Tokens tokens) {
+		int[] tokenBegins = getTokenBegins(tokens);
+		Map<String, List<Name>> filteredAnnotations = new HashMap<>(annotations.size());
+		for (Map.Entry<String, List<Name>> entry : annotations.entrySet()) {
+			List<Name> filteredNames = new ArrayList<>(entry.getValue().size());
+			for (Name n : entry.getValue()) {
+				if (keepName(n, tokens, tokenBegins)) {
+					filteredNames.add(n);
 				}
-				Counter.incrementCountByValue("MENTION_FILTER_REMOVEIFBEGINNINGOFSENTENCE", names.size() - filteredNames.size());
-				filteredAnnotations.put(nerId, filteredNames);
 			}
-			return filteredAnnotations;
-		} else {
-			return annotations;
+			filteredAnnotations.put(entry.getKey(), filteredNames);
 		}
+		return filteredAnnotations;
 	}
 
-	protected List<Name> reconcileAnnotations(
-			Map<String, List<Name>> annotations, Tokens tokens) {
-		// TODO: make sure the mentions are aligned with the given tokens
-		List<Name> allNames = new ArrayList<Name>();
-		// we need to spot the overlaps, so first put all the annotation in the
-		// same list
-		for (List<Name> names : annotations.values()) {
-			allNames.addAll(names);
+	/**
+	 * Applies the configured mention filters to a single name.
+	 */
+	private boolean keepName(Name n, Tokens tokens, int[] tokenBegins) {
+		if (NERConfig.getBoolean(NERConfig.MENTION_FILTER_REMOVESINGLECHAR)
+				&& n.getLength() <= 1) {
+			// Filter single-character mentions.
+			Counter.incrementCount("MENTION_FILTER_REMOVESINGLECHAR");
+			return false;
 		}
-		// sort by start position
-		Collections.sort(allNames, new Name.SortByStartPosition());
-		Name previous = null;
-		List<Name> reconciled = new LinkedList<Name>();
-		List<Name> overlapping = new ArrayList<Name>();
-		int maxEnd = -1;
-
-		for (Name n : allNames) {
-			if (previous == null) {
-				previous = n;
-				maxEnd = n.getEnd();
-				overlapping.add(n);
-				continue;
-			}
-			if (n.getStart() <= maxEnd) {
-				overlapping.add(n);
-
-			} else {
-				reconciled.add(reconcileOverlappingNames(overlapping));
-
-				overlapping.clear();
-				overlapping.add(n);
+		if (NERConfig.getBoolean(NERConfig.MENTION_FILTER_REMOVEIFBEGINNINGOFSENTENCE)) {
+			// Filter mentions if they are at the beginning of a sentence.
+			int t = Arrays.binarySearch(tokenBegins, n.getStart());
+			if (t < 0) {
+				logger_.warn("Could not find token for name, probably there is a problem with offset alignment");
+			} else if (t == 0 || tokens.getToken(t - 1).getSentence() != tokens.getToken(t).getSentence()) {
+				// Only keep the name if it is in the middle of a sentence.
+				Counter.incrementCount("MENTION_FILTER_REMOVEIFBEGINNINGOFSENTENCE");
+				return false;
 			}
-			maxEnd = Math.max(maxEnd, n.getEnd());
-
-		}
-		if (!overlapping.isEmpty()) {
-			reconciled.add(reconcileOverlappingNames(overlapping));
 		}
-		return reconciled;
+		return true;
 	}
 
-	private Name reconcileOverlappingNames(List<Name> overlapping) {
-		assert overlapping.size() > 0;
-		if (overlapping.size() == 1)
-			return overlapping.get(0);
-		// return the longest;
-		Name longest = overlapping.get(0);
-		Set<String> annotators = new HashSet<String>();
-		annotators.add(longest.getNerAnnotatorId());
-		for (int i = 1; i < overlapping.size(); i++) {
-			annotators.add(overlapping.get(i).getNerAnnotatorId());
-			if (overlapping.get(i).getLength() > longest.getLength()) {
-				longest = overlapping.get(i);
+	protected List<Name> reconcileAnnotations(
+			Map<String, List<Name>> annotations, Tokens tokens) {
+		NameIntervals intervals = new NameIntervals();
+		for (List<Name> names : annotations.values()) {
+			for (Name name : names) {
+				intervals.add(name);
 			}
 		}
-		// set score to the number of taggers that agree on the name entity
-		longest.setScore(annotators.size());
-
-		return longest;
+		return intervals.reconcile();
 	}
 
-	private Mentions alignNameAndCreateMentions(List<Name> names, Tokens tokens) {
+	private Mentions alignNameAndCreateMentions(List<Name> names, Tokens tokens, int[] tokenBegins) {
 		Integer id = RunningTimer.recordStartTime("NERManager:alignName");
-	  Mentions mentions = new Mentions();
+		Mentions mentions = new Mentions();
 
-		TIntObjectHashMap<Pair<Token, Integer>> characterOffsetToTokenMap = new TIntObjectHashMap<>();
-		for(int i=0; i<tokens.size(); i++) {
-		  Token token = tokens.getToken(i);
-		  for(int j = token.getBeginIndex(); j <= token.getEndIndex(); j++) {
-		    characterOffsetToTokenMap.put(j, new Pair<Token, Integer>(token, i));
-		  }
-		}
-		
-		
-		
 		for (Name name : names) {
-			Pair<Token, Integer> startToken = characterOffsetToTokenMap.get(name.getStart());
-			Pair<Token, Integer> endToken = characterOffsetToTokenMap.get(name.getEnd());
-		
-      int startTokenOffset = startToken.first.getBeginIndex();
-      int endTokenOffset = endToken.first.getEndIndex();
-      int startTokenIndex = startToken.second;
-      int endTokenIndex = endToken.second;
+			int startTokenIndex = findToken(name.getStart(), tokens, tokenBegins);
+			int endTokenIndex = findToken(name.getEnd(), tokens, tokenBegins);
+			if (startTokenIndex < 0 || endTokenIndex < 0) {
+				logger_.warn("Could not align name '" + name.getName() + "' at "
+						+ name.getStart() + " to the tokens, skipping it.");
+				continue;
+			}
+			Token startToken = tokens.getToken(startTokenIndex);
+			Token endToken = tokens.getToken(endTokenIndex);
+
+			int startTokenOffset = startToken.getBeginIndex();
+			int endTokenOffset = endToken.getEndIndex();
 
 			Mention mention = new Mention();
 			mention.setCharOffset(startTokenOffset);
@@ -254,8 +263,8 @@ public class NERManager {
 			mention.setMention(tokens.toText(startTokenIndex, endTokenIndex));
 			mention.setStartToken(startTokenIndex);
 			mention.setEndToken(endTokenIndex);
-			mention.setStartStanford(startToken.first.getStandfordId());
-			mention.setEndStanford(endToken.first.getStandfordId());
+			mention.setStartStanford(startToken.getStandfordId());
+			mention.setEndStanford(endToken.getStandfordId());
 			for(MentionNormalizer normalizer: normalizers) {
 			  String normalizedMention = normalizer.normalize(mention.getMention());
 			  mention.getNormalizedMention().add(normalizedMention);
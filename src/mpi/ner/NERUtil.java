@@ -3,8 +3,26 @@ package mpi.ner;
 import java.util.ArrayList;
 import java.util.List;
 
+import mpi.tokenizer.data.Token;
+import mpi.tokenizer.data.Tokens;
+
 public class NERUtil {
 
+	/**
+	 * @return true if all tokens carry a POS tag.
+	 */
+	public static boolean hasPosTags(Tokens tokens) {
+		if (tokens == null || tokens.size() == 0) {
+			return false;
+		}
+		for (Token token : tokens) {
+			if (token.getPOS() == null) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	public static List<Name> findNamesFromPOS(List<PosToken> tokens) {
 		boolean previousWasAName = false;
 		List<Name> names = new ArrayList<Name>();
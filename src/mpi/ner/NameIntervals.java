@@ -0,0 +1,114 @@
+package mpi.ner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Names of all taggers for one document, kept as parallel primitive arrays
+ * of character intervals. Overlapping names are reconciled in a single pass
+ * over the intervals sorted by start offset.
+ */
+class NameIntervals {
+
+	private int[] starts_ = new int[16];
+
+	private int[] ends_ = new int[16];
+
+	/** Index into annotatorIds_. */
+	private int[] annotators_ = new int[16];
+
+	private Name[] names_ = new Name[16];
+
+	private int size_;
+
+	/** Distinct NER annotator ids, null included. */
+	private final List<String> annotatorIds_ = new ArrayList<String>();
+
+	public void add(Name name) {
+		if (size_ == starts_.length) {
+			int capacity = 2 * size_;
+			starts_ = Arrays.copyOf(starts_, capacity);
+			ends_ = Arrays.copyOf(ends_, capacity);
+			annotators_ = Arrays.copyOf(annotators_, capacity);
+			names_ = Arrays.copyOf(names_, capacity);
+		}
+		starts_[size_] = name.getStart();
+		ends_[size_] = name.getEnd();
+		annotators_[size_] = getAnnotator(name.getNerAnnotatorId());
+		names_[size_] = name;
+		++size_;
+	}
+
+	public int size() {
+		return size_;
+	}
+
+	private int getAnnotator(String annotatorId) {
+		int annotator = annotatorIds_.indexOf(annotatorId);
+		if (annotator < 0) {
+			annotator = annotatorIds_.size();
+			annotatorIds_.add(annotatorId);
+		}
+		return annotator;
+	}
+
+	/**
+	 * Groups transitively overlapping names and keeps the longest of each
+	 * group, the first one on ties. Its score is set to the number of distinct
+	 * annotators in the group if the group has more than one name.
+	 *
+	 * @return Reconciled names sorted by start offset.
+	 */
+	public List<Name> reconcile() {
+		// Sort by start, the position in the low bits keeps the sort stable.
+		long[] order = new long[size_];
+		for (int i = 0; i < size_; ++i) {
+			order[i] = ((long) starts_[i] << 32) | i;
+		}
+		Arrays.sort(order);
+
+		List<Name> reconciled = new ArrayList<Name>();
+		// Group number in which each annotator was last seen.
+		int[] annotatorGroup = new int[annotatorIds_.size()];
+		int group = 0;
+		int longest = -1;
+		int groupSize = 0;
+		int groupAnnotators = 0;
+		int maxEnd = -1;
+		for (long entry : order) {
+			int i = (int) entry;
+			if (longest >= 0 && starts_[i] > maxEnd) {
+				reconciled.add(getReconciledName(longest, groupSize, groupAnnotators));
+				longest = -1;
+			}
+			if (longest < 0) {
+				++group;
+				longest = i;
+				groupSize = 0;
+				groupAnnotators = 0;
+			} else if (ends_[i] - starts_[i] > ends_[longest] - starts_[longest]) {
+				longest = i;
+			}
+			++groupSize;
+			if (annotatorGroup[annotators_[i]] != group) {
+				annotatorGroup[annotators_[i]] = group;
+				++groupAnnotators;
+			}
+			maxEnd = Math.max(maxEnd, ends_[i]);
+		}
+		if (longest >= 0) {
+			reconciled.add(getReconciledName(longest, groupSize, groupAnnotators));
+		}
+		return reconciled;
+	}
+
+	private Name getReconciledName(int longest, int groupSize, int groupAnnotators) {
+		Name name = names_[longest];
+		if (groupSize > 1) {
+			// set score to the number of taggers that agree on the name entity
+			name.setScore(groupAnnotators);
+		}
+		return name;
+	}
+}
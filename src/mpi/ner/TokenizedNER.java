@@ -0,0 +1,17 @@
+package mpi.ner;
+
+import java.util.List;
+
+import mpi.tokenizer.data.Tokens;
+
+/**
+ * NER that works on the tokens created during preparation instead of
+ * tokenizing the text again, adding only the annotations it still needs.
+ */
+public interface TokenizedNER extends NER {
+	/**
+	 * @param tokens Tokens of the text, with POS tags if the preparation
+	 * tokenizer created them.
+	 */
+	public List<Name> findNames(String docId, String text, Tokens tokens);
+}
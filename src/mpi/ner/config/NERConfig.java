@@ -22,6 +22,9 @@ public class NERConfig {
   public static final String MENTION_FILTER_REMOVESINGLECHAR = "mention.filter.removesinglechar";
 
   public static final String MENTION_FILTER_REMOVEIFBEGINNINGOFSENTENCE = "mention.filter.removeifbeginningofsentence";
+
+  /** Time in ms a tagger may take per document, 0 for no limit. */
+  public static final String TAGGER_TIMEOUT = "tagger.timeout.ms";
     
   private static class NERConfigHolder {
     public static NERConfig config = new NERConfig();
@@ -51,6 +54,8 @@ public class NERConfig {
         return "false";
       } else if (key.equals(MENTION_FILTER_REMOVEIFBEGINNINGOFSENTENCE)) {
         return "false";
+      } else if (key.equals(TAGGER_TIMEOUT)) {
+        return "60000";
       } else {
         logger_.error("Missing key in ner.properties file with no default value: " + key);
       }
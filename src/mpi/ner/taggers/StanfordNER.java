@@ -1,13 +1,17 @@
 package mpi.ner.taggers;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Properties;
 
 import mpi.aida.config.AidaConfig;
-import mpi.ner.NER;
+import mpi.ner.NERUtil;
 import mpi.ner.Name;
+import mpi.ner.TokenizedNER;
+import mpi.tokenizer.data.Token;
+import mpi.tokenizer.data.Tokens;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,19 +19,32 @@ import org.slf4j.LoggerFactory;
 import edu.stanford.nlp.ling.CoreAnnotations.CharacterOffsetBeginAnnotation;
 import edu.stanford.nlp.ling.CoreAnnotations.CharacterOffsetEndAnnotation;
 import edu.stanford.nlp.ling.CoreAnnotations.NamedEntityTagAnnotation;
+import edu.stanford.nlp.ling.CoreAnnotations.SentenceIndexAnnotation;
 import edu.stanford.nlp.ling.CoreAnnotations.SentencesAnnotation;
+import edu.stanford.nlp.ling.CoreAnnotations.TextAnnotation;
+import edu.stanford.nlp.ling.CoreAnnotations.TokenBeginAnnotation;
+import edu.stanford.nlp.ling.CoreAnnotations.TokenEndAnnotation;
 import edu.stanford.nlp.ling.CoreAnnotations.TokensAnnotation;
 import edu.stanford.nlp.ling.CoreLabel;
 import edu.stanford.nlp.pipeline.Annotation;
 import edu.stanford.nlp.pipeline.StanfordCoreNLP;
+import edu.stanford.nlp.util.ArrayCoreMap;
 import edu.stanford.nlp.util.CoreMap;
+import edu.stanford.nlp.util.StringUtils;
 
-public class StanfordNER implements NER {
+public class StanfordNER implements TokenizedNER {
 
 	private static final Logger logger = LoggerFactory
 			.getLogger(StanfordNER.class);
 
 	private StanfordCoreNLP stanfordCoreNLP = null;
+
+	/**
+	 * Pipelines without tokenization for pre-tokenized text, with and without
+	 * POS tagging. Created on first use.
+	 */
+	private StanfordCoreNLP taggedTokensPipeline = null;
+	private StanfordCoreNLP tokensPipeline = null;
 	
   // German Models
   private final String GERMAN_NER_HGC = 
@@ -91,9 +108,100 @@ public class StanfordNER implements NER {
 			return new LinkedList<Name>();
 		}
 
-		List<Name> names = new LinkedList<>();
 		Annotation document = new Annotation(text);
 		stanfordCoreNLP.annotate(document);
+		return findNames(text, document);
+	}
+
+	/**
+	 * Runs only the annotators after tokenization (and POS tagging, if the
+	 * tokens are tagged already) on the given tokens.
+	 */
+	@Override
+	public List<Name> findNames(String docId, String text, Tokens tokens) {
+		if (tokens == null || tokens.size() == 0) {
+			return new LinkedList<Name>();
+		}
+
+		boolean tagged = NERUtil.hasPosTags(tokens);
+		StanfordCoreNLP pipeline = getTokensPipeline(tagged);
+		Annotation document = toAnnotation(text, tokens, tagged);
+		if (pipeline != null) {
+			pipeline.annotate(document);
+		}
+		return findNames(text, document);
+	}
+
+	private synchronized StanfordCoreNLP getTokensPipeline(boolean tagged) {
+		if (tagged ? taggedTokensPipeline == null : tokensPipeline == null) {
+			Properties props = buildProperties();
+			List<String> annotators = new ArrayList<>();
+			for (String annotator : props.getProperty("annotators", "").split(",")) {
+				annotator = annotator.trim();
+				if (!annotator.isEmpty() && !annotator.equals("tokenize")
+						&& !annotator.equals("ssplit") && !(tagged && annotator.equals("pos"))) {
+					annotators.add(annotator);
+				}
+			}
+			StanfordCoreNLP pipeline = null;
+			if (!annotators.isEmpty()) {
+				props.put("annotators", StringUtils.join(annotators, ", "));
+				// Tokenization is done already, don't require its annotators.
+				pipeline = new StanfordCoreNLP(props, false);
+			}
+			if (tagged) {
+				taggedTokensPipeline = pipeline;
+			} else {
+				tokensPipeline = pipeline;
+			}
+		}
+		return tagged ? taggedTokensPipeline : tokensPipeline;
+	}
+
+	/**
+	 * @return Annotation holding the tokens and sentences as created by the
+	 * tokenize and ssplit annotators, with POS tags if tagged.
+	 */
+	private Annotation toAnnotation(String text, Tokens tokens, boolean tagged) {
+		Annotation document = new Annotation(text);
+		List<CoreLabel> documentLabels = new ArrayList<>(tokens.size());
+		List<CoreMap> sentences = new ArrayList<>();
+		for (List<Token> sentenceTokens : tokens.getSentenceTokens()) {
+			List<CoreLabel> labels = new ArrayList<>(sentenceTokens.size());
+			for (Token token : sentenceTokens) {
+				CoreLabel label = new CoreLabel();
+				label.setWord(token.getOriginal());
+				label.setValue(token.getOriginal());
+				label.setOriginalText(token.getOriginal());
+				label.setBeginPosition(token.getBeginIndex());
+				label.setEndPosition(token.getEndIndex());
+				label.setIndex(labels.size() + 1);
+				label.setSentIndex(sentences.size());
+				if (tagged) {
+					label.setTag(token.getPOS());
+				}
+				labels.add(label);
+			}
+			CoreMap sentence = new ArrayCoreMap();
+			int begin = labels.get(0).beginPosition();
+			int end = labels.get(labels.size() - 1).endPosition();
+			sentence.set(TextAnnotation.class, text.substring(begin, end));
+			sentence.set(CharacterOffsetBeginAnnotation.class, begin);
+			sentence.set(CharacterOffsetEndAnnotation.class, end);
+			sentence.set(TokensAnnotation.class, labels);
+			sentence.set(TokenBeginAnnotation.class, documentLabels.size());
+			sentence.set(TokenEndAnnotation.class, documentLabels.size() + labels.size());
+			sentence.set(SentenceIndexAnnotation.class, sentences.size());
+			documentLabels.addAll(labels);
+			sentences.add(sentence);
+		}
+		document.set(TokensAnnotation.class, documentLabels);
+		document.set(SentencesAnnotation.class, sentences);
+		return document;
+	}
+
+	private List<Name> findNames(String text, Annotation document) {
+		List<Name> names = new LinkedList<>();
 		List<CoreMap> sentences = document.get(SentencesAnnotation.class);
 		String previousTag = null;
 		//Save the previous token's sentence 
@@ -1,7 +1,11 @@
 package mpi.ner.taggers;
 
+import java.util.List;
 import java.util.Properties;
 
+import mpi.ner.Name;
+import mpi.tokenizer.data.Tokens;
+
 public class StanfordNERWhiteSpaceTokenization extends StanfordNER {
 	
 	@Override
@@ -18,4 +22,11 @@ public class StanfordNERWhiteSpaceTokenization extends StanfordNER {
         return props;
 	}
 
+	/**
+	 * Ignores the given tokens, the text is tokenized on whitespace.
+	 */
+	@Override
+	public List<Name> findNames(String docId, String text, Tokens tokens) {
+		return findNames(docId, text);
+	}
 }
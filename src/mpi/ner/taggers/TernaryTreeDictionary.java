@@ -5,8 +5,9 @@ import de.mpii.ternarytree.TernaryTriePrimitive;
 import de.mpii.ternarytree.TrieBuilder;
 import mpi.aida.AidaManager;
 import mpi.aida.util.TernaryTreeDictionaryUtil;
-import mpi.ner.NER;
+import mpi.ner.NERUtil;
 import mpi.ner.Name;
+import mpi.ner.TokenizedNER;
 import mpi.ner.config.NERConfig;
 import mpi.tokenizer.data.Token;
 import mpi.tokenizer.data.Tokenizer;
@@ -26,7 +27,7 @@ import java.util.List;
  * Mention recognition method that uses a TernaryTree for name lookups - matching all names in the text that
  * are part of the dictionary. Optionally, mentions that do not contain proper nouns are filtered.
  */
-public class TernaryTreeDictionary implements NER {
+public class TernaryTreeDictionary implements TokenizedNER {
 
   private static Logger logger_ = LoggerFactory.getLogger(TernaryTreeDictionary.class);
 
@@ -92,15 +93,28 @@ public class TernaryTreeDictionary implements NER {
   
   @Override
   public List<Name> findNames(String docId, String text) {
-    List<Name> names = new ArrayList<>();
-
     Tokenizer.type tokenizerType = Tokenizer.type.TOKEN;
     if (useProperNounFilter_) {
       tokenizerType = Tokenizer.type.POS;
     }
+    return findNames(text, TokenizerManager.tokenize(text, tokenizerType, false));
+  }
 
-    Tokens ts = TokenizerManager.tokenize(text, tokenizerType, false);
-    String[] tokens = new String[ts.getTokens().size()];
+  /**
+   * Matches the names on the given tokens. They are only tokenized again
+   * if the proper noun filter is used and they carry no POS tags.
+   */
+  @Override
+  public List<Name> findNames(String docId, String text, Tokens tokens) {
+    if (useProperNounFilter_ && !NERUtil.hasPosTags(tokens)) {
+      return findNames(docId, text);
+    }
+    return findNames(text, tokens);
+  }
+
+  private List<Name> findNames(String text, Tokens ts) {
+    List<Name> names = new ArrayList<>();
+    String[] tokens = new String[ts.size()];
     BitSet posMap = null;
     if (useProperNounFilter_) {
       posMap = new BitSet();
@@ -121,21 +135,17 @@ public class TernaryTreeDictionary implements NER {
    
     List<Match> allMatches = trie_.getAllMatches(tokens);
     for (Match match : allMatches) {
-      Token start = ts.getToken(match.getTokenOffset());
-      Token end = ts.getToken(match.getTokenOffset() + match.getTokenCount() - 1);
+      int startIndex = match.getTokenOffset();
+      int endIndex = match.getTokenOffset() + match.getTokenCount() - 1;
       if (useProperNounFilter_) {
-        boolean keepName = false;
         // Check if token range contains at least one proper noun.
-        for (int j = start.getId(); j <= end.getId(); ++j) {
-          if (posMap.get(j)) {
-            keepName = true;
-            break;
-          }
-        }
-        if (!keepName) {
+        int properNoun = posMap.nextSetBit(startIndex);
+        if (properNoun < 0 || properNoun > endIndex) {
           continue;
         }
       }
+      Token start = ts.getToken(startIndex);
+      Token end = ts.getToken(endIndex);
       int charOffset = start.getBeginIndex();
       String nameText = text.substring(start.getBeginIndex(), end.getEndIndex());
       Name n = new Name(nameText, charOffset);
@@ -1,5 +1,6 @@
 package mpi.tokenizer.data;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
@@ -173,6 +174,49 @@ public class Tokenizer {
     parse(tokens, text, lemmatize);
     return tokens;
   }
+
+  /**
+   * Annotates all texts in one pass of the pipeline, using numThreads 
+   * threads. If the pass fails, the texts are parsed one by one.
+   * 
+   * @return Tokens of each text, in the order of the texts.
+   */
+  public List<Tokens> parse(List<String> texts, boolean lemmatize, int numThreads) {
+    List<Annotation> documents = new ArrayList<Annotation>(texts.size());
+    for (String text : texts) {
+      if (text.trim().length() > 0) {
+        documents.add(new Annotation(text));
+      }
+    }
+    List<Tokens> allTokens = new ArrayList<Tokens>(texts.size());
+    try {
+      stanfordCoreNLP.annotate(documents, numThreads);
+    } catch (Exception e) {
+      logger.warn("Batch parsing failed, parsing texts one by one: " 
+          + e.getLocalizedMessage());
+      for (String text : texts) {
+        allTokens.add(parse(text, lemmatize));
+      }
+      return allTokens;
+    }
+    int d = 0;
+    for (String text : texts) {
+      Tokens tokens = new Tokens();
+      if (text.trim().length() > 0) {
+        toTokens(tokens, documents.get(d++), text, lemmatize);
+      }
+      allTokens.add(tokens);
+    }
+    return allTokens;
+  }
+
+  /**
+   * Parses a short text, so that the annotators are loaded and the first
+   * document does not pay for their initialization.
+   */
+  public void warmUp() {
+    parse("Jimmy Page played Kashmir at Knebworth.", false);
+  }
   
   private void parse(Tokens tokens, String text, boolean lemmatize) {
     try {
@@ -181,6 +225,15 @@ public class Tokenizer {
       }
       Annotation document = new Annotation(text);
       stanfordCoreNLP.annotate(document);
+      toTokens(tokens, document, text, lemmatize);
+    } catch (Exception e) {
+      logger.error("Parser failed: " + e.getLocalizedMessage());
+      e.printStackTrace();
+    }
+  }
+
+  private void toTokens(Tokens tokens, Annotation document, String text, boolean lemmatize) {
+    try {
       List<CoreMap> sentences = document.get(SentencesAnnotation.class);
       Wrapper wrapper = new Wrapper();
       Morphology morphology = null;
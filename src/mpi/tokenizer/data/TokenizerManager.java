@@ -1,14 +1,27 @@
 package mpi.tokenizer.data;
 
-import mpi.tokenizer.data.Tokenizer.type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import mpi.aida.config.AidaConfig;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Holds one pipeline per Tokenizer.type, loaded and warmed up on first use.
+ * The pipelines are shared by all threads without locking: StanfordCoreNLP
+ * shares its annotators between all pipelines of a JVM anyway, and
+ * annotating concurrently with them is what its own multi-threaded batch
+ * annotation does.
+ */
 public class TokenizerManager {
   private Logger logger_ = LoggerFactory.getLogger(TokenizerManager.class);
   
-  private static TokenizerManager manager = null;
+  private static class TokenizerManagerHolder {
+    public static TokenizerManager manager = new TokenizerManager();
+  }
 
   public static void init() {
     TokenizerManager.getInstance();
@@ -22,90 +35,63 @@ public class TokenizerManager {
     return TokenizerManager.getInstance().parseText(text, type, lemmatize);
   }
 
+  /**
+   * Tokenizes all texts in one pass of the pipeline, which annotates them
+   * with AidaConfig.TOKENIZER_NUM_THREADS threads.
+   * 
+   * @return Tokens of each text, in the order of the texts.
+   */
+  public static List<Tokens> tokenize(List<String> texts, Tokenizer.type type, boolean lemmatize) {
+    return TokenizerManager.getInstance().parseTexts(texts, type, lemmatize);
+  }
+
   private static TokenizerManager getInstance() {
-    if (manager == null) {
-      manager = new TokenizerManager();
-    }
-    return manager;
+    return TokenizerManagerHolder.manager;
   }
 
-  private Tokenizer tokenizer = null;
+  private ConcurrentHashMap<Tokenizer.type, Tokenizer> tokenizers = 
+      new ConcurrentHashMap<Tokenizer.type, Tokenizer>();
   
-  private Tokenizer tokenizerPOS = null;
+  private MultilingualTokenizer multilingualTokenizer = new MultilingualTokenizer();
 
-  private Tokenizer tokenizerParse = null;
-  
-  private MultilingualTokenizer multilingualTokenizer = null;
+  private int numThreads;
 
   private TokenizerManager() {
-
+    numThreads = AidaConfig.getAsInt(AidaConfig.TOKENIZER_NUM_THREADS);
   }
 
   private Tokens parseText(String text, Tokenizer.type type, boolean lemmatize) {
-    synchronized (manager) {      
-      loadTokenizerForType(type);
-    }
-    switch (type) {
-      case ENGLISH_TOKENS:
-      case GERMAN_TOKENS:
-      case ARABIC_TOKENS:
-      case ENGLISH_WHITESPACE_TOKENIZER:
-      case TOKEN:
-        return tokenizer.parse(text, lemmatize);
-      case ENGLISH_POS:
-      case GERMAN_POS:
-      case ENGLISH_CASELESS_POS:
-      case ARABIC_POS:
-      case POS:
-        return tokenizerPOS.parse(text, lemmatize);
-      case ENGLISH_PARSE:
-      case ENGLISH_CASELESS_PARSE:
-      case PARSE:
-        return tokenizerParse.parse(text, lemmatize);
-      case MULTILINGUAL:
-        return multilingualTokenizer.tokenize(text);
-      default:
-        return null;
+    if (type == Tokenizer.type.MULTILINGUAL) {
+      return multilingualTokenizer.tokenize(text);
     }
+    return getTokenizer(type).parse(text, lemmatize);
   }
 
-  private void loadTokenizerForType(type type) {
+  private List<Tokens> parseTexts(List<String> texts, Tokenizer.type type, boolean lemmatize) {
+    if (type == Tokenizer.type.MULTILINGUAL) {
+      List<Tokens> allTokens = new ArrayList<Tokens>(texts.size());
+      for (String text : texts) {
+        allTokens.add(multilingualTokenizer.tokenize(text));
+      }
+      return allTokens;
+    }
+    return getTokenizer(type).parse(texts, lemmatize, numThreads);
+  }
 
-    switch (type) {
-      case MULTILINGUAL:
-        multilingualTokenizer = new MultilingualTokenizer();
-        break;
-      case ENGLISH_TOKENS:
-      case GERMAN_TOKENS:
-      case ARABIC_TOKENS:
-      case ENGLISH_WHITESPACE_TOKENIZER:
-      case TOKEN:
+  private Tokenizer getTokenizer(Tokenizer.type type) {
+    Tokenizer tokenizer = tokenizers.get(type);
+    if (tokenizer == null) {
+      // Loading takes long, only load each type once.
+      synchronized (tokenizers) {
+        tokenizer = tokenizers.get(type);
         if (tokenizer == null) {
           logger_.info("Loading tokenizer of type: " + type.name());
           tokenizer = new Tokenizer(type);
+          tokenizer.warmUp();
+          tokenizers.put(type, tokenizer);
         }
-        break;
-      case ENGLISH_POS:
-      case GERMAN_POS:
-      case ENGLISH_CASELESS_POS:
-      case ARABIC_POS:
-      case POS:
-        if (tokenizerPOS == null) {
-          logger_.info("Loading tokenizer of type: " + type.name());
-          tokenizerPOS = new Tokenizer(type);
-        }
-        break;
-      case ENGLISH_PARSE:
-      case ENGLISH_CASELESS_PARSE:
-      case PARSE:
-        if (tokenizerParse == null) {
-          logger_.info("Loading tokenizer of type: " + type.name());
-          tokenizerParse = new Tokenizer(type);
-        }
-        break;
-      default:
-        break;
+      }
     }
+    return tokenizer;
   }
-
 }
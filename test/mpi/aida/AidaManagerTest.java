@@ -1,6 +1,12 @@
 package mpi.aida;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
 import mpi.aida.config.AidaConfig;
 import mpi.aida.config.settings.PreparationSettings;
 import mpi.aida.config.settings.preparation.ManualPreparationSettings;
@@ -49,4 +55,20 @@ public class AidaManagerTest {
     in = p.prepare(text, settings);
     assertEquals(0, in.getMentionSize());
   }
+
+  @Test
+  public void sharedExecutors() throws Exception {
+    assertSame(AidaManager.getChunkExecutor(), AidaManager.getChunkExecutor());
+    assertSame(AidaManager.getEntityEntityPool(), AidaManager.getEntityEntityPool());
+    int result = AidaManager.getChunkExecutor().submit(new Callable<Integer>() {
+      @Override
+      public Integer call() throws Exception {
+        return 42;
+      }
+    }).get();
+    assertEquals(42, result);
+    Map<String, Long> stats = AidaManager.getExecutorStatistics();
+    assertTrue(stats.containsKey("chunk.queued"));
+    assertTrue(stats.containsKey("ee.queued"));
+  }
 }
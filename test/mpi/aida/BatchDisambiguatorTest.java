@@ -0,0 +1,92 @@
+package mpi.aida;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import mpi.aida.config.AidaConfig;
+import mpi.aida.config.settings.DisambiguationSettings;
+import mpi.aida.config.settings.PreparationSettings;
+import mpi.aida.config.settings.disambiguation.CocktailPartyDisambiguationSettings;
+import mpi.aida.data.DisambiguationResults;
+import mpi.aida.data.Entities;
+import mpi.aida.data.Entity;
+import mpi.aida.data.PreparedInput;
+import mpi.aida.preparator.Preparator;
+
+import org.junit.Test;
+
+/**
+ * Testing against the predefined DataAccessForTesting.
+ */
+public class BatchDisambiguatorTest {
+
+  private static final String[] CONTENTS = new String[] {
+      "When [[Page]] played Kashmir at Knebworth, his Les Paul was uniquely tuned.",
+      "[[Page]] played Kashmir.",
+      "Knebworth was where [[Page]] played." };
+
+  public BatchDisambiguatorTest() {
+    AidaConfig.set("dataAccess", "testing");
+    AidaConfig.set(AidaConfig.CACHE_WORD_DATA, "false");
+    AidaConfig.set(AidaConfig.RECONCILER_PERSON_MERGE, "false");
+    AidaManager.init();
+  }
+
+  private List<PreparedInput> prepare() throws Exception {
+    Preparator p = new Preparator();
+    List<PreparedInput> inputs = new ArrayList<PreparedInput>();
+    for (int i = 0; i < CONTENTS.length; ++i) {
+      inputs.add(p.prepare("batch" + i, CONTENTS[i], new PreparationSettings()));
+    }
+    return inputs;
+  }
+
+  private DisambiguationSettings getSettings() throws Exception {
+    DisambiguationSettings settings = new CocktailPartyDisambiguationSettings();
+    settings.getGraphSettings().setAlpha(DisambiguatorTest.DEFAULT_ALPHA);
+    settings.getGraphSettings().setCohRobustnessThreshold(DisambiguatorTest.DEFAULT_COH_ROBUSTNESS);
+    settings.getGraphSettings().setEntitiesPerMentionConstraint(DisambiguatorTest.DEFAULT_SIZE);
+    settings.setIncludeNullAsEntityCandidate(false);
+    return settings;
+  }
+
+  @Test
+  public void testSameAsSingleDocuments() throws Exception {
+    List<PreparedInput> inputs = prepare();
+    List<DisambiguationResults> batchResults =
+        new BatchDisambiguator(inputs, getSettings(), 2).disambiguate();
+    assertEquals(inputs.size(), batchResults.size());
+
+    List<PreparedInput> singleInputs = prepare();
+    for (int i = 0; i < singleInputs.size(); ++i) {
+      DisambiguationResults single =
+          new Disambiguator(singleInputs.get(i), getSettings()).disambiguate();
+      assertEquals(DisambiguatorTest.repackageMappings(single),
+          DisambiguatorTest.repackageMappings(batchResults.get(i)));
+    }
+
+    Map<String, String> mappings = DisambiguatorTest.repackageMappings(batchResults.get(0));
+    assertEquals("Jimmy_Page", mappings.get("Page"));
+    assertEquals("Kashmir_(song)", mappings.get("Kashmir"));
+    assertEquals("Knebworth_Festival", mappings.get("Knebworth"));
+    assertEquals(Entity.OOKBE, mappings.get("Les Paul"));
+  }
+
+  @Test
+  public void testAllCandidates() throws Exception {
+    List<PreparedInput> inputs = prepare();
+    for (PreparedInput input : inputs) {
+      new Disambiguator(input, getSettings()).lookupCandidateEntities();
+    }
+    Entities candidates = BatchDisambiguator.getAllCandidates(inputs);
+    Entities firstCandidates = BatchDisambiguator.getAllCandidates(inputs.subList(0, 1));
+    assertTrue(candidates.size() >= firstCandidates.size());
+    for (Entity entity : firstCandidates) {
+      assertTrue(candidates.contains(entity.getId()));
+    }
+  }
+}
@@ -8,6 +8,8 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import mpi.aida.config.AidaConfig;
 import mpi.aida.config.settings.DisambiguationSettings;
@@ -291,6 +293,29 @@ public class DisambiguatorTest {
         }
   }
 
+  @Test
+  public void testDocumentOnChunkPoolOfSizeOne() throws Exception {
+    String previous = AidaConfig.get(AidaConfig.CHUNK_NUM_THREADS);
+    AidaConfig.set(AidaConfig.CHUNK_NUM_THREADS, "1");
+    ExecutionPools.shutdown();
+    try {
+      String content = "When [[Page]] played Kashmir at Knebworth, his Les Paul was uniquely tuned.";
+      PreparedInput preparedInput =
+          new Preparator().prepare("testChunkPool", content, new PreparationSettings());
+      DisambiguationSettings settings = new CocktailPartyDisambiguationSettings();
+      settings.setIncludeNullAsEntityCandidate(false);
+      // The document occupies the only thread of the chunk pool, its chunks
+      // must not wait for that thread.
+      Future<DisambiguationResults> future = AidaManager.getChunkExecutor().submit(
+          new Disambiguator(preparedInput, settings));
+      DisambiguationResults results = future.get(60, TimeUnit.SECONDS);
+      assertEquals("Jimmy_Page", repackageMappings(results).get("Page"));
+    } finally {
+      AidaConfig.set(AidaConfig.CHUNK_NUM_THREADS, previous);
+      ExecutionPools.shutdown();
+    }
+  }
+
   public static Map<String, String> repackageMappings(DisambiguationResults results) {
     Map<String, String> repack = new HashMap<String, String>();
 
@@ -0,0 +1,152 @@
+package mpi.aida.access;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import gnu.trove.map.hash.TIntDoubleHashMap;
+import gnu.trove.set.hash.TIntHashSet;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import mpi.aida.data.Entities;
+import mpi.aida.data.Entity;
+import mpi.aida.data.KBIdentifiedEntity;
+import mpi.aida.data.Keyphrases;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that the keyphrases and keywords are filtered like in
+ * DataAccessSQL: keyphrases of sources with weight 0 are dropped, and only
+ * keyphrases above the minimum weight, at most the maximum count per
+ * entity, are kept. If keyphrases are dropped by weight or count, only the
+ * keywords of the remaining keyphrases are kept.
+ */
+public class DataAccessColumnarTest {
+
+  private File storeFile;
+
+  private DataAccessColumnar dataAccess;
+
+  @Before
+  public void setUp() throws IOException {
+    storeFile = File.createTempFile("aida-test", ".store");
+    EntityKnowledgeStoreWriter writer = new EntityKnowledgeStoreWriter(storeFile);
+    writer.addEntityKeyphrase(1, 10, 0.9, 1);
+    writer.addEntityKeyphrase(1, 11, 0.5, 2);
+    writer.addEntityKeyphrase(1, 12, 0.2, 1);
+    writer.addEntityKeyphrase(2, 11, 0.1, 2);
+    writer.addEntityKeyword(1, 100, 1.0);
+    writer.addEntityKeyword(1, 101, 2.0);
+    writer.addEntityKeyword(1, 102, 3.0);
+    writer.addEntityKeyword(1, 103, 4.0);
+    // Not in any keyphrase of the entity.
+    writer.addEntityKeyword(1, 104, 5.0);
+    writer.addEntityKeyword(2, 101, 2.0);
+    writer.addEntityKeyword(2, 102, 3.0);
+    writer.addKeyphraseToken(10, 100);
+    writer.addKeyphraseToken(10, 101);
+    writer.addKeyphraseToken(11, 101);
+    writer.addKeyphraseToken(11, 102);
+    writer.addKeyphraseToken(12, 103);
+    writer.addKeyphraseSource(1, "linkAnchor", 0.5);
+    writer.addKeyphraseSource(2, "wikipediaCategory", 0.5);
+    writer.build();
+    dataAccess = new DataAccessColumnar(new EntityKnowledgeStore(storeFile));
+  }
+
+  @After
+  public void tearDown() {
+    storeFile.delete();
+  }
+
+  private Keyphrases getKeyphrases(Map<String, Double> sourceWeights, double minWeight,
+      int maxCount) {
+    Entities entities = new Entities();
+    entities.add(new Entity(new KBIdentifiedEntity("A", "TEST"), 1));
+    entities.add(new Entity(new KBIdentifiedEntity("B", "TEST"), 2));
+    return dataAccess.getEntityKeyphrases(entities, sourceWeights, minWeight, maxCount);
+  }
+
+  private void assertKeyphrases(int[] expected, Keyphrases keyphrases, int entity) {
+    int[] kps = keyphrases.getEntityKeyphrases().get(entity);
+    assertEquals(new TIntHashSet(expected), kps == null ? new TIntHashSet() : new TIntHashSet(kps));
+    TIntDoubleHashMap weights = keyphrases.getEntityKeyphraseWeights().get(entity);
+    assertEquals(expected.length, weights == null ? 0 : weights.size());
+  }
+
+  private void assertKeywords(int[] expected, Keyphrases keyphrases, int entity) {
+    TIntDoubleHashMap weights = keyphrases.getEntityKeywordWeights().get(entity);
+    if (expected.length == 0) {
+      assertFalse(keyphrases.getEntityKeywordWeights().containsKey(entity));
+      return;
+    }
+    assertEquals(new TIntHashSet(expected), new TIntHashSet(weights.keys()));
+    for (int keyword : expected) {
+      // The keyword weights are keyword - 99.
+      assertEquals(keyword - 99.0, weights.get(keyword), 0.0);
+    }
+  }
+
+  @Test
+  public void testUnfiltered() {
+    Keyphrases keyphrases = getKeyphrases(null, 0.0, 0);
+    assertKeyphrases(new int[] { 10, 11, 12 }, keyphrases, 1);
+    assertKeywords(new int[] { 100, 101, 102, 103, 104 }, keyphrases, 1);
+    assertKeyphrases(new int[] { 11 }, keyphrases, 2);
+    assertKeywords(new int[] { 101, 102 }, keyphrases, 2);
+  }
+
+  @Test
+  public void testSourceExclusion() {
+    Map<String, Double> sourceWeights = new HashMap<String, Double>();
+    sourceWeights.put("linkAnchor", 1.0);
+    sourceWeights.put("wikipediaCategory", 0.0);
+    Keyphrases keyphrases = getKeyphrases(sourceWeights, 0.0, 0);
+    assertKeyphrases(new int[] { 10, 12 }, keyphrases, 1);
+    assertEquals(1, keyphrases.getEntityKeyphraseSources().get(1).get(12));
+    assertKeyphrases(new int[0], keyphrases, 2);
+    // The database does not clean the keywords if only sources are excluded.
+    assertKeywords(new int[] { 100, 101, 102, 103, 104 }, keyphrases, 1);
+    assertKeywords(new int[] { 101, 102 }, keyphrases, 2);
+  }
+
+  @Test
+  public void testMinWeight() {
+    Keyphrases keyphrases = getKeyphrases(null, 0.3, 0);
+    assertKeyphrases(new int[] { 10, 11 }, keyphrases, 1);
+    assertKeywords(new int[] { 100, 101, 102 }, keyphrases, 1);
+    assertKeyphrases(new int[0], keyphrases, 2);
+    assertKeywords(new int[0], keyphrases, 2);
+
+    // Keyphrases with exactly the minimum weight are dropped.
+    keyphrases = getKeyphrases(null, 0.1, 0);
+    assertKeyphrases(new int[] { 10, 11, 12 }, keyphrases, 1);
+    assertKeywords(new int[] { 100, 101, 102, 103 }, keyphrases, 1);
+    assertKeyphrases(new int[0], keyphrases, 2);
+  }
+
+  @Test
+  public void testMaxCount() {
+    Keyphrases keyphrases = getKeyphrases(null, 0.0, 1);
+    assertKeyphrases(new int[] { 10 }, keyphrases, 1);
+    assertKeywords(new int[] { 100, 101 }, keyphrases, 1);
+    assertKeyphrases(new int[] { 11 }, keyphrases, 2);
+    assertKeywords(new int[] { 101, 102 }, keyphrases, 2);
+  }
+
+  @Test
+  public void testMinWeightAndSourceExclusion() {
+    Map<String, Double> sourceWeights = new HashMap<String, Double>();
+    sourceWeights.put("wikipediaCategory", 0.0);
+    Keyphrases keyphrases = getKeyphrases(sourceWeights, 0.1, 2);
+    assertKeyphrases(new int[] { 10, 12 }, keyphrases, 1);
+    assertKeywords(new int[] { 100, 101, 103 }, keyphrases, 1);
+    assertKeyphrases(new int[0], keyphrases, 2);
+    assertKeywords(new int[0], keyphrases, 2);
+  }
+}
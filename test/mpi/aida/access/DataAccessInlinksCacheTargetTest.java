@@ -0,0 +1,122 @@
+package mpi.aida.access;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+import gnu.trove.map.hash.TIntObjectHashMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+import mpi.aida.util.SortedIntArrays;
+
+import org.junit.Test;
+
+public class DataAccessInlinksCacheTargetTest
+    extends MappedCacheTargetTester<DataAccessInlinksCacheTarget, TIntObjectHashMap<int[]>> {
+
+  /** Small segments, so that the test data is split into several. */
+  private static final int SEGMENT_INTS = 3;
+
+  @Override
+  protected DataAccessInlinksCacheTarget createTarget(
+      final TIntObjectHashMap<int[]> dbInlinks) {
+    return new DataAccessInlinksCacheTarget(SEGMENT_INTS) {
+      @Override
+      protected File getCacheFile() {
+        return cacheFile;
+      }
+
+      @Override
+      protected void loadFromDb() {
+        loaded();
+        setInlinks(dbInlinks);
+      }
+    };
+  }
+
+  @Override
+  protected TIntObjectHashMap<int[]> createData() {
+    TIntObjectHashMap<int[]> inlinks = new TIntObjectHashMap<int[]>();
+    inlinks.put(1, new int[] { 7, 3, 5, 3 });
+    inlinks.put(2, new int[0]);
+    inlinks.put(3, new int[] { 9 });
+    inlinks.put(5, new int[] { 1, 2 });
+    return inlinks;
+  }
+
+  @Override
+  protected TIntObjectHashMap<int[]> createOtherData() {
+    TIntObjectHashMap<int[]> inlinks = new TIntObjectHashMap<int[]>();
+    inlinks.put(1, new int[] { 4 });
+    return inlinks;
+  }
+
+  private int[] toArray(IntBuffer buffer) {
+    int[] values = new int[buffer.limit()];
+    for (int i = 0; i < values.length; ++i) {
+      values[i] = buffer.get(i);
+    }
+    return values;
+  }
+
+  @Override
+  protected void assertData(DataAccessInlinksCacheTarget target,
+      TIntObjectHashMap<int[]> inlinks) {
+    int maxEntityId = 0;
+    for (int entity : inlinks.keys()) {
+      maxEntityId = Math.max(maxEntityId, entity);
+    }
+    for (int entity = -1; entity <= maxEntityId + 2; ++entity) {
+      int[] expected = inlinks.containsKey(entity) ?
+          SortedIntArrays.sortedUnique(inlinks.get(entity)) : new int[0];
+      assertArrayEquals(Arrays.toString(expected), expected, toArray(target.getInlinks(entity)));
+      assertEquals(expected.length, target.getInlinkCount(entity));
+    }
+  }
+
+  @Test
+  public void testSortedUnique() {
+    DataAccessInlinksCacheTarget target = createTarget(createData());
+    target.loadFromDb();
+    assertArrayEquals(new int[] { 3, 5, 7 }, toArray(target.getInlinks(1)));
+  }
+
+  @Test
+  public void testEntityExceedsSegment() throws IOException {
+    TIntObjectHashMap<int[]> inlinks = new TIntObjectHashMap<int[]>();
+    inlinks.put(1, new int[] { 1, 2, 3, 4 });
+    try {
+      createTarget(inlinks).createAndLoadCache(false);
+      fail("Inlinks that cannot be mapped must not be stored.");
+    } catch (IllegalStateException e) {
+      // Expected.
+    }
+    assertFalse(cacheFile.exists());
+  }
+
+  @Test
+  public void testFailedReadIsNotCached() throws IOException {
+    DataAccessInlinksCacheTarget target = new DataAccessInlinksCacheTarget() {
+      @Override
+      protected File getCacheFile() {
+        return cacheFile;
+      }
+
+      @Override
+      protected void loadFromDb() {
+        throw new IllegalStateException("Could not read all entity inlinks.");
+      }
+    };
+    try {
+      target.createAndLoadCache(false);
+      fail("The failed read must not be hidden.");
+    } catch (IllegalStateException e) {
+      // Expected.
+    }
+    assertFalse(cacheFile.exists());
+  }
+}
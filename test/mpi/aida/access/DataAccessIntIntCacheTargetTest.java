@@ -0,0 +1,93 @@
+package mpi.aida.access;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Properties;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Test;
+
+public class DataAccessIntIntCacheTargetTest
+    extends MappedCacheTargetTester<DataAccessIntIntCacheTarget, int[]> {
+
+  @Override
+  protected DataAccessIntIntCacheTarget createTarget(final int[] dbData) {
+    return new DataAccessIntIntCacheTarget() {
+      @Override
+      public String getId() {
+        return "TEST";
+      }
+
+      @Override
+      protected File getCacheFile() {
+        return cacheFile;
+      }
+
+      @Override
+      protected void loadFromDb() {
+        loaded();
+        setData(dbData);
+      }
+    };
+  }
+
+  @Override
+  protected int[] createData() {
+    int[] data = new int[100000];
+    for (int i = 0; i < data.length; ++i) {
+      data[i] = i * 31 - 5000;
+    }
+    return data;
+  }
+
+  @Override
+  protected int[] createOtherData() {
+    return new int[] { 4, 5 };
+  }
+
+  @Override
+  protected void assertData(DataAccessIntIntCacheTarget target, int[] data) {
+    assertEquals(data.length, target.data_.limit());
+    for (int i = 0; i < data.length; ++i) {
+      assertEquals(data[i], target.getData(i));
+    }
+  }
+
+  @Test
+  public void testFileLength() throws IOException {
+    int[] data = createData();
+    createTarget(data).createAndLoadCache(false);
+    assertEquals(20 + 4L * data.length, cacheFile.length());
+  }
+
+  @Test
+  public void testOldFormatIsReplaced() throws IOException {
+    DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new FileOutputStream(cacheFile)));
+    out.writeInt(1);
+    out.writeInt(7);
+    out.close();
+
+    DataAccessIntIntCacheTarget target = createTarget(new int[] { 8 });
+    target.createAndLoadCache(false);
+    assertEquals(1, dbLoads);
+    assertEquals(8, target.getData(0));
+  }
+
+  @Test
+  public void testConfigHash() {
+    Properties a = new Properties();
+    a.setProperty("host", "localhost");
+    a.setProperty("db", "aida");
+    Properties b = new Properties();
+    b.setProperty("db", "aida");
+    b.setProperty("host", "localhost");
+    assertEquals(DataAccessCache.getConfigHash(a), DataAccessCache.getConfigHash(b));
+    b.setProperty("db", "aida2");
+    assertNotEquals(DataAccessCache.getConfigHash(a), DataAccessCache.getConfigHash(b));
+  }
+}
@@ -0,0 +1,74 @@
+package mpi.aida.access;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import gnu.trove.map.hash.TObjectIntHashMap;
+
+import java.io.File;
+
+public class DataAccessWordDictionaryCacheTargetTest
+    extends MappedCacheTargetTester<DataAccessWordDictionaryCacheTarget, TObjectIntHashMap<String>> {
+
+  @Override
+  protected DataAccessWordDictionaryCacheTarget createTarget(
+      final TObjectIntHashMap<String> dbWords) {
+    return new DataAccessWordDictionaryCacheTarget() {
+      @Override
+      protected File getCacheFile() {
+        return cacheFile;
+      }
+
+      @Override
+      protected void loadFromDb() {
+        loaded();
+        setWords(dbWords);
+      }
+    };
+  }
+
+  @Override
+  protected TObjectIntHashMap<String> createData() {
+    TObjectIntHashMap<String> words = new TObjectIntHashMap<String>();
+    words.put("Jimmy", 1);
+    words.put("JIMMY", 2);
+    words.put("Page", 3);
+    words.put("Kashmir", 5);
+    words.put("Knebworth Festival", 6);
+    words.put("Müller", 7);
+    words.put("東京", 8);
+    words.put("𝄞 clef", 9);
+    for (int i = 0; i < 10000; ++i) {
+      words.put("word" + i, 100 + i);
+    }
+    return words;
+  }
+
+  @Override
+  protected TObjectIntHashMap<String> createOtherData() {
+    TObjectIntHashMap<String> words = new TObjectIntHashMap<String>();
+    words.put("Plant", 1);
+    return words;
+  }
+
+  @Override
+  protected void assertData(DataAccessWordDictionaryCacheTarget target,
+      TObjectIntHashMap<String> words) {
+    int maxId = 0;
+    for (String word : words.keySet()) {
+      assertEquals(word, words.get(word), target.getIdForWord(word));
+      assertEquals(word, target.getWordForId(words.get(word)));
+      maxId = Math.max(maxId, words.get(word));
+    }
+    assertEquals(maxId, target.getMaximumId());
+    if (!words.containsKey("Jimmy")) {
+      assertEquals(0, target.getIdForWord("Jimmy"));
+    }
+    assertEquals(0, target.getIdForWord("jimmy"));
+    assertEquals(0, target.getIdForWord("Mülle"));
+    assertEquals(0, target.getIdForWord("東"));
+    assertEquals(0, target.getIdForWord(""));
+    assertNull(target.getWordForId(4));
+    assertNull(target.getWordForId(20000));
+  }
+}
@@ -0,0 +1,145 @@
+package mpi.aida.access;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EntityKnowledgeStoreTest {
+
+  private File storeFile;
+
+  @Before
+  public void setUp() throws IOException {
+    storeFile = File.createTempFile("aida-test", ".store");
+    storeFile.delete();
+  }
+
+  @After
+  public void tearDown() {
+    storeFile.delete();
+  }
+
+  private EntityKnowledgeStore createStore() throws IOException {
+    EntityKnowledgeStoreWriter writer = new EntityKnowledgeStoreWriter(storeFile);
+    writer.addEntityKeyphrase(1, 10, 0.2, 1);
+    writer.addEntityKeyphrase(1, 11, 0.9, 2);
+    writer.addEntityKeyphrase(1, 12, 0.5, 1);
+    writer.addEntityKeyphrase(4, 10, 0.3, 2);
+    writer.addEntityKeyword(2, 100, 1.5);
+    writer.addEntityKeyword(2, 101, 2.5);
+    writer.addEntityKeyword(4, 102, 0.5);
+    writer.addKeyphraseToken(10, 100);
+    writer.addKeyphraseToken(10, 101);
+    writer.addKeyphraseToken(12, 102);
+    writer.addKeyphraseSource(1, "linkAnchor", 0.5);
+    writer.addKeyphraseSource(2, "wikipediaCategory", Double.NaN);
+    writer.build();
+    return new EntityKnowledgeStore(storeFile);
+  }
+
+  @Test
+  public void testKeyphrases() throws IOException {
+    EntityKnowledgeStore store = createStore();
+    long start = store.getKeyphrasesStart(1);
+    assertEquals(3, store.getKeyphrasesEnd(1) - start);
+    // Sorted by descending weight.
+    assertEquals(11, store.getKeyphrase(start));
+    assertEquals(0.9, store.getKeyphraseWeight(start), 0.0);
+    assertEquals(2, store.getKeyphraseSource(start));
+    assertEquals(12, store.getKeyphrase(start + 1));
+    assertEquals(10, store.getKeyphrase(start + 2));
+    assertEquals(0.2, store.getKeyphraseWeight(start + 2), 0.0);
+
+    start = store.getKeyphrasesStart(4);
+    assertEquals(1, store.getKeyphrasesEnd(4) - start);
+    assertEquals(10, store.getKeyphrase(start));
+
+    for (int entity : new int[] { -1, 0, 2, 3, 5, 1000 }) {
+      assertEquals(store.getKeyphrasesStart(entity), store.getKeyphrasesEnd(entity));
+    }
+  }
+
+  @Test
+  public void testKeywordsAndTokens() throws IOException {
+    EntityKnowledgeStore store = createStore();
+    long start = store.getKeywordsStart(2);
+    assertEquals(2, store.getKeywordsEnd(2) - start);
+    assertEquals(100, store.getKeyword(start));
+    assertEquals(2.5, store.getKeywordWeight(start + 1), 0.0);
+    assertEquals(store.getKeywordsStart(1), store.getKeywordsEnd(1));
+    assertEquals(1, store.getKeywordsEnd(4) - store.getKeywordsStart(4));
+
+    assertArrayEquals(new int[] { 100, 101 }, store.getKeyphraseTokens(10));
+    assertArrayEquals(new int[] { 102 }, store.getKeyphraseTokens(12));
+    assertNull(store.getKeyphraseTokens(11));
+    assertNull(store.getKeyphraseTokens(13));
+  }
+
+  @Test
+  public void testSources() throws IOException {
+    EntityKnowledgeStore store = createStore();
+    assertEquals(2, store.getSourceIds().size());
+    assertEquals(2, store.getSourceIds().get("wikipediaCategory"));
+    assertEquals(1, store.getSourceWeights().size());
+    assertEquals(0.5, store.getSourceWeights().get(1), 0.0);
+    assertEquals(0.5, store.getSourceWeightsByName().get("linkAnchor"), 0.0);
+  }
+
+  @Test
+  public void testUnsortedInput() throws IOException {
+    EntityKnowledgeStoreWriter writer = new EntityKnowledgeStoreWriter(storeFile);
+    writer.addKeyphraseToken(5, 1);
+    try {
+      writer.addKeyphraseToken(4, 1);
+      fail("Unsorted keyphrases must be rejected.");
+    } catch (IllegalArgumentException e) {
+      // Expected.
+    }
+    writer.build();
+  }
+
+  @Test
+  public void testCloseRemovesTemporaryFiles() throws IOException {
+    File directory = Files.createTempDirectory("aida-test").toFile();
+    try {
+      File file = new File(directory, "entity.store");
+      try (EntityKnowledgeStoreWriter writer = new EntityKnowledgeStoreWriter(file)) {
+        writer.addEntityKeyphrase(2, 10, 0.5, 1);
+        assertEquals(6, directory.list().length);
+        // Fails partway, the store is never built.
+        writer.addEntityKeyphrase(1, 10, 0.5, 1);
+        fail("Unsorted entities must be rejected.");
+      } catch (IllegalArgumentException e) {
+        // Expected.
+      }
+      assertEquals(0, directory.list().length);
+    } finally {
+      directory.delete();
+    }
+  }
+
+  @Test
+  public void testInvalidFile() throws IOException {
+    createStore();
+    try (RandomAccessFile raf = new RandomAccessFile(storeFile, "rw")) {
+      raf.setLength(raf.length() - 20);
+    }
+    try {
+      new EntityKnowledgeStore(storeFile);
+      fail("Truncated stores must be rejected.");
+    } catch (IOException e) {
+      assertTrue(e.getMessage().contains("not a valid"));
+    }
+  }
+}
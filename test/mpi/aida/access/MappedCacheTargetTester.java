@@ -0,0 +1,104 @@
+package mpi.aida.access;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Common tests of the memory-mapped cache targets. Subclasses create targets
+ * whose cache file is {@link #cacheFile} and whose DB content is given by the
+ * test, and count the DB accesses with {@link #loaded()}.
+ *
+ * @param <T> Tested target.
+ * @param <D> DB content of the target.
+ */
+public abstract class MappedCacheTargetTester<T extends DataAccessMappedCacheTarget, D> {
+
+  protected File cacheFile;
+
+  protected int dbLoads = 0;
+
+  /**
+   * @param dbData DB content, null if the DB must not be accessed.
+   */
+  protected abstract T createTarget(D dbData);
+
+  protected abstract D createData();
+
+  /**
+   * @return DB content different from {@link #createData()}.
+   */
+  protected abstract D createOtherData();
+
+  /**
+   * Asserts that the target holds exactly the data.
+   */
+  protected abstract void assertData(T target, D data);
+
+  /**
+   * To be called by the loadFromDb() of the targets.
+   */
+  protected void loaded() {
+    ++dbLoads;
+  }
+
+  @Before
+  public void setUp() throws IOException {
+    cacheFile = File.createTempFile("aida-test", ".cache");
+    cacheFile.delete();
+  }
+
+  @After
+  public void tearDown() {
+    cacheFile.delete();
+  }
+
+  @Test
+  public void testInMemory() {
+    D data = createData();
+    T target = createTarget(data);
+    target.loadFromDb();
+    assertData(target, data);
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    D data = createData();
+    T created = createTarget(data);
+    created.setConfigHash(42);
+    created.createAndLoadCache(false);
+    assertEquals(1, dbLoads);
+
+    T mapped = createTarget(null);
+    mapped.setConfigHash(42);
+    mapped.createAndLoadCache(false);
+    assertEquals(1, dbLoads);
+    assertData(mapped, data);
+  }
+
+  @Test
+  public void testStaleConfigHash() throws IOException {
+    T created = createTarget(createData());
+    created.setConfigHash(1);
+    created.createAndLoadCache(false);
+
+    D otherData = createOtherData();
+    T reloaded = createTarget(otherData);
+    reloaded.setConfigHash(2);
+    reloaded.createAndLoadCache(false);
+    assertEquals(2, dbLoads);
+    assertData(reloaded, otherData);
+
+    // The rewritten file carries the new hash.
+    T mapped = createTarget(null);
+    mapped.setConfigHash(2);
+    mapped.createAndLoadCache(false);
+    assertEquals(2, dbLoads);
+    assertData(mapped, otherData);
+  }
+}
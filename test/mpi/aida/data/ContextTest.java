@@ -2,6 +2,7 @@ package mpi.aida.data;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import gnu.trove.map.hash.TIntObjectHashMap;
 
 import java.util.ArrayList;
@@ -100,4 +101,28 @@ public class ContextTest {
     int last = text.size() - 1;
     assertEquals(textAsId[last], externalContext.getIdForWord(text.get(last)));
   }
+
+  @Test
+  public void testDocumentIndex() {
+    List<String> text = new LinkedList<String>();
+
+    text.add("Jimmy");
+    text.add("played");
+    text.add("Les");
+    text.add("Paul");
+    text.add("played");
+
+    Context context = new Context(new Tokens(text));
+    DocumentIndex index = context.getDocumentIndex();
+    assertSame(index, context.getDocumentIndex());
+    assertSame(context.getTokenIds(), index.getTokenIds());
+
+    int played = context.getTokenIds()[1];
+    assertEquals(4, index.getTokenCounts().size());
+    assertEquals(2, index.getTokenCounts().get(played));
+    assertEquals(1, index.getTokenCounts().get(context.getTokenIds()[0]));
+
+    Mention mention = new Mention("Les Paul", 2, 3, 0, 0, 0);
+    assertEquals(2, index.getPositions().getPositions(played, mention).length);
+  }
 }
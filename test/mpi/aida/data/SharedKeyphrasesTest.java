@@ -0,0 +1,109 @@
+package mpi.aida.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import mpi.aida.AidaManager;
+import mpi.aida.access.DataAccess;
+import mpi.aida.access.DataAccessForTesting;
+import mpi.aida.config.AidaConfig;
+
+import org.junit.Test;
+
+/**
+ * Testing against the predefined DataAccessForTesting, which creates new
+ * keyphrase arrays on every fetch. Arrays shared between calls therefore
+ * come from the same fetch.
+ */
+public class SharedKeyphrasesTest {
+
+  public SharedKeyphrasesTest() {
+    AidaConfig.set("dataAccess", "testing");
+    AidaConfig.set(AidaConfig.CACHE_WORD_DATA, "false");
+    AidaManager.init();
+  }
+
+  private Entities getEntities(String... names) {
+    Entities entities = new Entities();
+    for (String name : names) {
+      entities.add(DataAccessForTesting.getTestEntity(name));
+    }
+    return entities;
+  }
+
+  private int getId(String name) {
+    return DataAccessForTesting.getTestEntity(name).getId();
+  }
+
+  @Test
+  public void testOneFetchForAllDocuments() {
+    SharedKeyphrases shared = new SharedKeyphrases(
+        getEntities("Jimmy_Page", "Kashmir", "Kashmir_(song)"));
+    Keyphrases first = shared.getEntityKeyphrases(
+        getEntities("Jimmy_Page", "Kashmir"), null, 0.0, 0);
+    Keyphrases second = shared.getEntityKeyphrases(
+        getEntities("Jimmy_Page", "Kashmir_(song)"), null, 0.0, 0);
+
+    int page = getId("Jimmy_Page");
+    assertSame(first.getEntityKeyphrases().get(page), second.getEntityKeyphrases().get(page));
+    assertSame(first.getEntityKeyphraseWeights().get(page),
+        second.getEntityKeyphraseWeights().get(page));
+    assertSame(first.getEntityKeywordWeights().get(page),
+        second.getEntityKeywordWeights().get(page));
+
+    // Each document only sees its own entities.
+    assertTrue(first.getEntityKeyphrases().containsKey(getId("Kashmir")));
+    assertFalse(first.getEntityKeyphrases().containsKey(getId("Kashmir_(song)")));
+    assertTrue(second.getEntityKeyphrases().containsKey(getId("Kashmir_(song)")));
+    assertFalse(second.getEntityKeyphrases().containsKey(getId("Kashmir")));
+
+    // The shared keyphrases are the ones of a single document fetch.
+    Keyphrases single = DataAccess.getEntityKeyphrases(
+        getEntities("Jimmy_Page"), null, 0.0, 0);
+    assertArrayEquals(single.getEntityKeyphrases().get(page),
+        second.getEntityKeyphrases().get(page));
+    for (int kp : single.getEntityKeyphrases().get(page)) {
+      assertArrayEquals(single.getKeyphraseTokens().get(kp), second.getKeyphraseTokens().get(kp));
+    }
+    assertEquals(single.getEntityKeyphraseWeights().get(page),
+        second.getEntityKeyphraseWeights().get(page));
+
+    // Other fetch parameters need a fetch of their own.
+    Keyphrases other = shared.getEntityKeyphrases(
+        getEntities("Jimmy_Page"), null, 0.0, 2);
+    assertNotSame(first.getEntityKeyphrases().get(page), other.getEntityKeyphrases().get(page));
+  }
+
+  @Test
+  public void testMissingEntities() {
+    SharedKeyphrases shared = new SharedKeyphrases(getEntities("Jimmy_Page"));
+    Keyphrases first = shared.getEntityKeyphrases(
+        getEntities("Jimmy_Page", "Knebworth_Festival"), null, 0.0, 0);
+    Keyphrases second = shared.getEntityKeyphrases(
+        getEntities("Jimmy_Page", "Knebworth_Festival"), null, 0.0, 0);
+
+    int page = getId("Jimmy_Page");
+    int knebworth = getId("Knebworth_Festival");
+    assertSame(first.getEntityKeyphrases().get(page), second.getEntityKeyphrases().get(page));
+    // Not shared, so fetched on every call.
+    assertNotSame(first.getEntityKeyphrases().get(knebworth),
+        second.getEntityKeyphrases().get(knebworth));
+
+    Keyphrases single = DataAccess.getEntityKeyphrases(
+        getEntities("Knebworth_Festival"), null, 0.0, 0);
+    assertArrayEquals(single.getEntityKeyphrases().get(knebworth),
+        first.getEntityKeyphrases().get(knebworth));
+    for (int kp : single.getEntityKeyphrases().get(knebworth)) {
+      assertArrayEquals(single.getKeyphraseTokens().get(kp), first.getKeyphraseTokens().get(kp));
+    }
+    assertEquals(single.getEntityKeyphraseWeights().get(knebworth),
+        first.getEntityKeyphraseWeights().get(knebworth));
+    assertEquals(single.getEntityKeywordWeights().get(knebworth),
+        first.getEntityKeywordWeights().get(knebworth));
+    assertEquals(2, first.getEntityKeyphrases().size());
+  }
+}
@@ -0,0 +1,127 @@
+package mpi.aida.graph;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import gnu.trove.set.hash.TIntHashSet;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import mpi.aida.data.Mention;
+import mpi.aida.graph.Graph.Edge;
+
+import org.junit.Test;
+
+public class GraphTest {
+
+  @Test
+  public void testCompact() {
+    Graph g = new Graph("test", 4, 0.5);
+    for (int e = 10; e < 14; ++e) {
+      g.addEntityNode(e);
+    }
+    g.addEdge(13, 10, 0.8);
+    g.addEdge(10, 11, 0.2);
+    g.addEdge(10, 12, 0.4);
+    // Duplicate edge, last weight wins.
+    g.addEdge(11, 10, 0.6);
+    assertFalse(g.isCompacted());
+
+    // Node ids are assigned in insertion order, 10 -> 0, ..., 13 -> 3.
+    assertArrayEquals(new int[] { 1, 2, 3 }, g.getSuccessorIds(0));
+    assertTrue(g.isCompacted());
+    assertArrayEquals(new int[] { 0 }, g.getSuccessorIds(1));
+    assertEquals(3, g.getNodeOutdegree(0));
+    assertEquals(1, g.getSuccessorsCount(3));
+
+    // Entity-entity weights are scaled by (1 - alpha).
+    assertEquals(0.3, g.getEdgeWeight(0, 1), 0.0001);
+    assertEquals(0.3, g.getEdgeWeight(1, 0), 0.0001);
+    assertEquals(0.4, g.getEdgeWeight(3, 0), 0.0001);
+    assertEquals(0.0, g.getEdgeWeight(1, 2), 0.0);
+    assertEquals(-1, g.getEdgeIndex(1, 2));
+    assertEquals(0.9, g.getNodeWeightedDegrees(0), 0.0001);
+
+    double sum = 0.0;
+    for (int i = g.getSuccessorsBegin(0); i < g.getSuccessorsEnd(0); ++i) {
+      sum += g.getSuccessorWeight(i);
+    }
+    assertEquals(0.9, sum, 0.0001);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testAddAfterCompact() {
+    Graph g = new Graph("test", 2, 0.5);
+    g.addEntityNode(1);
+    g.addEntityNode(2);
+    g.compact();
+    g.addEdge(1, 2, 0.5);
+  }
+
+  @Test
+  public void testConcurrentLazyCompact() throws Exception {
+    final Graph g = new Graph("test", 200, 0.5);
+    for (int e = 0; e < 200; ++e) {
+      g.addEntityNode(e);
+    }
+    for (int e = 1; e < 200; ++e) {
+      g.addEdge(0, e, 1.0);
+    }
+    ExecutorService es = Executors.newFixedThreadPool(4);
+    try {
+      List<Callable<Integer>> readers = new ArrayList<Callable<Integer>>();
+      for (int i = 0; i < 8; ++i) {
+        readers.add(() -> g.getSuccessorIds(0).length);
+      }
+      for (Future<Integer> f : es.invokeAll(readers)) {
+        assertEquals(199, (int) f.get());
+      }
+    } finally {
+      es.shutdown();
+    }
+  }
+
+  @Test
+  public void testCopyRemovingNodesAndEdges() {
+    Graph g = new Graph("test", 5, 0.5);
+    Mention m = new Mention("Page", 0, 0, 0, 0, 0);
+    g.addMentionNode(m);
+    for (int e = 10; e < 14; ++e) {
+      g.addEntityNode(e);
+      g.addEdge(m, e, 0.1);
+      g.addMentionEntitySim(m, e, 0.1);
+    }
+    g.addEdge(10, 11, 0.2);
+    g.addEdge(10, 12, 0.4);
+    g.addEdge(12, 13, 0.6);
+    g.addEdge(10, 13, 0.8);
+    // Node ids: mention -> 0, entity 10 -> 1, ..., 13 -> 4.
+    TIntHashSet nodesToRemove = new TIntHashSet();
+    nodesToRemove.add(2);
+    Set<Edge> edgesToRemove = new HashSet<Edge>();
+    edgesToRemove.add(g.new Edge(3, 4));
+
+    Graph pruned = g.copyRemovingNodesAndEdges(nodesToRemove, edgesToRemove);
+    assertEquals(4, pruned.getNodesCount());
+    assertFalse(pruned.getEntityNodesIds().containsKey(11));
+    // Edges are added by entity id, the node ids of the copy may differ.
+    int n10 = pruned.getEntityNodesIds().get(10);
+    int n12 = pruned.getEntityNodesIds().get(12);
+    int n13 = pruned.getEntityNodesIds().get(13);
+    assertEquals(3, pruned.getSuccessorsCount(n10));
+    assertTrue(pruned.getEdgeIndex(n10, n12) >= 0);
+    assertTrue(pruned.getEdgeIndex(n10, n13) >= 0);
+    assertEquals(-1, pruned.getEdgeIndex(n12, n13));
+    // addEdge scales the copied weight by (1 - alpha) once more.
+    assertEquals(g.getEdgeWeight(1, 4) * 0.5, pruned.getEdgeWeight(n10, n13), 0.0001);
+  }
+}
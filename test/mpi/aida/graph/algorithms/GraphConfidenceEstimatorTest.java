@@ -0,0 +1,107 @@
+package mpi.aida.graph.algorithms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import mpi.aida.config.settings.ConfidenceSettings;
+import mpi.aida.data.Mention;
+import mpi.aida.graph.Graph;
+
+import org.junit.Test;
+
+public class GraphConfidenceEstimatorTest {
+
+  /**
+   * Mention nodes 0-2, each with two candidates (3+4, 5+6, 7+8). The first
+   * candidates are strongly coherent and form the solution, the second
+   * candidates are weakly coherent.
+   */
+  private Graph createGraph() {
+    Graph g = new Graph("test", 9, 0.5);
+    String[] names = new String[] { "Page", "Plant", "Jones" };
+    Mention[] mentions = new Mention[names.length];
+    for (int m = 0; m < names.length; ++m) {
+      mentions[m] = new Mention(names[m], m, m, m, m, 0);
+      g.addMentionNode(mentions[m]);
+    }
+    for (int e = 3; e < 9; ++e) {
+      g.addEntityNode(e);
+    }
+    for (int m = 0; m < names.length; ++m) {
+      g.addEdge(mentions[m], 3 + 2 * m, 0.5);
+      g.addEdge(mentions[m], 4 + 2 * m, 0.5);
+    }
+    g.addEdge(3, 5, 0.9);
+    g.addEdge(3, 7, 0.9);
+    g.addEdge(5, 7, 0.9);
+    g.addEdge(4, 6, 0.1);
+    g.addEdge(4, 8, 0.1);
+    g.addEdge(6, 8, 0.1);
+    return g;
+  }
+
+  private Map<Integer, Integer> createSolution() {
+    Map<Integer, Integer> solution = new HashMap<Integer, Integer>();
+    solution.put(0, 3);
+    solution.put(1, 5);
+    solution.put(2, 7);
+    return solution;
+  }
+
+  private ConfidenceSettings createSettings() {
+    ConfidenceSettings settings = new ConfidenceSettings();
+    settings.setConfidenceBalance(0.0f);
+    settings.setIterationsPerMention(1000);
+    return settings;
+  }
+
+  @Test
+  public void testEstimate() {
+    Map<Integer, Map<Integer, Double>> confidences =
+        new GraphConfidenceEstimator(createGraph(), createSolution())
+            .estimate(createSettings());
+    assertEquals(3, confidences.size());
+    for (int m = 0; m < 3; ++m) {
+      Map<Integer, Double> mentionConfidences = confidences.get(m);
+      assertEquals(2, mentionConfidences.size());
+      double sum = 0.0;
+      for (double confidence : mentionConfidences.values()) {
+        sum += confidence;
+      }
+      assertEquals(1.0, sum, 0.0001);
+      assertTrue(mentionConfidences.get(3 + 2 * m) > 0.5);
+    }
+  }
+
+  @Test
+  public void testSameSeedSameConfidences() {
+    ConfidenceSettings settings = createSettings();
+    settings.setSeed(42);
+    Map<Integer, Map<Integer, Double>> first =
+        new GraphConfidenceEstimator(createGraph(), createSolution())
+            .estimate(settings);
+    Map<Integer, Map<Integer, Double>> second =
+        new GraphConfidenceEstimator(createGraph(), createSolution())
+            .estimate(settings);
+    assertEquals(first, second);
+  }
+
+  @Test
+  public void testTimeBudget() {
+    ConfidenceSettings settings = createSettings();
+    settings.setTimeBudgetMillis(1);
+    Map<Integer, Map<Integer, Double>> confidences =
+        new GraphConfidenceEstimator(createGraph(), createSolution())
+            .estimate(settings);
+    for (Map<Integer, Double> mentionConfidences : confidences.values()) {
+      double sum = 0.0;
+      for (double confidence : mentionConfidences.values()) {
+        sum += confidence;
+      }
+      assertEquals(1.0, sum, 0.0001);
+    }
+  }
+}
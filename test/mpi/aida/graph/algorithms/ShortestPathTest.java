@@ -0,0 +1,54 @@
+package mpi.aida.graph.algorithms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import mpi.aida.graph.Graph;
+import mpi.aida.util.IndexedMinHeap;
+
+import org.junit.Test;
+
+public class ShortestPathTest {
+
+  /**
+   * Node ids are assigned in insertion order, 10 -> 0, ..., 13 -> 3. Node 3
+   * is not connected.
+   */
+  private Graph createGraph() {
+    Graph g = new Graph("test", 4, 0.0);
+    for (int e = 10; e < 14; ++e) {
+      g.addEntityNode(e);
+    }
+    g.addEdge(10, 11, 0.8);
+    g.addEdge(11, 12, 0.5);
+    g.addEdge(10, 12, 0.1);
+    return g;
+  }
+
+  @Test
+  public void testRun() {
+    Graph g = createGraph();
+    double[] distances = new double[4];
+    IndexedMinHeap heap = new IndexedMinHeap(4);
+    boolean[] isTarget = new boolean[] { false, true, true, true };
+    new ShortestPath().run(0, g, isTarget, 3, distances, heap);
+    assertEquals(0.2, distances[1], 0.0001);
+    assertEquals(0.7, distances[2], 0.0001);
+    assertEquals(Double.POSITIVE_INFINITY, distances[3], 0.0);
+    assertTrue(heap.isEmpty());
+
+    g.setRemoved(1);
+    new ShortestPath().run(0, g, isTarget, 3, distances, heap);
+    assertEquals(0.9, distances[2], 0.0001);
+  }
+
+  @Test
+  public void testRunStopsAtTargets() {
+    Graph g = createGraph();
+    double[] distances = new double[4];
+    IndexedMinHeap heap = new IndexedMinHeap(4);
+    boolean[] isTarget = new boolean[] { false, true, false, false };
+    new ShortestPath().run(0, g, isTarget, 1, distances, heap);
+    assertEquals(0.2, distances[1], 0.0001);
+    assertTrue(heap.isEmpty());
+  }
+}
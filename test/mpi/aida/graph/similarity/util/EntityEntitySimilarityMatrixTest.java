@@ -0,0 +1,53 @@
+package mpi.aida.graph.similarity.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import mpi.aida.data.Entity;
+
+import org.junit.Test;
+
+public class EntityEntitySimilarityMatrixTest {
+
+  @Test
+  public void testMatrix() {
+    List<Entity> entities = new ArrayList<Entity>();
+    entities.add(new Entity("C", "YAGO", 3));
+    entities.add(new Entity("A", "YAGO", 1));
+    entities.add(new Entity("D", "YAGO", 4));
+    entities.add(new Entity("B", "YAGO", 2));
+    EntityEntitySimilarityMatrix m = new EntityEntitySimilarityMatrix(entities);
+    assertEquals(4, m.size());
+    assertFalse(m.hasComputedPairs());
+
+    // Ordinals follow the lexicographic order.
+    for (int i = 0; i < m.size(); ++i) {
+      assertEquals(i + 1, m.getEntity(i).getId());
+      assertEquals(i, m.getOrdinal(m.getEntity(i)));
+    }
+    assertEquals(-1, m.getOrdinal(new Entity("E", "YAGO", 5)));
+
+    // Fill all pairs with distinct values and read them back.
+    for (int i = 0; i < m.size(); ++i) {
+      for (int j = i + 1; j < m.size(); ++j) {
+        assertFalse(m.isComputed(i, j));
+        assertTrue(Double.isNaN(m.get(i, j)));
+        m.set(i, j, i * 10 + j);
+      }
+    }
+    assertTrue(m.hasComputedPairs());
+    for (int i = 0; i < m.size(); ++i) {
+      for (int j = i + 1; j < m.size(); ++j) {
+        assertTrue(m.isComputed(i, j));
+        assertEquals(i * 10 + j, m.get(i, j), 0.0);
+        assertEquals(i * 10 + j, m.get(j, i), 0.0);
+      }
+    }
+    assertEquals(1.0, m.get(2, 2), 0.0);
+    assertEquals(3.0, m.get(entities.get(1), entities.get(2)), 0.0);
+  }
+}
@@ -0,0 +1,81 @@
+package mpi.aida.preparator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import mpi.aida.AidaManager;
+import mpi.aida.config.AidaConfig;
+import mpi.aida.config.settings.PreparationSettings;
+import mpi.aida.data.ExternalEntitiesContext;
+import mpi.aida.data.PreparedInput;
+import mpi.aida.data.PreparedInputChunk;
+import mpi.aida.data.Type;
+import mpi.aida.preparation.mentionrecognition.MentionsDetector;
+
+import org.junit.Test;
+
+public class PreparatorTest {
+
+  private static final List<String> TEXTS = Arrays.asList(
+      "When [[Page]] played Kashmir at Knebworth, his Les Paul was uniquely tuned.",
+      "[[Page]] played Kashmir.");
+
+  private static final List<String> DOC_IDS = Arrays.asList("prep0", "prep1");
+
+  private static final Type[] TYPES = new Type[] {
+      new Type("YAGO", "wordnet_musician_110340312"), new Type("YAGO", "wordnet_song_107048000") };
+
+  public PreparatorTest() {
+    AidaConfig.set("dataAccess", "testing");
+    AidaConfig.set(AidaConfig.CACHE_WORD_DATA, "false");
+    AidaManager.init();
+  }
+
+  private void assertFilteringTypes(Set<Type> expected, List<PreparedInput> inputs) {
+    assertEquals(TEXTS.size(), inputs.size());
+    for (PreparedInput input : inputs) {
+      assertFalse(input.getMentionSize() == 0);
+      for (PreparedInputChunk chunk : input) {
+        assertEquals(expected, chunk.getMentions().getEntitiesTypes());
+      }
+    }
+  }
+
+  @Test
+  public void testBatchFilteringTypes() {
+    PreparationSettings settings = new PreparationSettings();
+    settings.setFilteringTypes(TYPES);
+    List<PreparedInput> inputs = Preparator.prepareInputData(
+        TEXTS, DOC_IDS, new ExternalEntitiesContext(), settings);
+    assertFilteringTypes(new HashSet<Type>(Arrays.asList(TYPES)), inputs);
+  }
+
+  @Test
+  public void testBatchFilteringTypesAutomatic() {
+    PreparationSettings settings = new PreparationSettings();
+    settings.setMentionsDetectionType(MentionsDetector.type.AUTOMATIC);
+    settings.setFilteringTypes(TYPES);
+    List<PreparedInput> inputs = Preparator.prepareInputData(
+        TEXTS, DOC_IDS, new ExternalEntitiesContext(), settings);
+    assertFilteringTypes(new HashSet<Type>(Arrays.asList(TYPES)), inputs);
+  }
+
+  @Test
+  public void testBatchWithoutFilteringTypes() {
+    PreparationSettings settings = new PreparationSettings();
+    settings.setFilteringTypes(null);
+    List<PreparedInput> inputs = Preparator.prepareInputData(
+        TEXTS, DOC_IDS, new ExternalEntitiesContext(), settings);
+    for (PreparedInput input : inputs) {
+      for (PreparedInputChunk chunk : input) {
+        assertNull(chunk.getMentions().getEntitiesTypes());
+      }
+    }
+  }
+}
@@ -0,0 +1,223 @@
+package mpi.aida.service.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import mpi.aida.config.AidaConfig;
+import mpi.aida.config.settings.DisambiguationSettings;
+import mpi.aida.config.settings.PreparationSettings;
+import mpi.aida.config.settings.disambiguation.PriorOnlyDisambiguationSettings;
+import mpi.aida.graph.similarity.util.SimilaritySettings;
+import mpi.aida.preparation.mentionrecognition.MentionsDetector.type;
+
+import org.json.simple.JSONObject;
+import org.junit.Test;
+
+public class ResultCacheTest {
+
+  private static final String TEXT = "[[Page]] played [[Kashmir]] at [[Knebworth]].";
+
+  private PreparationSettings prepSettings() {
+    PreparationSettings prepSettings = new PreparationSettings();
+    prepSettings.setMentionsDetectionType(type.MANUAL);
+    return prepSettings;
+  }
+
+  @SuppressWarnings("unchecked")
+  private JSONObject result(String docId) {
+    JSONObject json = new JSONObject();
+    json.put("docID", docId);
+    json.put("originalText", "Page played Kashmir at Knebworth.");
+    return json;
+  }
+
+  @Test
+  public void testMemory() throws Exception {
+    ResultCache cache = new ResultCache(true, 1024 * 1024, null, "repo");
+    DisambiguationSettings disSettings = new PriorOnlyDisambiguationSettings();
+    String key = cache.getKey(TEXT, prepSettings(), disSettings, "DEFAULT:15");
+    assertEquals(key, cache.getKey(TEXT, prepSettings(), disSettings, "DEFAULT:15"));
+    assertNull(cache.get(key));
+
+    cache.put(key, result("doc1"));
+    JSONObject cached = cache.get(key);
+    assertEquals("doc1", cached.get("docID"));
+    // Changing the returned copy does not change the cached result.
+    cached.put("docID", "doc2");
+    assertEquals("doc1", cache.get(key).get("docID"));
+
+    Map<String, Long> stats = cache.getStatistics();
+    assertEquals(2, stats.get("hits").longValue());
+    assertEquals(1, stats.get("misses").longValue());
+    assertEquals(1, stats.get("memory.entries").longValue());
+  }
+
+  @Test
+  public void testKeys() throws Exception {
+    ResultCache cache = new ResultCache(true, 1024 * 1024, null, "repo");
+    DisambiguationSettings disSettings = new PriorOnlyDisambiguationSettings();
+    String key = cache.getKey(TEXT, prepSettings(), disSettings, "DEFAULT:15");
+    assertNotEquals(key, cache.getKey(TEXT + " ", prepSettings(), disSettings, "DEFAULT:15"));
+    assertNotEquals(key, cache.getKey(TEXT, prepSettings(), disSettings, "DEFAULT:10"));
+
+    PreparationSettings otherPrep = prepSettings();
+    otherPrep.setMinMentionOccurrenceCount(2);
+    assertNotEquals(key, cache.getKey(TEXT, otherPrep, disSettings, "DEFAULT:15"));
+
+    DisambiguationSettings otherDis = new PriorOnlyDisambiguationSettings();
+    otherDis.setNullMappingThreshold(0.5);
+    assertNotEquals(key, cache.getKey(TEXT, prepSettings(), otherDis, "DEFAULT:15"));
+
+    ResultCache otherRepository = new ResultCache(true, 1024 * 1024, null, "other");
+    assertNotEquals(key,
+        otherRepository.getKey(TEXT, prepSettings(), disSettings, "DEFAULT:15"));
+  }
+
+  private Properties similarityProperties() {
+    Properties prop = new Properties();
+    prop.setProperty("mentionEntitySimilaritiesWithPrior",
+        "UnnormalizedKeyphrasesBasedMISimilarity:KeyphrasesContext:0.5");
+    prop.setProperty("priorWeight", "0.5");
+    return prop;
+  }
+
+  private String getKey(ResultCache cache, Properties similarityProperties) throws Exception {
+    DisambiguationSettings disSettings = new PriorOnlyDisambiguationSettings();
+    disSettings.setSimilaritySettings(new SimilaritySettings(similarityProperties, "test"));
+    return cache.getKey(TEXT, prepSettings(), disSettings, "DEFAULT:15");
+  }
+
+  @Test
+  public void testSimilaritySettingsChangeKey() throws Exception {
+    ResultCache cache = new ResultCache(true, 1024 * 1024, null, "repo");
+    String key = getKey(cache, similarityProperties());
+    assertEquals(key, getKey(cache, similarityProperties()));
+    // The identifier is only a name, it does not change the result.
+    DisambiguationSettings renamed = new PriorOnlyDisambiguationSettings();
+    renamed.setSimilaritySettings(new SimilaritySettings(similarityProperties(), "renamed"));
+    assertEquals(key, cache.getKey(TEXT, prepSettings(), renamed, "DEFAULT:15"));
+
+    String[][] changes = new String[][] {
+        { "priorDampingFactor", "0.5" },
+        { "priorTakeLog", "true" },
+        { "priorThreshold", "0.8" },
+        { "maxEntityKeyphraseCount", "100" },
+        { "minimumEntityKeyphraseWeight", "0.01" },
+        { "numberOfEntityKeyphrase", "10" },
+        { "unitSmoothingParameter", "0.5" },
+        { "unitIgnoreMention", "true" },
+        { "importanceAggregationStrategy", "AVERGAE" },
+        { "nGramLength", "3" },
+        { "lshBandSize", "3" },
+        { "entityImportanceWeightsWithPrior", "InlinkCountImportance:0.3" },
+        { "mentionEntitySimilaritiesWithPrior",
+          "UnnormalizedKeyphrasesBasedMISimilarity:KeyphrasesContext:0.6" },
+        { "mentionEntityKeyphraseSourceWeights", "wiki:0.5" } };
+    Set<String> keys = new HashSet<String>();
+    keys.add(key);
+    for (String[] change : changes) {
+      Properties prop = similarityProperties();
+      prop.setProperty(change[0], change[1]);
+      assertTrue(change[0], keys.add(getKey(cache, prop)));
+    }
+  }
+
+  @Test
+  public void testDisambiguationSettingsChangeKey() throws Exception {
+    ResultCache cache = new ResultCache(true, 1024 * 1024, null, "repo");
+    String key = cache.getKey(TEXT, prepSettings(), new PriorOnlyDisambiguationSettings(), "");
+
+    DisambiguationSettings chunkThreads = new PriorOnlyDisambiguationSettings();
+    chunkThreads.setNumChunkThreads(1);
+    assertEquals(key, cache.getKey(TEXT, prepSettings(), chunkThreads, ""));
+
+    DisambiguationSettings maxRank = new PriorOnlyDisambiguationSettings();
+    maxRank.setMaxEntityRank(0.5);
+    assertNotEquals(key, cache.getKey(TEXT, prepSettings(), maxRank, ""));
+
+    DisambiguationSettings graph = new PriorOnlyDisambiguationSettings();
+    graph.getGraphSettings().setPruneCandidateThreshold(10);
+    assertNotEquals(key, cache.getKey(TEXT, prepSettings(), graph, ""));
+
+    DisambiguationSettings confidence = new PriorOnlyDisambiguationSettings();
+    String confidenceKey = cache.getKey(TEXT, prepSettings(), confidence, "");
+    confidence.getConfidenceSettings().setSeed(1);
+    assertNotEquals(confidenceKey, cache.getKey(TEXT, prepSettings(), confidence, ""));
+  }
+
+  @Test
+  public void testConfigChangesKey() throws Exception {
+    ResultCache cache = new ResultCache(true, 1024 * 1024, null, "repo");
+    DisambiguationSettings disSettings = new PriorOnlyDisambiguationSettings();
+    Set<String> keys = new HashSet<String>();
+    keys.add(cache.getKey(TEXT, prepSettings(), disSettings, ""));
+    String[][] changes = new String[][] {
+        { AidaConfig.CANDIDATE_ENTITY_LOOKUP_MENTION_IS_PREFIX, "true" },
+        { AidaConfig.MAX_NUM_CANDIDATE_ENTITIES_FOR_GRAPH, "100" },
+        { AidaConfig.RECONCILER_PERSON_MERGE, "true" },
+        { AidaConfig.DICTIONARY_FUZZY_MATCHING, "true" },
+        { AidaConfig.FIXED_LENGTH_DOCUMENT_CHUNK_SIZE, "5" } };
+    for (String[] change : changes) {
+      String original = AidaConfig.get(change[0]);
+      AidaConfig.set(change[0], change[1]);
+      try {
+        assertTrue(change[0], keys.add(cache.getKey(TEXT, prepSettings(), disSettings, "")));
+      } finally {
+        AidaConfig.set(change[0], original);
+      }
+    }
+  }
+
+  @Test
+  public void testDisk() throws Exception {
+    File dir = Files.createTempDirectory("resultcache").toFile();
+    DisambiguationSettings disSettings = new PriorOnlyDisambiguationSettings();
+    ResultCache cache = new ResultCache(true, 1024 * 1024, dir, "repo");
+    String key = cache.getKey(TEXT, prepSettings(), disSettings, "DEFAULT:15");
+    cache.put(key, result("doc1"));
+
+    // A new instance finds the result on disk.
+    ResultCache restarted = new ResultCache(true, 1024 * 1024, dir, "repo");
+    assertEquals("doc1", restarted.get(key).get("docID"));
+    assertEquals(1, restarted.getStatistics().get("diskHits").longValue());
+
+    // Results of another repository are removed.
+    ResultCache changed = new ResultCache(true, 1024 * 1024, dir, "other");
+    assertNull(changed.get(key));
+    assertFalse(new File(new File(dir, key.substring(0, 2)), key + ".json").exists());
+    assertTrue(new File(dir, "repository.fingerprint").exists());
+  }
+
+  @Test
+  public void testDiskKeepsOtherFiles() throws Exception {
+    File dir = Files.createTempDirectory("resultcache").toFile();
+    File other = new File(new File(dir, "settings"), "aida.properties");
+    other.getParentFile().mkdirs();
+    Files.write(other.toPath(), "language=en".getBytes("UTF-8"));
+    ResultCache cache = new ResultCache(true, 1024 * 1024, dir, "repo");
+    String key = cache.getKey(TEXT, prepSettings(), new PriorOnlyDisambiguationSettings(), "");
+    cache.put(key, result("doc1"));
+
+    new ResultCache(true, 1024 * 1024, dir, "other");
+    assertFalse(new File(dir, key.substring(0, 2)).exists());
+    assertTrue(other.exists());
+  }
+
+  @Test
+  public void testDisabled() {
+    ResultCache cache = new ResultCache(false, 0, null, null);
+    assertFalse(cache.isEnabled());
+    cache.put("0123456789abcdef0123", result("doc1"));
+    assertNull(cache.get("0123456789abcdef0123"));
+  }
+}
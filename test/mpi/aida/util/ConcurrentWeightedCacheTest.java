@@ -0,0 +1,105 @@
+package mpi.aida.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ConcurrentWeightedCacheTest {
+
+  private static final ConcurrentWeightedCache.Weigher<int[]> LENGTH =
+      new ConcurrentWeightedCache.Weigher<int[]>() {
+    @Override
+    public int weigh(int[] value) {
+      return value.length;
+    }
+  };
+
+  @Test
+  public void testGetPut() {
+    ConcurrentWeightedCache<int[]> cache = new ConcurrentWeightedCache<int[]>(100, 1, LENGTH);
+    assertNull(cache.get(1));
+    cache.put(1, new int[] { 1, 2 });
+    cache.put(2, new int[] { 3 });
+    assertEquals(2, cache.get(1)[1]);
+    assertEquals(3, cache.get(2)[0]);
+    // Replacing an entry updates the weight.
+    cache.put(1, new int[] { 4 });
+    assertEquals(4, cache.get(1)[0]);
+    assertEquals(2, cache.size());
+    assertEquals(2, cache.getWeight());
+    assertEquals(3, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(0, cache.getEvictionCount());
+  }
+
+  @Test
+  public void testEvictionByWeight() {
+    ConcurrentWeightedCache<int[]> cache = new ConcurrentWeightedCache<int[]>(10, 1, LENGTH);
+    for (int i = 0; i < 5; ++i) {
+      cache.put(i, new int[2]);
+    }
+    assertEquals(10, cache.getWeight());
+    cache.put(5, new int[4]);
+    assertTrue(cache.getWeight() <= 10);
+    assertEquals(2, cache.getEvictionCount());
+    assertNull(cache.get(0));
+    assertNull(cache.get(1));
+    assertNotNull(cache.get(5));
+    // Values heavier than the cache are not stored.
+    cache.put(6, new int[11]);
+    assertNull(cache.get(6));
+  }
+
+  @Test
+  public void testProtectedEntriesSurviveScans() {
+    ConcurrentWeightedCache<int[]> cache = new ConcurrentWeightedCache<int[]>(10, 1, LENGTH);
+    cache.put(0, new int[1]);
+    cache.put(1, new int[1]);
+    // Hits promote both entries.
+    cache.get(0);
+    cache.get(1);
+    for (int i = 100; i < 200; ++i) {
+      cache.put(i, new int[1]);
+    }
+    assertNotNull(cache.get(0));
+    assertNotNull(cache.get(1));
+    assertNull(cache.get(100));
+  }
+
+  @Test
+  public void testConcurrentAccess() throws InterruptedException {
+    final ConcurrentWeightedCache<int[]> cache = new ConcurrentWeightedCache<int[]>(1000, LENGTH);
+    List<Thread> threads = new ArrayList<Thread>();
+    for (int t = 0; t < 4; ++t) {
+      final int offset = t;
+      Thread thread = new Thread() {
+        @Override
+        public void run() {
+          for (int i = 0; i < 10000; ++i) {
+            long key = (i * 7 + offset) % 500;
+            int[] value = cache.get(key);
+            if (value == null) {
+              cache.put(key, new int[] { (int) key, 0, 0 });
+            } else {
+              assertEquals(key, value[0]);
+            }
+          }
+        }
+      };
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(40000, cache.getHitCount() + cache.getMissCount());
+    assertTrue(cache.getWeight() <= 1000);
+    assertEquals(cache.size() * 3, cache.getWeight());
+  }
+}
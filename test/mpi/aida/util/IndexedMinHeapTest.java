@@ -0,0 +1,83 @@
+package mpi.aida.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class IndexedMinHeapTest {
+
+  @Test
+  public void testBasicOperations() {
+    IndexedMinHeap heap = new IndexedMinHeap(10);
+    assertTrue(heap.isEmpty());
+    assertEquals(-1, heap.peek());
+    assertEquals(Double.POSITIVE_INFINITY, heap.peekKey(), 0.0);
+
+    heap.add(3, 0.5);
+    heap.add(7, 0.2);
+    heap.add(1, 0.9);
+    heap.add(5, 0.2);
+    assertEquals(4, heap.size());
+    // Ties are broken by id.
+    assertEquals(5, heap.peek());
+    assertEquals(0.2, heap.peekKey(), 0.0);
+
+    heap.updateKey(1, 0.1);
+    assertEquals(1, heap.peek());
+    heap.updateKey(1, 1.0);
+    assertEquals(5, heap.peek());
+
+    assertTrue(heap.remove(5));
+    assertFalse(heap.remove(5));
+    assertFalse(heap.contains(5));
+    assertEquals(7, heap.poll());
+    assertEquals(3, heap.poll());
+    assertEquals(1, heap.poll());
+    assertEquals(-1, heap.poll());
+  }
+
+  @Test
+  public void testAgainstPriorityQueue() {
+    Random r = new Random(1337);
+    int n = 500;
+    IndexedMinHeap heap = new IndexedMinHeap(n);
+    double[] keys = new double[n];
+    for (int i = 0; i < n; ++i) {
+      keys[i] = r.nextDouble();
+      heap.add(i, keys[i]);
+    }
+    // Decrease and remove random ids.
+    for (int i = 0; i < n / 2; ++i) {
+      int id = r.nextInt(n);
+      if (!heap.contains(id)) {
+        continue;
+      }
+      if (r.nextBoolean()) {
+        keys[id] -= r.nextDouble();
+        heap.updateKey(id, keys[id]);
+      } else {
+        heap.remove(id);
+        keys[id] = Double.NaN;
+      }
+    }
+    PriorityQueue<Double> expected = new PriorityQueue<Double>();
+    for (double k : keys) {
+      if (!Double.isNaN(k)) {
+        expected.add(k);
+      }
+    }
+    assertEquals(expected.size(), heap.size());
+    while (!expected.isEmpty()) {
+      double key = heap.peekKey();
+      int id = heap.poll();
+      assertEquals(expected.poll(), key, 0.0);
+      assertEquals(keys[id], key, 0.0);
+    }
+    assertTrue(heap.isEmpty());
+  }
+}
@@ -0,0 +1,36 @@
+package mpi.aida.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import gnu.trove.map.hash.TIntIntHashMap;
+import mpi.aida.data.Mention;
+
+import org.junit.Test;
+
+public class InputTextInvertedIndexTest {
+
+  @Test
+  public void testGetPositions() {
+    InputTextInvertedIndex index =
+        new InputTextInvertedIndex(new int[] { 1, 2, 3, 3, 1, 4, 1 }, false);
+    Mention mention = new Mention("mention", 2, 3, 0, 0, 0);
+    assertTrue(index.containsWord(1, mention));
+    assertFalse(index.containsWord(3, mention));
+    assertArrayEquals(new int[] { 0, 2, 4 }, index.getPositions(1, mention));
+    assertArrayEquals(new int[0], index.getPositions(3, mention));
+    assertArrayEquals(new int[] { 3 }, index.getPositions(4, mention));
+  }
+
+  @Test
+  public void testGetPositionsSorted() {
+    InputTextInvertedIndex index = new InputTextInvertedIndex();
+    TIntIntHashMap entries = new TIntIntHashMap();
+    entries.put(7, 20);
+    index.addToIndex(entries);
+    entries.put(7, 5);
+    index.addToIndex(entries);
+    Mention mention = new Mention("mention", 10, 10, 0, 0, 0);
+    assertArrayEquals(new int[] { 5, 19 }, index.getPositions(7, mention));
+  }
+}
@@ -0,0 +1,101 @@
+package mpi.aida.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class MinCoverCalculatorTest {
+
+  private MinCoverCalculator calculator = new MinCoverCalculator();
+
+  @Test
+  public void testDegenerate() {
+    assertEquals(-1, calculator.calculateMinCover().length);
+    assertEquals(-1, calculator.calculateMinCover(new int[] { 1 }, new int[0]).length);
+
+    MinCover single = calculator.calculateMinCover(new int[] { 3, 8 });
+    assertEquals(1, single.length);
+    assertEquals(2, single.startPositions.size());
+    assertEquals(8, single.endPositions.get(1));
+  }
+
+  @Test
+  public void testMinCover() {
+    MinCover minCover = calculator.calculateMinCover(
+        new int[] { 0, 10, 20 }, new int[] { 5, 13, 30 }, new int[] { 12, 40 });
+    assertEquals(4, minCover.length);
+    assertEquals(10, minCover.startPositions.get(0));
+    assertEquals(13, minCover.endPositions.get(0));
+  }
+
+  @Test
+  public void testReuse() {
+    MinCover minCover = new MinCover();
+    int[][] positions = new int[][] { { 1, 50 }, { 60 }, { 2 } };
+    calculator.calculateMinCover(positions, 2, minCover);
+    assertEquals(11, minCover.length);
+    assertEquals(1, minCover.startPositions.size());
+    calculator.calculateMinCover(positions, 3, minCover);
+    assertEquals(59, minCover.length);
+  }
+
+  @Test
+  public void testAgainstBruteForce() {
+    Random r = new Random(42);
+    for (int run = 0; run < 500; ++run) {
+      int symbols = 2 + r.nextInt(5);
+      int[][] positions = new int[symbols][];
+      for (int i = 0; i < symbols; ++i) {
+        positions[i] = new int[1 + r.nextInt(8)];
+        for (int j = 0; j < positions[i].length; ++j) {
+          positions[i][j] = r.nextInt(50);
+        }
+        Arrays.sort(positions[i]);
+      }
+      MinCover minCover = calculator.calculateMinCover(positions);
+      int expected = bruteForceLength(positions);
+      if (expected > symbols) {
+        assertEquals(expected, minCover.length);
+      } else {
+        // Stops at the first cover that cannot get shorter.
+        assertTrue(minCover.length <= symbols);
+      }
+      for (int i = 0; i < minCover.startPositions.size(); ++i) {
+        int start = minCover.startPositions.get(i);
+        int end = minCover.endPositions.get(i);
+        assertEquals(minCover.length, end - start + 1);
+        assertTrue(covers(positions, start, end));
+      }
+    }
+  }
+
+  private int bruteForceLength(int[][] positions) {
+    int best = Integer.MAX_VALUE;
+    for (int start = 0; start < 50; ++start) {
+      for (int end = start; end < 50; ++end) {
+        if (covers(positions, start, end)) {
+          best = Math.min(best, end - start + 1);
+          break;
+        }
+      }
+    }
+    return best;
+  }
+
+  private boolean covers(int[][] positions, int start, int end) {
+    for (int[] symbolPositions : positions) {
+      boolean found = false;
+      for (int position : symbolPositions) {
+        found |= position >= start && position <= end;
+      }
+      if (!found) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,75 @@
+package mpi.aida.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import gnu.trove.set.hash.TIntHashSet;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SortedIntArraysTest {
+
+  @Test
+  public void testSortedUnique() {
+    assertArrayEquals(new int[0], SortedIntArrays.sortedUnique(null));
+    assertArrayEquals(new int[] { 1, 3, 7 },
+        SortedIntArrays.sortedUnique(new int[] { 7, 3, 1, 3, 7, 7 }));
+  }
+
+  @Test
+  public void testIntersect() {
+    int[] out = new int[3];
+    assertEquals(0, SortedIntArrays.intersect(null, new int[] { 1 }, out));
+    assertEquals(2, SortedIntArrays.intersect(
+        new int[] { 1, 4, 5, 9 }, new int[] { 2, 4, 9 }, out));
+    assertEquals(4, out[0]);
+    assertEquals(9, out[1]);
+  }
+
+  @Test
+  public void testIntersectAgainstSets() {
+    Random r = new Random(42);
+    for (int run = 0; run < 200; ++run) {
+      // Mix of similar and very different sizes to cover both kernels.
+      int[] a = randomSorted(r, 1 + r.nextInt(10), 1000);
+      int[] b = randomSorted(r, 1 + r.nextInt(run % 2 == 0 ? 10 : 500), 1000);
+      TIntHashSet expected = new TIntHashSet(a);
+      expected.retainAll(b);
+      int[] expectedArray = expected.toArray();
+      Arrays.sort(expectedArray);
+
+      int[] out = new int[Math.min(a.length, b.length)];
+      int count = SortedIntArrays.intersect(a, b, out);
+      assertArrayEquals(expectedArray, Arrays.copyOf(out, count));
+      count = SortedIntArrays.intersect(b, a, out);
+      assertArrayEquals(expectedArray, Arrays.copyOf(out, count));
+    }
+  }
+
+  @Test
+  public void testIntersectionCountAgainstSets() {
+    assertEquals(0, SortedIntArrays.intersectionCount(null, IntBuffer.wrap(new int[] { 1 })));
+    Random r = new Random(42);
+    for (int run = 0; run < 200; ++run) {
+      int[] a = randomSorted(r, 1 + r.nextInt(10), 1000);
+      int[] b = randomSorted(r, 1 + r.nextInt(run % 2 == 0 ? 10 : 500), 1000);
+      TIntHashSet expected = new TIntHashSet(a);
+      expected.retainAll(b);
+      assertEquals(expected.size(),
+          SortedIntArrays.intersectionCount(IntBuffer.wrap(a), IntBuffer.wrap(b)));
+      assertEquals(expected.size(),
+          SortedIntArrays.intersectionCount(IntBuffer.wrap(b), IntBuffer.wrap(a)));
+    }
+  }
+
+  private int[] randomSorted(Random r, int size, int max) {
+    int[] values = new int[size];
+    for (int i = 0; i < size; ++i) {
+      values[i] = r.nextInt(max);
+    }
+    return SortedIntArrays.sortedUnique(values);
+  }
+}
@@ -3,9 +3,11 @@ package mpi.aida.util;
 import org.joda.time.DateTime;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertTrue;
@@ -43,4 +45,19 @@ public class StringUtilsTest {
     assertTrue(ngrams.contains("cd_"));
     assertTrue(ngrams.contains("d__"));
   }
+
+  @Test
+  public void testGetNgramHashes() {
+    for (String s : new String[] { "a", "ab", "abcd", "Kashmir", "" }) {
+      for (int length = 1; length <= 3; ++length) {
+        int[] expected = new int[0];
+        for (String ngram : StringUtils.getNgrams(s, length)) {
+          expected = Arrays.copyOf(expected, expected.length + 1);
+          expected[expected.length - 1] = ngram.hashCode();
+        }
+        assertArrayEquals(SortedIntArrays.sortedUnique(expected),
+            StringUtils.getNgramHashes(s, length));
+      }
+    }
+  }
 }
@@ -0,0 +1,110 @@
+package mpi.aida.util.pipeline;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class PipelineTest {
+
+  private static class Item {
+    private final int value;
+    private int doubled;
+
+    public Item(int value) {
+      this.value = value;
+    }
+  }
+
+  @Test
+  public void testRun() throws InterruptedException {
+    final List<Integer> results = Collections.synchronizedList(new ArrayList<Integer>());
+    Pipeline<Item> pipeline = new Pipeline<Item>("test", 2);
+    pipeline.addStage("double", 3, new StageProcessor<Item>() {
+
+      @Override
+      public boolean process(Item item) throws Exception {
+        if (item.value % 10 == 0) {
+          throw new IllegalStateException("Failing on purpose.");
+        }
+        item.doubled = 2 * item.value;
+        return item.value % 2 == 1;
+      }
+    });
+    pipeline.addStage("collect", 2, new StageProcessor<Item>() {
+
+      @Override
+      public boolean process(Item item) throws Exception {
+        results.add(item.doubled);
+        return true;
+      }
+    });
+    List<Item> items = new ArrayList<Item>();
+    for (int i = 1; i <= 100; ++i) {
+      items.add(new Item(i));
+    }
+    pipeline.run(items.iterator());
+
+    Collections.sort(results);
+    assertEquals(50, results.size());
+    for (int i = 0; i < results.size(); ++i) {
+      assertEquals(2 * (2 * i + 1), (int) results.get(i));
+    }
+    Map<String, Long> stats = pipeline.getStatistics();
+    assertEquals(100L, (long) stats.get(Pipeline.READ_STAGE + ".processed"));
+    assertEquals(90L, (long) stats.get("double.processed"));
+    assertEquals(10L, (long) stats.get("double.failed"));
+    assertEquals(50L, (long) stats.get("collect.processed"));
+    assertEquals(3L, (long) stats.get("double.workers"));
+  }
+
+  @Test
+  public void testEmptySource() throws InterruptedException {
+    Pipeline<Item> pipeline = new Pipeline<Item>("test", 1);
+    pipeline.addStage("noop", 2, new StageProcessor<Item>() {
+
+      @Override
+      public boolean process(Item item) throws Exception {
+        return true;
+      }
+    });
+    pipeline.run(new ArrayList<Item>().iterator());
+    assertEquals(0L, (long) pipeline.getStatistics().get("noop.processed"));
+  }
+
+  @Test(timeout = 60000)
+  public void testErrorsDoNotStopTheWorkers() throws InterruptedException {
+    final List<Integer> results = Collections.synchronizedList(new ArrayList<Integer>());
+    Pipeline<Item> pipeline = new Pipeline<Item>("test", 1);
+    pipeline.addStage("fail", 1, new StageProcessor<Item>() {
+
+      @Override
+      public boolean process(Item item) throws Exception {
+        if (item.value % 2 == 0) {
+          throw new StackOverflowError("Failing on purpose.");
+        }
+        return true;
+      }
+    });
+    pipeline.addStage("collect", 1, new StageProcessor<Item>() {
+
+      @Override
+      public boolean process(Item item) throws Exception {
+        results.add(item.value);
+        return true;
+      }
+    });
+    List<Item> items = new ArrayList<Item>();
+    for (int i = 1; i <= 10; ++i) {
+      items.add(new Item(i));
+    }
+    pipeline.run(items.iterator());
+
+    assertEquals(5, results.size());
+    assertEquals(5L, (long) pipeline.getStatistics().get("fail.failed"));
+  }
+}
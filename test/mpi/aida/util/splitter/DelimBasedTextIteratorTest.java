@@ -0,0 +1,48 @@
+package mpi.aida.util.splitter;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class DelimBasedTextIteratorTest {
+
+  private List<String> iterate(String content, String delim) {
+    List<String> documents = new ArrayList<String>();
+    DelimBasedTextIterator itr = new DelimBasedTextIterator(
+        new BufferedReader(new StringReader(content)), delim);
+    while (itr.hasNext()) {
+      documents.add(itr.next());
+    }
+    return documents;
+  }
+
+  /**
+   * The content must end with a line break, as files are read line by line.
+   */
+  private void assertSameAsSplitter(String content, String delim) {
+    assertEquals(DelimBasedTextSplitter.split(content, delim), iterate(content, delim));
+  }
+
+  @Test
+  public void testSameAsSplitter() {
+    assertSameAsSplitter("<doc>\nJimmy Page\n</doc>\n<doc>\nRobert Plant\n</doc>\n", "<doc>");
+    assertSameAsSplitter("preamble\n<doc>one</doc><doc>two</doc>\n<doc>\n", "<doc>");
+    assertSameAsSplitter("no delimiter at all\n", "<doc>");
+    assertSameAsSplitter("", "<doc>");
+    assertSameAsSplitter("<doc>\n<d\noc>\n<doc><doc>\n", "<doc>");
+    assertSameAsSplitter("###\na\n###\nb\n###\n", "###\n");
+  }
+
+  @Test
+  public void testDocuments() {
+    List<String> documents = iterate("x\n<doc>Led\n<doc>Zeppelin\n", "<doc>");
+    assertEquals(2, documents.size());
+    assertEquals("<doc>Led\n", documents.get(0));
+    assertEquals("<doc>Zeppelin\n", documents.get(1));
+  }
+}
@@ -0,0 +1,75 @@
+package mpi.aida.util.timing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void testBuckets() {
+    long previous = -1;
+    for (long value : new long[] { 0, 1, 15, 16, 17, 31, 32, 33, 1000, 123456789L,
+        Long.MAX_VALUE / 3, Long.MAX_VALUE }) {
+      int bucket = LatencyHistogram.getBucket(value);
+      long upperBound = LatencyHistogram.getBucketUpperBound(bucket);
+      assertTrue(value + " exceeds its bucket", value <= upperBound);
+      // Buckets are at most 1/16 of their values wide.
+      assertTrue(value + " is too far from its bound", upperBound - value <= value / 16);
+      assertTrue(upperBound >= previous);
+      previous = upperBound;
+    }
+    assertEquals(LatencyHistogram.getBucket(32), LatencyHistogram.getBucket(33));
+  }
+
+  @Test
+  public void testPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.getPercentile(50));
+    for (int i = 1; i <= 1000; ++i) {
+      histogram.record(i * 1000L);
+    }
+    assertEquals(1000, histogram.getCount());
+    assertEquals(1000000, histogram.getMax());
+    assertEquals(500500.0, histogram.getMean(), 0.0);
+    assertEquals(500000, histogram.getPercentile(50), 500000 / 16);
+    assertEquals(990000, histogram.getPercentile(99), 990000 / 16);
+    assertEquals(1000000, histogram.getPercentile(100));
+
+    Map<String, Long> snapshot = histogram.getSnapshot();
+    assertEquals(1000, (long) snapshot.get("count"));
+    assertEquals(1000, (long) snapshot.get("maxMicros"));
+    assertEquals(950, snapshot.get("p95Micros"), 950 / 16);
+
+    histogram.reset();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMax());
+    assertEquals(0, histogram.getPercentile(99));
+  }
+
+  @Test
+  public void testConcurrentRecording() throws InterruptedException {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; ++t) {
+      threads[t] = new Thread() {
+
+        @Override
+        public void run() {
+          for (int i = 0; i < 10000; ++i) {
+            histogram.record(i);
+          }
+        }
+      };
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(40000, histogram.getCount());
+    assertEquals(9999, histogram.getMax());
+  }
+}
@@ -0,0 +1,93 @@
+package mpi.aida.util.timing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import mpi.aida.util.timing.data.Module;
+import mpi.aida.util.timing.data.TimingInfo;
+import mpi.aida.util.timing.tracker.MetricsRunningTimeTracker;
+
+import org.junit.Test;
+
+public class MetricsRegistryTest {
+
+  @Test
+  public void testCounters() {
+    MetricsRegistry registry = new MetricsRegistry();
+    registry.increment("a", 1);
+    registry.increment("a", 2);
+    registry.increment("b", 5);
+    assertEquals(3, registry.getCount("a"));
+    assertEquals(0, registry.getCount("c"));
+    assertEquals("{a=3, b=5}", registry.getCounterSnapshot().toString());
+    registry.reset();
+    assertEquals(0, registry.getCount("a"));
+  }
+
+  @Test
+  public void testTracker() {
+    MetricsRegistry registry = new MetricsRegistry();
+    MetricsRunningTimeTracker tracker = new MetricsRunningTimeTracker(registry);
+    for (int i = 0; i < 3; ++i) {
+      Integer outer = tracker.recordStartTime("Outer");
+      Integer inner = tracker.recordStartTime("Inner");
+      tracker.recordEndTime("Inner", inner);
+      tracker.recordEndTime("Outer", outer);
+    }
+    assertEquals(0, tracker.getCallsInFlight());
+    assertEquals(3, registry.getLatencies("Outer").getCount());
+    assertTrue(registry.getLatencySnapshot().containsKey("Inner"));
+
+    TimingInfo info = tracker.getTrackedInfo();
+    Module outer = info.getModule("Outer");
+    assertEquals(1, outer.getExecutionLevel());
+    assertEquals(3, outer.getNumberOfCalls());
+    assertEquals(2, info.getModule("Inner").getExecutionLevel());
+
+    // Unknown ids are ignored.
+    assertEquals(0L, (long) tracker.recordEndTime("Outer", -1));
+    tracker.clearTrackedInfo();
+    assertEquals(0, registry.getLatencies("Outer").getCount());
+  }
+
+  @Test
+  public void testStartWithoutEnd() {
+    MetricsRegistry registry = new MetricsRegistry();
+    MetricsRunningTimeTracker tracker = new MetricsRunningTimeTracker(registry);
+    Integer outer = tracker.recordStartTime("Outer");
+    // Never ended, e.g. because of an exception.
+    tracker.recordStartTime("Failed");
+    tracker.recordEndTime("Outer", outer);
+    assertEquals(0, tracker.getCallsInFlight());
+    assertEquals(0, registry.getLatencies("Failed").getCount());
+
+    Integer next = tracker.recordStartTime("Next");
+    tracker.recordEndTime("Next", next);
+    TimingInfo info = tracker.getTrackedInfo();
+    assertEquals(1, info.getModule("Outer").getExecutionLevel());
+    assertEquals(1, info.getModule("Next").getExecutionLevel());
+  }
+
+  @Test
+  public void testOutermostStartWithoutEnd() throws InterruptedException {
+    MetricsRegistry registry = new MetricsRegistry();
+    MetricsRunningTimeTracker tracker =
+        new MetricsRunningTimeTracker(registry, 1, TimeUnit.MILLISECONDS);
+    Integer failed = tracker.recordStartTime("Failed");
+    Thread.sleep(10);
+    for (int i = 0; i < 4096; ++i) {
+      Integer id = tracker.recordStartTime("Call");
+      tracker.recordEndTime("Call", id);
+    }
+    assertEquals(0, tracker.getCallsInFlight());
+
+    Integer next = tracker.recordStartTime("Next");
+    tracker.recordEndTime("Next", next);
+    assertEquals(1, tracker.getTrackedInfo().getModule("Next").getExecutionLevel());
+    // Ending an expired call records nothing.
+    assertEquals(0L, (long) tracker.recordEndTime("Failed", failed));
+    assertEquals(0, registry.getLatencies("Failed").getCount());
+  }
+}
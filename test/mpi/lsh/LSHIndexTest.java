@@ -0,0 +1,94 @@
+package mpi.lsh;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import gnu.trove.set.hash.TIntHashSet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LSHIndexTest {
+
+  private static final List<String> NAMES = Arrays.asList(
+      "Jimmy Page", "Jimmy Pages", "Robert Plant", "John Paul Jones",
+      "John Bonham", "Led Zeppelin", "Københavns Universitet");
+
+  private File indexFile;
+
+  @Before
+  public void setUp() throws IOException {
+    indexFile = File.createTempFile("aida-test", ".lsh");
+    indexFile.delete();
+  }
+
+  @After
+  public void tearDown() {
+    indexFile.delete();
+    LSHIndex.getStringsFile(indexFile).delete();
+  }
+
+  private LSHIndex createIndex() throws Exception {
+    LSHIndex.build(NAMES, 3, 2, 8, 42L, 2, indexFile);
+    return new LSHIndex(indexFile);
+  }
+
+  private int ordinal(LSHIndex index, String name) {
+    for (int i = 0; i < index.size(); ++i) {
+      if (index.getItem(i).equals(name)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Test
+  public void testItems() throws Exception {
+    LSHIndex index = createIndex();
+    assertEquals(NAMES.size(), index.size());
+    assertEquals(42L, index.getFingerprint());
+    assertTrue(index.hasParameters(3, 2, 8));
+    assertFalse(index.hasParameters(3, 4, 6));
+    for (String name : NAMES) {
+      assertTrue(ordinal(index, name) >= 0);
+    }
+  }
+
+  @Test
+  public void testSimilarItems() throws Exception {
+    LSHIndex index = createIndex();
+    // Identical strings share all buckets.
+    for (String name : NAMES) {
+      assertTrue(index.getSimilarItems(name).contains(ordinal(index, name)));
+    }
+    TIntHashSet similar = index.getSimilarItems("Jimmy Page", 0.5);
+    assertTrue(similar.contains(ordinal(index, "Jimmy Page")));
+    assertTrue(similar.contains(ordinal(index, "Jimmy Pages")));
+    assertFalse(similar.contains(ordinal(index, "Robert Plant")));
+    similar = index.getSimilarItems("Jimmy Page", 0.9);
+    assertTrue(similar.contains(ordinal(index, "Jimmy Page")));
+    assertFalse(similar.contains(ordinal(index, "Jimmy Pages")));
+  }
+
+  @Test
+  public void testInvalidFile() throws Exception {
+    createIndex();
+    try (RandomAccessFile raf = new RandomAccessFile(indexFile, "rw")) {
+      raf.setLength(raf.length() - 8);
+    }
+    try {
+      new LSHIndex(indexFile);
+      fail("Truncated indexes must be rejected.");
+    } catch (IOException e) {
+      // Expected.
+    }
+  }
+}
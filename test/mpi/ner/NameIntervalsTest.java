@@ -0,0 +1,52 @@
+package mpi.ner;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+public class NameIntervalsTest {
+
+  private Name createName(String text, int start, String annotatorId) {
+    Name name = new Name(text, start);
+    name.setNerAnnotatorId(annotatorId);
+    return name;
+  }
+
+  @Test
+  public void testReconcile() {
+    NameIntervals intervals = new NameIntervals();
+    intervals.add(createName("Plant", 30, "a"));
+    intervals.add(createName("Jimmy", 0, "a"));
+    intervals.add(createName("Jimmy Page", 0, "b"));
+    intervals.add(createName("Page", 6, "a"));
+    intervals.add(createName("Robert Plant", 23, "a"));
+    intervals.add(createName("Kashmir", 60, "b"));
+    List<Name> names = intervals.reconcile();
+    assertEquals(3, names.size());
+    assertEquals("Jimmy Page", names.get(0).getName());
+    assertEquals(2, names.get(0).getScore(), 0.0);
+    assertEquals("Robert Plant", names.get(1).getName());
+    assertEquals(1, names.get(1).getScore(), 0.0);
+    assertEquals("Kashmir", names.get(2).getName());
+  }
+
+  @Test
+  public void testTiesKeepFirst() {
+    NameIntervals intervals = new NameIntervals();
+    for (int i = 0; i < 40; ++i) {
+      intervals.add(createName("Page" + (i % 10), 100 * i, null));
+    }
+    intervals.add(createName("Plant", 0, null));
+    List<Name> names = intervals.reconcile();
+    assertEquals(40, names.size());
+    assertEquals("Page0", names.get(0).getName());
+    assertEquals(1, names.get(0).getScore(), 0.0);
+  }
+
+  @Test
+  public void testEmpty() {
+    assertEquals(0, new NameIntervals().reconcile().size());
+  }
+}
@@ -0,0 +1,56 @@
+package mpi.ner.taggers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import mpi.ner.Name;
+import mpi.tokenizer.data.Tokenizer;
+import mpi.tokenizer.data.TokenizerManager;
+import mpi.tokenizer.data.Tokens;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class StanfordNERTest {
+
+  private static final String TEXT =
+      "Jimmy Page played Kashmir at Knebworth. Led Zeppelin toured the United States in 1977.";
+
+  private static StanfordNER ner;
+
+  @BeforeClass
+  public static void setUp() {
+    ner = new StanfordNER();
+  }
+
+  private List<String> toStrings(List<Name> names) {
+    List<String> strings = new ArrayList<>();
+    for (Name name : names) {
+      strings.add(name.getName() + "@" + name.getStart());
+    }
+    return strings;
+  }
+
+  @Test
+  public void testTaggedTokens() {
+    Tokens tokens = TokenizerManager.tokenize(TEXT, Tokenizer.type.ENGLISH_POS, false);
+    List<String> names = toStrings(ner.findNames("test", TEXT, tokens));
+    assertTrue(names.contains("Jimmy Page@0"));
+    assertEquals(toStrings(ner.findNames("test", TEXT)), names);
+  }
+
+  @Test
+  public void testUntaggedTokens() {
+    Tokens tokens = TokenizerManager.tokenize(TEXT, Tokenizer.type.ENGLISH_TOKENS, false);
+    assertEquals(toStrings(ner.findNames("test", TEXT)),
+        toStrings(ner.findNames("test", TEXT, tokens)));
+  }
+
+  @Test
+  public void testEmptyTokens() {
+    assertEquals(0, ner.findNames("test", "", new Tokens()).size());
+  }
+}
@@ -0,0 +1,36 @@
+package mpi.tokenizer.data;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TokenizerManagerTest {
+
+  @Test
+  public void testBatchTokenize() {
+    List<String> texts = new ArrayList<String>();
+    texts.add("Jimmy Page played Kashmir. Then Robert Plant sang.");
+    texts.add("   ");
+    texts.add("Knebworth Festival, 1979.");
+    List<Tokens> batch =
+        TokenizerManager.tokenize(texts, Tokenizer.type.ENGLISH_TOKENS, false);
+    assertEquals(texts.size(), batch.size());
+    assertEquals(0, batch.get(1).size());
+    for (int i = 0; i < texts.size(); ++i) {
+      Tokens single =
+          TokenizerManager.tokenize(texts.get(i), Tokenizer.type.ENGLISH_TOKENS, false);
+      assertEquals(single.size(), batch.get(i).size());
+      for (int t = 0; t < single.size(); ++t) {
+        Token expected = single.getToken(t);
+        Token actual = batch.get(i).getToken(t);
+        assertEquals(expected.getOriginal(), actual.getOriginal());
+        assertEquals(expected.getBeginIndex(), actual.getBeginIndex());
+        assertEquals(expected.getSentence(), actual.getSentence());
+      }
+    }
+    assertEquals(2, batch.get(0).getSentenceTokens().size());
+  }
+}